@@ -0,0 +1,96 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.security.MessageDigest;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mjerenje dobiti od ponovnog korištenja primjeraka razreda {@link Cipher} i
+ * {@link MessageDigest} (vidjeti {@link CryptoContext}) pri obradi mnogo malih
+ * datoteka. Svaki poziv obrađuje jednu "datoteku" veličine
+ * <code>fileSize</code> iz memorije, kako bi se mjerio samo trošak
+ * stvaranja i inicijalizacije, a ne čitanja s diska. Metode s nastavkom
+ * <code>Fresh</code> svaki put stvaraju nove primjerke, a one s nastavkom
+ * <code>Cached</code> koriste primjerke trenutne dretve.
+ *
+ * Pokretanje:
+ *
+ * <pre>
+ * mvn -Pjmh package
+ * java -jar target/benchmarks.jar CryptoContextBenchmark
+ * </pre>
+ *
+ * @author Davor Češljaš
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CryptoContextBenchmark {
+
+	private static final byte[] KEY = Util.hextobyte("a52217e3ee213ef1ffdee3a192e2ac7e");
+
+	private static final byte[] IV = Util.hextobyte("000102030405060708090a0b0c0dfeff");
+
+	private static final String ALGORITHM = "AES";
+
+	@Param({ "1024", "4096", "16384", "65536" })
+	public int fileSize;
+
+	private byte[] data;
+
+	private byte[] output;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		data = new byte[fileSize];
+		new Random(42).nextBytes(data);
+		output = new byte[fileSize + 16];
+	}
+
+	@Benchmark
+	public int encryptFresh() throws Exception {
+		Cipher cipher = Cipher.getInstance(CipherMode.CBC.transformation(ALGORITHM));
+		cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(KEY, ALGORITHM), new IvParameterSpec(IV));
+		return cipher.doFinal(data, 0, data.length, output);
+	}
+
+	@Benchmark
+	public int encryptCached() throws Exception {
+		Cipher cipher = CryptoContext.initCipher(true, KEY, IV, ALGORITHM, CipherMode.CBC);
+		return cipher.doFinal(data, 0, data.length, output);
+	}
+
+	@Benchmark
+	public byte[] digestFresh() throws Exception {
+		MessageDigest md = MessageDigest.getInstance(Crypto.DIGEST_ALGORITHM);
+		md.update(data);
+		return md.digest();
+	}
+
+	@Benchmark
+	public byte[] digestCached() throws Exception {
+		MessageDigest md = CryptoContext.digest(Crypto.DIGEST_ALGORITHM);
+		md.update(data);
+		return md.digest();
+	}
+}
@@ -0,0 +1,119 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mjerenje performansi kriptiranja i izračuna zaštitne sume za svaki od
+ * načina čitanja {@link IOMode}. Način {@link IOMode#STREAM} koristi
+ * {@link Crypto#cryptStream(Cipher, InputStream, OutputStream)} i
+ * {@link Crypto#calculateDigest(InputStream)}, a ostali {@link ChannelCrypto}.
+ *
+ * Pokretanje:
+ *
+ * <pre>
+ * mvn -Pjmh package
+ * java -jar target/benchmarks.jar CryptoIOBenchmark
+ * </pre>
+ *
+ * @author Davor Češljaš
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CryptoIOBenchmark {
+
+	private static final byte[] KEY = Util.hextobyte("a52217e3ee213ef1ffdee3a192e2ac7e");
+
+	private static final byte[] IV = Util.hextobyte("000102030405060708090a0b0c0dfeff");
+
+	@Param({ "STREAM", "MAPPED", "DIRECT" })
+	public String ioMode;
+
+	@Param({ "67108864" })
+	public int fileSize;
+
+	private Path input;
+
+	private Path output;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		byte[] data = new byte[fileSize];
+		new Random(42).nextBytes(data);
+		input = Files.createTempFile("crypto-bench", ".bin");
+		output = Files.createTempFile("crypto-bench", ".out");
+		Files.write(input, data);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		Files.deleteIfExists(input);
+		Files.deleteIfExists(output);
+	}
+
+	@Benchmark
+	public void encrypt() throws Exception {
+		Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+		cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(KEY, "AES"), new IvParameterSpec(IV));
+
+		IOMode mode = IOMode.forName(ioMode);
+		if (mode == IOMode.STREAM) {
+			try (InputStream is = new BufferedInputStream(Files.newInputStream(input));
+					OutputStream os = new BufferedOutputStream(Files.newOutputStream(output))) {
+				Crypto.cryptStream(cipher, is, os);
+			}
+		} else {
+			try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+					FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE,
+							StandardOpenOption.TRUNCATE_EXISTING)) {
+				new ChannelCrypto(mode, ChannelCrypto.DEFAULT_BUFFER_SIZE).crypt(cipher, in, out);
+			}
+		}
+	}
+
+	@Benchmark
+	public String digest() throws Exception {
+		IOMode mode = IOMode.forName(ioMode);
+		if (mode == IOMode.STREAM) {
+			try (InputStream is = new BufferedInputStream(Files.newInputStream(input))) {
+				return Crypto.calculateDigest(is);
+			}
+		}
+
+		try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+			return Util.bytetohex(new ChannelCrypto(mode, ChannelCrypto.DEFAULT_BUFFER_SIZE)
+					.digest(MessageDigest.getInstance("SHA-256"), in));
+		}
+	}
+}
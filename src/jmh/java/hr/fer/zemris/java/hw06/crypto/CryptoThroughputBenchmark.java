@@ -0,0 +1,142 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Cipher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Mjerenje propusnosti enkripcije i dekripcije datoteke na isti način kao i
+ * program {@link Crypto} (bez razgovora s korisnikom) ovisno o veličini
+ * spremnika, veličini datoteke, načinu čitanja i pisanja ({@link IOMode}) i
+ * načinu rada algoritma ({@link CipherMode}). U načinu {@link IOMode#STREAM}
+ * veličina spremnika je veličina pomoćnog polja i spremnika tokova, a u
+ * ostalim načinima veličina spremnika razreda {@link ChannelCrypto}.
+ * Propusnost u megabajtima po sekundi ispisuje se u stupcu
+ * <code>megabytes</code> (vidjeti {@link ThroughputCounter}), a zauzeće
+ * memorije u stupcu <code>gc.alloc.rate</code> ukoliko je uključen profil
+ * <code>gc</code>.
+ *
+ * Pokretanje (metoda {@link #main(String[])} sama uključuje profil
+ * <code>gc</code>):
+ *
+ * <pre>
+ * mvn -Pjmh package
+ * java -cp target/benchmarks.jar hr.fer.zemris.java.hw06.crypto.CryptoThroughputBenchmark
+ * java -jar target/benchmarks.jar CryptoThroughputBenchmark -prof gc -p fileSize=1048576
+ * </pre>
+ *
+ * @author Davor Češljaš
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CryptoThroughputBenchmark {
+
+	private static final byte[] KEY = Util.hextobyte("a52217e3ee213ef1ffdee3a192e2ac7e");
+
+	private static final byte[] IV = Util.hextobyte("000102030405060708090a0b0c0dfeff");
+
+	private static final String ALGORITHM = "AES";
+
+	@Param({ "4096", "65536", "1048576", "4194304" })
+	public int bufferSize;
+
+	@Param({ "1048576", "67108864" })
+	public int fileSize;
+
+	@Param({ "STREAM", "MAPPED", "DIRECT" })
+	public String ioMode;
+
+	@Param({ "CBC", "CTR" })
+	public String mode;
+
+	private Path plain;
+
+	private Path encrypted;
+
+	private Path output;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		byte[] data = new byte[fileSize];
+		new Random(42).nextBytes(data);
+		plain = Files.createTempFile("crypto-bench", ".bin");
+		encrypted = Files.createTempFile("crypto-bench", ".crypted");
+		output = Files.createTempFile("crypto-bench", ".out");
+		Files.write(plain, data);
+		Files.write(encrypted, cipher(true).doFinal(data));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		Files.deleteIfExists(plain);
+		Files.deleteIfExists(encrypted);
+		Files.deleteIfExists(output);
+	}
+
+	@Benchmark
+	public void encrypt(ThroughputCounter counter) throws Exception {
+		crypt(true, plain);
+		counter.add(fileSize);
+	}
+
+	@Benchmark
+	public void decrypt(ThroughputCounter counter) throws Exception {
+		crypt(false, encrypted);
+		counter.add(fileSize);
+	}
+
+	private void crypt(boolean encrypt, Path from) throws Exception {
+		IOMode io = IOMode.forName(ioMode);
+		if (io == IOMode.STREAM) {
+			try (InputStream is = new BufferedInputStream(Files.newInputStream(from), bufferSize);
+					OutputStream os = new BufferedOutputStream(Files.newOutputStream(output), bufferSize)) {
+				Crypto.cryptStream(cipher(encrypt), is, os, bufferSize);
+			}
+		} else {
+			try (FileChannel in = FileChannel.open(from, StandardOpenOption.READ);
+					FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE,
+							StandardOpenOption.TRUNCATE_EXISTING)) {
+				new ChannelCrypto(io, bufferSize).crypt(cipher(encrypt), in, out);
+			}
+		}
+	}
+
+	private Cipher cipher(boolean encrypt) throws Exception {
+		return CryptoContext.initCipher(encrypt, KEY, IV, ALGORITHM, CipherMode.forName(mode));
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(CryptoThroughputBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,97 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Mjerenje propusnosti izračuna zaštitne sume datoteke (vidjeti
+ * {@link Crypto#calculateDigest(InputStream, int)} i {@link ChannelCrypto})
+ * ovisno o veličini spremnika, veličini datoteke i načinu čitanja
+ * ({@link IOMode}). Propusnost se ispisuje kao i kod
+ * {@link CryptoThroughputBenchmark}.
+ *
+ * Pokretanje:
+ *
+ * <pre>
+ * mvn -Pjmh package
+ * java -cp target/benchmarks.jar hr.fer.zemris.java.hw06.crypto.DigestThroughputBenchmark
+ * </pre>
+ *
+ * @author Davor Češljaš
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DigestThroughputBenchmark {
+
+	@Param({ "4096", "65536", "1048576", "4194304" })
+	public int bufferSize;
+
+	@Param({ "1048576", "67108864" })
+	public int fileSize;
+
+	@Param({ "STREAM", "MAPPED", "DIRECT" })
+	public String ioMode;
+
+	private Path input;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		byte[] data = new byte[fileSize];
+		new Random(42).nextBytes(data);
+		input = Files.createTempFile("digest-bench", ".bin");
+		Files.write(input, data);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		Files.deleteIfExists(input);
+	}
+
+	@Benchmark
+	public String digest(ThroughputCounter counter) throws Exception {
+		counter.add(fileSize);
+		IOMode io = IOMode.forName(ioMode);
+		if (io == IOMode.STREAM) {
+			try (InputStream is = new BufferedInputStream(Files.newInputStream(input), bufferSize)) {
+				return Crypto.calculateDigest(is, bufferSize);
+			}
+		}
+
+		try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+			return Util.bytetohex(
+					new ChannelCrypto(io, bufferSize).digest(CryptoContext.digest(Crypto.DIGEST_ALGORITHM), in));
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(DigestThroughputBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,108 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Usporedba tabličnog heksadekadskog kodiranja iz razreda {@link Util} s
+ * prijašnjom implementacijom koja je koristila
+ * {@link String#format(String, Object...)}, regularni izraz i
+ * {@link Character#digit(char, int)}. Metode s nastavkom <code>Legacy</code>
+ * koriste prijašnju implementaciju, metode bez nastavka postojeće metode
+ * koje vraćaju novi primjerak, a metode s nastavkom <code>Into</code>
+ * zapisuju rezultat u polje koje je zauzeto unaprijed. Za mjerenje zauzeća
+ * memorije dodati <code>-prof gc</code>.
+ *
+ * Pokretanje:
+ *
+ * <pre>
+ * mvn -Pjmh package
+ * java -jar target/benchmarks.jar HexCodecBenchmark
+ * </pre>
+ *
+ * @author Davor Češljaš
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HexCodecBenchmark {
+
+	@Param({ "16", "32", "4096" })
+	public int size;
+
+	private byte[] bytes;
+
+	private String hex;
+
+	private char[] chars;
+
+	private byte[] decoded;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		bytes = new byte[size];
+		new Random(42).nextBytes(bytes);
+		hex = Util.bytetohex(bytes);
+		chars = new char[size * 2];
+		decoded = new byte[size];
+	}
+
+	@Benchmark
+	public String encodeLegacy() {
+		StringBuilder sb = new StringBuilder();
+		for (byte b : bytes) {
+			sb.append(String.format("%02X", b));
+		}
+		return sb.toString().toLowerCase();
+	}
+
+	@Benchmark
+	public String encode() {
+		return Util.bytetohex(bytes);
+	}
+
+	@Benchmark
+	public char[] encodeInto() {
+		Util.bytetohex(bytes, 0, bytes.length, chars, 0);
+		return chars;
+	}
+
+	@Benchmark
+	public byte[] decodeLegacy() {
+		if (hex.length() % 2 == 1 || !hex.matches("[\\p{XDigit}]+")) {
+			throw new IllegalArgumentException();
+		}
+		byte[] data = new byte[hex.length() / 2];
+		for (int i = 0; i < hex.length(); i += 2) {
+			data[i / 2] = (byte) ((Character.digit(hex.charAt(i), 16) << 4) + Character.digit(hex.charAt(i + 1), 16));
+		}
+		return data;
+	}
+
+	@Benchmark
+	public byte[] decode() {
+		return Util.hextobyte(hex);
+	}
+
+	@Benchmark
+	public byte[] decodeInto() {
+		Util.hextobyte(hex, 0, hex.length(), decoded, 0);
+		return decoded;
+	}
+}
@@ -0,0 +1,89 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Mjerenje propusnosti heksadekadskog kodiranja iz razreda {@link Util} nad
+ * podacima u memoriji koji se pretvaraju u dijelovima veličine
+ * <code>bufferSize</code>, kao što to rade {@link HexEncodingOutputStream} i
+ * {@link HexDecodingInputStream}. Propusnost (prema broju okteta) ispisuje se
+ * kao i kod {@link CryptoThroughputBenchmark}.
+ *
+ * Pokretanje:
+ *
+ * <pre>
+ * mvn -Pjmh package
+ * java -cp target/benchmarks.jar hr.fer.zemris.java.hw06.crypto.HexThroughputBenchmark
+ * </pre>
+ *
+ * @author Davor Češljaš
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HexThroughputBenchmark {
+
+	@Param({ "4096", "65536", "1048576", "4194304" })
+	public int bufferSize;
+
+	@Param({ "16777216" })
+	public int dataSize;
+
+	private byte[] data;
+
+	private byte[] hex;
+
+	private byte[] chunk;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		data = new byte[dataSize];
+		new Random(42).nextBytes(data);
+		hex = new byte[2 * dataSize];
+		Util.bytetohex(data, 0, dataSize, hex, 0);
+		chunk = new byte[2 * bufferSize];
+	}
+
+	@Benchmark
+	public byte[] encode(ThroughputCounter counter) {
+		for (int offset = 0; offset < dataSize; offset += bufferSize) {
+			Util.bytetohex(data, offset, Math.min(bufferSize, dataSize - offset), chunk, 0);
+		}
+		counter.add(dataSize);
+		return chunk;
+	}
+
+	@Benchmark
+	public byte[] decode(ThroughputCounter counter) {
+		for (int offset = 0; offset < hex.length; offset += 2 * bufferSize) {
+			Util.hextobyte(hex, offset, Math.min(2 * bufferSize, hex.length - offset), chunk, 0);
+		}
+		counter.add(dataSize);
+		return chunk;
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(HexThroughputBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+}
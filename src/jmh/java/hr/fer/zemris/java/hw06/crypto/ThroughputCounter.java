@@ -0,0 +1,40 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Pomoćni brojač koji mjerenjima propusnosti dodaje stupac
+ * <code>megabytes</code>. Budući da su mjerenja u načinu
+ * {@link org.openjdk.jmh.annotations.Mode#Throughput} s jedinicom sekunda,
+ * JMH taj stupac ispisuje kao megabajte po sekundi.
+ *
+ * @author Davor Češljaš
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ThroughputCounter {
+
+	/** Konstanta koja predstavlja broj okteta u megabajtu */
+	private static final double MEGABYTE = 1024 * 1024;
+
+	public double megabytes;
+
+	@Setup(Level.Iteration)
+	public void reset() {
+		megabytes = 0;
+	}
+
+	/**
+	 * Metoda koja bilježi da je obrađeno <b>bytes</b> okteta
+	 *
+	 * @param bytes
+	 *            broj obrađenih okteta
+	 */
+	public void add(long bytes) {
+		megabytes += bytes / MEGABYTE;
+	}
+}
@@ -0,0 +1,37 @@
+package hr.fer.zemris.java.hw06.shell;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Pomoćni brojač koji mjerenjima propusnosti dodaje stupac <code>lines</code>.
+ * Budući da su mjerenja u načinu
+ * {@link org.openjdk.jmh.annotations.Mode#Throughput} s jedinicom sekunda,
+ * JMH taj stupac ispisuje kao broj redaka po sekundi.
+ *
+ * @author Davor Češljaš
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class LineCounter {
+
+	public long lines;
+
+	@Setup(Level.Iteration)
+	public void reset() {
+		lines = 0;
+	}
+
+	/**
+	 * Metoda koja bilježi da je ispisano <b>count</b> redaka
+	 *
+	 * @param count
+	 *            broj ispisanih redaka
+	 */
+	public void add(long count) {
+		lines += count;
+	}
+}
@@ -0,0 +1,125 @@
+package hr.fer.zemris.java.hw06.shell;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mjerenje broja redaka po sekundi koje naredbe 'tree', 'cat' i 'hexdump'
+ * ispisuju kroz {@link MyShellEnvironment} uz svaki način pražnjenja
+ * izlaznog toka (vidjeti {@link FlushPolicy}). Izlaz se piše u
+ * <code>/dev/null</code>, pa svako pražnjenje toka predstavlja jedan sistemski
+ * poziv, a mjeri se samo trošak ljuske i pražnjenja, a ne terminala. Broj
+ * redaka po sekundi ispisuje se u stupcu <code>lines</code> (vidjeti
+ * {@link LineCounter}).
+ *
+ * Pokretanje (samo na sustavima s datotekom <code>/dev/null</code>):
+ *
+ * <pre>
+ * mvn -Pjmh package
+ * java -jar target/benchmarks.jar ShellOutputBenchmark
+ * </pre>
+ *
+ * @author Davor Češljaš
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ShellOutputBenchmark {
+
+	private static final String NULL_DEVICE = "/dev/null";
+
+	@Param({ "IMMEDIATE", "ADAPTIVE" })
+	public FlushPolicy policy;
+
+	@Param({ "tree", "cat", "hexdump" })
+	public String command;
+
+	private Path root;
+
+	private String line;
+
+	private long lines;
+
+	private FileOutputStream out;
+
+	private Environment env;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("shell-output");
+		switch (command) {
+		case "tree":
+			for (int i = 0; i < 20; i++) {
+				Path dir = Files.createDirectory(root.resolve("dir" + i));
+				for (int j = 0; j < 100; j++) {
+					Files.createFile(dir.resolve("file" + j + ".txt"));
+				}
+			}
+			line = "tree " + root;
+			break;
+		case "cat":
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < 20_000; i++) {
+				sb.append("redak ").append(i).append(" datoteke koja se ispisuje naredbom cat\n");
+			}
+			line = "cat " + Files.write(root.resolve("cat.txt"), sb.toString().getBytes(StandardCharsets.UTF_8));
+			break;
+		default:
+			byte[] data = new byte[1 << 16];
+			new Random(42).nextBytes(data);
+			line = "hexdump " + Files.write(root.resolve("hexdump.bin"), data);
+		}
+
+		StringWriter sample = new StringWriter();
+		MyShell.execute(new MyShellEnvironment(new BufferedReader(new StringReader("")), new BufferedWriter(sample)),
+				line);
+		lines = sample.toString().chars().filter(c -> c == '\n').count();
+
+		out = new FileOutputStream(NULL_DEVICE);
+		env = new MyShellEnvironment(new BufferedReader(new StringReader("")), out,
+				MyShellEnvironment.DEFAULT_BUFFER_SIZE, policy);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		out.close();
+		try (Stream<Path> paths = Files.walk(root)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	@Benchmark
+	public ShellStatus execute(LineCounter counter) {
+		ShellStatus status = MyShell.execute(env, line);
+		counter.add(lines);
+		return status;
+	}
+}
@@ -0,0 +1,394 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.crypto.Cipher;
+
+/**
+ * Razred koji izvodi jednu operaciju programa {@link Crypto} nad većim brojem
+ * datoteka unutar jednog pokretanja programa. Datoteke se obrađuju unutar
+ * bazena od zadanog broja dretvi. Za svaku obrađenu datoteku ispisuje se
+ * veličina, trajanje i propusnost obrade, a na kraju i ukupni sažetak.
+ *
+ * Datoteke se prikupljaju metodom {@link #collect(Path, String)} iz
+ * direktorija (rekurzivno) ili iz manifesta, odnosno tekstualne datoteke u
+ * kojoj je svaki redak putanja do jedne datoteke. Kriptirane datoteke
+ * spremaju se u ciljni direktorij pod istom relativnom putanjom (vidjeti
+ * {@link #targets(List, Path)}), a zaštitne
+ * sume ispisuju se u formatu programa <code>sha256sum</code>. Kako bi se
+ * ispis zaštitnih suma mogao izravno spremiti kao manifest, propusnost,
+ * pogreške i sažetak ispisuju se u zaseban tok.
+ *
+ * @see Crypto
+ *
+ * @author Davor Češljaš
+ */
+class BatchCrypto {
+
+	/**
+	 * Enumeracija koja oblikuje operacije koje se mogu izvoditi nad skupom
+	 * datoteka
+	 *
+	 * @author Davor Češljaš
+	 */
+	enum Operation {
+		/** Predstavlja enkripciju datoteka */
+		ENCRYPT,
+		/** Predstavlja dekripciju datoteka */
+		DECRYPT,
+		/** Predstavlja izračun zaštitne sume datoteka */
+		DIGEST
+	}
+
+	/** Konstanta koja predstavlja broj okteta u jednom megabajtu */
+	private static final double MEGABYTE = 1_000_000.0;
+
+	/** Konstanta koja predstavlja broj nanosekundi u jednoj sekundi */
+	private static final double NANOS_IN_SECOND = 1_000_000_000.0;
+
+	/** Konstanta koja predstavlja prefiks uzorka datoteka */
+	private static final String GLOB_PREFIX = "glob:";
+
+	/** Članska varijabla koja predstavlja operaciju koja se izvodi */
+	private final Operation operation;
+
+	/**
+	 * Članska varijabla koja predstavlja ključ i inicijalizacijski vektor ili
+	 * <code>null</code> za operaciju {@link Operation#DIGEST}
+	 */
+	private final Crypto.CipherParams params;
+
+	/** Članska varijabla koja predstavlja način čitanja i pisanja datoteka */
+	private final IOMode ioMode;
+
+	/** Članska varijabla koja predstavlja veličinu spremnika za kanale */
+	private final int bufferSize;
+
+	/** Članska varijabla koja predstavlja broj dretvi */
+	private final int threads;
+
+	/** Članska varijabla koja predstavlja tok u koji se ispisuju rezultati */
+	private final PrintStream out;
+
+	/**
+	 * Članska varijabla koja predstavlja tok u koji se ispisuju propusnost,
+	 * pogreške i sažetak
+	 */
+	private final PrintStream log;
+
+	/**
+	 * Članska varijabla koja predstavlja priručnu memoriju zaštitnih suma ili
+	 * <code>null</code> ukoliko se sume uvijek računaju
+	 */
+	private final DigestCache cache;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param operation
+	 *            operacija koja se izvodi
+	 * @param params
+	 *            ključ i inicijalizacijski vektor ili <code>null</code> za
+	 *            operaciju {@link Operation#DIGEST}
+	 * @param ioMode
+	 *            način čitanja i pisanja datoteka
+	 * @param bufferSize
+	 *            veličina spremnika za kanale
+	 * @param threads
+	 *            broj dretvi
+	 * @param out
+	 *            tok u koji se ispisuju rezultati
+	 * @param log
+	 *            tok u koji se ispisuju propusnost, pogreške i sažetak
+	 * @param cache
+	 *            priručna memorija zaštitnih suma ili <code>null</code>
+	 *            ukoliko se sume uvijek računaju
+	 */
+	BatchCrypto(Operation operation, Crypto.CipherParams params, IOMode ioMode, int bufferSize, int threads,
+			PrintStream out, PrintStream log, DigestCache cache) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Broj dretvi mora biti pozitivan!");
+		}
+
+		this.operation = operation;
+		this.params = params;
+		this.ioMode = ioMode;
+		this.bufferSize = bufferSize;
+		this.threads = threads;
+		this.out = out;
+		this.log = log;
+		this.cache = cache;
+	}
+
+	/**
+	 * Metoda koja prikuplja datoteke koje se obrađuju. Ukoliko je <b>source</b>
+	 * direktorij, prikupljaju se sve obične datoteke unutar njega
+	 * (rekurzivno), a inače se <b>source</b> tumači kao manifest u kojem je
+	 * svaki neprazan redak putanja do datoteke (relativne putanje tumače se
+	 * relativno na direktorij manifesta). Ukoliko je predan uzorak
+	 * <b>glob</b>, zadržavaju se samo datoteke čija relativna putanja odgovara
+	 * uzorku.
+	 *
+	 * @param source
+	 *            direktorij ili manifest
+	 * @param glob
+	 *            uzorak (vidjeti {@link FileSystems#getDefault()} i
+	 *            {@link java.nio.file.FileSystem#getPathMatcher(String)}) ili
+	 *            <code>null</code>
+	 * @return relativne putanje prikupljenih datoteka
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati direktorij ili manifest
+	 */
+	static List<Path> collect(Path source, String glob) throws IOException {
+		List<Path> files;
+		if (Files.isDirectory(source)) {
+			try (Stream<Path> stream = Files.walk(source)) {
+				files = stream.filter(Files::isRegularFile).map(source::relativize).sorted()
+						.collect(Collectors.toList());
+			}
+		} else {
+			files = Files.readAllLines(source, StandardCharsets.UTF_8).stream().map(String::trim)
+					.filter(line -> !line.isEmpty()).map(line -> source.getFileSystem().getPath(line))
+					.collect(Collectors.toList());
+		}
+
+		if (glob == null) {
+			return files;
+		}
+		PathMatcher matcher = source.getFileSystem().getPathMatcher(GLOB_PREFIX + glob);
+		return files.stream().filter(file -> matcher.matches(file) || matcher.matches(file.getFileName()))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Metoda koja obrađuje datoteke <b>files</b> unutar bazena dretvi. Putanje
+	 * datoteka tumače se relativno na <b>sourceRoot</b>, a kriptirane datoteke
+	 * spremaju se pod istom relativnom putanjom unutar <b>targetRoot</b>.
+	 * Metoda ispisuje rezultat za svaku datoteku čim je obrađena, a na kraju i
+	 * sažetak. Ciljne putanje provjeravaju se prije obrade prve datoteke.
+	 *
+	 * @param files
+	 *            datoteke koje se obrađuju
+	 * @param sourceRoot
+	 *            direktorij na koji su relativne putanje datoteka
+	 * @param targetRoot
+	 *            ciljni direktorij ili <code>null</code> za operaciju
+	 *            {@link Operation#DIGEST}
+	 * @return broj datoteka čija obrada nije uspjela
+	 * @throws InterruptedException
+	 *             ukoliko je dretva prekinuta dok čeka završetak obrade
+	 * @throws IllegalArgumentException
+	 *             ukoliko neka ciljna putanja nije valjana (vidjeti
+	 *             {@link #targets(List, Path)})
+	 */
+	int run(List<Path> files, Path sourceRoot, Path targetRoot) throws InterruptedException {
+		List<Path> targets = targetRoot == null ? null : targets(files, targetRoot);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		long start = System.nanoTime();
+
+		List<Future<Long>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < files.size(); i++) {
+				Path from = sourceRoot.resolve(files.get(i));
+				Path to = targets == null ? null : targets.get(i);
+				results.add(executor.submit(() -> processFile(from, to)));
+			}
+
+			long totalBytes = 0;
+			int failed = 0;
+			for (Future<Long> result : results) {
+				try {
+					totalBytes += result.get();
+				} catch (ExecutionException e) {
+					failed++;
+				}
+			}
+
+			double seconds = (System.nanoTime() - start) / NANOS_IN_SECOND;
+			log.println(String.format(
+					"Obrađeno %d od %d datoteka (%d neuspješno), ukupno %d okteta u %.3f s (%.2f MB/s).",
+					files.size() - failed, files.size(), failed, totalBytes, seconds,
+					throughput(totalBytes, seconds)));
+			if (cache != null) {
+				log.println(String.format("Iz priručne memorije preuzeto je %d, a izračunato %d zaštitnih suma.",
+						cache.getHits(), cache.getMisses()));
+			}
+			return failed;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Metoda koja računa ciljne putanje datoteka <b>files</b> unutar
+	 * direktorija <b>targetRoot</b>. Relativne putanje zadržavaju se, a od
+	 * apsolutnih se zadržava samo naziv datoteke. Putanje se normaliziraju, pa
+	 * se odbijaju one koje bi (npr. zbog "..") izašle iz ciljnog direktorija,
+	 * kao i dvije datoteke s istom ciljnom putanjom.
+	 *
+	 * @param files
+	 *            datoteke koje se obrađuju
+	 * @param targetRoot
+	 *            ciljni direktorij
+	 * @return ciljne putanje redom kojim su predane datoteke
+	 * @throws IllegalArgumentException
+	 *             ukoliko neka ciljna putanja izlazi iz ciljnog direktorija ili
+	 *             se ponavlja
+	 */
+	static List<Path> targets(List<Path> files, Path targetRoot) {
+		Path root = targetRoot.toAbsolutePath().normalize();
+		Map<Path, Path> sources = new HashMap<>();
+		List<Path> targets = new ArrayList<>(files.size());
+		for (Path file : files) {
+			Path to = root.resolve(file.isAbsolute() ? file.getFileName() : file).normalize();
+			if (!to.startsWith(root) || to.equals(root)) {
+				throw new IllegalArgumentException(String.format(
+						"Datoteka '%s' bila bi zapisana izvan ciljnog direktorija '%s'!", file, targetRoot));
+			}
+			Path previous = sources.putIfAbsent(to, file);
+			if (previous != null) {
+				throw new IllegalArgumentException(String.format(
+						"Datoteke '%s' i '%s' bile bi zapisane u istu datoteku '%s'!", previous, file, to));
+			}
+			targets.add(to);
+		}
+		return targets;
+	}
+
+	/**
+	 * Pomoćna metoda koja obrađuje jednu datoteku i ispisuje rezultat obrade.
+	 *
+	 * @param from
+	 *            putanja do datoteke koja se obrađuje
+	 * @param to
+	 *            putanja do kriptirane datoteke ili <code>null</code> za
+	 *            operaciju {@link Operation#DIGEST}
+	 * @return veličina obrađene datoteke u oktetima
+	 * @throws Exception
+	 *             ukoliko obrada nije uspjela
+	 */
+	private long processFile(Path from, Path to) throws Exception {
+		long start = System.nanoTime();
+		try {
+			long size = Files.size(from);
+			String digest = null;
+			if (operation == Operation.DIGEST) {
+				digest = digest(from);
+			} else {
+				Path parent = to.toAbsolutePath().getParent();
+				if (parent != null) {
+					Files.createDirectories(parent);
+				}
+				crypt(from, to);
+			}
+
+			double seconds = (System.nanoTime() - start) / NANOS_IN_SECOND;
+			String stats = String.format("%d okteta, %.3f s, %.2f MB/s", size, seconds, throughput(size, seconds));
+			if (digest == null) {
+				out.println(String.format("%s -> %s (%s)", from, to, stats));
+			} else {
+				out.println(String.format("%s  %s", digest, from));
+				log.println(String.format("%s (%s)", from, stats));
+			}
+			return size;
+		} catch (Exception e) {
+			log.println(String.format("Nisam uspio obraditi datoteku '%s': %s", from,
+					e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage()));
+			throw e;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja kriptira datoteku <b>from</b> u datoteku <b>to</b>.
+	 * Ukoliko kriptiranje ne uspije nakon otvaranja datoteke <b>to</b>, ona se
+	 * briše kako nepotpuni izlaz ne bi izgledao kao ispravan rezultat.
+	 *
+	 * @param from
+	 *            putanja do datoteke koja se kriptira
+	 * @param to
+	 *            putanja do kriptirane datoteke
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati u datoteke
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nije uspjelo
+	 */
+	private void crypt(Path from, Path to) throws IOException, GeneralSecurityException {
+		Cipher cipher = Crypto.initCipher(operation == Operation.ENCRYPT, params);
+		if (ioMode == IOMode.STREAM) {
+			try (InputStream is = new BufferedInputStream(Files.newInputStream(from))) {
+				try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(to))) {
+					Crypto.cryptStream(cipher, is, os);
+				} catch (IOException | GeneralSecurityException | RuntimeException e) {
+					Crypto.deleteQuietly(to);
+					throw e;
+				}
+			}
+		} else {
+			try (FileChannel in = FileChannel.open(from, StandardOpenOption.READ)) {
+				try (FileChannel out = FileChannel.open(to, StandardOpenOption.CREATE,
+						StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+					new ChannelCrypto(ioMode, bufferSize).crypt(cipher, in, out);
+				} catch (IOException | GeneralSecurityException | RuntimeException e) {
+					Crypto.deleteQuietly(to);
+					throw e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja računa zaštitnu sumu datoteke <b>file</b>. Ukoliko
+	 * je zadana priručna memorija, a datoteka se nije promijenila, suma se ne
+	 * računa ponovno.
+	 *
+	 * @param file
+	 *            putanja do datoteke
+	 * @return zaštitna suma u heksadekadskom obliku
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati datoteku
+	 * @throws GeneralSecurityException
+	 *             ukoliko ne postoji algoritam zaštitne sume
+	 */
+	private String digest(Path file) throws IOException, GeneralSecurityException {
+		if (cache == null) {
+			return Crypto.calculateDigest(file, ioMode, bufferSize);
+		}
+		return cache.digest(file, Crypto.DIGEST_ALGORITHM, path -> Crypto.calculateDigest(path, ioMode, bufferSize));
+	}
+
+	/**
+	 * Pomoćna metoda koja računa propusnost u megabajtima po sekundi
+	 *
+	 * @param bytes
+	 *            broj obrađenih okteta
+	 * @param seconds
+	 *            trajanje obrade u sekundama
+	 * @return propusnost u megabajtima po sekundi
+	 */
+	private static double throughput(long bytes, double seconds) {
+		return seconds == 0 ? 0 : bytes / MEGABYTE / seconds;
+	}
+}
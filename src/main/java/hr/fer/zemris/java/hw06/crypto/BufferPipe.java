@@ -0,0 +1,320 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Razred koji povezuje dvije dretve ograničenim redom spremnika. Dretva
+ * proizvođač dohvaća slobodan spremnik ({@link #acquire()}), puni ga i šalje
+ * ({@link #send(Buffer)}), a dretva potrošač prima spremnik
+ * ({@link #receive()}), obrađuje ga i vraća u skup slobodnih spremnika
+ * ({@link #release(Buffer)}). Svi spremnici stvaraju se u konstruktoru, pa je
+ * zauzeće memorije ograničeno na {@code bufferCount * bufferSize} okteta, a
+ * proizvođač čeka kada potrošač zaostaje.
+ * <p>
+ * Proizvođač kraj podataka označava metodom {@link #close()}. Ukoliko bilo
+ * koja strana ne uspije obraditi podatke, poziva metodu
+ * {@link #abort(Throwable)}, nakon čega sve metode koje čekaju bacaju
+ * iznimku, pa nijedna dretva ne ostaje trajno blokirana. Metode
+ * {@link #outputStream()} i {@link #inputStream()} omogućuju korištenje reda
+ * preko tokova okteta.
+ *
+ * @see CompressingCrypto
+ * @see PipelinedCrypto
+ *
+ * @author Davor Češljaš
+ */
+final class BufferPipe {
+
+	/** Konstanta koja predstavlja oznaku kraja podataka */
+	private static final Buffer END = new Buffer(0);
+
+	/** Konstanta koja predstavlja oznaku prekida obrade */
+	private static final Buffer ABORT = new Buffer(0);
+
+	/** Članska varijabla koja predstavlja red slobodnih spremnika */
+	private final BlockingQueue<Buffer> free;
+
+	/** Članska varijabla koja predstavlja red poslanih spremnika */
+	private final BlockingQueue<Buffer> full;
+
+	/** Članska varijabla koja predstavlja ukupan broj poslanih okteta */
+	private final AtomicLong transferred = new AtomicLong();
+
+	/** Članska varijabla koja predstavlja uzrok prekida obrade */
+	private volatile Throwable failure;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param bufferCount
+	 *            broj spremnika
+	 * @param bufferSize
+	 *            veličina jednog spremnika
+	 * @throws IllegalArgumentException
+	 *             ukoliko broj ili veličina spremnika nisu pozitivni
+	 */
+	BufferPipe(int bufferCount, int bufferSize) {
+		if (bufferCount <= 0 || bufferSize <= 0) {
+			throw new IllegalArgumentException("Broj i veličina spremnika moraju biti pozitivni!");
+		}
+
+		// jedno dodatno mjesto za oznaku kraja ili prekida
+		free = new ArrayBlockingQueue<>(bufferCount + 1);
+		full = new ArrayBlockingQueue<>(bufferCount + 1);
+		for (int i = 0; i < bufferCount; i++) {
+			free.add(new Buffer(bufferSize));
+		}
+	}
+
+	/**
+	 * Metoda koja dohvaća slobodan spremnik, čekajući ukoliko su svi spremnici
+	 * zauzeti
+	 *
+	 * @return prazan spremnik
+	 * @throws IOException
+	 *             ukoliko je obrada prekinuta
+	 */
+	Buffer acquire() throws IOException {
+		Buffer buffer = take(free);
+		buffer.length = 0;
+		return buffer;
+	}
+
+	/**
+	 * Metoda koja potrošaču šalje napunjeni spremnik
+	 *
+	 * @param buffer
+	 *            spremnik dohvaćen metodom {@link #acquire()}
+	 * @throws IOException
+	 *             ukoliko je obrada prekinuta
+	 */
+	void send(Buffer buffer) throws IOException {
+		checkFailure();
+		transferred.addAndGet(buffer.length);
+		full.add(buffer);
+	}
+
+	/**
+	 * Metoda koja prima sljedeći poslani spremnik, čekajući ukoliko on još
+	 * nije poslan
+	 *
+	 * @return spremnik ili <code>null</code> ukoliko je proizvođač označio
+	 *         kraj podataka
+	 * @throws IOException
+	 *             ukoliko je obrada prekinuta
+	 */
+	Buffer receive() throws IOException {
+		Buffer buffer = take(full);
+		if (buffer == END) {
+			// oznaka ostaje u redu za ponovljene pozive
+			full.add(END);
+			return null;
+		}
+		return buffer;
+	}
+
+	/**
+	 * Metoda koja obrađeni spremnik vraća u skup slobodnih spremnika
+	 *
+	 * @param buffer
+	 *            spremnik dohvaćen metodom {@link #receive()}
+	 */
+	void release(Buffer buffer) {
+		free.add(buffer);
+	}
+
+	/**
+	 * Metoda kojom proizvođač označava kraj podataka
+	 *
+	 * @throws IOException
+	 *             ukoliko je obrada prekinuta
+	 */
+	void close() throws IOException {
+		checkFailure();
+		full.add(END);
+	}
+
+	/**
+	 * Metoda koja prekida obradu i budi obje dretve. Svi sljedeći pozivi
+	 * metoda koje čekaju bacaju iznimku čiji je uzrok <b>cause</b>.
+	 *
+	 * @param cause
+	 *            uzrok prekida
+	 */
+	void abort(Throwable cause) {
+		if (failure == null) {
+			failure = cause != null ? cause : new IOException("Obrada podataka je prekinuta!");
+		}
+		free.offer(ABORT);
+		full.offer(ABORT);
+	}
+
+	/**
+	 * Metoda koja vraća ukupan broj okteta poslanih kroz red
+	 *
+	 * @return broj poslanih okteta
+	 */
+	long getTransferred() {
+		return transferred.get();
+	}
+
+	/**
+	 * Metoda koja vraća izlazni tok okteta koji pisane podatke šalje kroz red.
+	 * Zatvaranjem toka šalje se i oznaka kraja podataka, pa se tok ne smije
+	 * zatvarati ukoliko pisanje nije uspjelo.
+	 *
+	 * @return izlazni tok proizvođača
+	 */
+	OutputStream outputStream() {
+		return new OutputStream() {
+
+			private Buffer current;
+
+			@Override
+			public void write(int b) throws IOException {
+				write(new byte[] { (byte) b }, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				while (len > 0) {
+					if (current == null) {
+						current = acquire();
+					}
+					int count = Math.min(len, current.data.length - current.length);
+					System.arraycopy(b, off, current.data, current.length, count);
+					current.length += count;
+					off += count;
+					len -= count;
+					if (current.length == current.data.length) {
+						send(current);
+						current = null;
+					}
+				}
+			}
+
+			@Override
+			public void close() throws IOException {
+				if (current != null && current.length > 0) {
+					send(current);
+				}
+				current = null;
+				BufferPipe.this.close();
+			}
+		};
+	}
+
+	/**
+	 * Metoda koja vraća ulazni tok okteta koji čita podatke primljene kroz red
+	 *
+	 * @return ulazni tok potrošača
+	 */
+	InputStream inputStream() {
+		return new InputStream() {
+
+			private Buffer current;
+
+			private int position;
+
+			private boolean finished;
+
+			@Override
+			public int read() throws IOException {
+				byte[] b = new byte[1];
+				return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				if (len == 0) {
+					return 0;
+				}
+				while (current == null || position == current.length) {
+					if (current != null) {
+						release(current);
+						current = null;
+					}
+					if (finished || (current = receive()) == null) {
+						finished = true;
+						return -1;
+					}
+					position = 0;
+				}
+
+				int count = Math.min(len, current.length - position);
+				System.arraycopy(current.data, position, b, off, count);
+				position += count;
+				return count;
+			}
+		};
+	}
+
+	/**
+	 * Pomoćna metoda koja uzima element iz reda <b>queue</b>
+	 *
+	 * @param queue
+	 *            red spremnika
+	 * @return uzeti spremnik
+	 * @throws IOException
+	 *             ukoliko je obrada prekinuta
+	 */
+	private Buffer take(BlockingQueue<Buffer> queue) throws IOException {
+		checkFailure();
+		Buffer buffer;
+		try {
+			buffer = queue.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Čekanje na spremnik je prekinuto!");
+		}
+		if (buffer == ABORT) {
+			queue.offer(ABORT);
+			checkFailure();
+		}
+		return buffer;
+	}
+
+	/**
+	 * Pomoćna metoda koja baca iznimku ukoliko je obrada prekinuta
+	 *
+	 * @throws IOException
+	 *             ukoliko je obrada prekinuta
+	 */
+	private void checkFailure() throws IOException {
+		Throwable cause = failure;
+		if (cause != null) {
+			throw new IOException("Obrada podataka je prekinuta!", cause);
+		}
+	}
+
+	/**
+	 * Razred koji predstavlja jedan spremnik zajedno s brojem okteta podataka
+	 * u njemu.
+	 *
+	 * @author Davor Češljaš
+	 */
+	static final class Buffer {
+
+		/** Članska varijabla koja predstavlja podatke spremnika */
+		final byte[] data;
+
+		/** Članska varijabla koja predstavlja broj okteta podataka */
+		int length;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param size
+		 *            veličina spremnika
+		 */
+		private Buffer(int size) {
+			this.data = new byte[size];
+		}
+	}
+}
@@ -0,0 +1,250 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+import javax.crypto.Cipher;
+
+/**
+ * Razred koji kriptira i računa zaštitnu sumu datoteka preko kanala
+ * {@link FileChannel}. Ovisno o načinu rada {@link IOMode} ulazna datoteka se
+ * čita ili preko prozora mapiranih u memoriju ({@link IOMode#MAPPED}) ili u
+ * jedan izravni spremnik ({@link IOMode#DIRECT}). U oba slučaja podaci se
+ * predaju metodi {@link Cipher#update(ByteBuffer, ByteBuffer)}, a izlazni
+ * spremnik se alocira samo jednom, pa petlja obrade ne stvara nove objekte i
+ * ne prazni izlazni tok nakon svakog dijela.
+ *
+ * @see IOMode
+ * @see Crypto
+ *
+ * @author Davor Češljaš
+ */
+public class ChannelCrypto {
+
+	/** Konstanta koja predstavlja predefiniranu veličinu spremnika (64 KiB) */
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Konstanta koja predstavlja veličinu prozora koji se mapira u memoriju
+	 * (64 MiB)
+	 */
+	private static final long WINDOW_SIZE = 1L << 26;
+
+	/**
+	 * Članska varijabla koja predstavlja način čitanja, {@link IOMode#MAPPED}
+	 * ili {@link IOMode#DIRECT}
+	 */
+	private final IOMode mode;
+
+	/**
+	 * Članska varijabla koja predstavlja veličinu dijela podataka koji se
+	 * odjednom predaje algoritmu
+	 */
+	private final int bufferSize;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param mode
+	 *            način čitanja, {@link IOMode#MAPPED} ili {@link IOMode#DIRECT}
+	 * @param bufferSize
+	 *            veličina dijela podataka koji se odjednom predaje algoritmu
+	 * @throws IllegalArgumentException
+	 *             ukoliko je predan način {@link IOMode#STREAM} ili veličina
+	 *             spremnika nije pozitivna
+	 */
+	public ChannelCrypto(IOMode mode, int bufferSize) {
+		if (mode == IOMode.STREAM) {
+			throw new IllegalArgumentException("Način " + mode + " ne koristi kanale!");
+		}
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("Veličina spremnika mora biti pozitivna!");
+		}
+
+		this.mode = mode;
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Metoda koja sve podatke iz kanala <b>in</b> kriptira inicijaliziranim
+	 * primjerkom razreda {@link Cipher} <b>cipher</b> i zapisuje ih u kanal
+	 * <b>out</b>.
+	 *
+	 * @param cipher
+	 *            inicijalizirani primjerak razreda {@link Cipher}
+	 * @param in
+	 *            kanal iz kojeg se čitaju podaci
+	 * @param out
+	 *            kanal u koji se zapisuju kriptirani podaci
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati u kanale
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nije uspjelo
+	 */
+	public void crypt(Cipher cipher, FileChannel in, WritableByteChannel out)
+			throws IOException, GeneralSecurityException {
+		crypt(cipher, in, out, null);
+	}
+
+	/**
+	 * Metoda koja sve podatke iz kanala <b>in</b> kriptira inicijaliziranim
+	 * primjerkom razreda {@link Cipher} <b>cipher</b> i zapisuje ih u kanal
+	 * <b>out</b>, bilježeći trajanje čitanja, kriptiranja i pisanja u
+	 * <b>metrics</b>. Za više informacija vidjeti
+	 * {@link #crypt(Cipher, FileChannel, WritableByteChannel)}.
+	 *
+	 * @param cipher
+	 *            inicijalizirani primjerak razreda {@link Cipher}
+	 * @param in
+	 *            kanal iz kojeg se čitaju podaci
+	 * @param out
+	 *            kanal u koji se zapisuju kriptirani podaci
+	 * @param metrics
+	 *            mjerenja koja se osvježavaju ili <code>null</code>
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati u kanale
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nije uspjelo
+	 */
+	public void crypt(Cipher cipher, FileChannel in, WritableByteChannel out, CryptoMetrics metrics)
+			throws IOException, GeneralSecurityException {
+		ByteBuffer output = ByteBuffer.allocateDirect(Crypto.outputSize(cipher, bufferSize));
+
+		long time = System.nanoTime();
+		if (mode == IOMode.MAPPED) {
+			for (long position = 0, size = in.size(); position < size; position += WINDOW_SIZE) {
+				MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, position,
+						Math.min(WINDOW_SIZE, size - position));
+				while (window.hasRemaining()) {
+					window.limit(Math.min(window.position() + bufferSize, window.capacity()));
+					int count = window.remaining();
+					time = record(metrics, time, Stage.READ, count);
+					output.clear();
+					cipher.update(window, output);
+					window.limit(window.capacity());
+					time = record(metrics, time, Stage.CIPHER, 0);
+					drain(output, out);
+					time = record(metrics, time, Stage.WRITE, 0);
+				}
+			}
+		} else {
+			ByteBuffer input = ByteBuffer.allocateDirect(bufferSize);
+			int count;
+			while ((count = in.read(input)) != -1) {
+				time = record(metrics, time, Stage.READ, count);
+				input.flip();
+				output.clear();
+				cipher.update(input, output);
+				time = record(metrics, time, Stage.CIPHER, 0);
+				drain(output, out);
+				time = record(metrics, time, Stage.WRITE, 0);
+				input.clear();
+			}
+		}
+
+		output.clear();
+		cipher.doFinal(ByteBuffer.allocate(0), output);
+		time = record(metrics, time, Stage.CIPHER, 0);
+		drain(output, out);
+		record(metrics, time, Stage.WRITE, 0);
+	}
+
+	/**
+	 * Pomoćna metoda koja u mjerenja <b>metrics</b> bilježi trajanje faze
+	 * <b>stage</b> koja je započela u trenutku <b>since</b>
+	 *
+	 * @param metrics
+	 *            mjerenja ili <code>null</code>
+	 * @param since
+	 *            trenutak početka faze u nanosekundama
+	 * @param stage
+	 *            faza obrade
+	 * @param count
+	 *            broj pročitanih okteta (samo za fazu {@link Stage#READ})
+	 * @return trenutak završetka faze, odnosno početka sljedeće
+	 */
+	static long record(CryptoMetrics metrics, long since, Stage stage, long count) {
+		if (metrics == null) {
+			return since;
+		}
+
+		long now = System.nanoTime();
+		switch (stage) {
+		case READ:
+			metrics.addRead(count, now - since);
+			break;
+		case CIPHER:
+			metrics.addCipher(now - since);
+			break;
+		default:
+			metrics.addWrite(now - since);
+		}
+		return now;
+	}
+
+	/**
+	 * Enumeracija koja oblikuje faze obrade jednog dijela podataka
+	 *
+	 * @author Davor Češljaš
+	 */
+	enum Stage {
+		/** Predstavlja čitanje */
+		READ,
+		/** Predstavlja kriptiranje */
+		CIPHER,
+		/** Predstavlja pisanje */
+		WRITE
+	}
+
+	/**
+	 * Metoda koja sve podatke iz kanala <b>in</b> predaje primjerku razreda
+	 * {@link MessageDigest} <b>md</b> i vraća izračunatu zaštitnu sumu.
+	 *
+	 * @param md
+	 *            primjerak razreda {@link MessageDigest} koji računa sumu
+	 * @param in
+	 *            kanal iz kojeg se čitaju podaci
+	 * @return izračunata zaštitna suma
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati iz kanala
+	 */
+	public byte[] digest(MessageDigest md, FileChannel in) throws IOException {
+		if (mode == IOMode.MAPPED) {
+			for (long position = 0, size = in.size(); position < size; position += WINDOW_SIZE) {
+				md.update(in.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position)));
+			}
+		} else {
+			ByteBuffer input = ByteBuffer.allocateDirect(bufferSize);
+			while (in.read(input) != -1) {
+				input.flip();
+				md.update(input);
+				input.clear();
+			}
+		}
+
+		return md.digest();
+	}
+
+	/**
+	 * Pomoćna metoda koja sadržaj spremnika <b>output</b> (od početka do
+	 * trenutne pozicije) u cijelosti zapisuje u kanal <b>out</b>.
+	 *
+	 * @param output
+	 *            spremnik čiji se sadržaj zapisuje
+	 * @param out
+	 *            kanal u koji se zapisuje
+	 * @throws IOException
+	 *             ukoliko nije moguće pisati u kanal
+	 */
+	private static void drain(ByteBuffer output, WritableByteChannel out) throws IOException {
+		output.flip();
+		while (output.hasRemaining()) {
+			out.write(output);
+		}
+	}
+}
@@ -0,0 +1,425 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Properties;
+
+import javax.crypto.Cipher;
+
+/**
+ * Razred koji kriptira datoteku tako da se prekinuto kriptiranje može
+ * nastaviti od zadnje spremljene točke. Kriptirani podaci zapisuju se u
+ * privremenu datoteku (vidjeti {@link #tempFor(Path)}) koja se tek na kraju
+ * atomarno preimenuje u ciljnu datoteku, pa djelomično zapisana datoteka
+ * nikada ne izgleda kao dovršena.
+ * <p>
+ * Nakon svakih <code>interval</code> zapisanih okteta podaci se trajno
+ * spremaju na disk, a potom se u pomoćnu datoteku (vidjeti
+ * {@link #checkpointFor(Path)}) zapisuje pozicija do koje su podaci
+ * kriptirani i stanje ulančavanja na toj poziciji: zadnji kriptirani blok u
+ * načinu {@link CipherMode#CBC}, odnosno vrijednost brojača u načinu
+ * {@link CipherMode#CTR}. Ponovno pokretanje s istom izvornom datotekom i
+ * istim ključem nastavlja od te pozicije, a inače započinje ispočetka.
+ * <p>
+ * Način {@link CipherMode#GCM} nije podržan jer se oznaka autentičnosti
+ * računa nad cijelom datotekom.
+ *
+ * @see Crypto
+ * @see SegmentedCrypto
+ *
+ * @author Davor Češljaš
+ */
+public class CheckpointedCrypto {
+
+	/** Konstanta koja predstavlja nastavak privremene datoteke */
+	public static final String TEMP_EXTENSION = ".part";
+
+	/** Konstanta koja predstavlja nastavak datoteke sa spremljenom točkom */
+	public static final String CHECKPOINT_EXTENSION = ".checkpoint";
+
+	/**
+	 * Konstanta koja predstavlja predefinirani broj okteta između dvije
+	 * spremljene točke
+	 */
+	public static final long DEFAULT_INTERVAL = 64L * 1024 * 1024;
+
+	/** Konstanta koja predstavlja ključ operacije u spremljenoj točki */
+	private static final String OPERATION_KEY = "operation";
+
+	/** Konstanta koja predstavlja ključ transformacije u spremljenoj točki */
+	private static final String TRANSFORMATION_KEY = "transformation";
+
+	/**
+	 * Konstanta koja predstavlja ključ veličine izvorne datoteke u spremljenoj
+	 * točki
+	 */
+	private static final String SIZE_KEY = "source.size";
+
+	/**
+	 * Konstanta koja predstavlja ključ vremena zadnje izmjene izvorne datoteke
+	 * u spremljenoj točki
+	 */
+	private static final String MODIFIED_KEY = "source.modified";
+
+	/**
+	 * Konstanta koja predstavlja ključ otiska ključa i inicijalizacijskog
+	 * vektora u spremljenoj točki
+	 */
+	private static final String FINGERPRINT_KEY = "fingerprint";
+
+	/** Konstanta koja predstavlja ključ pozicije u spremljenoj točki */
+	private static final String OFFSET_KEY = "offset";
+
+	/**
+	 * Konstanta koja predstavlja ključ stanja ulančavanja u spremljenoj točki
+	 */
+	private static final String CHAIN_KEY = "chain";
+
+	/** Konstanta koja predstavlja broj okteta otiska ključa */
+	private static final int FINGERPRINT_LENGTH = 8;
+
+	/** Članska varijabla koja predstavlja naziv algoritma kriptiranja */
+	private final String algorithm;
+
+	/** Članska varijabla koja predstavlja način rada algoritma */
+	private final CipherMode mode;
+
+	/** Članska varijabla koja predstavlja ključ kriptiranja */
+	private final byte[] key;
+
+	/** Članska varijabla koja predstavlja inicijalizacijski vektor */
+	private final byte[] initVector;
+
+	/**
+	 * Članska varijabla koja predstavlja veličinu dijela podataka koji se
+	 * odjednom čita iz datoteke
+	 */
+	private final int bufferSize;
+
+	/** Članska varijabla koja predstavlja broj okteta između dvije točke */
+	private final long interval;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param algorithm
+	 *            naziv algoritma kriptiranja
+	 * @param mode
+	 *            način rada algoritma
+	 * @param key
+	 *            ključ kriptiranja
+	 * @param initVector
+	 *            inicijalizacijski vektor
+	 * @param bufferSize
+	 *            veličina dijela podataka koji se odjednom čita iz datoteke
+	 * @param interval
+	 *            broj okteta između dvije spremljene točke
+	 * @throws IllegalArgumentException
+	 *             ukoliko je zadan način {@link CipherMode#GCM} ili veličina
+	 *             spremnika odnosno razmak točaka nije pozitivan
+	 */
+	public CheckpointedCrypto(String algorithm, CipherMode mode, byte[] key, byte[] initVector, int bufferSize,
+			long interval) {
+		if (mode == CipherMode.GCM) {
+			throw new IllegalArgumentException("Način " + mode + " ne podržava nastavak kriptiranja!");
+		}
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("Veličina spremnika mora biti pozitivna!");
+		}
+		if (interval <= 0) {
+			throw new IllegalArgumentException("Razmak između spremljenih točaka mora biti pozitivan!");
+		}
+
+		this.algorithm = algorithm;
+		this.mode = mode;
+		this.key = key.clone();
+		this.initVector = initVector.clone();
+		this.bufferSize = bufferSize;
+		this.interval = interval;
+	}
+
+	/**
+	 * Metoda koja vraća putanju privremene datoteke za ciljnu datoteku
+	 * <b>target</b>
+	 *
+	 * @param target
+	 *            putanja do ciljne datoteke
+	 * @return putanja do privremene datoteke
+	 */
+	public static Path tempFor(Path target) {
+		return target.resolveSibling(target.getFileName() + TEMP_EXTENSION);
+	}
+
+	/**
+	 * Metoda koja vraća putanju datoteke sa spremljenom točkom za ciljnu
+	 * datoteku <b>target</b>
+	 *
+	 * @param target
+	 *            putanja do ciljne datoteke
+	 * @return putanja do datoteke sa spremljenom točkom
+	 */
+	public static Path checkpointFor(Path target) {
+		return target.resolveSibling(target.getFileName() + CHECKPOINT_EXTENSION);
+	}
+
+	/**
+	 * Metoda koja kriptira datoteku <b>from</b> u datoteku <b>to</b>. Ukoliko
+	 * postoji valjana spremljena točka prethodnog pokretanja, kriptiranje se
+	 * nastavlja od nje. Ukoliko kriptiranje ne uspije zbog pogreške u
+	 * podacima (npr. pogrešan ključ), privremena datoteka i spremljena točka
+	 * se brišu, a ukoliko ne uspije zbog ulazno-izlazne pogreške ostaju
+	 * sačuvane za nastavak.
+	 *
+	 * @param encrypt
+	 *            <b>true</b> ukoliko se datoteka enkriptira, a <b>false</b>
+	 *            ukoliko se dekriptira
+	 * @param from
+	 *            putanja do datoteke koja se kriptira
+	 * @param to
+	 *            putanja do kriptirane datoteke
+	 * @return pozicija od koje je kriptiranje nastavljeno, odnosno 0 ukoliko
+	 *         je započelo ispočetka
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati datoteke
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nije uspjelo
+	 */
+	public long crypt(boolean encrypt, Path from, Path to) throws IOException, GeneralSecurityException {
+		Path temp = tempFor(to);
+		Path checkpoint = checkpointFor(to);
+		Properties expected = describe(encrypt, from);
+
+		long offset = 0;
+		byte[] chain = initVector;
+		Properties saved = readCheckpoint(checkpoint);
+		if (saved != null && matches(saved, expected) && Files.exists(temp)) {
+			try {
+				long savedOffset = Long.parseLong(saved.getProperty(OFFSET_KEY));
+				byte[] savedChain = Util.hextobyte(saved.getProperty(CHAIN_KEY));
+				if (savedOffset >= 0 && savedOffset <= Files.size(temp) && savedChain.length == initVector.length) {
+					offset = savedOffset;
+					chain = savedChain;
+				}
+			} catch (IllegalArgumentException e) {
+				// oštećena spremljena točka, kriptira se ispočetka
+			}
+		}
+
+		try (FileChannel in = FileChannel.open(from, StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+						StandardOpenOption.WRITE)) {
+			out.truncate(offset);
+			crypt(CryptoContext.initCipher(encrypt, key, chain, algorithm, mode), encrypt, in, out, offset,
+					checkpoint, expected);
+			out.force(true);
+		} catch (GeneralSecurityException e) {
+			Files.deleteIfExists(temp);
+			Files.deleteIfExists(checkpoint);
+			throw e;
+		}
+
+		Files.move(temp, to, StandardCopyOption.ATOMIC_MOVE);
+		Files.deleteIfExists(checkpoint);
+		return offset;
+	}
+
+	/**
+	 * Pomoćna metoda koja kriptira kanal <b>in</b> od pozicije <b>offset</b>
+	 * do kraja i zapisuje rezultat u kanal <b>out</b> od iste pozicije. Nakon
+	 * svakih {@link #interval} okteta podaci se trajno spremaju, a potom se
+	 * zapisuje spremljena točka.
+	 *
+	 * @param cipher
+	 *            primjerak razreda {@link Cipher} inicijaliziran stanjem
+	 *            ulančavanja na poziciji <b>offset</b>
+	 * @param encrypt
+	 *            <b>true</b> ukoliko se datoteka enkriptira
+	 * @param in
+	 *            kanal iz kojeg se čita
+	 * @param out
+	 *            kanal u koji se piše
+	 * @param offset
+	 *            pozicija od koje se kriptira
+	 * @param checkpoint
+	 *            putanja do datoteke sa spremljenom točkom
+	 * @param description
+	 *            opis izvorne datoteke i parametara koji se zapisuje uz točku
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati datoteke
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nije uspjelo
+	 */
+	private void crypt(Cipher cipher, boolean encrypt, FileChannel in, FileChannel out, long offset, Path checkpoint,
+			Properties description) throws IOException, GeneralSecurityException {
+		int blockSize = cipher.getBlockSize();
+		ByteBuffer input = ByteBuffer.allocate(bufferSize);
+		byte[] output = new byte[cipher.getOutputSize(bufferSize) + 2 * blockSize];
+
+		long position = offset;
+		long written = offset;
+		long lastCheckpoint = offset;
+		int read;
+		while ((read = in.read(input, position)) != -1) {
+			position += read;
+			int count = cipher.update(input.array(), 0, read, output, 0);
+			SegmentedCrypto.writeFully(out, ByteBuffer.wrap(output, 0, count), written);
+			written += count;
+			input.clear();
+
+			// zapisani podaci moraju završavati na granici bloka kako bi se
+			// stanje ulančavanja moglo odrediti
+			if (written - lastCheckpoint >= interval && written % blockSize == 0) {
+				out.force(false);
+				writeCheckpoint(checkpoint, description, written, chainAt(encrypt ? out : in, written, blockSize));
+				lastCheckpoint = written;
+			}
+		}
+
+		int count = cipher.doFinal(output, 0);
+		SegmentedCrypto.writeFully(out, ByteBuffer.wrap(output, 0, count), written);
+	}
+
+	/**
+	 * Pomoćna metoda koja određuje stanje ulančavanja na poziciji
+	 * <b>offset</b>. U načinu {@link CipherMode#CBC} to je kriptirani blok
+	 * koji prethodi poziciji (pročitan iz kanala <b>encrypted</b>), a u načinu
+	 * {@link CipherMode#CTR} vrijednost brojača bloka na toj poziciji.
+	 *
+	 * @param encrypted
+	 *            kanal s kriptiranim podacima
+	 * @param offset
+	 *            pozicija na granici bloka
+	 * @param blockSize
+	 *            veličina bloka
+	 * @return stanje ulančavanja
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati kanal
+	 */
+	private byte[] chainAt(FileChannel encrypted, long offset, int blockSize) throws IOException {
+		if (mode == CipherMode.CTR) {
+			return SegmentedCrypto.counterFor(initVector, offset / blockSize);
+		}
+
+		byte[] block = new byte[blockSize];
+		SegmentedCrypto.readFully(encrypted, ByteBuffer.wrap(block), offset - blockSize);
+		return block;
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara opis izvorne datoteke <b>from</b> i
+	 * parametara kriptiranja. Spremljena točka vrijedi samo ukoliko se opis
+	 * nije promijenio. Umjesto ključa zapisuje se samo kratki otisak ključa i
+	 * inicijalizacijskog vektora.
+	 *
+	 * @param encrypt
+	 *            <b>true</b> ukoliko se datoteka enkriptira
+	 * @param from
+	 *            putanja do izvorne datoteke
+	 * @return opis izvorne datoteke i parametara
+	 * @throws IOException
+	 *             ukoliko nije moguće dohvatiti svojstva datoteke
+	 * @throws GeneralSecurityException
+	 *             ukoliko ne postoji algoritam zaštitne sume
+	 */
+	private Properties describe(boolean encrypt, Path from) throws IOException, GeneralSecurityException {
+		MessageDigest md = CryptoContext.digest(Crypto.DIGEST_ALGORITHM);
+		md.update(key);
+		md.update(initVector);
+		byte[] fingerprint = md.digest();
+
+		Properties properties = new Properties();
+		properties.setProperty(OPERATION_KEY, encrypt ? "encrypt" : "decrypt");
+		properties.setProperty(TRANSFORMATION_KEY, mode.transformation(algorithm));
+		properties.setProperty(SIZE_KEY, Long.toString(Files.size(from)));
+		properties.setProperty(MODIFIED_KEY, Long.toString(Files.getLastModifiedTime(from).toMillis()));
+		properties.setProperty(FINGERPRINT_KEY, Util.bytetohex(Arrays.copyOf(fingerprint, FINGERPRINT_LENGTH)));
+		return properties;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava odgovara li spremljena točka
+	 * <b>saved</b> opisu <b>expected</b>
+	 *
+	 * @param saved
+	 *            spremljena točka
+	 * @param expected
+	 *            opis trenutnog pokretanja
+	 * @return <b>true</b> ukoliko se točka može iskoristiti, <b>false</b>
+	 *         inače
+	 */
+	private static boolean matches(Properties saved, Properties expected) {
+		for (String name : expected.stringPropertyNames()) {
+			if (!expected.getProperty(name).equals(saved.getProperty(name))) {
+				return false;
+			}
+		}
+		return saved.getProperty(OFFSET_KEY) != null && saved.getProperty(CHAIN_KEY) != null;
+	}
+
+	/**
+	 * Pomoćna metoda koja čita spremljenu točku iz datoteke
+	 * <b>checkpoint</b>
+	 *
+	 * @param checkpoint
+	 *            putanja do datoteke sa spremljenom točkom
+	 * @return spremljena točka ili <b>null</b> ukoliko datoteka ne postoji
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati datoteku
+	 */
+	private static Properties readCheckpoint(Path checkpoint) throws IOException {
+		Properties properties = new Properties();
+		try (InputStream is = Files.newInputStream(checkpoint)) {
+			properties.load(is);
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+		return properties;
+	}
+
+	/**
+	 * Pomoćna metoda koja zapisuje spremljenu točku u datoteku
+	 * <b>checkpoint</b>. Točka se najprije trajno zapisuje u privremenu
+	 * datoteku koja se potom atomarno preimenuje, pa datoteka sa spremljenom
+	 * točkom uvijek sadrži cijelu točku.
+	 *
+	 * @param checkpoint
+	 *            putanja do datoteke sa spremljenom točkom
+	 * @param description
+	 *            opis izvorne datoteke i parametara
+	 * @param offset
+	 *            pozicija do koje su podaci trajno zapisani
+	 * @param chain
+	 *            stanje ulančavanja na poziciji <b>offset</b>
+	 * @throws IOException
+	 *             ukoliko nije moguće pisati datoteku
+	 */
+	private static void writeCheckpoint(Path checkpoint, Properties description, long offset, byte[] chain)
+			throws IOException {
+		Properties properties = new Properties();
+		properties.putAll(description);
+		properties.setProperty(OFFSET_KEY, Long.toString(offset));
+		properties.setProperty(CHAIN_KEY, Util.bytetohex(chain));
+
+		Path temp = tempFor(checkpoint);
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+				OutputStream os = Channels.newOutputStream(channel)) {
+			properties.store(os, null);
+			os.flush();
+			channel.force(true);
+		}
+		Files.move(temp, checkpoint, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
@@ -0,0 +1,148 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+/**
+ * Enumeracija koja oblikuje načine rada blokovskog algoritma kriptiranja.
+ * Zajedno s nazivom algoritma način rada određuje punu transformaciju (vidjeti
+ * {@link #transformation(String)}). Mogući načini su:
+ * <ul>
+ * <li>{@link #CBC}</li>
+ * <li>{@link #CTR}</li>
+ * <li>{@link #GCM}</li>
+ * </ul>
+ *
+ * @see Crypto
+ * @see SegmentedCrypto
+ *
+ * @author Davor Češljaš
+ */
+public enum CipherMode {
+
+	/**
+	 * Predstavlja ulančavanje blokova uz punjenje zadnjeg bloka. Ovaj način se
+	 * ne može koristiti u segmentiranom formatu.
+	 */
+	CBC("PKCS5Padding", 0, 0),
+
+	/**
+	 * Predstavlja način brojača. Kriptirani podaci jednake su veličine kao i
+	 * izvorni, ali njihov integritet nije zaštićen.
+	 */
+	CTR("NoPadding", 1, 0),
+
+	/**
+	 * Predstavlja način brojača s autentifikacijom (Galois/Counter Mode). Uz
+	 * kriptirane podatke zapisuje se oznaka autentičnosti, pa se svaka
+	 * promjena kriptiranih podataka otkriva prilikom dekripcije.
+	 */
+	GCM("NoPadding", 2, 16);
+
+	/** Članska varijabla koja predstavlja algoritam punjenja */
+	private final String padding;
+
+	/**
+	 * Članska varijabla koja predstavlja oznaku načina rada unutar zaglavlja
+	 * segmentiranog formata ili 0 ukoliko način nije podržan u tom formatu
+	 */
+	private final byte id;
+
+	/** Članska varijabla koja predstavlja veličinu oznake autentičnosti */
+	private final int tagLength;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ove enumeracije.
+	 *
+	 * @param padding
+	 *            algoritam punjenja
+	 * @param id
+	 *            oznaka načina rada unutar zaglavlja segmentiranog formata
+	 * @param tagLength
+	 *            veličina oznake autentičnosti u oktetima
+	 */
+	private CipherMode(String padding, int id, int tagLength) {
+		this.padding = padding;
+		this.id = (byte) id;
+		this.tagLength = tagLength;
+	}
+
+	/**
+	 * Metoda koja vraća punu transformaciju (vidjeti
+	 * {@link javax.crypto.Cipher#getInstance(String)}) algoritma
+	 * <b>algorithm</b> u ovom načinu rada
+	 *
+	 * @param algorithm
+	 *            naziv algoritma, npr. <code>AES</code>
+	 * @return puna transformacija
+	 */
+	public String transformation(String algorithm) {
+		return algorithm + "/" + name() + "/" + padding;
+	}
+
+	/**
+	 * Metoda koja vraća oznaku načina rada unutar zaglavlja segmentiranog
+	 * formata
+	 *
+	 * @return oznaka načina rada
+	 */
+	public byte getId() {
+		return id;
+	}
+
+	/**
+	 * Metoda koja vraća veličinu oznake autentičnosti u oktetima, odnosno 0
+	 * ukoliko način rada ne zapisuje oznaku
+	 *
+	 * @return veličina oznake autentičnosti
+	 */
+	public int getTagLength() {
+		return tagLength;
+	}
+
+	/**
+	 * Metoda koja provjerava može li se ovaj način rada koristiti u
+	 * segmentiranom formatu (vidjeti {@link SegmentedCrypto})
+	 *
+	 * @return <b>true</b> ukoliko se način može koristiti u segmentiranom
+	 *         formatu, <b>false</b> inače
+	 */
+	public boolean isSegmentable() {
+		return id != 0;
+	}
+
+	/**
+	 * Metoda koja pronalazi način rada čiji je naziv <b>name</b>. Velika i mala
+	 * slova se ne razlikuju.
+	 *
+	 * @param name
+	 *            naziv načina rada
+	 * @return način rada čiji je naziv <b>name</b>
+	 * @throws IllegalArgumentException
+	 *             ukoliko takav način rada ne postoji
+	 */
+	public static CipherMode forName(String name) {
+		for (CipherMode mode : values()) {
+			if (mode.name().equalsIgnoreCase(name)) {
+				return mode;
+			}
+		}
+		throw new IllegalArgumentException(String.format("Ne postoji način kriptiranja '%s'", name));
+	}
+
+	/**
+	 * Metoda koja pronalazi način rada čija je oznaka unutar zaglavlja
+	 * segmentiranog formata <b>id</b>
+	 *
+	 * @param id
+	 *            oznaka načina rada
+	 * @return način rada čija je oznaka <b>id</b>
+	 * @throws IllegalArgumentException
+	 *             ukoliko takav način rada ne postoji
+	 */
+	public static CipherMode forId(byte id) {
+		for (CipherMode mode : values()) {
+			if (mode.isSegmentable() && mode.id == id) {
+				return mode;
+			}
+		}
+		throw new IllegalArgumentException("Predana datoteka nije u segmentiranom formatu!");
+	}
+}
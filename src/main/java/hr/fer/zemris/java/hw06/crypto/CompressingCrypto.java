@@ -0,0 +1,283 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import javax.crypto.Cipher;
+
+/**
+ * Razred koji podatke prije enkripcije sažima algoritmom <i>deflate</i>
+ * (format <code>zlib</code>), a nakon dekripcije ih raspakirava. Sažimanje,
+ * odnosno raspakiravanje, izvodi se na zasebnoj dretvi koja je s dretvom
+ * kriptiranja povezana ograničenim redom spremnika (vidjeti
+ * {@link BufferPipe}), pa se sažimanje i kriptiranje odvijaju istovremeno, a
+ * zauzeće memorije ne ovisi o veličini datoteke.
+ * <p>
+ * Kriptirana datoteka sadrži kriptirani <code>zlib</code> tok, pa se mora
+ * dekriptirati ovim razredom. Kontrolni zbroj <code>zlib</code> formata
+ * otkriva oštećene ili pogrešno dekriptirane podatke.
+ *
+ * @see Crypto
+ * @see DigestingCrypto
+ *
+ * @author Davor Češljaš
+ */
+public class CompressingCrypto {
+
+	/** Konstanta koja predstavlja predefinirani broj spremnika u redu */
+	public static final int DEFAULT_QUEUE_SIZE = 4;
+
+	/**
+	 * Članska varijabla koja predstavlja veličinu dijela podataka koji se
+	 * odjednom obrađuje
+	 */
+	private final int bufferSize;
+
+	/** Članska varijabla koja predstavlja razinu sažimanja */
+	private final int level;
+
+	/** Članska varijabla koja predstavlja broj spremnika u redu */
+	private final int queueSize;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param bufferSize
+	 *            veličina dijela podataka koji se odjednom obrađuje
+	 * @param level
+	 *            razina sažimanja od 0 do 9 ili
+	 *            {@link Deflater#DEFAULT_COMPRESSION}
+	 * @param queueSize
+	 *            broj spremnika u redu između dretvi
+	 * @throws IllegalArgumentException
+	 *             ukoliko veličina spremnika ili reda nije pozitivna ili
+	 *             razina sažimanja nije valjana
+	 */
+	public CompressingCrypto(int bufferSize, int level, int queueSize) {
+		if (bufferSize <= 0 || queueSize <= 0) {
+			throw new IllegalArgumentException("Veličina spremnika i reda mora biti pozitivna!");
+		}
+		if ((level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)
+				&& level != Deflater.DEFAULT_COMPRESSION) {
+			throw new IllegalArgumentException("Razina sažimanja mora biti između 0 i 9!");
+		}
+
+		this.bufferSize = bufferSize;
+		this.level = level;
+		this.queueSize = queueSize;
+	}
+
+	/**
+	 * Metoda koja datoteku <b>from</b> sažima i enkriptira u datoteku
+	 * <b>to</b>. Sažimanje se izvodi na zasebnoj dretvi, a enkripcija na
+	 * dretvi pozivatelja.
+	 *
+	 * @param cipher
+	 *            primjerak razreda {@link Cipher} inicijaliziran za enkripciju
+	 * @param from
+	 *            putanja do datoteke koja se enkriptira
+	 * @param to
+	 *            putanja do enkriptirane datoteke
+	 * @return veličina sažetih podataka u oktetima
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati datoteke
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nije uspjelo
+	 */
+	public long encrypt(Cipher cipher, Path from, Path to) throws IOException, GeneralSecurityException {
+		BufferPipe pipe = new BufferPipe(queueSize, bufferSize);
+
+		return run(pipe, "compressor", () -> {
+			Deflater deflater = new Deflater(level);
+			try (InputStream in = Files.newInputStream(from)) {
+				OutputStream out = new DeflaterOutputStream(pipe.outputStream(), deflater, bufferSize);
+				copy(in, out);
+				// tok se zatvara samo ako je sažimanje uspjelo (vidjeti BufferPipe)
+				out.close();
+			} finally {
+				deflater.end();
+			}
+		}, () -> {
+			try (OutputStream out = Files.newOutputStream(to)) {
+				crypt(cipher, pipe.inputStream(), out);
+			}
+		});
+	}
+
+	/**
+	 * Metoda koja datoteku <b>from</b> dekriptira i raspakirava u datoteku
+	 * <b>to</b>. Dekripcija se izvodi na dretvi pozivatelja, a raspakiravanje
+	 * na zasebnoj dretvi.
+	 *
+	 * @param cipher
+	 *            primjerak razreda {@link Cipher} inicijaliziran za dekripciju
+	 * @param from
+	 *            putanja do kriptirane datoteke
+	 * @param to
+	 *            putanja do dekriptirane datoteke
+	 * @return veličina sažetih podataka u oktetima
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati datoteke ili sažeti
+	 *             podaci nisu valjani
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nije uspjelo
+	 */
+	public long decrypt(Cipher cipher, Path from, Path to) throws IOException, GeneralSecurityException {
+		BufferPipe pipe = new BufferPipe(queueSize, bufferSize);
+
+		return run(pipe, "decompressor", () -> {
+			Inflater inflater = new Inflater();
+			try (OutputStream out = Files.newOutputStream(to)) {
+				InputStream in = pipe.inputStream();
+				copy(new InflaterInputStream(in, inflater, bufferSize), out);
+				// ostatak iza kraja zlib toka se odbacuje kako proizvođač ne bi čekao
+				while (in.read(new byte[bufferSize]) != -1) {
+				}
+			} finally {
+				inflater.end();
+			}
+		}, () -> {
+			try (InputStream in = Files.newInputStream(from)) {
+				OutputStream out = pipe.outputStream();
+				crypt(cipher, in, out);
+				out.close();
+			}
+		});
+	}
+
+	/**
+	 * Pomoćna metoda koja zadatak <b>background</b> izvodi na zasebnoj
+	 * dretvi, a zadatak <b>foreground</b> na dretvi pozivatelja. Ukoliko jedan
+	 * od zadataka ne uspije, red <b>pipe</b> se prekida kako drugi zadatak ne
+	 * bi trajno čekao. Ukoliko oba zadatka ne uspiju, baca se iznimka zadatka
+	 * koji je prvi prekinuo red.
+	 *
+	 * @param pipe
+	 *            red koji povezuje zadatke
+	 * @param name
+	 *            naziv zasebne dretve
+	 * @param background
+	 *            zadatak koji se izvodi na zasebnoj dretvi
+	 * @param foreground
+	 *            zadatak koji se izvodi na dretvi pozivatelja
+	 * @return broj okteta poslanih kroz red
+	 * @throws IOException
+	 *             ukoliko neki od zadataka nije uspio čitati ili pisati
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nije uspjelo
+	 */
+	private static long run(BufferPipe pipe, String name, Task background, Task foreground)
+			throws IOException, GeneralSecurityException {
+		AtomicReference<Exception> backgroundFailure = new AtomicReference<>();
+		Thread thread = new Thread(() -> {
+			try {
+				background.run();
+			} catch (Exception e) {
+				backgroundFailure.set(e);
+				pipe.abort(e);
+			}
+		}, name);
+		thread.setDaemon(true);
+		thread.start();
+
+		Exception failure = null;
+		try {
+			foreground.run();
+		} catch (Exception e) {
+			failure = e;
+			pipe.abort(e);
+		}
+
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			thread.interrupt();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Čekanje na dretvu " + name + " je prekinuto!");
+		}
+
+		// uzrok je iznimka koja je prekinula red, a ne ona koju je prekid izazvao
+		if (backgroundFailure.get() != null && (failure == null || failure.getCause() == backgroundFailure.get())) {
+			failure = backgroundFailure.get();
+		}
+		if (failure instanceof IOException) {
+			throw (IOException) failure;
+		} else if (failure instanceof GeneralSecurityException) {
+			throw (GeneralSecurityException) failure;
+		} else if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+		return pipe.getTransferred();
+	}
+
+	/**
+	 * Pomoćna metoda koja kriptira podatke iz toka <b>in</b> u tok <b>out</b>
+	 * koristeći polja stalne veličine
+	 *
+	 * @param cipher
+	 *            inicijalizirani primjerak razreda {@link Cipher}
+	 * @param in
+	 *            ulazni tok okteta
+	 * @param out
+	 *            izlazni tok okteta
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nije uspjelo
+	 */
+	private void crypt(Cipher cipher, InputStream in, OutputStream out) throws IOException, GeneralSecurityException {
+		byte[] input = new byte[bufferSize];
+		byte[] output = new byte[Crypto.outputSize(cipher, bufferSize)];
+		int len;
+		while ((len = in.read(input)) != -1) {
+			out.write(output, 0, cipher.update(input, 0, len, output));
+		}
+		out.write(output, 0, cipher.doFinal(output, 0));
+	}
+
+	/**
+	 * Pomoćna metoda koja sve podatke iz toka <b>in</b> zapisuje u tok
+	 * <b>out</b>
+	 *
+	 * @param in
+	 *            ulazni tok okteta
+	 * @param out
+	 *            izlazni tok okteta
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati
+	 */
+	private void copy(InputStream in, OutputStream out) throws IOException {
+		byte[] buffer = new byte[bufferSize];
+		int len;
+		while ((len = in.read(buffer)) != -1) {
+			out.write(buffer, 0, len);
+		}
+	}
+
+	/**
+	 * Funkcijsko sučelje koje predstavlja jedan zadatak cjevovoda
+	 *
+	 * @author Davor Češljaš
+	 */
+	@FunctionalInterface
+	private interface Task {
+
+		/**
+		 * Metoda koja izvodi zadatak
+		 *
+		 * @throws Exception
+		 *             ukoliko zadatak nije uspio
+		 */
+		void run() throws Exception;
+	}
+}
@@ -5,16 +5,25 @@ import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.AlgorithmParameterSpec;
-import java.util.Scanner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
 
+import javax.crypto.AEADBadTagException;
 import javax.crypto.Cipher;
 import javax.crypto.NoSuchPaddingException;
 import javax.crypto.spec.IvParameterSpec;
@@ -49,6 +58,138 @@ import javax.crypto.spec.SecretKeySpec;
  * Ukoliko se ne unese neka od traženih operacija program će ispisati da niste
  * unijeli valjanu operaciju.
  * 
+ * Uz operacije {@value #ENCRYPT} i {@value #DECRYPT} moguće je predati opciju
+ * <code>--{@value #FORMAT_OPTION}={@value #SEGMENTED_FORMAT}</code>. Tada se
+ * datoteka kriptira u segmentiranom formatu (vidjeti {@link SegmentedCrypto})
+ * čiji se segmenti obrađuju paralelno. Veličina segmenta zadaje se opcijom
+ * <code>--{@value #SEGMENT_SIZE_OPTION}</code>, a broj dretvi opcijom
+ * <code>--{@value #THREADS_OPTION}</code>. Bez te opcije koristi se
+ * transformacija {@value #CRYPT_TRANSFORMATION}.
+ * 
+ * Algoritam kriptiranja zadaje se opcijom
+ * <code>--{@value #ALGORITHM_OPTION}</code>, a način rada (vidjeti
+ * {@link CipherMode}) opcijom <code>--{@value #MODE_OPTION}</code>. Način
+ * {@link CipherMode#GCM} podržan je samo u segmentiranom formatu, pa se uz
+ * njega segmentirani format koristi automatski. Segmentirani format bez
+ * zadanog načina rada koristi način {@link CipherMode#CTR}, a prilikom
+ * dekripcije način se čita iz zaglavlja datoteke.
+ * 
+ * Opcijom <code>--{@value #IO_OPTION}</code> odabire se način čitanja i pisanja
+ * datoteka (vidjeti {@link IOMode}) za operacije {@value #CHECK_SHA},
+ * {@value #ENCRYPT} i {@value #DECRYPT}, a opcijom
+ * <code>--{@value #BUFFER_SIZE_OPTION}</code> veličina spremnika za načine koji
+ * koriste kanale (vidjeti {@link ChannelCrypto}).
+ * 
+ * Uz operaciju {@value #CHECK_SHA} moguće je predati opciju
+ * <code>--{@value #TREE_OPTION}</code>. Tada se zaštitna suma računa kao
+ * korijen Merkleovog stabla (vidjeti {@link TreeHash}) čiji se listovi veličine
+ * <code>--{@value #CHUNK_SIZE_OPTION}</code> računaju paralelno, a sume listova
+ * spremaju u manifest zadan opcijom <code>--{@value #MANIFEST_OPTION}</code>
+ * (predefinirano {@link TreeHash#manifestFor(Path)}).
+ * 
+ * Uz operaciju {@value #CHECK_SHA} moguće je predati i opciju
+ * <code>--{@value #ALGORITHMS_OPTION}</code> s popisom algoritama odvojenih
+ * zarezom, npr. <code>--algorithms=SHA-256,SHA-512,MD5</code>. Tada se
+ * datoteka čita samo jednom, a ispisuju se zaštitne sume svih zadanih
+ * algoritama (vidjeti {@link MultiDigest}).
+ * 
+ * Zaštitne sume koje izračunaju operacije {@value #CHECK_SHA} i
+ * <code>{@value #BATCH} {@value #CHECK_SHA}</code> pamte se u priručnoj
+ * memoriji (vidjeti {@link DigestCache}) zadanoj opcijom
+ * <code>--{@value #CACHE_OPTION}</code>, pa se nepromijenjene datoteke ne
+ * čitaju ponovno. Najveći broj zapisa zadaje se opcijom
+ * <code>--{@value #CACHE_SIZE_OPTION}</code>, a priručna memorija isključuje se
+ * opcijom <code>--{@value #NO_CACHE_OPTION}</code>.
+ * 
+ * Uz operacije {@value #ENCRYPT} i {@value #DECRYPT} moguće je predati opciju
+ * <code>--{@value #DIGEST_OPTION}</code>. Tada se datoteka čita samo jednom, a
+ * uz kriptiranje se računa i zaštitna suma nekriptiranih podataka (vidjeti
+ * {@link DigestingCrypto}). Enkripcija sumu zapisuje u manifest, a dekripcija
+ * je provjerava. Putanja do manifesta zadaje se opcijom
+ * <code>--{@value #MANIFEST_OPTION}</code> (predefinirano
+ * {@link DigestingCrypto#manifestFor(Path)} kriptirane datoteke).
+ * 
+ * Uz operacije {@value #ENCRYPT} i {@value #DECRYPT} moguće je predati opciju
+ * <code>--{@value #COMPRESS_OPTION}</code>. Tada se podaci prije enkripcije
+ * sažimaju, a nakon dekripcije raspakiravaju na zasebnoj dretvi (vidjeti
+ * {@link CompressingCrypto}), pa se ista opcija mora zadati i pri dekripciji.
+ * Razina sažimanja zadaje se opcijom
+ * <code>--{@value #COMPRESS_LEVEL_OPTION}</code>, a broj spremnika u redu
+ * između dretvi opcijom <code>--{@value #QUEUE_SIZE_OPTION}</code>.
+ * 
+ * Uz operacije {@value #ENCRYPT} i {@value #DECRYPT} moguće je predati opciju
+ * <code>--{@value #CHECKPOINT_OPTION}</code>. Tada se kriptirani podaci
+ * zapisuju u privremenu datoteku koja se na kraju atomarno preimenuje, a
+ * napredak se svakih <code>--{@value #CHECKPOINT_INTERVAL_OPTION}</code>
+ * okteta sprema u pomoćnu datoteku, pa se prekinuto kriptiranje ponovnim
+ * pokretanjem nastavlja od zadnje spremljene točke (vidjeti
+ * {@link CheckpointedCrypto}).
+ * 
+ * Uz operacije {@value #ENCRYPT} i {@value #DECRYPT} moguće je predati opciju
+ * <code>--{@value #PIPELINE_OPTION}</code>. Tada dretva čitanja, dretva
+ * kriptiranja i dretva pisanja rade istovremeno, povezane ograničenim redovima
+ * od <code>--{@value #QUEUE_SIZE_OPTION}</code> spremnika veličine
+ * <code>--{@value #BUFFER_SIZE_OPTION}</code> (vidjeti
+ * {@link PipelinedCrypto}). Kriptirana datoteka jednaka je onoj koju stvaraju
+ * ostali načini čitanja i pisanja.
+ * 
+ * Uz operacije {@value #ENCRYPT} i {@value #DECRYPT} moguće je predati opciju
+ * <code>--{@value #PROGRESS_OPTION}[=ms]</code>. Tada se napredak (obrađeni
+ * okteti, trenutna i prosječna propusnost, procjena preostalog vremena te
+ * vrijeme čitanja, kriptiranja i pisanja) periodički ispisuje na standardni
+ * izlaz za pogreške. Opcijom <code>--{@value #METRICS_OPTION}[=putanja]</code>
+ * na kraju se u formatu JSON ispisuje sažetak mjerenja, uz oznaku ograničava
+ * li obradu ulaz i izlaz ili procesor (vidjeti {@link CryptoMetrics}).
+ * 
+ * Operacijom {@value #CHECK_MANIFEST} provjeravaju se zaštitne sume svih
+ * datoteka iz manifesta u formatu programa <code>sha256sum</code>, npr.
+ * <code>checkmanifest SHA256SUMS --threads=8</code> (vidjeti
+ * {@link ManifestCheck}). Program završava izlaznim kodom 0 ukoliko su sve
+ * datoteke ispravne, 1 ukoliko neka datoteka nije ispravna te 2 ukoliko se
+ * manifest ne može pročitati.
+ * 
+ * Operacijom {@value #BATCH} jedna od operacija {@value #ENCRYPT},
+ * {@value #DECRYPT} ili {@value #CHECK_SHA} izvodi se nad svim datotekama
+ * direktorija ili manifesta (vidjeti {@link BatchCrypto}), npr.
+ * <code>batch encrypt izvor cilj</code> ili <code>batch checksha izvor</code>.
+ * Program završava izlaznim kodom 2 ukoliko obrada neke datoteke nije uspjela.
+ * 
+ * Ključ i inicijalizacijski vektor svih operacija čitaju se iz opcija
+ * <code>--{@value #KEY_OPTION}</code> i <code>--{@value #IV_OPTION}</code>,
+ * iz datoteke zadane opcijom <code>--{@value #KEY_FILE_OPTION}</code> ili
+ * opisnika zadanog opcijom <code>--key-fd</code> (ključ i vektor odvojeni
+ * prazninom), iz varijabli okruženja {@value #KEY_VARIABLE} i
+ * {@value #IV_VARIABLE} ili, ukoliko ništa od toga nije zadano, od korisnika
+ * preko konzole. Očekivana zaštitna suma operacije {@value #CHECK_SHA} na isti
+ * se način čita iz opcija <code>--{@value #EXPECTED_OPTION}</code>,
+ * <code>--expected-file</code> (npr. ispis programa <code>sha256sum</code>) i
+ * <code>--expected-fd</code> te varijable okruženja
+ * {@value #EXPECTED_VARIABLE} (vidjeti {@link SecretInput}). Operacija
+ * {@value #CHECK_SHA} završava izlaznim kodom 0 ukoliko se suma poklapa, 1
+ * ukoliko se ne poklapa te 2 ukoliko se ne može izračunati. Standardni ulaz se
+ * nikada ne zatvara, pa se program može više puta pokrenuti unutar istog
+ * procesa metodom {@link #run(String[])}.
+ * 
+ * Operacijama {@value #HEX_ENCODE} i {@value #HEX_DECODE} datoteka se
+ * pretvara u heksadekadski zapis i obrnuto, npr.
+ * <code>hexencode izvor cilj</code>. Pretvorba se obavlja tokovima
+ * {@link HexEncodingOutputStream} i {@link HexDecodingInputStream}, pa
+ * zauzeće memorije ne ovisi o veličini datoteke.
+ * 
+ * Operacijom {@value #DECRYPT_RANGE} dekriptira se samo dio datoteke u
+ * segmentiranom formatu, npr. <code>decrypt-range datoteka pomak duljina</code>.
+ * Dekriptirani okteti zapisuju se na standardni izlaz ili, ukoliko je zadan
+ * peti argument, u datoteku s tom putanjom. Ključ i inicijalizacijski vektor
+ * dohvaćaju se kao i kod operacije {@value #BATCH}.
+ * 
+ * Operacije kriptiranja, pretvorbe i dekripcije raspona završavaju izlaznim
+ * kodom 0 ukoliko su uspjele, a 2 ukoliko nisu. Dekripcija uz opciju
+ * <code>--{@value #DIGEST_OPTION}</code> završava izlaznim kodom 1 ukoliko se
+ * zaštitna suma dekriptirane datoteke ne poklapa sa sumom iz manifesta.
+ * Kombinacije opcija koje se ne mogu koristiti zajedno (npr.
+ * <code>--{@value #COMPRESS_OPTION} --{@value #DIGEST_OPTION}</code>) odbijaju
+ * se izlaznim kodom 2 prije obrade datoteke.
+ * 
  * @see Cipher
  * @see MessageDigest
  * 
@@ -81,138 +222,1282 @@ public class Crypto {
 	private static final int FROM_FILE_INDEX = 1;
 
 	/**
-	 * Konstanta koja predstavlja poziciju unutar predanih argumenata naredbenog
-	 * redka koja će biti putanja do kriptirane datoteke
+	 * Konstanta koja predstavlja poziciju unutar predanih argumenata naredbenog
+	 * redka koja će biti putanja do kriptirane datoteke
+	 */
+	private static final int TO_FILE_INDEX = 2;
+
+	/**
+	 * Konstanta koja predstavlja opciju dekriptiranja algoritmom
+	 * {@link #CRYPT_ALGORITHM}
+	 */
+	private static final String DECRYPT = "decrypt";
+
+	/**
+	 * Konstanta koja predstavlja opciju enkriptiranja algoritmom
+	 * {@link #CRYPT_ALGORITHM}
+	 */
+	private static final String ENCRYPT = "encrypt";
+
+	/**
+	 * Konstanta koja predstavlja opciju izračuna zaštitne sume algoritmom
+	 * {@value #DIGEST_ALGORITHM}
+	 */
+	private static final String CHECK_SHA = "checksha";
+
+	/**
+	 * Konstanta koja predstavlja operaciju kojom se provjeravaju zaštitne sume
+	 * svih datoteka iz manifesta (vidjeti {@link ManifestCheck})
+	 */
+	private static final String CHECK_MANIFEST = "checkmanifest";
+
+	/**
+	 * Konstanta koja predstavlja izlazni kod programa ukoliko se zaštitna suma
+	 * ne poklapa s očekivanom
+	 */
+	private static final int MISMATCH_EXIT_CODE = 1;
+
+	/**
+	 * Konstanta koja predstavlja izlazni kod programa ukoliko se zaštitna suma
+	 * ne može provjeriti
+	 */
+	private static final int ERROR_EXIT_CODE = 2;
+
+	/** Konstanta koja predstavlja naziv opcije kojom se odabire format datoteke */
+	private static final String FORMAT_OPTION = "format";
+
+	/**
+	 * Konstanta koja predstavlja vrijednost opcije {@value #FORMAT_OPTION}
+	 * kojom se odabire segmentirani format
+	 */
+	private static final String SEGMENTED_FORMAT = "segmented";
+
+	/** Konstanta koja predstavlja naziv opcije kojom se zadaje veličina segmenta */
+	private static final String SEGMENT_SIZE_OPTION = "segment-size";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se zadaje algoritam
+	 * kriptiranja (predefinirano {@value #CRYPT_ALGORITHM})
+	 */
+	private static final String ALGORITHM_OPTION = "algorithm";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se zadaje način rada
+	 * algoritma kriptiranja (vidjeti {@link CipherMode})
+	 */
+	private static final String MODE_OPTION = "mode";
+
+	/** Konstanta koja predstavlja naziv opcije kojom se zadaje broj dretvi */
+	private static final String THREADS_OPTION = "threads";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se odabire način čitanja i
+	 * pisanja datoteka (vidjeti {@link IOMode})
+	 */
+	private static final String IO_OPTION = "io";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se zadaje veličina
+	 * spremnika za načine {@link IOMode#MAPPED} i {@link IOMode#DIRECT}
+	 */
+	private static final String BUFFER_SIZE_OPTION = "buffer-size";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se zaštitna suma računa
+	 * kao korijen Merkleovog stabla (vidjeti {@link TreeHash})
+	 */
+	private static final String TREE_OPTION = "tree";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se zadaje veličina lista
+	 * Merkleovog stabla
+	 */
+	private static final String CHUNK_SIZE_OPTION = "chunk-size";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se zadaje putanja do
+	 * manifesta Merkleovog stabla ili manifesta zaštitne sume
+	 */
+	private static final String MANIFEST_OPTION = "manifest";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se uz kriptiranje u istom
+	 * prolazu računa i zaštitna suma (vidjeti {@link DigestingCrypto})
+	 */
+	private static final String DIGEST_OPTION = "digest";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se podaci sažimaju prije
+	 * enkripcije, odnosno raspakiravaju nakon dekripcije (vidjeti
+	 * {@link CompressingCrypto})
+	 */
+	private static final String COMPRESS_OPTION = "compress";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se zadaje razina
+	 * sažimanja
+	 */
+	private static final String COMPRESS_LEVEL_OPTION = "compress-level";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se zadaje broj spremnika u
+	 * redu između dretvi
+	 */
+	private static final String QUEUE_SIZE_OPTION = "queue-size";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se zadaju algoritmi
+	 * zaštitne sume koji se računaju u jednom čitanju (vidjeti
+	 * {@link MultiDigest})
+	 */
+	private static final String ALGORITHMS_OPTION = "algorithms";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se kriptiranje izvodi uz
+	 * spremanje napretka (vidjeti {@link CheckpointedCrypto})
+	 */
+	private static final String CHECKPOINT_OPTION = "checkpoint";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se zadaje broj okteta
+	 * između dvije spremljene točke
+	 */
+	private static final String CHECKPOINT_INTERVAL_OPTION = "checkpoint-interval";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se čitanje, kriptiranje i
+	 * pisanje izvode istovremeno na zasebnim dretvama (vidjeti
+	 * {@link PipelinedCrypto})
+	 */
+	private static final String PIPELINE_OPTION = "pipeline";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se uključuje periodički
+	 * ispis napretka kriptiranja (vidjeti {@link CryptoMetrics})
+	 */
+	private static final String PROGRESS_OPTION = "progress";
+
+	/**
+	 * Konstanta koja predstavlja predefinirani razmak između dva ispisa
+	 * napretka u milisekundama
+	 */
+	private static final int DEFAULT_PROGRESS_INTERVAL = 1000;
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se na kraju kriptiranja
+	 * ispisuje sažetak mjerenja u formatu JSON
+	 */
+	private static final String METRICS_OPTION = "metrics";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se isključuje priručna
+	 * memorija zaštitnih suma (vidjeti {@link DigestCache})
+	 */
+	private static final String NO_CACHE_OPTION = "no-cache";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se zadaje putanja do
+	 * datoteke priručne memorije zaštitnih suma
+	 */
+	private static final String CACHE_OPTION = "cache";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se zadaje najveći broj
+	 * zapisa priručne memorije zaštitnih suma
+	 */
+	private static final String CACHE_SIZE_OPTION = "cache-size";
+
+	/**
+	 * Konstanta koja predstavlja operaciju kojom se jedna od operacija
+	 * {@value #ENCRYPT}, {@value #DECRYPT} ili {@value #CHECK_SHA} izvodi nad
+	 * skupom datoteka (vidjeti {@link BatchCrypto})
+	 */
+	private static final String BATCH = "batch";
+
+	/**
+	 * Konstanta koja predstavlja poziciju operacije koja se izvodi nad skupom
+	 * datoteka unutar argumenata naredbenog redka
+	 */
+	private static final int BATCH_OPERATION_INDEX = 1;
+
+	/**
+	 * Konstanta koja predstavlja poziciju direktorija ili manifesta s
+	 * datotekama unutar argumenata naredbenog redka
+	 */
+	private static final int BATCH_SOURCE_INDEX = 2;
+
+	/**
+	 * Konstanta koja predstavlja poziciju ciljnog direktorija unutar
+	 * argumenata naredbenog redka
+	 */
+	private static final int BATCH_TARGET_INDEX = 3;
+
+	/**
+	 * Konstanta koja predstavlja operaciju kojom se dekriptira samo dio
+	 * datoteke u segmentiranom formatu (vidjeti
+	 * {@link SegmentedCrypto#decryptRange(Path, long, long, OutputStream)})
+	 */
+	private static final String DECRYPT_RANGE = "decrypt-range";
+
+	/**
+	 * Konstanta koja predstavlja poziciju pomaka raspona unutar argumenata
+	 * naredbenog redka
+	 */
+	private static final int RANGE_OFFSET_INDEX = 2;
+
+	/**
+	 * Konstanta koja predstavlja poziciju duljine raspona unutar argumenata
+	 * naredbenog redka
+	 */
+	private static final int RANGE_LENGTH_INDEX = 3;
+
+	/**
+	 * Konstanta koja predstavlja poziciju (neobavezne) putanje do datoteke u
+	 * koju se sprema dekriptirani raspon unutar argumenata naredbenog redka
+	 */
+	private static final int RANGE_TARGET_INDEX = 4;
+
+	/**
+	 * Konstanta koja predstavlja operaciju kojom se datoteka zapisuje kao niz
+	 * heksadekadskih znamenki (vidjeti {@link HexEncodingOutputStream})
+	 */
+	private static final String HEX_ENCODE = "hexencode";
+
+	/**
+	 * Konstanta koja predstavlja operaciju kojom se niz heksadekadskih
+	 * znamenki zapisuje kao datoteka okteta (vidjeti
+	 * {@link HexDecodingInputStream})
+	 */
+	private static final String HEX_DECODE = "hexdecode";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se zadaje uzorak datoteka
+	 * koje se obrađuju
+	 */
+	private static final String GLOB_OPTION = "glob";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se zadaje datoteka s
+	 * ključem i inicijalizacijskim vektorom
+	 */
+	private static final String KEY_FILE_OPTION = "key-file";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se zadaje ključ
+	 * kriptiranja, a ujedno i prefiks opcija {@value #KEY_FILE_OPTION} i
+	 * <code>key-fd</code> (vidjeti {@link SecretInput})
+	 */
+	private static final String KEY_OPTION = "key";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se zadaje inicijalizacijski
+	 * vektor
+	 */
+	private static final String IV_OPTION = "iv";
+
+	/**
+	 * Konstanta koja predstavlja naziv opcije kojom se zadaje očekivana
+	 * zaštitna suma, a ujedno i prefiks opcija <code>expected-file</code> i
+	 * <code>expected-fd</code> (vidjeti {@link SecretInput})
+	 */
+	private static final String EXPECTED_OPTION = "expected";
+
+	/**
+	 * Konstanta koja predstavlja naziv varijable okruženja s ključem
+	 * kriptiranja
+	 */
+	private static final String KEY_VARIABLE = "CRYPTO_KEY";
+
+	/**
+	 * Konstanta koja predstavlja naziv varijable okruženja s inicijalizacijskim
+	 * vektorom
+	 */
+	private static final String IV_VARIABLE = "CRYPTO_IV";
+
+	/**
+	 * Konstanta koja predstavlja naziv varijable okruženja s očekivanom
+	 * zaštitnom sumom
+	 */
+	private static final String EXPECTED_VARIABLE = "CRYPTO_EXPECTED_DIGEST";
+
+	/** Konstanta koja predstavlja veličinu pomoćnog polja okteta */
+	private static final int BUFFER_SIZE = 4096;
+
+	/**
+	 * Konstanta koja predstavlja naziv algoritma koji se koristi za kriptiranje
+	 * datoteka (i dekripciju i enkripciju).
+	 */
+	private static final String CRYPT_ALGORITHM = "AES";
+
+	/**
+	 * Konstanta koja predstavlja punu transformaciju koja se koristi za
+	 * prilikom kriptiranja datoteka (i dekripciju i enkripciju).
+	 */
+	private static final String CRYPT_TRANSFORMATION = "AES/CBC/PKCS5Padding";
+
+	/**
+	 * Konstanta koja predstavlja naziv algoritma koji se koristi za izračun
+	 * zaštitne sume datoteka (i dekripciju i enkripciju).
+	 */
+	static final String DIGEST_ALGORITHM = "SHA-256";
+
+	/**
+	 * Metoda od koje započinje izvođenje programa
+	 *
+	 * @param args
+	 *            <ul>
+	 *            <li>Ako je <code>args[0]=={@value #CHECK_SHA}</code> tada je
+	 *            <code>args[1]</code> naziv datoteke čija se zaštitna suma
+	 *            računa</li>
+	 *            <li>Ako je
+	 *            <code>args[0]=={@value #ENCRYPT} ili args[0]=={@value #DECRYPT}</code>
+	 *            tada je <code>args[1]</code> naziv datoteke koja se kriptira,
+	 *            a <code>args[2]</code> naziv buduće kriptirane datoteke</li>
+	 *            </ul>
+	 */
+	public static void main(String[] args) {
+		int exitCode = run(args);
+		if (exitCode != 0) {
+			System.exit(exitCode);
+		}
+	}
+
+	/**
+	 * Metoda koja izvodi jednu operaciju programa bez izlaska iz procesa, pa se
+	 * može pozivati više puta unutar istog procesa (npr. iz programa koji
+	 * mjeri propusnost). Argumenti su jednaki argumentima metode
+	 * {@link #main(String[])}.
+	 *
+	 * @param args
+	 *            argumenti naredbenog redka
+	 * @return izlazni kod programa: 0 ukoliko je operacija uspjela,
+	 *         {@value #MISMATCH_EXIT_CODE} ukoliko se neka zaštitna suma ne
+	 *         poklapa te {@value #ERROR_EXIT_CODE} ukoliko argumenti nisu
+	 *         valjani ili operacija nije uspjela
+	 * @throws IllegalArgumentException
+	 *             ukoliko je predano premalo argumenata
+	 */
+	public static int run(String[] args) {
+		CryptoArguments arguments = new CryptoArguments(args);
+		if (arguments.size() < DIGEST_ARGS_SIZE) {
+			throw new IllegalArgumentException("Predali ste pre mali broj argumenata!");
+		}
+
+		String operation = arguments.get(OPERATION_INDEX);
+
+		IOMode ioMode;
+		int bufferSize;
+		CipherMode cipherMode;
+		try {
+			cipherMode = CipherMode.forName(arguments.getOption(MODE_OPTION, CipherMode.CBC.name()));
+			ioMode = IOMode.forName(arguments.getOption(IO_OPTION, IOMode.STREAM.name()));
+			bufferSize = arguments.getIntOption(BUFFER_SIZE_OPTION, ChannelCrypto.DEFAULT_BUFFER_SIZE);
+			if (bufferSize <= 0) {
+				throw new IllegalArgumentException("Veličina spremnika mora biti pozitivna!");
+			}
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+			return ERROR_EXIT_CODE;
+		}
+
+		if (operation.equalsIgnoreCase(BATCH)) {
+			return batch(arguments, ioMode, bufferSize);
+		}
+
+		if (operation.equalsIgnoreCase(DECRYPT_RANGE)
+				&& (arguments.size() == RANGE_TARGET_INDEX || arguments.size() == RANGE_TARGET_INDEX + 1)) {
+			return decryptRange(arguments);
+		}
+
+		if (operation.equalsIgnoreCase(CHECK_MANIFEST) && arguments.size() == DIGEST_ARGS_SIZE) {
+			return checkManifest(arguments.get(FROM_FILE_INDEX), arguments, ioMode, bufferSize);
+		}
+
+		if (operation.equalsIgnoreCase(CHECK_SHA) && arguments.size() == DIGEST_ARGS_SIZE) {
+			if (arguments.hasOption(TREE_OPTION)) {
+				return treeDigestFile(arguments.get(FROM_FILE_INDEX), arguments);
+			} else if (arguments.hasOption(ALGORITHMS_OPTION)) {
+				return multiDigestFile(arguments.get(FROM_FILE_INDEX), arguments, bufferSize);
+			}
+
+			DigestCache cache;
+			try {
+				cache = openCache(arguments);
+			} catch (IllegalArgumentException e) {
+				System.out.println(e.getMessage());
+				return ERROR_EXIT_CODE;
+			}
+			return digestFile(arguments.get(FROM_FILE_INDEX), arguments, ioMode, bufferSize, cache);
+		}
+
+		boolean encode = false;
+		if (((encode = operation.equalsIgnoreCase(HEX_ENCODE)) || operation.equalsIgnoreCase(HEX_DECODE))
+				&& arguments.size() == CRYPT_ARGS_SIZE) {
+			return hexFile(encode, arguments.get(FROM_FILE_INDEX), arguments.get(TO_FILE_INDEX));
+		}
+
+		boolean encrypt = false;
+		if (((encrypt = operation.equalsIgnoreCase(ENCRYPT)) || operation.equalsIgnoreCase(DECRYPT))
+				&& arguments.size() == CRYPT_ARGS_SIZE) {
+			boolean segmented = SEGMENTED_FORMAT.equalsIgnoreCase(arguments.getOption(FORMAT_OPTION, ""));
+			String segmentedOption = segmented ? "--" + FORMAT_OPTION + "=" + SEGMENTED_FORMAT
+					: cipherMode == CipherMode.GCM ? "--" + MODE_OPTION + "=" + CipherMode.GCM : null;
+			try {
+				checkCryptOptions(arguments, segmentedOption);
+			} catch (IllegalArgumentException e) {
+				System.out.println(e.getMessage());
+				return ERROR_EXIT_CODE;
+			}
+
+			if (segmentedOption != null) {
+				return segmentedCryptFile(encrypt, arguments.get(FROM_FILE_INDEX), arguments.get(TO_FILE_INDEX),
+						arguments, cipherMode == CipherMode.CBC ? CipherMode.CTR : cipherMode);
+			} else if (arguments.hasOption(CHECKPOINT_OPTION)) {
+				return checkpointedCryptFile(encrypt, arguments.get(FROM_FILE_INDEX), arguments.get(TO_FILE_INDEX),
+						arguments, bufferSize);
+			} else if (arguments.hasOption(COMPRESS_OPTION)) {
+				return compressingCryptFile(encrypt, arguments.get(FROM_FILE_INDEX), arguments.get(TO_FILE_INDEX),
+						arguments, bufferSize);
+			} else if (arguments.hasOption(DIGEST_OPTION)) {
+				return digestingCryptFile(encrypt, arguments.get(FROM_FILE_INDEX), arguments.get(TO_FILE_INDEX),
+						arguments, bufferSize);
+			}
+			return cryptFile(encrypt, arguments.get(FROM_FILE_INDEX), arguments.get(TO_FILE_INDEX), arguments, ioMode,
+					bufferSize);
+		}
+
+		System.out.println("Niste unijeli valjanu operaciju");
+		return ERROR_EXIT_CODE;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava mogu li se opcije kriptiranja iz
+	 * <b>arguments</b> koristiti zajedno. Segmentirani format i opcije
+	 * {@value #CHECKPOINT_OPTION}, {@value #COMPRESS_OPTION},
+	 * {@value #DIGEST_OPTION} i {@value #PIPELINE_OPTION} međusobno se
+	 * isključuju. Uz svaku od njih opcija {@value #IO_OPTION} nema učinka, a
+	 * opcije {@value #PROGRESS_OPTION} i {@value #METRICS_OPTION} imaju učinak
+	 * samo uz opciju {@value #PIPELINE_OPTION}, pa se takve kombinacije odbijaju
+	 * umjesto da se opcije zanemare.
+	 *
+	 * @param arguments
+	 *            argumenti naredbenog redka
+	 * @param segmentedOption
+	 *            opcija kojom je odabran segmentirani format ili
+	 *            <code>null</code> ukoliko on nije odabran
+	 * @throws IllegalArgumentException
+	 *             ukoliko se zadane opcije ne mogu koristiti zajedno
+	 */
+	private static void checkCryptOptions(CryptoArguments arguments, String segmentedOption) {
+		List<String> modes = new ArrayList<>();
+		if (segmentedOption != null) {
+			modes.add(segmentedOption);
+		}
+		for (String option : new String[] { CHECKPOINT_OPTION, COMPRESS_OPTION, DIGEST_OPTION, PIPELINE_OPTION }) {
+			if (arguments.hasOption(option)) {
+				modes.add("--" + option);
+			}
+		}
+		if (modes.size() > 1) {
+			throw new IllegalArgumentException("Opcije " + String.join(" i ", modes) + " ne mogu se koristiti zajedno!");
+		}
+		if (modes.isEmpty()) {
+			return;
+		}
+
+		boolean pipeline = arguments.hasOption(PIPELINE_OPTION);
+		for (String option : new String[] { IO_OPTION, PROGRESS_OPTION, METRICS_OPTION }) {
+			if (arguments.hasOption(option) && (!pipeline || option.equals(IO_OPTION))) {
+				throw new IllegalArgumentException(
+						String.format("Opcija --%s nije podržana uz opciju %s!", option, modes.get(0)));
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja se koristi za kriptiranje datoteke algoritmom
+	 * {@link #CRYPT_ALGORITHM}. Metoda otvara dva toka okteta (ili dva kanala,
+	 * ovisno o <b>ioMode</b>) iz predanih <b>fromFileName</b> i
+	 * <b>toFileName</b>. Te podatke iz ulaznog toka (fromFileName) kriptira i
+	 * sprema u podatke izlaznog toka (toFileName)
+	 *
+	 * @param encrypt
+	 *            <b>true</b> ukoliko se zadana datoteka treba enkriptirati, a
+	 *            <b>false</b> ukoliko se datoteka treba dekriptirati
+	 * @param fromFileName
+	 *            primjerak razreda {@link String} koji predstavlja putanju do
+	 *            datoteke nad kojom se vrši kriptiranje
+	 * @param toFileName
+	 *            primjerak razreda {@link String} koji predstavlja putanju gdje
+	 *            će se spremiti kriptirana datoteka (zajedno sa nazivom
+	 *            datoteke)
+	 * @param arguments
+	 *            argumenti naredbenog redka iz kojih se čitaju opcije
+	 * @param ioMode
+	 *            način čitanja i pisanja datoteka
+	 * @param bufferSize
+	 *            veličina spremnika za načine koji koriste kanale
+	 * @return izlazni kod programa: 0 ukoliko je operacija uspjela, a inače
+	 *         {@value #ERROR_EXIT_CODE}
+	 */
+	private static int cryptFile(boolean encrypt, String fromFileName, String toFileName,
+			CryptoArguments arguments, IOMode ioMode, int bufferSize) {
+		Path fromFilePath = Paths.get(fromFileName);
+		Path toFilePath = Paths.get(toFileName);
+
+		CryptoMetrics.Reporter reporter = null;
+		try {
+			Cipher cipher = initCipher(encrypt, arguments);
+			CryptoMetrics metrics = null;
+			if (arguments.hasOption(PROGRESS_OPTION) || arguments.hasOption(METRICS_OPTION)) {
+				metrics = new CryptoMetrics(encrypt ? ENCRYPT : DECRYPT, Files.size(fromFilePath));
+			}
+			if (arguments.hasOption(PROGRESS_OPTION)) {
+				reporter = metrics.startReporting(System.err,
+						arguments.getIntOption(PROGRESS_OPTION, DEFAULT_PROGRESS_INTERVAL));
+			}
+
+			if (arguments.hasOption(PIPELINE_OPTION)) {
+				PipelinedCrypto pipelinedCrypto = new PipelinedCrypto(bufferSize,
+						arguments.getIntOption(QUEUE_SIZE_OPTION, PipelinedCrypto.DEFAULT_QUEUE_SIZE));
+				try (FileChannel in = FileChannel.open(fromFilePath, StandardOpenOption.READ);
+						FileChannel out = FileChannel.open(toFilePath, StandardOpenOption.CREATE,
+								StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+					pipelinedCrypto.crypt(cipher, in, out, metrics);
+				}
+			} else if (ioMode == IOMode.STREAM) {
+				try (InputStream is = new BufferedInputStream(Files.newInputStream(fromFilePath));
+						OutputStream os = new BufferedOutputStream(Files.newOutputStream(toFilePath))) {
+					cryptStream(cipher, is, os, BUFFER_SIZE, metrics);
+				}
+			} else {
+				ChannelCrypto channelCrypto = new ChannelCrypto(ioMode, bufferSize);
+				try (FileChannel in = FileChannel.open(fromFilePath, StandardOpenOption.READ);
+						FileChannel out = FileChannel.open(toFilePath, StandardOpenOption.CREATE,
+								StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+					channelCrypto.crypt(cipher, in, out, metrics);
+				}
+			}
+
+			System.out.printf("%s završena. Generirana datoteka %s temeljem datoteke %s.",
+					encrypt ? "Enkripcija" : "Dekripcija", toFileName, fromFilePath);
+			if (metrics != null) {
+				metrics.finish();
+				if (reporter != null) {
+					reporter.close();
+					System.err.println(metrics.progressLine());
+				}
+				writeMetrics(metrics, arguments.getOption(METRICS_OPTION, null));
+			}
+			return 0;
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+		} catch (IOException e) {
+			System.out.printf("Ne mogu otvoriti tokove podataka nad datotekama: %n\t%s%n\t%s",
+					fromFilePath.toAbsolutePath(), toFilePath.toAbsolutePath());
+		} catch (Exception e) {
+			// Problemi sa kriptiranjem, djelomično zapisana datoteka se briše
+			deleteQuietly(toFilePath);
+			System.out.printf("Nisam uspio %s predanu datoteku '%s'", encrypt ? "kriptirati" : "dekritpirati",
+					fromFileName);
+		} finally {
+			if (reporter != null) {
+				reporter.close();
+			}
+		}
+		return ERROR_EXIT_CODE;
+	}
+
+	/**
+	 * Pomoćna metoda koja sažetak mjerenja <b>metrics</b> u formatu JSON
+	 * zapisuje u datoteku <b>fileName</b> ili, ukoliko ona nije zadana, na
+	 * standardni izlaz za pogreške
+	 *
+	 * @param metrics
+	 *            mjerenja kriptiranja
+	 * @param fileName
+	 *            putanja do datoteke ili <code>null</code>
+	 * @throws IOException
+	 *             ukoliko nije moguće pisati u datoteku
+	 */
+	private static void writeMetrics(CryptoMetrics metrics, String fileName) throws IOException {
+		if (fileName == null) {
+			System.err.println(metrics.toJson());
+		} else {
+			Files.write(Paths.get(fileName), (metrics.toJson() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja briše datoteku <b>file</b> ukoliko postoji.
+	 * Pogreška prilikom brisanja se zanemaruje.
+	 *
+	 * @param file
+	 *            putanja do datoteke koja se briše
+	 */
+	static void deleteQuietly(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException ignorable) {
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja datoteku <b>fromFileName</b> zapisuje u datoteku
+	 * <b>toFileName</b> kao niz heksadekadskih znamenki ili, ukoliko je
+	 * <b>encode</b> <b>false</b>, niz heksadekadskih znamenki iz datoteke
+	 * <b>fromFileName</b> zapisuje kao oktete u datoteku <b>toFileName</b>.
+	 * Podaci se pretvaraju u dijelovima, pa zauzeće memorije ne ovisi o
+	 * veličini datoteke. Ukoliko pretvorba ne uspije (npr. neparan broj
+	 * znamenki ili znak koji nije heksadekadska znamenka), djelomično zapisana
+	 * datoteka se briše.
+	 *
+	 * @param encode
+	 *            <b>true</b> ukoliko se datoteka pretvara u heksadekadski
+	 *            zapis, a <b>false</b> ukoliko se pretvara iz njega
+	 * @param fromFileName
+	 *            putanja do datoteke koja se pretvara
+	 * @param toFileName
+	 *            putanja do datoteke u koju se zapisuje rezultat
+	 * @return izlazni kod programa: 0 ukoliko je pretvorba uspjela, a inače
+	 *         {@value #ERROR_EXIT_CODE}
+	 */
+	private static int hexFile(boolean encode, String fromFileName, String toFileName) {
+		Path fromFilePath = Paths.get(fromFileName);
+		Path toFilePath = Paths.get(toFileName);
+
+		try (InputStream is = encode ? Files.newInputStream(fromFilePath)
+				: new HexDecodingInputStream(Files.newInputStream(fromFilePath))) {
+			try (OutputStream os = encode ? new HexEncodingOutputStream(Files.newOutputStream(toFilePath))
+					: Files.newOutputStream(toFilePath)) {
+				byte[] bytes = new byte[BUFFER_SIZE];
+				int len;
+				while ((len = is.read(bytes)) != -1) {
+					os.write(bytes, 0, len);
+				}
+			} catch (IOException e) {
+				// djelomično zapisana datoteka se briše
+				deleteQuietly(toFilePath);
+				throw e;
+			}
+
+			System.out.printf("%s završeno. Generirana datoteka %s temeljem datoteke %s.",
+					encode ? "Kodiranje" : "Dekodiranje", toFileName, fromFileName);
+			return 0;
+		} catch (IOException e) {
+			System.out.printf("Nisam uspio %s datoteku '%s': %s", encode ? "kodirati" : "dekodirati", fromFileName,
+					e.getMessage());
+			return ERROR_EXIT_CODE;
+		}
+	}
+
+	/**
+	 * Metoda koja sve podatke iz ulaznog toka okteta <b>is</b> kriptira
+	 * inicijaliziranim primjerkom razreda {@link Cipher} <b>cipher</b> i
+	 * zapisuje ih u izlazni tok okteta <b>os</b>.
+	 *
+	 * @param cipher
+	 *            inicijalizirani primjerak razreda {@link Cipher}
+	 * @param is
+	 *            ulazni tok okteta iz kojeg se čitaju podaci
+	 * @param os
+	 *            izlazni tok okteta u koji se zapisuju kriptirani podaci
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati u tokove okteta
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nije uspjelo
+	 */
+	static void cryptStream(Cipher cipher, InputStream is, OutputStream os)
+			throws IOException, GeneralSecurityException {
+		cryptStream(cipher, is, os, BUFFER_SIZE);
+	}
+
+	/**
+	 * Metoda koja sve podatke iz ulaznog toka okteta <b>is</b> kriptira
+	 * inicijaliziranim primjerkom razreda {@link Cipher} <b>cipher</b> i
+	 * zapisuje ih u izlazni tok okteta <b>os</b>, čitajući odjednom najviše
+	 * <b>bufferSize</b> okteta.
+	 *
+	 * @param cipher
+	 *            inicijalizirani primjerak razreda {@link Cipher}
+	 * @param is
+	 *            ulazni tok okteta iz kojeg se čitaju podaci
+	 * @param os
+	 *            izlazni tok okteta u koji se zapisuju kriptirani podaci
+	 * @param bufferSize
+	 *            veličina pomoćnog polja okteta
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati u tokove okteta
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nije uspjelo
+	 */
+	static void cryptStream(Cipher cipher, InputStream is, OutputStream os, int bufferSize)
+			throws IOException, GeneralSecurityException {
+		cryptStream(cipher, is, os, bufferSize, null);
+	}
+
+	/**
+	 * Metoda koja sve podatke iz ulaznog toka okteta <b>is</b> kriptira
+	 * inicijaliziranim primjerkom razreda {@link Cipher} <b>cipher</b> i
+	 * zapisuje ih u izlazni tok okteta <b>os</b>, bilježeći trajanje čitanja,
+	 * kriptiranja i pisanja u <b>metrics</b>.
+	 *
+	 * @param cipher
+	 *            inicijalizirani primjerak razreda {@link Cipher}
+	 * @param is
+	 *            ulazni tok okteta iz kojeg se čitaju podaci
+	 * @param os
+	 *            izlazni tok okteta u koji se zapisuju kriptirani podaci
+	 * @param bufferSize
+	 *            veličina pomoćnog polja okteta
+	 * @param metrics
+	 *            mjerenja koja se osvježavaju ili <code>null</code>
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati u tokove okteta
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nije uspjelo
+	 */
+	static void cryptStream(Cipher cipher, InputStream is, OutputStream os, int bufferSize, CryptoMetrics metrics)
+			throws IOException, GeneralSecurityException {
+		byte[] bytes = new byte[bufferSize];
+		int len;
+		long time = System.nanoTime();
+		while ((len = is.read(bytes)) != -1) {
+			time = ChannelCrypto.record(metrics, time, ChannelCrypto.Stage.READ, len);
+			byte[] output = cipher.update(bytes, 0, len);
+			time = ChannelCrypto.record(metrics, time, ChannelCrypto.Stage.CIPHER, 0);
+			if (output != null) {
+				os.write(output);
+				os.flush();
+			}
+			time = ChannelCrypto.record(metrics, time, ChannelCrypto.Stage.WRITE, 0);
+		}
+		byte[] output = cipher.doFinal();
+		time = ChannelCrypto.record(metrics, time, ChannelCrypto.Stage.CIPHER, 0);
+		os.write(output);
+		os.flush();
+		ChannelCrypto.record(metrics, time, ChannelCrypto.Stage.WRITE, 0);
+	}
+
+	/**
+	 * Metoda koja vraća veličinu izlaznog spremnika dovoljnu za jedan poziv
+	 * metode {@link Cipher#update(byte[], int, int, byte[], int)} ili
+	 * {@link Cipher#doFinal(byte[], int)} nad <b>length</b> okteta. Vrijednost
+	 * {@link Cipher#getOutputSize(int)} dodatno se uvećava za dva bloka jer
+	 * pri dekripciji s nadopunom, kada pročitani dijelovi nisu poravnati s
+	 * blokom, neke implementacije zahtijevaju više mjesta nego što ta metoda
+	 * vrati, pa kriptiranje baca {@link javax.crypto.ShortBufferException}.
+	 *
+	 * @param cipher
+	 *            inicijalizirani primjerak razreda {@link Cipher}
+	 * @param length
+	 *            broj okteta koji se predaje kriptiranju
+	 * @return veličina izlaznog spremnika
+	 */
+	static int outputSize(Cipher cipher, int length) {
+		return cipher.getOutputSize(length) + 2 * cipher.getBlockSize();
+	}
+
+	/**
+	 * Pomoćna metoda koja se koristi za kriptiranje datoteke u segmentiranom
+	 * formatu (vidjeti {@link SegmentedCrypto}). Segmenti se obrađuju paralelno
+	 * unutar primjerka razreda {@link ForkJoinPool} s brojem dretvi zadanim
+	 * opcijom {@value #THREADS_OPTION} (predefinirano broj procesora).
+	 *
+	 * @param encrypt
+	 *            <b>true</b> ukoliko se zadana datoteka treba enkriptirati, a
+	 *            <b>false</b> ukoliko se datoteka treba dekriptirati
+	 * @param fromFileName
+	 *            primjerak razreda {@link String} koji predstavlja putanju do
+	 *            datoteke nad kojom se vrši kriptiranje
+	 * @param toFileName
+	 *            primjerak razreda {@link String} koji predstavlja putanju gdje
+	 *            će se spremiti kriptirana datoteka (zajedno sa nazivom
+	 *            datoteke)
+	 * @param arguments
+	 *            argumenti naredbenog redka iz kojih se čitaju opcije
+	 * @param mode
+	 *            način rada prilikom enkripcije, {@link CipherMode#CTR} ili
+	 *            {@link CipherMode#GCM}
+	 * @return izlazni kod programa: 0 ukoliko je operacija uspjela, a inače
+	 *         {@value #ERROR_EXIT_CODE}
+	 */
+	private static int segmentedCryptFile(boolean encrypt, String fromFileName, String toFileName,
+			CryptoArguments arguments, CipherMode mode) {
+		Path fromFilePath = Paths.get(fromFileName);
+		Path toFilePath = Paths.get(toFileName);
+
+		ForkJoinPool pool = null;
+		try {
+			int segmentSize = arguments.getIntOption(SEGMENT_SIZE_OPTION, SegmentedCrypto.DEFAULT_SEGMENT_SIZE);
+			pool = createPool(arguments);
+
+			CipherParams info = loadCipherParams(arguments);
+			SegmentedCrypto crypto = new SegmentedCrypto(arguments.getOption(ALGORITHM_OPTION, CRYPT_ALGORITHM), mode,
+					Util.hextobyte(info.key), Util.hextobyte(info.initVector), segmentSize, pool);
+			if (encrypt) {
+				crypto.encrypt(fromFilePath, toFilePath);
+			} else {
+				crypto.decrypt(fromFilePath, toFilePath);
+			}
+
+			System.out.printf("%s završena. Generirana datoteka %s temeljem datoteke %s.",
+					encrypt ? "Enkripcija" : "Dekripcija", toFileName, fromFilePath);
+			return 0;
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+		} catch (IOException e) {
+			System.out.printf("Ne mogu otvoriti tokove podataka nad datotekama: %n\t%s%n\t%s",
+					fromFilePath.toAbsolutePath(), toFilePath.toAbsolutePath());
+		} catch (AEADBadTagException e) {
+			System.out.printf("Nisam uspio dekriptirati predanu datoteku '%s'. %s", fromFileName, e.getMessage());
+		} catch (GeneralSecurityException e) {
+			System.out.printf("Nisam uspio %s predanu datoteku '%s'", encrypt ? "kriptirati" : "dekritpirati",
+					fromFileName);
+		} finally {
+			if (pool != null) {
+				pool.shutdown();
+			}
+		}
+		return ERROR_EXIT_CODE;
+	}
+
+	/**
+	 * Pomoćna metoda koja kriptira datoteku uz spremanje napretka (vidjeti
+	 * {@link CheckpointedCrypto}). Ukoliko je prethodno kriptiranje iste
+	 * datoteke prekinuto, nastavlja se od zadnje spremljene točke. Broj okteta
+	 * između dvije točke zadaje se opcijom {@value #CHECKPOINT_INTERVAL_OPTION}.
+	 *
+	 * @param encrypt
+	 *            <b>true</b> ukoliko se zadana datoteka treba enkriptirati, a
+	 *            <b>false</b> ukoliko se datoteka treba dekriptirati
+	 * @param fromFileName
+	 *            primjerak razreda {@link String} koji predstavlja putanju do
+	 *            datoteke nad kojom se vrši kriptiranje
+	 * @param toFileName
+	 *            primjerak razreda {@link String} koji predstavlja putanju gdje
+	 *            će se spremiti kriptirana datoteka (zajedno sa nazivom
+	 *            datoteke)
+	 * @param arguments
+	 *            argumenti naredbenog redka iz kojih se čitaju opcije
+	 * @param bufferSize
+	 *            veličina dijela podataka koji se odjednom čita iz datoteke
+	 * @return izlazni kod programa: 0 ukoliko je operacija uspjela, a inače
+	 *         {@value #ERROR_EXIT_CODE}
+	 */
+	private static int checkpointedCryptFile(boolean encrypt, String fromFileName, String toFileName,
+			CryptoArguments arguments, int bufferSize) {
+		Path fromFilePath = Paths.get(fromFileName);
+		Path toFilePath = Paths.get(toFileName);
+
+		try {
+			long interval = parseLong(arguments.getOption(CHECKPOINT_INTERVAL_OPTION,
+					Long.toString(CheckpointedCrypto.DEFAULT_INTERVAL)));
+			CipherParams params = loadCipherParams(arguments);
+			CheckpointedCrypto crypto = new CheckpointedCrypto(params.algorithm, params.mode,
+					Util.hextobyte(params.key), Util.hextobyte(params.initVector), bufferSize, interval);
+
+			long resumed = crypto.crypt(encrypt, fromFilePath, toFilePath);
+			if (resumed > 0) {
+				System.out.printf("Nastavljeno od pozicije %d.%n", resumed);
+			}
+			System.out.printf("%s završena. Generirana datoteka %s temeljem datoteke %s.",
+					encrypt ? "Enkripcija" : "Dekripcija", toFileName, fromFilePath);
+			return 0;
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+		} catch (IOException e) {
+			System.out.printf("Kriptiranje datoteke '%s' je prekinuto (%s). Ponovnim pokretanjem nastavlja se od "
+					+ "zadnje spremljene točke.", fromFileName, e.getMessage());
+		} catch (GeneralSecurityException e) {
+			System.out.printf("Nisam uspio %s predanu datoteku '%s'", encrypt ? "kriptirati" : "dekritpirati",
+					fromFileName);
+		}
+		return ERROR_EXIT_CODE;
+	}
+
+	/**
+	 * Pomoćna metoda koja kriptira datoteku i u istom prolazu računa zaštitnu
+	 * sumu nekriptiranih podataka (vidjeti {@link DigestingCrypto}). Prilikom
+	 * enkripcije suma se zapisuje u manifest, a prilikom dekripcije se
+	 * uspoređuje sa sumom iz manifesta. Manifest se zadaje opcijom
+	 * {@value #MANIFEST_OPTION}, a predefinirano se nalazi uz kriptiranu
+	 * datoteku.
+	 *
+	 * @param encrypt
+	 *            <b>true</b> ukoliko se zadana datoteka treba enkriptirati, a
+	 *            <b>false</b> ukoliko se datoteka treba dekriptirati
+	 * @param fromFileName
+	 *            primjerak razreda {@link String} koji predstavlja putanju do
+	 *            datoteke nad kojom se vrši kriptiranje
+	 * @param toFileName
+	 *            primjerak razreda {@link String} koji predstavlja putanju gdje
+	 *            će se spremiti kriptirana datoteka (zajedno sa nazivom
+	 *            datoteke)
+	 * @param arguments
+	 *            argumenti naredbenog redka iz kojih se čitaju opcije
+	 * @param bufferSize
+	 *            veličina dijela podataka koji se odjednom čita iz datoteke
+	 * @return izlazni kod programa: 0 ukoliko je operacija uspjela,
+	 *         {@value #MISMATCH_EXIT_CODE} ukoliko se zaštitna suma
+	 *         dekriptirane datoteke ne poklapa sa sumom iz manifesta, a inače
+	 *         {@value #ERROR_EXIT_CODE}
+	 */
+	private static int digestingCryptFile(boolean encrypt, String fromFileName, String toFileName,
+			CryptoArguments arguments, int bufferSize) {
+		Path fromFilePath = Paths.get(fromFileName);
+		Path toFilePath = Paths.get(toFileName);
+		Path manifest = arguments.hasOption(MANIFEST_OPTION) ? Paths.get(arguments.getOption(MANIFEST_OPTION, ""))
+				: DigestingCrypto.manifestFor(encrypt ? toFilePath : fromFilePath);
+
+		try {
+			DigestingCrypto crypto = new DigestingCrypto(bufferSize);
+			if (encrypt) {
+				String digest = crypto.encrypt(initCipher(true, arguments), fromFilePath, toFilePath, manifest);
+				System.out.printf("Enkripcija završena. Generirana datoteka %s temeljem datoteke %s.%n", toFileName,
+						fromFilePath);
+				System.out.printf("Zaštitna suma datoteke %s je %s (zapisana u '%s').", fromFileName, digest,
+						manifest);
+				return 0;
+			} else if (crypto.decrypt(initCipher(false, arguments), fromFilePath, toFilePath, manifest)) {
+				System.out.printf("Dekripcija završena. Generirana datoteka %s temeljem datoteke %s.%n", toFileName,
+						fromFilePath);
+				System.out.printf("Zaštitna suma dekriptirane datoteke poklapa se sa zaštitnom sumom iz '%s'.",
+						manifest);
+				return 0;
+			} else {
+				System.out.printf(
+						"Zaštitna suma dekriptirane datoteke ne poklapa se sa zaštitnom sumom iz '%s'. Datoteka %s je obrisana.",
+						manifest, toFileName);
+				return MISMATCH_EXIT_CODE;
+			}
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+		} catch (IOException e) {
+			deleteQuietly(toFilePath);
+			System.out.printf("Ne mogu otvoriti tokove podataka nad datotekama: %n\t%s%n\t%s",
+					fromFilePath.toAbsolutePath(), toFilePath.toAbsolutePath());
+		} catch (GeneralSecurityException e) {
+			// neprovjereni dekriptirani podaci ne smiju ostati na disku
+			deleteQuietly(toFilePath);
+			System.out.printf("Nisam uspio %s predanu datoteku '%s'", encrypt ? "kriptirati" : "dekritpirati",
+					fromFileName);
+		}
+		return ERROR_EXIT_CODE;
+	}
+
+	/**
+	 * Pomoćna metoda koja datoteku sažima i enkriptira, odnosno dekriptira i
+	 * raspakirava (vidjeti {@link CompressingCrypto}). Razina sažimanja zadaje
+	 * se opcijom {@value #COMPRESS_LEVEL_OPTION}, a broj spremnika u redu
+	 * između dretvi opcijom {@value #QUEUE_SIZE_OPTION}. Uz završnu poruku
+	 * ispisuje se omjer sažimanja i trajanje.
+	 *
+	 * @param encrypt
+	 *            <b>true</b> ukoliko se zadana datoteka treba enkriptirati, a
+	 *            <b>false</b> ukoliko se datoteka treba dekriptirati
+	 * @param fromFileName
+	 *            primjerak razreda {@link String} koji predstavlja putanju do
+	 *            datoteke nad kojom se vrši kriptiranje
+	 * @param toFileName
+	 *            primjerak razreda {@link String} koji predstavlja putanju gdje
+	 *            će se spremiti kriptirana datoteka (zajedno sa nazivom
+	 *            datoteke)
+	 * @param arguments
+	 *            argumenti naredbenog redka iz kojih se čitaju opcije
+	 * @param bufferSize
+	 *            veličina dijela podataka koji se odjednom obrađuje
+	 * @return izlazni kod programa: 0 ukoliko je operacija uspjela, a inače
+	 *         {@value #ERROR_EXIT_CODE}
+	 */
+	private static int compressingCryptFile(boolean encrypt, String fromFileName, String toFileName,
+			CryptoArguments arguments, int bufferSize) {
+		Path fromFilePath = Paths.get(fromFileName);
+		Path toFilePath = Paths.get(toFileName);
+
+		try {
+			CompressingCrypto crypto = new CompressingCrypto(bufferSize,
+					arguments.getIntOption(COMPRESS_LEVEL_OPTION, Deflater.DEFAULT_COMPRESSION),
+					arguments.getIntOption(QUEUE_SIZE_OPTION, CompressingCrypto.DEFAULT_QUEUE_SIZE));
+			Cipher cipher = initCipher(encrypt, arguments);
+
+			long start = System.nanoTime();
+			long compressed = encrypt ? crypto.encrypt(cipher, fromFilePath, toFilePath)
+					: crypto.decrypt(cipher, fromFilePath, toFilePath);
+			double seconds = (System.nanoTime() - start) / 1e9;
+
+			long original = Files.size(encrypt ? fromFilePath : toFilePath);
+			System.out.printf("%s završena. Generirana datoteka %s temeljem datoteke %s.%n",
+					encrypt ? "Enkripcija" : "Dekripcija", toFileName, fromFilePath);
+			System.out.printf("Sažeti podaci: %d od %d okteta (%.1f %%), trajanje %.3f s.", compressed, original,
+					original == 0 ? 100.0 : 100.0 * compressed / original, seconds);
+			return 0;
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+		} catch (IOException e) {
+			deleteQuietly(toFilePath);
+			System.out.printf("Nisam uspio obraditi datoteku '%s': %s", fromFileName,
+					e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+		} catch (GeneralSecurityException e) {
+			deleteQuietly(toFilePath);
+			System.out.printf("Nisam uspio %s predanu datoteku '%s'", encrypt ? "kriptirati" : "dekritpirati",
+					fromFileName);
+		}
+		return ERROR_EXIT_CODE;
+	}
+
+	/**
+	 * Pomoćna metoda koja dekriptira samo dio datoteke u segmentiranom formatu
+	 * (vidjeti {@link SegmentedCrypto#decryptRange(Path, long, long, OutputStream)}).
+	 * Dekriptirani okteti zapisuju se na standardni izlaz ili u datoteku zadanu
+	 * argumentom na poziciji {@value #RANGE_TARGET_INDEX}.
+	 *
+	 * @param arguments
+	 *            argumenti naredbenog redka
+	 * @return izlazni kod programa: 0 ukoliko je operacija uspjela, a inače
+	 *         {@value #ERROR_EXIT_CODE}
 	 */
-	private static final int TO_FILE_INDEX = 2;
+	private static int decryptRange(CryptoArguments arguments) {
+		Path fromFilePath = Paths.get(arguments.get(FROM_FILE_INDEX));
+		Path toFilePath = null;
 
-	/**
-	 * Konstanta koja predstavlja opciju dekriptiranja algoritmom
-	 * {@link #CRYPT_ALGORITHM}
-	 */
-	private static final String DECRYPT = "decrypt";
+		try {
+			long offset = parseLong(arguments.get(RANGE_OFFSET_INDEX));
+			long length = parseLong(arguments.get(RANGE_LENGTH_INDEX));
+			CipherParams params = loadCipherParams(arguments);
+			SegmentedCrypto crypto = new SegmentedCrypto(params.algorithm, CipherMode.CTR,
+					Util.hextobyte(params.key), Util.hextobyte(params.initVector), SegmentedCrypto.DEFAULT_SEGMENT_SIZE,
+					ForkJoinPool.commonPool());
+
+			if (arguments.size() == RANGE_TARGET_INDEX) {
+				crypto.decryptRange(fromFilePath, offset, length, System.out);
+				System.out.flush();
+				return 0;
+			}
+
+			toFilePath = Paths.get(arguments.get(RANGE_TARGET_INDEX));
+			long written;
+			try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(toFilePath))) {
+				written = crypto.decryptRange(fromFilePath, offset, length, os);
+			}
+			System.out.printf("Dekriptirano %d okteta od pozicije %d. Generirana datoteka %s temeljem datoteke %s.",
+					written, offset, toFilePath, fromFilePath);
+			return 0;
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+		} catch (IOException e) {
+			// pogreška može nastati i pri čitanju i pri pisanju, pa se ispisuje i njen opis
+			System.out.printf("Nisam uspio dekriptirati raspon datoteke '%s'%s: %s", fromFilePath.toAbsolutePath(),
+					toFilePath == null ? "" : " u datoteku '" + toFilePath.toAbsolutePath() + "'",
+					e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+		} catch (AEADBadTagException e) {
+			System.out.printf("Nisam uspio dekriptirati predanu datoteku '%s'. %s", fromFilePath, e.getMessage());
+		} catch (GeneralSecurityException e) {
+			System.out.printf("Nisam uspio dekriptirati predanu datoteku '%s'", fromFilePath);
+		}
+		if (toFilePath != null) {
+			// djelomično zapisani raspon se briše
+			deleteQuietly(toFilePath);
+		}
+		return ERROR_EXIT_CODE;
+	}
 
 	/**
-	 * Konstanta koja predstavlja opciju enkriptiranja algoritmom
-	 * {@link #CRYPT_ALGORITHM}
+	 * Pomoćna metoda koja tekst <b>text</b> pretvara u cijeli broj
+	 *
+	 * @param text
+	 *            tekst koji se pretvara
+	 * @return cijeli broj zapisan u tekstu
+	 * @throws IllegalArgumentException
+	 *             ukoliko tekst nije cijeli broj
 	 */
-	private static final String ENCRYPT = "encrypt";
+	private static long parseLong(String text) {
+		try {
+			return Long.parseLong(text);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Vrijednost '" + text + "' nije cijeli broj!");
+		}
+	}
 
 	/**
-	 * Konstanta koja predstavlja opciju izračuna zaštitne sume algoritmom
-	 * {@value #DIGEST_ALGORITHM}
+	 * Pomoćna metoda koja provjerava zaštitne sume svih datoteka iz manifesta
+	 * <b>manifestName</b> koristeći primjerak razreda {@link ManifestCheck}.
+	 * Broj dretvi zadaje se opcijom {@value #THREADS_OPTION}.
+	 *
+	 * @param manifestName
+	 *            putanja do manifesta
+	 * @param arguments
+	 *            argumenti naredbenog redka
+	 * @param ioMode
+	 *            način čitanja datoteka
+	 * @param bufferSize
+	 *            veličina spremnika
+	 * @return izlazni kod programa (0 ukoliko su sve datoteke ispravne)
 	 */
-	private static final String CHECK_SHA = "checksha";
+	private static int checkManifest(String manifestName, CryptoArguments arguments, IOMode ioMode,
+			int bufferSize) {
+		Path manifest = Paths.get(manifestName);
+		try {
+			int threads = arguments.getIntOption(THREADS_OPTION, Runtime.getRuntime().availableProcessors());
+			return new ManifestCheck(ioMode, bufferSize, threads, System.out, System.err).verify(manifest)
+					.exitCode();
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+		} catch (IOException e) {
+			System.out.println("Manifest s putanjom '" + manifest.toAbsolutePath() + "' se ne može učitati!");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return ERROR_EXIT_CODE;
+	}
 
 	/**
-	 * Predstavlja znak koji će se pojaviti korisniku kada se od njega zahtjeva
-	 * unos. Prije ovog znaka doći poruka koja pobliže opisuje što je potrebno
-	 * unijeti
+	 * Pomoćna metoda koja izvodi jednu od operacija {@value #ENCRYPT},
+	 * {@value #DECRYPT} ili {@value #CHECK_SHA} nad svim datotekama
+	 * direktorija ili manifesta koristeći primjerak razreda
+	 * {@link BatchCrypto}. Broj dretvi zadaje se opcijom
+	 * {@value #THREADS_OPTION}, a uzorak datoteka opcijom
+	 * {@value #GLOB_OPTION}.
+	 *
+	 * @param arguments
+	 *            argumenti naredbenog redka
+	 * @param ioMode
+	 *            način čitanja i pisanja datoteka
+	 * @param bufferSize
+	 *            veličina spremnika za načine koji koriste kanale
+	 * @return izlazni kod programa: 0 ukoliko su sve datoteke obrađene, a
+	 *         inače {@value #ERROR_EXIT_CODE}
 	 */
-	private static final String PROMPT_SYMBOL = "> ";
+	private static int batch(CryptoArguments arguments, IOMode ioMode, int bufferSize) {
+		if (arguments.size() <= BATCH_SOURCE_INDEX) {
+			System.out.println("Niste unijeli valjanu operaciju");
+			return ERROR_EXIT_CODE;
+		}
 
-	/** Konstanta koja predstavlja veličinu pomoćnog polja okteta */
-	private static final int BUFFER_SIZE = 4096;
+		String operationName = arguments.get(BATCH_OPERATION_INDEX);
+		BatchCrypto.Operation operation;
+		if (operationName.equalsIgnoreCase(CHECK_SHA) && arguments.size() == BATCH_SOURCE_INDEX + 1) {
+			operation = BatchCrypto.Operation.DIGEST;
+		} else if (operationName.equalsIgnoreCase(ENCRYPT) && arguments.size() == BATCH_TARGET_INDEX + 1) {
+			operation = BatchCrypto.Operation.ENCRYPT;
+		} else if (operationName.equalsIgnoreCase(DECRYPT) && arguments.size() == BATCH_TARGET_INDEX + 1) {
+			operation = BatchCrypto.Operation.DECRYPT;
+		} else {
+			System.out.println("Niste unijeli valjanu operaciju");
+			return ERROR_EXIT_CODE;
+		}
 
-	/**
-	 * Konstanta koja predstavlja naziv algoritma koji se koristi za kriptiranje
-	 * datoteka (i dekripciju i enkripciju).
-	 */
-	private static final String CRYPT_ALGORITHM = "AES";
+		Path source = Paths.get(arguments.get(BATCH_SOURCE_INDEX));
+		try {
+			List<Path> files = BatchCrypto.collect(source, arguments.getOption(GLOB_OPTION, null));
+			Path sourceRoot = Files.isDirectory(source) ? source : source.toAbsolutePath().getParent();
+			Path targetRoot = null;
 
-	/**
-	 * Konstanta koja predstavlja punu transformaciju koja se koristi za
-	 * prilikom kriptiranja datoteka (i dekripciju i enkripciju).
-	 */
-	private static final String CRYPT_TRANSFORMATION = "AES/CBC/PKCS5Padding";
+			CipherParams params = null;
+			if (operation != BatchCrypto.Operation.DIGEST) {
+				targetRoot = Paths.get(arguments.get(BATCH_TARGET_INDEX));
+				params = loadCipherParams(arguments);
+				// provjera ključa prije obrade prve datoteke
+				initCipher(operation == BatchCrypto.Operation.ENCRYPT, params);
+			}
 
-	/**
-	 * Konstanta koja predstavlja naziv algoritma koji se koristi za izračun
-	 * zaštitne sume datoteka (i dekripciju i enkripciju).
-	 */
-	private static final String DIGEST_ALGORITHM = "SHA-256";
+			int threads = arguments.getIntOption(THREADS_OPTION, Runtime.getRuntime().availableProcessors());
+			DigestCache cache = operation == BatchCrypto.Operation.DIGEST ? openCache(arguments) : null;
+			int failed = new BatchCrypto(operation, params, ioMode, bufferSize, threads, System.out, System.err,
+					cache).run(files, sourceRoot, targetRoot);
+			saveCache(cache);
+			return failed == 0 ? 0 : ERROR_EXIT_CODE;
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+		} catch (IOException e) {
+			System.out.println("Ne mogu pročitati popis datoteka iz '" + source.toAbsolutePath() + "'!");
+		} catch (GeneralSecurityException e) {
+			System.out.println("Predani ključ ili inicijalizacijski vektor nisu valjani!");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return ERROR_EXIT_CODE;
+	}
 
 	/**
-	 * Metoda od koje započinje izvođenje programa
+	 * Pomoćna metoda koja dohvaća ključ i inicijalizacijski vektor bez
+	 * razgovora s korisnikom ukoliko je to moguće. Parametri se čitaju iz
+	 * opcija {@value #KEY_OPTION} i {@value #IV_OPTION}, potom iz datoteke
+	 * zadane opcijom {@value #KEY_FILE_OPTION} ili opisnika zadanog opcijom
+	 * <code>key-fd</code> (ključ i vektor odvojeni prazninom), potom iz
+	 * varijabli okruženja {@value #KEY_VARIABLE} i {@value #IV_VARIABLE}, a
+	 * ukoliko ni to nije moguće poziva se metoda {@link #cipherUI()}.
 	 *
-	 * @param args
-	 *            <ul>
-	 *            <li>Ako je <code>args[0]=={@value #CHECK_SHA}</code> tada je
-	 *            <code>args[1]</code> naziv datoteke čija se zaštitna suma
-	 *            računa</li>
-	 *            <li>Ako je
-	 *            <code>args[0]=={@value #ENCRYPT} ili args[0]=={@value #DECRYPT}</code>
-	 *            tada je <code>args[1]</code> naziv datoteke koja se kriptira,
-	 *            a <code>args[2]</code> naziv buduće kriptirane datoteke</li>
-	 *            </ul>
+	 * @param arguments
+	 *            argumenti naredbenog redka iz kojih se čitaju opcije
+	 * @return primjerak razreda {@link CipherParams} koji sadrži ključ i
+	 *         inicijalizacijski vektor
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati datoteku s ključem
+	 * @throws IllegalArgumentException
+	 *             ukoliko je zadan samo ključ ili samo vektor, odnosno
+	 *             datoteka s ključem nije valjana
 	 */
-	public static void main(String[] args) {
-		if (args.length < DIGEST_ARGS_SIZE) {
-			throw new IllegalArgumentException("Predali ste pre mali broj argumenata!");
+	private static CipherParams loadCipherParams(CryptoArguments arguments) throws IOException {
+		if (arguments.hasOption(KEY_OPTION) || arguments.hasOption(IV_OPTION)) {
+			if (!arguments.hasOption(KEY_OPTION) || !arguments.hasOption(IV_OPTION)) {
+				throw new IllegalArgumentException("Opcije --" + KEY_OPTION + " i --" + IV_OPTION
+						+ " moraju se zadati zajedno!");
+			}
+			return applyCipherOptions(new CipherParams(arguments.getOption(KEY_OPTION, "").trim(),
+					arguments.getOption(IV_OPTION, "").trim()), arguments);
 		}
 
-		String operation = args[OPERATION_INDEX];
-
-		if (operation.equalsIgnoreCase(CHECK_SHA) && args.length == DIGEST_ARGS_SIZE) {
-			digestFile(args[FROM_FILE_INDEX]);
-			return;
+		String[] tokens = SecretInput.fromFile(arguments, KEY_OPTION, 2);
+		if (tokens != null) {
+			return applyCipherOptions(new CipherParams(tokens[0], tokens[1]), arguments);
 		}
 
-		boolean encrypt = false;
-		if (((encrypt = operation.equalsIgnoreCase(ENCRYPT)) || operation.equalsIgnoreCase(DECRYPT))
-				&& args.length == CRYPT_ARGS_SIZE) {
-			cryptFile(encrypt, args[FROM_FILE_INDEX], args[TO_FILE_INDEX]);
-		} else {
-			System.out.println("Niste unijeli valjanu operaciju");
+		String key = SecretInput.fromEnvironment(KEY_VARIABLE);
+		String initVector = SecretInput.fromEnvironment(IV_VARIABLE);
+		if (key != null && initVector != null) {
+			return applyCipherOptions(new CipherParams(key, initVector), arguments);
 		}
+
+		return applyCipherOptions(cipherUI(), arguments);
 	}
 
 	/**
-	 * Pomoćna metoda koja se koristi za kriptiranje datoteke algoritmom
-	 * {@link #CRYPT_ALGORITHM}. Metoda otvara dva toka okteta iz predanih
-	 * <b>fromFileName</b> i <b>toFileName</b>. Te podatke iz ulaznog toka
-	 * (fromFileName) kriptira i sprema u podatke izlaznog toka (toFileName)
+	 * Pomoćna metoda koja u parametre <b>params</b> postavlja algoritam i
+	 * način rada zadane opcijama {@value #ALGORITHM_OPTION} i
+	 * {@value #MODE_OPTION}
 	 *
-	 * @param encrypt
-	 *            <b>true</b> ukoliko se zadana datoteka treba enkriptirati, a
-	 *            <b>false</b> ukoliko se datoteka treba dekriptirati
-	 * @param fromFileName
-	 *            primjerak razreda {@link String} koji predstavlja putanju do
-	 *            datoteke nad kojom se vrši kriptiranje
-	 * @param toFileName
-	 *            primjerak razreda {@link String} koji predstavlja putanju gdje
-	 *            će se spremiti kriptirana datoteka (zajedno sa nazivom
-	 *            datoteke)
+	 * @param params
+	 *            parametri kriptiranja
+	 * @param arguments
+	 *            argumenti naredbenog redka iz kojih se čitaju opcije
+	 * @return predani parametri kriptiranja <b>params</b>
+	 * @throws IllegalArgumentException
+	 *             ukoliko zadani način rada ne postoji
 	 */
-	private static void cryptFile(boolean encrypt, String fromFileName, String toFileName) {
-		Path fromFilePath = Paths.get(fromFileName);
-		Path toFilePath = Paths.get(toFileName);
-
-		try (InputStream is = new BufferedInputStream(Files.newInputStream(fromFilePath));
-				OutputStream os = new BufferedOutputStream(Files.newOutputStream(toFilePath))) {
-			Cipher cipher = initCipher(encrypt);
-
-			byte[] bytes = new byte[BUFFER_SIZE];
-			int len;
-			while ((len = is.read(bytes)) != -1) {
-				byte[] output = cipher.update(bytes, 0, len);
-				if (output != null) {
-					os.write(output);
-					os.flush();
-				}
-			}
-			os.write(cipher.doFinal());
+	private static CipherParams applyCipherOptions(CipherParams params, CryptoArguments arguments) {
+		params.algorithm = arguments.getOption(ALGORITHM_OPTION, CRYPT_ALGORITHM);
+		params.mode = CipherMode.forName(arguments.getOption(MODE_OPTION, CipherMode.CBC.name()));
+		return params;
+	}
 
-			System.out.printf("%s završena. Generirana datoteka %s temeljem datoteke %s.",
-					encrypt ? "Enkripcija" : "Dekripcija", toFileName, fromFilePath);
-		} catch (IOException e) {
-			System.out.printf("Ne mogu otvoriti tokove podataka nad datotekama: %n\t%s%n\t%s",
-					fromFilePath.toAbsolutePath(), toFilePath.toAbsolutePath());
-		} catch (Exception e) {
-			// Problemi sa kriptiranjem
-			System.out.printf("Nisam uspio %s predanu datoteku '%s'", encrypt ? "kriptirati" : "dekritpirati",
-					fromFileName);
+	/**
+	 * Pomoćna metoda koja stvara primjerak razreda {@link ForkJoinPool} s
+	 * brojem dretvi zadanim opcijom {@value #THREADS_OPTION} (predefinirano
+	 * broj procesora).
+	 *
+	 * @param arguments
+	 *            argumenti naredbenog redka iz kojih se čitaju opcije
+	 * @return novi primjerak razreda {@link ForkJoinPool}
+	 * @throws IllegalArgumentException
+	 *             ukoliko broj dretvi nije pozitivan cijeli broj
+	 */
+	private static ForkJoinPool createPool(CryptoArguments arguments) {
+		int threads = arguments.getIntOption(THREADS_OPTION, Runtime.getRuntime().availableProcessors());
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Broj dretvi mora biti pozitivan!");
 		}
+		return new ForkJoinPool(threads);
 	}
 
 	/**
@@ -226,12 +1511,18 @@ public class Crypto {
 	 * @param encrypt
 	 *            <b>true</b> ukoliko se zadana datoteka treba enkriptirati, a
 	 *            <b>false</b> ukoliko se datoteka treba dekriptirati
+	 * @param arguments
+	 *            argumenti naredbenog redka iz kojih se čitaju ključ,
+	 *            inicijalizacijski vektor, algoritam i način rada (vidjeti
+	 *            {@link #loadCipherParams(CryptoArguments)})
 	 * @return inicijalizirani primjerak razreda {@link Cipher}
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati datoteku s ključem
 	 * @throws NoSuchAlgorithmException
-	 *             ukoliko ne postoji algoritam {@link #CRYPT_ALGORITHM}
+	 *             ukoliko ne postoji zadani algoritam
 	 * @throws NoSuchPaddingException
 	 *             ukoliko ne postoji zadani algoritam punjenja (vidjeti
-	 *             {@link #CRYPT_TRANSFORMATION})
+	 *             {@link CipherMode#transformation(String)})
 	 * @throws InvalidKeyException
 	 *             ukoliko je ključ nije dobro zadan
 	 * @throws InvalidAlgorithmParameterException
@@ -241,14 +1532,111 @@ public class Crypto {
 	 * @see IvParameterSpec
 	 * @see SecretKeySpec
 	 */
-	private static Cipher initCipher(boolean encrypt) throws NoSuchAlgorithmException, NoSuchPaddingException,
-			InvalidKeyException, InvalidAlgorithmParameterException {
-		CipherParams info = cipherUI();
+	private static Cipher initCipher(boolean encrypt, CryptoArguments arguments) throws IOException,
+			NoSuchAlgorithmException, NoSuchPaddingException, InvalidKeyException, InvalidAlgorithmParameterException {
+		return initCipher(encrypt, loadCipherParams(arguments));
+	}
+
+	/**
+	 * Metoda koja inicijalizira primjerak razreda {@link Cipher} ključem i
+	 * inicijalizacijskim vektorom sadržanima u primjerku razreda
+	 * {@link CipherParams} <b>info</b>, za algoritam i način rada zadane u
+	 * <b>info</b>. Vraća se primjerak trenutne dretve (vidjeti
+	 * {@link CryptoContext}) pa se on smije koristiti samo unutar jednog
+	 * poziva. Za više informacija vidjeti
+	 * {@link #initCipher(boolean, CryptoArguments)}.
+	 *
+	 * @param encrypt
+	 *            <b>true</b> ukoliko se zadana datoteka treba enkriptirati, a
+	 *            <b>false</b> ukoliko se datoteka treba dekriptirati
+	 * @param info
+	 *            ključ, inicijalizacijski vektor, algoritam i način rada
+	 * @return inicijalizirani primjerak razreda {@link Cipher}
+	 * @throws NoSuchAlgorithmException
+	 *             ukoliko ne postoji zadani algoritam
+	 * @throws NoSuchPaddingException
+	 *             ukoliko ne postoji zadani algoritam punjenja (vidjeti
+	 *             {@link CipherMode#transformation(String)})
+	 * @throws InvalidKeyException
+	 *             ukoliko je ključ nije dobro zadan
+	 * @throws InvalidAlgorithmParameterException
+	 *             ukoliko inicijalizacijski vektor nije dobro zadan
+	 * @throws IllegalArgumentException
+	 *             ukoliko je zadan način {@link CipherMode#GCM} koji je podržan
+	 *             samo u segmentiranom formatu
+	 */
+	static Cipher initCipher(boolean encrypt, CipherParams info) throws NoSuchAlgorithmException,
+			NoSuchPaddingException, InvalidKeyException, InvalidAlgorithmParameterException {
+		if (info.mode == CipherMode.GCM) {
+			throw new IllegalArgumentException("Način " + info.mode + " podržan je samo u segmentiranom formatu!");
+		}
+		return CryptoContext.initCipher(encrypt, Util.hextobyte(info.key), Util.hextobyte(info.initVector),
+				info.algorithm, info.mode);
+	}
+
+	/**
+	 * Metoda koja inicijalizira primjerak razreda {@link Cipher} transformacije
+	 * {@value #CRYPT_TRANSFORMATION} ključem <b>key</b> i inicijalizacijskim
+	 * vektorom <b>initVector</b>. Ovu metodu koriste i omotači tokova
+	 * (vidjeti {@link CryptoStreams}).
+	 *
+	 * @param encrypt
+	 *            <b>true</b> ukoliko se podaci trebaju enkriptirati, a
+	 *            <b>false</b> ukoliko se trebaju dekriptirati
+	 * @param key
+	 *            ključ kriptiranja
+	 * @param initVector
+	 *            inicijalizacijski vektor
+	 * @return inicijalizirani primjerak razreda {@link Cipher}
+	 * @throws NoSuchAlgorithmException
+	 *             ukoliko ne postoji algoritam {@link #CRYPT_ALGORITHM}
+	 * @throws NoSuchPaddingException
+	 *             ukoliko ne postoji zadani algoritam punjenja (vidjeti
+	 *             {@link #CRYPT_TRANSFORMATION})
+	 * @throws InvalidKeyException
+	 *             ukoliko je ključ nije dobro zadan
+	 * @throws InvalidAlgorithmParameterException
+	 *             ukoliko inicijalizacijski vektor nije dobro zadan
+	 */
+	public static Cipher initCipher(boolean encrypt, byte[] key, byte[] initVector) throws NoSuchAlgorithmException,
+			NoSuchPaddingException, InvalidKeyException, InvalidAlgorithmParameterException {
+		return initCipher(encrypt, key, initVector, CRYPT_ALGORITHM, CipherMode.CBC);
+	}
 
+	/**
+	 * Metoda koja inicijalizira primjerak razreda {@link Cipher} algoritma
+	 * <b>algorithm</b> u načinu rada <b>mode</b> ključem <b>key</b> i
+	 * inicijalizacijskim vektorom <b>initVector</b>.
+	 *
+	 * @param encrypt
+	 *            <b>true</b> ukoliko se podaci trebaju enkriptirati, a
+	 *            <b>false</b> ukoliko se trebaju dekriptirati
+	 * @param key
+	 *            ključ kriptiranja
+	 * @param initVector
+	 *            inicijalizacijski vektor
+	 * @param algorithm
+	 *            naziv algoritma kriptiranja
+	 * @param mode
+	 *            način rada algoritma
+	 * @return inicijalizirani primjerak razreda {@link Cipher}
+	 * @throws NoSuchAlgorithmException
+	 *             ukoliko ne postoji algoritam <b>algorithm</b>
+	 * @throws NoSuchPaddingException
+	 *             ukoliko ne postoji zadani algoritam punjenja (vidjeti
+	 *             {@link CipherMode#transformation(String)})
+	 * @throws InvalidKeyException
+	 *             ukoliko je ključ nije dobro zadan
+	 * @throws InvalidAlgorithmParameterException
+	 *             ukoliko inicijalizacijski vektor nije dobro zadan
+	 */
+	static Cipher initCipher(boolean encrypt, byte[] key, byte[] initVector, String algorithm, CipherMode mode)
+			throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidKeyException,
+			InvalidAlgorithmParameterException {
 		// inicijalizacija primjerka razreda Cipher
-		SecretKeySpec keySpec = new SecretKeySpec(Util.hextobyte(info.key), CRYPT_ALGORITHM);
-		AlgorithmParameterSpec paramSpec = new IvParameterSpec(Util.hextobyte(info.initVector));
-		Cipher cipher = Cipher.getInstance(CRYPT_TRANSFORMATION);
+		SecretKeySpec keySpec = new SecretKeySpec(key, algorithm);
+		AlgorithmParameterSpec paramSpec = new IvParameterSpec(initVector);
+		Cipher cipher = Cipher.getInstance(mode.transformation(algorithm));
 		cipher.init(encrypt ? Cipher.ENCRYPT_MODE : Cipher.DECRYPT_MODE, keySpec, paramSpec);
 		return cipher;
 	}
@@ -264,64 +1652,213 @@ public class Crypto {
 	 * @see CipherParams
 	 */
 	private static CipherParams cipherUI() {
-		Scanner sc = new Scanner(System.in);
-
-		System.out.println(
+		String keyText = SecretInput.prompt(
 				"Molim Vas unesite lozinku (ključ) kao heksadecimalno enkodirani tekst (16 byteova, tj. 32 heksadecimalne znamenke): ");
-		System.out.print(PROMPT_SYMBOL);
-		String keyText = sc.next();
-
-		System.out.println(
+		String ivText = SecretInput.prompt(
 				"Molim Vas unesite inicijalizacijski vektor kao heksadecimalno enkodirani tekst (32 heksadecimalne znamenke):");
-		System.out.print(PROMPT_SYMBOL);
-		String ivText = sc.next();
-
-		sc.close();
 		return new CipherParams(keyText, ivText);
 	}
 
 	/**
-	 * Pomoćna metoda koja poziva metodu {@link #calculateDigest(InputStream)}
-	 * kako bi izračunala zaštitnu sumu datoteke zadane sa
-	 * putanjom<b>fileName</b>. Metoda će pozvati i metodu
-	 * {@link #digestUI(String, String)} kako bi korisniku predstavila je li
-	 * upisana vrijednost zaštitne sume jedanka izračunatoj
+	 * Pomoćna metoda koja poziva metodu
+	 * {@link #calculateDigest(Path, IOMode, int)} kako bi izračunala zaštitnu
+	 * sumu datoteke zadane sa putanjom<b>fileName</b>. Ukoliko je zadana
+	 * priručna memorija <b>cache</b>, a datoteka se nije promijenila od
+	 * zadnjeg izračuna, zaštitna suma se ne računa ponovno. Metoda će pozvati
+	 * i metodu {@link #digestUI(String, String, CryptoArguments)} kako bi korisniku
+	 * predstavila je li upisana vrijednost zaštitne sume jedanka izračunatoj
 	 *
 	 * @param fileName
 	 *            putanja do datoteke čija se zaštitna suma računa
+	 * @param arguments
+	 *            argumenti naredbenog redka iz kojih se čita očekivana suma
+	 * @param ioMode
+	 *            način čitanja datoteke
+	 * @param bufferSize
+	 *            veličina spremnika za načine koji koriste kanale
+	 * @param cache
+	 *            priručna memorija zaštitnih suma ili <code>null</code>
+	 * @return izlazni kod programa (vidjeti {@link #run(String[])})
 	 */
-	private static void digestFile(String fileName) {
+	private static int digestFile(String fileName, CryptoArguments arguments, IOMode ioMode, int bufferSize,
+			DigestCache cache) {
 		Path filePath = Paths.get(fileName);
 
-		try (InputStream is = new BufferedInputStream(Files.newInputStream(filePath))) {
-			String calculatedDigest = calculateDigest(is);
-			digestUI(calculatedDigest, fileName);
-		} catch (NoSuchAlgorithmException e) {
+		try {
+			String calculatedDigest = cache == null ? calculateDigest(filePath, ioMode, bufferSize)
+					: cache.digest(filePath, DIGEST_ALGORITHM, path -> calculateDigest(path, ioMode, bufferSize));
+			saveCache(cache);
+			return digestUI(calculatedDigest, fileName, arguments) ? 0 : MISMATCH_EXIT_CODE;
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+		} catch (GeneralSecurityException e) {
+			System.out.println("Ne postoji algoritam SHA-256!");
+		} catch (IOException e) {
+			System.out.println("Datoteka s putanjom '" + filePath.toAbsolutePath() + "' se ne može učitati!");
+		}
+		return ERROR_EXIT_CODE;
+	}
+
+	/**
+	 * Pomoćna metoda koja otvara priručnu memoriju zaštitnih suma (vidjeti
+	 * {@link DigestCache}). Putanja do datoteke zadaje se opcijom
+	 * {@value #CACHE_OPTION} (predefinirano {@link DigestCache#defaultFile()}),
+	 * a najveći broj zapisa opcijom {@value #CACHE_SIZE_OPTION}. Ukoliko je
+	 * zadana opcija {@value #NO_CACHE_OPTION} ili se datoteka ne može
+	 * pročitati, vraća se <code>null</code>.
+	 *
+	 * @param arguments
+	 *            argumenti naredbenog redka iz kojih se čitaju opcije
+	 * @return priručna memorija ili <code>null</code> ukoliko se ne koristi
+	 */
+	private static DigestCache openCache(CryptoArguments arguments) {
+		if (arguments.hasOption(NO_CACHE_OPTION)) {
+			return null;
+		}
+
+		Path cacheFile = arguments.hasOption(CACHE_OPTION) ? Paths.get(arguments.getOption(CACHE_OPTION, ""))
+				: DigestCache.defaultFile();
+		int maxEntries = arguments.getIntOption(CACHE_SIZE_OPTION, DigestCache.DEFAULT_MAX_ENTRIES);
+		try {
+			return new DigestCache(cacheFile, maxEntries);
+		} catch (IOException e) {
+			System.err.println("Priručna memorija '" + cacheFile.toAbsolutePath() + "' se ne može učitati!");
+			return null;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja sprema priručnu memoriju zaštitnih suma. Neuspjeh
+	 * spremanja samo se ispisuje jer ne utječe na izračunate sume.
+	 *
+	 * @param cache
+	 *            priručna memorija ili <code>null</code>
+	 */
+	private static void saveCache(DigestCache cache) {
+		if (cache == null) {
+			return;
+		}
+
+		try {
+			cache.save();
+		} catch (IOException e) {
+			System.err.println("Priručna memorija se ne može spremiti: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja zaštitnu sumu datoteke zadane putanjom
+	 * <b>fileName</b> računa kao korijen Merkleovog stabla (vidjeti
+	 * {@link TreeHash}). Metoda ispisuje koliko je listova preuzeto iz
+	 * manifesta i koji su se dijelovi datoteke promijenili, te potom poziva
+	 * metodu {@link #digestUI(String, String, CryptoArguments)}.
+	 *
+	 * @param fileName
+	 *            putanja do datoteke čija se zaštitna suma računa
+	 * @param arguments
+	 *            argumenti naredbenog redka iz kojih se čitaju opcije
+	 * @return izlazni kod programa (vidjeti {@link #run(String[])})
+	 */
+	private static int treeDigestFile(String fileName, CryptoArguments arguments) {
+		Path filePath = Paths.get(fileName);
+
+		ForkJoinPool pool = null;
+		try {
+			int chunkSize = arguments.getIntOption(CHUNK_SIZE_OPTION, TreeHash.DEFAULT_CHUNK_SIZE);
+			Path manifest = arguments.hasOption(MANIFEST_OPTION) ? Paths.get(arguments.getOption(MANIFEST_OPTION, ""))
+					: TreeHash.manifestFor(filePath);
+			pool = createPool(arguments);
+
+			TreeHash.Result result = new TreeHash(chunkSize, pool).hash(filePath, manifest);
+			System.out.printf("Iz manifesta '%s' preuzeto je %d od %d dijelova.%n", manifest,
+					result.getReusedLeaves(), result.getLeafCount());
+			if (!result.getChangedLeaves().isEmpty()) {
+				System.out.printf("Promijenjeni dijelovi datoteke (veličine %d okteta): %s%n", chunkSize,
+						result.getChangedLeaves());
+			}
+			return digestUI(Util.bytetohex(result.getRoot()), fileName, arguments) ? 0 : MISMATCH_EXIT_CODE;
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+		} catch (GeneralSecurityException e) {
 			System.out.println("Ne postoji algoritam SHA-256!");
 		} catch (IOException e) {
 			System.out.println("Datoteka s putanjom '" + filePath.toAbsolutePath() + "' se ne može učitati!");
+		} finally {
+			if (pool != null) {
+				pool.shutdown();
+			}
+		}
+		return ERROR_EXIT_CODE;
+	}
+
+	/**
+	 * Pomoćna metoda koja u jednom čitanju datoteke računa zaštitne sume svih
+	 * algoritama zadanih opcijom {@value #ALGORITHMS_OPTION} (vidjeti
+	 * {@link MultiDigest}) te ih ispisuje u obliku
+	 * <code>ALGORITAM (datoteka) = suma</code>.
+	 *
+	 * @param fileName
+	 *            putanja do datoteke
+	 * @param arguments
+	 *            argumenti naredbenog redka iz kojih se čitaju opcije
+	 * @param bufferSize
+	 *            veličina jednog spremnika
+	 * @return izlazni kod programa: 0 ukoliko je operacija uspjela, a inače
+	 *         {@value #ERROR_EXIT_CODE}
+	 */
+	private static int multiDigestFile(String fileName, CryptoArguments arguments, int bufferSize) {
+		Path filePath = Paths.get(fileName);
+
+		List<String> algorithms = new ArrayList<>();
+		for (String algorithm : arguments.getOption(ALGORITHMS_OPTION, DIGEST_ALGORITHM).split(",")) {
+			if (!algorithm.trim().isEmpty()) {
+				algorithms.add(algorithm.trim());
+			}
+		}
+
+		try (InputStream is = Files.newInputStream(filePath)) {
+			Map<String, byte[]> digests = new MultiDigest(algorithms, bufferSize, MultiDigest.DEFAULT_RING_SIZE)
+					.digest(is);
+			for (Map.Entry<String, byte[]> entry : digests.entrySet()) {
+				System.out.printf("%s (%s) = %s%n", entry.getKey(), fileName, Util.bytetohex(entry.getValue()));
+			}
+			return 0;
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+		} catch (NoSuchAlgorithmException e) {
+			System.out.println("Ne postoji neki od algoritama " + algorithms + "!");
+		} catch (IOException e) {
+			System.out.println("Datoteka s putanjom '" + filePath.toAbsolutePath() + "' se ne može učitati!");
 		}
+		return ERROR_EXIT_CODE;
 	}
 
 	/**
-	 * Pomoćna metoda koja od korisnika zahtjeva unos očekivane zaštitne sume te
-	 * ovisno o toj sumi ustanovljuje je li očekivana suma jednaka ili različita
-	 * predanoj sumi. Očekivana suma bi trebala imati točno 64 heksadekadske
-	 * znamenke kako je propisano algoritmom {@value #DIGEST_ALGORITHM}.
+	 * Pomoćna metoda koja dohvaća očekivanu zaštitnu sumu (vidjeti
+	 * {@link #loadExpectedDigest(CryptoArguments)}) ili je, ukoliko ona nije
+	 * zadana, zahtjeva od korisnika te ovisno o toj sumi ustanovljuje je li
+	 * očekivana suma jednaka ili različita predanoj sumi. Očekivana suma bi
+	 * trebala imati točno 64 heksadekadske znamenke kako je propisano
+	 * algoritmom {@value #DIGEST_ALGORITHM}.
 	 *
 	 * @param calculatedDigest
 	 *            izračunata zaštitna suma s kojom se očekivana suma uspoređuje
 	 * @param fileName
 	 *            putanja do datoteke čija se zaštitna suma računa
+	 * @param arguments
+	 *            argumenti naredbenog redka iz kojih se čita očekivana suma
+	 * @return <b>true</b> ukoliko se sume poklapaju, <b>false</b> inače
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati datoteku s očekivanom sumom
 	 */
-	private static void digestUI(String calculatedDigest, String fileName) {
-		// dohvati md od korisnika
-		System.out.printf("Molim Vas unesite očekivanu sha-256 zaštitinu sumu za %s:%n", fileName);
-		System.out.print(PROMPT_SYMBOL);
-
-		Scanner sc = new Scanner(System.in);
-		String inputDigest = sc.next();
-		sc.close();
+	private static boolean digestUI(String calculatedDigest, String fileName, CryptoArguments arguments)
+			throws IOException {
+		String inputDigest = loadExpectedDigest(arguments);
+		if (inputDigest == null) {
+			// dohvati md od korisnika
+			inputDigest = SecretInput
+					.prompt(String.format("Molim Vas unesite očekivanu sha-256 zaštitinu sumu za %s:", fileName));
+		}
 
 		// usporedi i ispiši poruku
 		boolean matches = calculatedDigest.equalsIgnoreCase(inputDigest);
@@ -329,6 +1866,29 @@ public class Crypto {
 				String.format("Izračun zaštitne sume završen. Zaštitna suma od %s %s s očekivanom zaštitnom sumom.",
 						fileName, matches ? "poklapa se" : "ne poklapa se")
 						+ (matches ? "" : String.format("Zaštitna suma je: %s", calculatedDigest)));
+		return matches;
+	}
+
+	/**
+	 * Pomoćna metoda koja bez razgovora s korisnikom dohvaća očekivanu
+	 * zaštitnu sumu iz opcije {@value #EXPECTED_OPTION}, datoteke ili
+	 * opisnika (vidjeti {@link SecretInput#fromFile(CryptoArguments, String, int)})
+	 * ili varijable okruženja {@value #EXPECTED_VARIABLE}
+	 *
+	 * @param arguments
+	 *            argumenti naredbenog redka
+	 * @return očekivana zaštitna suma ili <code>null</code> ukoliko nije
+	 *         zadana
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati datoteku ili opisnik
+	 */
+	private static String loadExpectedDigest(CryptoArguments arguments) throws IOException {
+		if (arguments.hasOption(EXPECTED_OPTION)) {
+			return arguments.getOption(EXPECTED_OPTION, "").trim();
+		}
+
+		String[] tokens = SecretInput.fromFile(arguments, EXPECTED_OPTION, 1);
+		return tokens != null ? tokens[0] : SecretInput.fromEnvironment(EXPECTED_VARIABLE);
 	}
 
 	/**
@@ -347,10 +1907,31 @@ public class Crypto {
 	 *             <b>is</b>
 	 * @see MessageDigest
 	 */
-	private static String calculateDigest(InputStream is) throws NoSuchAlgorithmException, IOException {
-		MessageDigest md = MessageDigest.getInstance(DIGEST_ALGORITHM);
+	static String calculateDigest(InputStream is) throws NoSuchAlgorithmException, IOException {
+		return calculateDigest(is, BUFFER_SIZE);
+	}
+
+	/**
+	 * Pomoćna metoda koja izračunava zaštitnu sumu iz predanog toka okteta
+	 * {@link InputStream}, čitajući odjednom najviše <b>bufferSize</b> okteta.
+	 * Za više informacija vidjeti {@link #calculateDigest(InputStream)}.
+	 *
+	 * @param is
+	 *            ulazni tok okteta iz kojeg se računa zaštitna suma.
+	 * @param bufferSize
+	 *            veličina pomoćnog polja okteta
+	 * @return primjerak razreda {@link String} koji predstavlja izračunatu
+	 *         zaštitnu sumu
+	 * @throws NoSuchAlgorithmException
+	 *             ukoliko algoritam {@value #DIGEST_ALGORITHM} ne postoji
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati iz predanog ulaznog toka okteta
+	 *             <b>is</b>
+	 */
+	static String calculateDigest(InputStream is, int bufferSize) throws NoSuchAlgorithmException, IOException {
+		MessageDigest md = CryptoContext.digest(DIGEST_ALGORITHM);
 
-		byte[] bytes = new byte[BUFFER_SIZE];
+		byte[] bytes = new byte[bufferSize];
 		int len;
 		while ((len = is.read(bytes)) != -1) {
 			md.update(bytes, 0, len);
@@ -360,11 +1941,44 @@ public class Crypto {
 	}
 
 	/**
-	 * Predstavlja privatnu strukturu podataka koju koriste metode
-	 * {@link Crypto#cryptFile(boolean, String, String)} i
+	 * Pomoćna metoda koja izračunava zaštitnu sumu datoteke <b>file</b>
+	 * metodom {@link #calculateDigest(InputStream)} ili
+	 * {@link ChannelCrypto#digest(MessageDigest, FileChannel)}, ovisno o
+	 * <b>ioMode</b>.
+	 *
+	 * @param file
+	 *            putanja do datoteke čija se zaštitna suma računa
+	 * @param ioMode
+	 *            način čitanja datoteke
+	 * @param bufferSize
+	 *            veličina spremnika za načine koji koriste kanale
+	 * @return primjerak razreda {@link String} koji predstavlja izračunatu
+	 *         zaštitnu sumu
+	 * @throws NoSuchAlgorithmException
+	 *             ukoliko algoritam {@value #DIGEST_ALGORITHM} ne postoji
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati datoteku
+	 */
+	static String calculateDigest(Path file, IOMode ioMode, int bufferSize)
+			throws NoSuchAlgorithmException, IOException {
+		if (ioMode == IOMode.STREAM) {
+			try (InputStream is = new BufferedInputStream(Files.newInputStream(file))) {
+				return calculateDigest(is);
+			}
+		}
+
+		try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+			return Util.bytetohex(new ChannelCrypto(ioMode, bufferSize).digest(CryptoContext.digest(DIGEST_ALGORITHM), in));
+		}
+	}
+
+	/**
+	 * Predstavlja strukturu podataka koju koriste metode
+	 * {@link Crypto#initCipher(boolean, CipherParams)} i
 	 * {@link Crypto#cipherUI()} za razmjenu parametara. Konkretno ti parametri
 	 * su ključ kriptiranja i inicijalizacijski vektor korišten prilikom
-	 * kriptiranja.
+	 * kriptiranja te algoritam i način rada (predefinirano
+	 * {@value Crypto#CRYPT_TRANSFORMATION}).
 	 * 
 	 * @see Crypto
 	 * @see SecretKeySpec
@@ -373,7 +1987,7 @@ public class Crypto {
 	 * @author Davor Češljaš
 	 * 
 	 */
-	private static class CipherParams {
+	static class CipherParams {
 
 		/** Članska varijabla koja predstavlja ključ kriptiranja */
 		private String key;
@@ -384,6 +1998,12 @@ public class Crypto {
 		 */
 		private String initVector;
 
+		/** Članska varijabla koja predstavlja naziv algoritma kriptiranja */
+		private String algorithm = CRYPT_ALGORITHM;
+
+		/** Članska varijabla koja predstavlja način rada algoritma */
+		private CipherMode mode = CipherMode.CBC;
+
 		/**
 		 * Konstruktor koji se koristi za incijalizaciju primjerka ovog razreda.
 		 * Ovaj konstruktor bez dodatne provjere postavlja vrijednosti članskih
@@ -0,0 +1,134 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Razred koji predstavlja argumente naredbenog redka programa {@link Crypto}.
+ * Svaki argument koji započinje s {@value #OPTION_PREFIX} tumači se kao opcija
+ * oblika <code>--naziv=vrijednost</code> (ili samo <code>--naziv</code> za
+ * zastavice), dok se svi ostali argumenti tumače kao pozicijski argumenti
+ * (operacija i putanje do datoteka). Opcije se mogu pojaviti na bilo kojem
+ * mjestu unutar naredbenog redka.
+ *
+ * @see Crypto
+ *
+ * @author Davor Češljaš
+ */
+class CryptoArguments {
+
+	/** Konstanta koja predstavlja prefiks kojim započinje svaka opcija */
+	static final String OPTION_PREFIX = "--";
+
+	/** Konstanta koja odvaja naziv opcije od njezine vrijednosti */
+	private static final String VALUE_SEPARATOR = "=";
+
+	/** Članska varijabla koja predstavlja listu pozicijskih argumenata */
+	private final List<String> positional = new ArrayList<>();
+
+	/**
+	 * Članska varijabla koja predstavlja opcije mapirane po nazivu opcije (bez
+	 * prefiksa {@value #OPTION_PREFIX}). Zastavice su mapirane na
+	 * <code>null</code>
+	 */
+	private final Map<String, String> options = new HashMap<>();
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Konstruktor
+	 * razdvaja predane argumente naredbenog redka <b>args</b> na pozicijske
+	 * argumente i opcije.
+	 *
+	 * @param args
+	 *            argumenti naredbenog redka
+	 */
+	CryptoArguments(String[] args) {
+		for (String arg : args) {
+			if (!arg.startsWith(OPTION_PREFIX) || arg.length() == OPTION_PREFIX.length()) {
+				positional.add(arg);
+				continue;
+			}
+
+			String option = arg.substring(OPTION_PREFIX.length());
+			int separator = option.indexOf(VALUE_SEPARATOR);
+			if (separator == -1) {
+				options.put(option.toLowerCase(), null);
+			} else {
+				options.put(option.substring(0, separator).toLowerCase(), option.substring(separator + 1));
+			}
+		}
+	}
+
+	/**
+	 * Metoda koja dohvaća broj pozicijskih argumenata
+	 *
+	 * @return broj pozicijskih argumenata
+	 */
+	int size() {
+		return positional.size();
+	}
+
+	/**
+	 * Metoda koja dohvaća pozicijski argument na poziciji <b>index</b>
+	 *
+	 * @param index
+	 *            pozicija argumenta
+	 * @return pozicijski argument na poziciji <b>index</b>
+	 */
+	String get(int index) {
+		return positional.get(index);
+	}
+
+	/**
+	 * Metoda koja provjerava je li opcija <b>name</b> predana
+	 *
+	 * @param name
+	 *            naziv opcije bez prefiksa {@value #OPTION_PREFIX}
+	 * @return <b>true</b> ukoliko je opcija predana, <b>false</b> inače
+	 */
+	boolean hasOption(String name) {
+		return options.containsKey(name);
+	}
+
+	/**
+	 * Metoda koja dohvaća vrijednost opcije <b>name</b>. Ukoliko opcija nije
+	 * predana ili je predana bez vrijednosti vraća se <b>defaultValue</b>
+	 *
+	 * @param name
+	 *            naziv opcije bez prefiksa {@value #OPTION_PREFIX}
+	 * @param defaultValue
+	 *            vrijednost koja se vraća ukoliko opcija nema vrijednost
+	 * @return vrijednost opcije ili <b>defaultValue</b>
+	 */
+	String getOption(String name, String defaultValue) {
+		String value = options.get(name);
+		return value == null ? defaultValue : value;
+	}
+
+	/**
+	 * Metoda koja dohvaća vrijednost opcije <b>name</b> kao cijeli broj.
+	 * Ukoliko opcija nije predana vraća se <b>defaultValue</b>.
+	 *
+	 * @param name
+	 *            naziv opcije bez prefiksa {@value #OPTION_PREFIX}
+	 * @param defaultValue
+	 *            vrijednost koja se vraća ukoliko opcija nema vrijednost
+	 * @return vrijednost opcije kao cijeli broj ili <b>defaultValue</b>
+	 * @throws IllegalArgumentException
+	 *             ukoliko vrijednost opcije nije cijeli broj
+	 */
+	int getIntOption(String name, int defaultValue) {
+		String value = options.get(name);
+		if (value == null) {
+			return defaultValue;
+		}
+
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(
+					String.format("Vrijednost opcije '%s' mora biti cijeli broj, a predali ste '%s'", name, value));
+		}
+	}
+}
@@ -0,0 +1,201 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Razred koji za svaku dretvu pamti jednom stvorene primjerke razreda
+ * {@link Cipher} i {@link MessageDigest} te ključeve kriptiranja. Time se
+ * izbjegava ponovno pretraživanje pružatelja usluga
+ * ({@link Cipher#getInstance(String)} i
+ * {@link MessageDigest#getInstance(String)}) za svaku datoteku. Ukoliko se
+ * primjerak razreda {@link Cipher} ponovno inicijalizira istim ključem,
+ * pružatelj usluga ne mora ponovno proširivati ključ.
+ * <p>
+ * Primjerci koje vraćaju metode ovog razreda smiju se koristiti samo unutar
+ * dretve koja ih je dohvatila i to samo do sljedećeg poziva metode ovog
+ * razreda s istom transformacijom, odnosno algoritmom. Stoga ih ne treba
+ * predavati objektima koji dugo žive (npr. omotačima iz razreda
+ * {@link CryptoStreams}).
+ *
+ * @see Crypto
+ * @see BatchCrypto
+ *
+ * @author Davor Češljaš
+ */
+public final class CryptoContext {
+
+	/**
+	 * Konstanta koja predstavlja primjerke razreda {@link Cipher} trenutne
+	 * dretve po transformacijama
+	 */
+	private static final ThreadLocal<Map<String, Cipher>> CIPHERS = ThreadLocal.withInitial(HashMap::new);
+
+	/**
+	 * Konstanta koja predstavlja primjerke razreda {@link MessageDigest}
+	 * trenutne dretve po algoritmima
+	 */
+	private static final ThreadLocal<Map<String, MessageDigest>> DIGESTS = ThreadLocal.withInitial(HashMap::new);
+
+	/**
+	 * Konstanta koja predstavlja zadnje korištene ključeve trenutne dretve po
+	 * algoritmima
+	 */
+	private static final ThreadLocal<Map<String, CachedKey>> KEYS = ThreadLocal.withInitial(HashMap::new);
+
+	/**
+	 * Privatni konstruktor koji služi kako se primjerci ovog razreda ne bi
+	 * mogli stvarati
+	 */
+	private CryptoContext() {
+	}
+
+	/**
+	 * Metoda koja vraća neinicijalizirani primjerak razreda {@link Cipher}
+	 * transformacije <b>transformation</b> trenutne dretve. Pozivatelj mora
+	 * inicijalizirati primjerak prije korištenja.
+	 *
+	 * @param transformation
+	 *            puna transformacija, npr. <code>AES/CBC/PKCS5Padding</code>
+	 * @return primjerak razreda {@link Cipher} trenutne dretve
+	 * @throws NoSuchAlgorithmException
+	 *             ukoliko ne postoji zadani algoritam
+	 * @throws NoSuchPaddingException
+	 *             ukoliko ne postoji zadani algoritam punjenja
+	 */
+	public static Cipher cipher(String transformation) throws NoSuchAlgorithmException, NoSuchPaddingException {
+		Map<String, Cipher> ciphers = CIPHERS.get();
+		Cipher cipher = ciphers.get(transformation);
+		if (cipher == null) {
+			cipher = Cipher.getInstance(transformation);
+			ciphers.put(transformation, cipher);
+		}
+		return cipher;
+	}
+
+	/**
+	 * Metoda koja vraća primjerak razreda {@link Cipher} trenutne dretve
+	 * inicijaliziran ključem <b>key</b> i inicijalizacijskim vektorom
+	 * <b>initVector</b>.
+	 *
+	 * @param encrypt
+	 *            <b>true</b> ukoliko se podaci trebaju enkriptirati, a
+	 *            <b>false</b> ukoliko se trebaju dekriptirati
+	 * @param key
+	 *            ključ kriptiranja
+	 * @param initVector
+	 *            inicijalizacijski vektor
+	 * @param algorithm
+	 *            naziv algoritma kriptiranja
+	 * @param mode
+	 *            način rada algoritma
+	 * @return inicijalizirani primjerak razreda {@link Cipher} trenutne dretve
+	 * @throws NoSuchAlgorithmException
+	 *             ukoliko ne postoji algoritam <b>algorithm</b>
+	 * @throws NoSuchPaddingException
+	 *             ukoliko ne postoji zadani algoritam punjenja
+	 * @throws InvalidKeyException
+	 *             ukoliko ključ nije dobro zadan
+	 * @throws InvalidAlgorithmParameterException
+	 *             ukoliko inicijalizacijski vektor nije dobro zadan
+	 * @throws IllegalArgumentException
+	 *             ukoliko je zadan način {@link CipherMode#GCM} koji ne
+	 *             dopušta ponovnu inicijalizaciju istim parametrima
+	 */
+	public static Cipher initCipher(boolean encrypt, byte[] key, byte[] initVector, String algorithm,
+			CipherMode mode) throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidKeyException,
+			InvalidAlgorithmParameterException {
+		if (mode == CipherMode.GCM) {
+			throw new IllegalArgumentException("Način " + mode + " ne može se koristiti iz konteksta!");
+		}
+
+		Cipher cipher = cipher(mode.transformation(algorithm));
+		cipher.init(encrypt ? Cipher.ENCRYPT_MODE : Cipher.DECRYPT_MODE, key(key, algorithm),
+				new IvParameterSpec(initVector));
+		return cipher;
+	}
+
+	/**
+	 * Metoda koja vraća primjerak razreda {@link MessageDigest} algoritma
+	 * <b>algorithm</b> trenutne dretve. Vraćeni primjerak je uvijek u početnom
+	 * stanju.
+	 *
+	 * @param algorithm
+	 *            naziv algoritma zaštitne sume, npr. <code>SHA-256</code>
+	 * @return primjerak razreda {@link MessageDigest} trenutne dretve
+	 * @throws NoSuchAlgorithmException
+	 *             ukoliko ne postoji zadani algoritam
+	 */
+	public static MessageDigest digest(String algorithm) throws NoSuchAlgorithmException {
+		Map<String, MessageDigest> digests = DIGESTS.get();
+		MessageDigest md = digests.get(algorithm);
+		if (md == null) {
+			md = MessageDigest.getInstance(algorithm);
+			digests.put(algorithm, md);
+		} else {
+			md.reset();
+		}
+		return md;
+	}
+
+	/**
+	 * Metoda koja vraća ključ algoritma <b>algorithm</b> čiji su okteti
+	 * <b>key</b>. Ukoliko je trenutna dretva zadnji put koristila isti ključ,
+	 * vraća se postojeći primjerak bez stvaranja novih objekata (okteti se
+	 * uspoređuju s pohranjenom kopijom, a ne s rezultatom metode
+	 * {@link SecretKeySpec#getEncoded()} koja svaki put stvara novo polje).
+	 *
+	 * @param key
+	 *            okteti ključa
+	 * @param algorithm
+	 *            naziv algoritma kriptiranja
+	 * @return ključ kriptiranja
+	 */
+	public static SecretKeySpec key(byte[] key, String algorithm) {
+		Map<String, CachedKey> keys = KEYS.get();
+		CachedKey cached = keys.get(algorithm);
+		if (cached == null || !Arrays.equals(cached.bytes, key)) {
+			cached = new CachedKey(key.clone(), new SecretKeySpec(key, algorithm));
+			keys.put(algorithm, cached);
+		}
+		return cached.spec;
+	}
+
+	/**
+	 * Razred koji predstavlja ključ zapamćen za trenutnu dretvu zajedno s
+	 * kopijom njegovih okteta.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static final class CachedKey {
+
+		/** Članska varijabla koja predstavlja kopiju okteta ključa */
+		private final byte[] bytes;
+
+		/** Članska varijabla koja predstavlja ključ kriptiranja */
+		private final SecretKeySpec spec;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param bytes
+		 *            kopija okteta ključa
+		 * @param spec
+		 *            ključ kriptiranja
+		 */
+		private CachedKey(byte[] bytes, SecretKeySpec spec) {
+			this.bytes = bytes;
+			this.spec = spec;
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Cipher;
+
+/**
+ * Razred koji nasljeđuje {@link FilterInputStream}. Okteti pročitani iz
+ * omotanog ulaznog toka okteta kriptiraju se inicijaliziranim primjerkom
+ * razreda {@link Cipher} i tek takvi vraćaju čitatelju. Po dolasku do kraja
+ * omotanog toka poziva se {@link Cipher#doFinal()}, pa se pogreška u
+ * punjenju zadnjeg bloka prijavljuje kao {@link IOException}.
+ *
+ * @see CryptoStreams
+ * @see CryptoOutputStream
+ *
+ * @author Davor Češljaš
+ */
+public class CryptoInputStream extends FilterInputStream {
+
+	/** Konstanta koja predstavlja veličinu pomoćnog spremnika */
+	private static final int BUFFER_SIZE = 8192;
+
+	/** Članska varijabla koja predstavlja inicijalizirani {@link Cipher} */
+	private final Cipher cipher;
+
+	/** Članska varijabla koja predstavlja spremnik pročitanih okteta */
+	private final byte[] input = new byte[BUFFER_SIZE];
+
+	/** Članska varijabla koja predstavlja spremnik kriptiranih okteta */
+	private byte[] output;
+
+	/** Članska varijabla koja predstavlja poziciju prvog nepročitanog okteta */
+	private int position;
+
+	/** Članska varijabla koja predstavlja broj kriptiranih okteta u spremniku */
+	private int limit;
+
+	/** Članska varijabla koja označava je li omotani tok pročitan do kraja */
+	private boolean finished;
+
+	/** Članska varijabla koja predstavlja spremnik za čitanje jednog okteta */
+	private final byte[] single = new byte[1];
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param in
+	 *            ulazni tok okteta iz kojeg se čitaju podaci
+	 * @param cipher
+	 *            inicijalizirani primjerak razreda {@link Cipher}
+	 */
+	public CryptoInputStream(InputStream in, Cipher cipher) {
+		super(in);
+		this.cipher = cipher;
+		this.output = new byte[Crypto.outputSize(cipher, BUFFER_SIZE)];
+	}
+
+	@Override
+	public int read() throws IOException {
+		return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+
+		while (position == limit) {
+			if (finished) {
+				return -1;
+			}
+			fill();
+		}
+
+		int count = Math.min(len, limit - position);
+		System.arraycopy(output, position, b, off, count);
+		position += count;
+		return count;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = 0;
+		byte[] discard = new byte[(int) Math.min(n, BUFFER_SIZE)];
+		while (skipped < n) {
+			int count = read(discard, 0, (int) Math.min(n - skipped, discard.length));
+			if (count == -1) {
+				break;
+			}
+			skipped += count;
+		}
+		return skipped;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return limit - position;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public synchronized void mark(int readlimit) {
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		throw new IOException("Tok ne podržava metodu reset!");
+	}
+
+	/**
+	 * Pomoćna metoda koja čita sljedeći dio omotanog toka i kriptira ga u
+	 * spremnik {@link #output}
+	 *
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati iz toka ili kriptiranje nije
+	 *             uspjelo
+	 */
+	private void fill() throws IOException {
+		try {
+			int read = in.read(input);
+			if (read == -1) {
+				ensureCapacity(Crypto.outputSize(cipher, 0));
+				limit = cipher.doFinal(output, 0);
+				finished = true;
+			} else {
+				ensureCapacity(Crypto.outputSize(cipher, read));
+				limit = cipher.update(input, 0, read, output, 0);
+			}
+			position = 0;
+		} catch (GeneralSecurityException e) {
+			throw new IOException("Nisam uspio kriptirati podatke!", e);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja povećava spremnik kriptiranih okteta ukoliko je
+	 * manji od <b>size</b> okteta
+	 *
+	 * @param size
+	 *            potrebna veličina spremnika
+	 */
+	private void ensureCapacity(int size) {
+		if (output.length < size) {
+			output = new byte[size];
+		}
+	}
+}
@@ -0,0 +1,266 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Razred koji prikuplja mjerenja jednog kriptiranja: broj obrađenih okteta te
+ * vrijeme provedeno u čitanju, kriptiranju i pisanju. Iz mjerenja se računa
+ * trenutna i prosječna propusnost te procjena preostalog vremena. Ukoliko je
+ * čitanje i pisanje trajalo dulje od kriptiranja, obrada je ograničena
+ * ulazom i izlazom (<code>io</code>), a inače procesorom (<code>cpu</code>).
+ * <p>
+ * Mjerenja bilježi jedna dretva (dretva kriptiranja), a metodom
+ * {@link #startReporting(PrintStream, long)} napredak se periodički ispisuje
+ * s druge dretve. Metoda {@link #toJson()} vraća sažetak u formatu JSON.
+ * <p>
+ * Kod načina {@link IOMode#MAPPED} datoteka se čita tek kada joj
+ * {@link javax.crypto.Cipher} pristupi, pa je vrijeme čitanja uključeno u
+ * vrijeme kriptiranja.
+ *
+ * @see Crypto
+ * @see ChannelCrypto
+ *
+ * @author Davor Češljaš
+ */
+public class CryptoMetrics {
+
+	/** Konstanta koja predstavlja broj okteta u jednom megabajtu */
+	private static final double MEGABYTE = 1_000_000.0;
+
+	/** Konstanta koja predstavlja broj nanosekundi u jednoj sekundi */
+	private static final double NANOS_IN_SECOND = 1_000_000_000.0;
+
+	/** Članska varijabla koja predstavlja naziv operacije */
+	private final String operation;
+
+	/** Članska varijabla koja predstavlja ukupan broj okteta ili -1 */
+	private final long totalBytes;
+
+	/** Članska varijabla koja predstavlja trenutak početka obrade */
+	private final long start = System.nanoTime();
+
+	/** Članska varijabla koja predstavlja broj obrađenih okteta */
+	private final AtomicLong bytes = new AtomicLong();
+
+	/** Članska varijabla koja predstavlja vrijeme čitanja u nanosekundama */
+	private final AtomicLong readNanos = new AtomicLong();
+
+	/**
+	 * Članska varijabla koja predstavlja vrijeme kriptiranja u nanosekundama
+	 */
+	private final AtomicLong cipherNanos = new AtomicLong();
+
+	/** Članska varijabla koja predstavlja vrijeme pisanja u nanosekundama */
+	private final AtomicLong writeNanos = new AtomicLong();
+
+	/** Članska varijabla koja predstavlja trenutak završetka obrade ili 0 */
+	private volatile long end;
+
+	/**
+	 * Članska varijabla koja predstavlja broj okteta pri zadnjem ispisu
+	 * napretka
+	 */
+	private long lastBytes;
+
+	/** Članska varijabla koja predstavlja trenutak zadnjeg ispisa napretka */
+	private long lastTime = start;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda i započinje
+	 * mjerenje.
+	 *
+	 * @param operation
+	 *            naziv operacije, npr. <code>encrypt</code>
+	 * @param totalBytes
+	 *            ukupan broj okteta koji se obrađuje ili -1 ukoliko nije
+	 *            poznat
+	 */
+	public CryptoMetrics(String operation, long totalBytes) {
+		this.operation = operation;
+		this.totalBytes = totalBytes;
+	}
+
+	/**
+	 * Metoda koja bilježi čitanje
+	 *
+	 * @param count
+	 *            broj pročitanih okteta
+	 * @param nanos
+	 *            trajanje čitanja u nanosekundama
+	 */
+	public void addRead(long count, long nanos) {
+		bytes.addAndGet(count);
+		readNanos.addAndGet(nanos);
+	}
+
+	/**
+	 * Metoda koja bilježi kriptiranje
+	 *
+	 * @param nanos
+	 *            trajanje kriptiranja u nanosekundama
+	 */
+	public void addCipher(long nanos) {
+		cipherNanos.addAndGet(nanos);
+	}
+
+	/**
+	 * Metoda koja bilježi pisanje
+	 *
+	 * @param nanos
+	 *            trajanje pisanja u nanosekundama
+	 */
+	public void addWrite(long nanos) {
+		writeNanos.addAndGet(nanos);
+	}
+
+	/**
+	 * Metoda koja bilježi kraj obrade. Nakon poziva ove metode trajanje i
+	 * propusnost se više ne mijenjaju.
+	 */
+	public void finish() {
+		if (end == 0) {
+			end = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Metoda koja vraća broj obrađenih okteta
+	 *
+	 * @return broj obrađenih okteta
+	 */
+	public long getBytes() {
+		return bytes.get();
+	}
+
+	/**
+	 * Metoda koja vraća ukupno trajanje obrade u sekundama
+	 *
+	 * @return trajanje obrade u sekundama
+	 */
+	public double getSeconds() {
+		long now = end == 0 ? System.nanoTime() : end;
+		return (now - start) / NANOS_IN_SECOND;
+	}
+
+	/**
+	 * Metoda koja vraća prosječnu propusnost u megabajtima po sekundi
+	 *
+	 * @return prosječna propusnost
+	 */
+	public double getAverageThroughput() {
+		return throughput(bytes.get(), getSeconds());
+	}
+
+	/**
+	 * Metoda koja vraća ograničava li obradu ulaz i izlaz (<code>io</code>) ili
+	 * procesor (<code>cpu</code>)
+	 *
+	 * @return <code>io</code> ili <code>cpu</code>
+	 */
+	public String getBound() {
+		return readNanos.get() + writeNanos.get() > cipherNanos.get() ? "io" : "cpu";
+	}
+
+	/**
+	 * Metoda koja vraća redak napretka s trenutnom propusnošću (od zadnjeg
+	 * poziva ove metode), prosječnom propusnošću i procjenom preostalog
+	 * vremena
+	 *
+	 * @return redak napretka
+	 */
+	public synchronized String progressLine() {
+		long now = System.nanoTime();
+		long processed = bytes.get();
+		double current = throughput(processed - lastBytes, (now - lastTime) / NANOS_IN_SECOND);
+		lastBytes = processed;
+		lastTime = now;
+
+		double average = getAverageThroughput();
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format(Locale.ROOT, "[%s] %.1f MB", operation, processed / MEGABYTE));
+		if (totalBytes > 0) {
+			sb.append(String.format(Locale.ROOT, " od %.1f MB (%.1f %%)", totalBytes / MEGABYTE,
+					100.0 * processed / totalBytes));
+		}
+		sb.append(String.format(Locale.ROOT, ", trenutno %.1f MB/s, prosjek %.1f MB/s", current, average));
+		if (totalBytes > 0 && average > 0) {
+			sb.append(String.format(Locale.ROOT, ", preostalo %d s",
+					Math.round((totalBytes - processed) / MEGABYTE / average)));
+		}
+		sb.append(String.format(Locale.ROOT, " (čitanje %.1f s, kriptiranje %.1f s, pisanje %.1f s)",
+				readNanos.get() / NANOS_IN_SECOND, cipherNanos.get() / NANOS_IN_SECOND,
+				writeNanos.get() / NANOS_IN_SECOND));
+		return sb.toString();
+	}
+
+	/**
+	 * Metoda koja vraća sažetak mjerenja u formatu JSON
+	 *
+	 * @return sažetak mjerenja
+	 */
+	public String toJson() {
+		return String.format(Locale.ROOT,
+				"{\"operation\":\"%s\",\"bytes\":%d,\"totalBytes\":%d,\"seconds\":%.6f,\"averageMBps\":%.3f,"
+						+ "\"readSeconds\":%.6f,\"cipherSeconds\":%.6f,\"writeSeconds\":%.6f,\"bound\":\"%s\"}",
+				operation.replace("\\", "\\\\").replace("\"", "\\\""), bytes.get(), totalBytes, getSeconds(),
+				getAverageThroughput(), readNanos.get() / NANOS_IN_SECOND, cipherNanos.get() / NANOS_IN_SECOND,
+				writeNanos.get() / NANOS_IN_SECOND, getBound());
+	}
+
+	/**
+	 * Metoda koja pokreće periodički ispis napretka u tok <b>out</b> na
+	 * zasebnoj dretvi. Ispis se zaustavlja zatvaranjem vraćenog objekta.
+	 *
+	 * @param out
+	 *            tok u koji se ispisuje napredak
+	 * @param intervalMillis
+	 *            razmak između dva ispisa u milisekundama
+	 * @return objekt čijim se zatvaranjem zaustavlja ispis
+	 * @throws IllegalArgumentException
+	 *             ukoliko razmak nije pozitivan
+	 */
+	public Reporter startReporting(PrintStream out, long intervalMillis) {
+		if (intervalMillis <= 0) {
+			throw new IllegalArgumentException("Razmak između ispisa napretka mora biti pozitivan!");
+		}
+
+		ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "progress");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleAtFixedRate(() -> out.println(progressLine()), intervalMillis, intervalMillis,
+				TimeUnit.MILLISECONDS);
+		return () -> executor.shutdownNow();
+	}
+
+	/**
+	 * Sučelje koje predstavlja periodički ispis napretka koji se zaustavlja
+	 * zatvaranjem
+	 *
+	 * @author Davor Češljaš
+	 */
+	public interface Reporter extends AutoCloseable {
+
+		@Override
+		void close();
+	}
+
+	/**
+	 * Pomoćna metoda koja računa propusnost u megabajtima po sekundi
+	 *
+	 * @param count
+	 *            broj okteta
+	 * @param seconds
+	 *            trajanje u sekundama
+	 * @return propusnost u megabajtima po sekundi
+	 */
+	private static double throughput(long count, double seconds) {
+		return seconds <= 0 ? 0 : count / MEGABYTE / seconds;
+	}
+}
@@ -0,0 +1,121 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Cipher;
+
+/**
+ * Razred koji nasljeđuje {@link FilterOutputStream}. Svi okteti upisani u
+ * primjerak ovog razreda kriptiraju se inicijaliziranim primjerkom razreda
+ * {@link Cipher} i prosljeđuju omotanom izlaznom toku okteta. Zadnji blok
+ * kriptiranih podataka zapisuje se tek prilikom zatvaranja toka, pa se tok
+ * uvijek mora zatvoriti.
+ *
+ * Za razliku od {@link javax.crypto.CipherOutputStream} pogreške prilikom
+ * kriptiranja prijavljuju se kao {@link IOException}, a ne zanemaruju se.
+ *
+ * @see CryptoStreams
+ * @see CryptoInputStream
+ *
+ * @author Davor Češljaš
+ */
+public class CryptoOutputStream extends FilterOutputStream {
+
+	/**
+	 * Konstanta koja predstavlja najveći broj okteta koji se odjednom predaje
+	 * algoritmu
+	 */
+	private static final int CHUNK_SIZE = 8192;
+
+	/** Članska varijabla koja predstavlja inicijalizirani {@link Cipher} */
+	private final Cipher cipher;
+
+	/** Članska varijabla koja predstavlja pomoćni spremnik kriptiranih okteta */
+	private byte[] buffer;
+
+	/** Članska varijabla koja predstavlja spremnik za pisanje jednog okteta */
+	private final byte[] single = new byte[1];
+
+	/** Članska varijabla koja označava je li tok zatvoren */
+	private boolean closed;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param out
+	 *            izlazni tok okteta u koji se zapisuju kriptirani okteti
+	 * @param cipher
+	 *            inicijalizirani primjerak razreda {@link Cipher}
+	 */
+	public CryptoOutputStream(OutputStream out, Cipher cipher) {
+		super(out);
+		this.cipher = cipher;
+		this.buffer = new byte[Crypto.outputSize(cipher, CHUNK_SIZE)];
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		single[0] = (byte) b;
+		write(single, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("Tok je zatvoren!");
+		}
+
+		try {
+			for (int written = 0; written < len; written += CHUNK_SIZE) {
+				int chunk = Math.min(CHUNK_SIZE, len - written);
+				ensureCapacity(Crypto.outputSize(cipher, chunk));
+				out.write(buffer, 0, cipher.update(b, off + written, chunk, buffer, 0));
+			}
+		} catch (GeneralSecurityException e) {
+			throw new IOException("Nisam uspio kriptirati podatke!", e);
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	/**
+	 * Metoda koja zapisuje zadnji blok kriptiranih podataka te zatvara
+	 * omotani izlazni tok okteta
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		try {
+			ensureCapacity(Crypto.outputSize(cipher, 0));
+			out.write(buffer, 0, cipher.doFinal(buffer, 0));
+			out.flush();
+		} catch (GeneralSecurityException e) {
+			throw new IOException("Nisam uspio kriptirati podatke!", e);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja povećava pomoćni spremnik ukoliko je manji od
+	 * <b>size</b> okteta
+	 *
+	 * @param size
+	 *            potrebna veličina spremnika
+	 */
+	private void ensureCapacity(int size) {
+		if (buffer.length < size) {
+			buffer = new byte[size];
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Cipher;
+
+/**
+ * Razred koji implementira sučelje {@link ReadableByteChannel}. Okteti
+ * pročitani iz omotanog kanala kriptiraju se inicijaliziranim primjerkom
+ * razreda {@link Cipher} i tek takvi vraćaju čitatelju. Po dolasku do kraja
+ * omotanog kanala poziva se
+ * {@link Cipher#doFinal(ByteBuffer, ByteBuffer)}.
+ *
+ * @see CryptoStreams
+ * @see CryptoWritableChannel
+ *
+ * @author Davor Češljaš
+ */
+public class CryptoReadableChannel implements ReadableByteChannel {
+
+	/** Konstanta koja predstavlja veličinu spremnika pročitanih okteta */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** Članska varijabla koja predstavlja omotani kanal */
+	private final ReadableByteChannel channel;
+
+	/** Članska varijabla koja predstavlja inicijalizirani {@link Cipher} */
+	private final Cipher cipher;
+
+	/** Članska varijabla koja predstavlja spremnik pročitanih okteta */
+	private final ByteBuffer input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	/**
+	 * Članska varijabla koja predstavlja spremnik kriptiranih okteta koji još
+	 * nisu predani čitatelju
+	 */
+	private final ByteBuffer output;
+
+	/** Članska varijabla koja označava je li omotani kanal pročitan do kraja */
+	private boolean finished;
+
+	/** Članska varijabla koja označava je li kanal otvoren */
+	private boolean open = true;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param channel
+	 *            kanal iz kojeg se čitaju podaci
+	 * @param cipher
+	 *            inicijalizirani primjerak razreda {@link Cipher}
+	 */
+	public CryptoReadableChannel(ReadableByteChannel channel, Cipher cipher) {
+		this.channel = channel;
+		this.cipher = cipher;
+		this.output = ByteBuffer.allocateDirect(Crypto.outputSize(cipher, BUFFER_SIZE));
+		this.output.flip();
+	}
+
+	@Override
+	public int read(ByteBuffer dst) throws IOException {
+		if (!open) {
+			throw new ClosedChannelException();
+		}
+
+		while (!output.hasRemaining()) {
+			if (finished) {
+				return -1;
+			}
+			if (!fill()) {
+				return 0;
+			}
+		}
+
+		int count = Math.min(dst.remaining(), output.remaining());
+		int limit = output.limit();
+		output.limit(output.position() + count);
+		dst.put(output);
+		output.limit(limit);
+		return count;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return open;
+	}
+
+	@Override
+	public void close() throws IOException {
+		open = false;
+		channel.close();
+	}
+
+	/**
+	 * Pomoćna metoda koja čita sljedeći dio omotanog kanala i kriptira ga u
+	 * spremnik {@link #output}
+	 *
+	 * @return <b>false</b> ukoliko omotani kanal trenutno nema podataka,
+	 *         <b>true</b> inače
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati iz kanala ili kriptiranje nije
+	 *             uspjelo
+	 */
+	private boolean fill() throws IOException {
+		try {
+			input.clear();
+			int read = channel.read(input);
+			if (read == 0) {
+				return false;
+			}
+
+			output.clear();
+			if (read == -1) {
+				input.flip();
+				cipher.doFinal(input, output);
+				finished = true;
+			} else {
+				input.flip();
+				cipher.update(input, output);
+			}
+			output.flip();
+			return true;
+		} catch (GeneralSecurityException e) {
+			throw new IOException("Nisam uspio kriptirati podatke!", e);
+		}
+	}
+}
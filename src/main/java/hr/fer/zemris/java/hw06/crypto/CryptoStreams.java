@@ -0,0 +1,261 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Razred(biblioteka) koji nudi statičke metode za omatanje tokova okteta i
+ * kanala tako da se podaci kriptiraju (ili se računa njihova zaštitna suma)
+ * usput, dok prolaze kroz tok. Time se podaci mogu kriptirati prilikom slanja
+ * ili pisanja na disk bez privremene datoteke i dodatnog prolaza. Kriptiranje
+ * koristi istu transformaciju kao i program {@link Crypto} (vidjeti
+ * {@link Crypto#initCipher(boolean, byte[], byte[])}), pa se podaci
+ * kriptirani ovim razredom mogu dekriptirati programom i obrnuto.
+ *
+ * <ul>
+ * <li>{@link #encryptingOutput(OutputStream, byte[], byte[])} i
+ * {@link #decryptingOutput(OutputStream, byte[], byte[])}</li>
+ * <li>{@link #encryptingInput(InputStream, byte[], byte[])} i
+ * {@link #decryptingInput(InputStream, byte[], byte[])}</li>
+ * <li>{@link #encryptingWritable(WritableByteChannel, byte[], byte[])} i
+ * {@link #decryptingWritable(WritableByteChannel, byte[], byte[])}</li>
+ * <li>{@link #encryptingReadable(ReadableByteChannel, byte[], byte[])} i
+ * {@link #decryptingReadable(ReadableByteChannel, byte[], byte[])}</li>
+ * <li>{@link #digestingInput(InputStream)} i
+ * {@link #digestingOutput(OutputStream)}</li>
+ * <li>{@link #hexEncodingOutput(OutputStream)} i
+ * {@link #hexDecodingInput(InputStream)}</li>
+ * </ul>
+ *
+ * @see CryptoInputStream
+ * @see CryptoOutputStream
+ * @see CryptoReadableChannel
+ * @see CryptoWritableChannel
+ * @see HexEncodingOutputStream
+ * @see HexDecodingInputStream
+ *
+ * @author Davor Češljaš
+ */
+public final class CryptoStreams {
+
+	/**
+	 * Privatni konstruktor koji onemogućuje stvaranje primjeraka ovog razreda
+	 */
+	private CryptoStreams() {
+	}
+
+	/**
+	 * Metoda koja omata izlazni tok okteta <b>out</b> tako da se svi upisani
+	 * okteti enkriptiraju
+	 *
+	 * @param out
+	 *            izlazni tok okteta u koji se zapisuju enkriptirani okteti
+	 * @param key
+	 *            ključ kriptiranja
+	 * @param initVector
+	 *            inicijalizacijski vektor
+	 * @return omotani izlazni tok okteta
+	 * @throws GeneralSecurityException
+	 *             ukoliko ključ ili inicijalizacijski vektor nisu valjani
+	 */
+	public static CryptoOutputStream encryptingOutput(OutputStream out, byte[] key, byte[] initVector)
+			throws GeneralSecurityException {
+		return new CryptoOutputStream(out, Crypto.initCipher(true, key, initVector));
+	}
+
+	/**
+	 * Metoda koja omata izlazni tok okteta <b>out</b> tako da se svi upisani
+	 * okteti dekriptiraju
+	 *
+	 * @param out
+	 *            izlazni tok okteta u koji se zapisuju dekriptirani okteti
+	 * @param key
+	 *            ključ kriptiranja
+	 * @param initVector
+	 *            inicijalizacijski vektor
+	 * @return omotani izlazni tok okteta
+	 * @throws GeneralSecurityException
+	 *             ukoliko ključ ili inicijalizacijski vektor nisu valjani
+	 */
+	public static CryptoOutputStream decryptingOutput(OutputStream out, byte[] key, byte[] initVector)
+			throws GeneralSecurityException {
+		return new CryptoOutputStream(out, Crypto.initCipher(false, key, initVector));
+	}
+
+	/**
+	 * Metoda koja omata ulazni tok okteta <b>in</b> tako da se svi pročitani
+	 * okteti enkriptiraju
+	 *
+	 * @param in
+	 *            ulazni tok okteta iz kojeg se čitaju podaci
+	 * @param key
+	 *            ključ kriptiranja
+	 * @param initVector
+	 *            inicijalizacijski vektor
+	 * @return omotani ulazni tok okteta
+	 * @throws GeneralSecurityException
+	 *             ukoliko ključ ili inicijalizacijski vektor nisu valjani
+	 */
+	public static CryptoInputStream encryptingInput(InputStream in, byte[] key, byte[] initVector)
+			throws GeneralSecurityException {
+		return new CryptoInputStream(in, Crypto.initCipher(true, key, initVector));
+	}
+
+	/**
+	 * Metoda koja omata ulazni tok okteta <b>in</b> tako da se svi pročitani
+	 * okteti dekriptiraju
+	 *
+	 * @param in
+	 *            ulazni tok okteta iz kojeg se čitaju kriptirani podaci
+	 * @param key
+	 *            ključ kriptiranja
+	 * @param initVector
+	 *            inicijalizacijski vektor
+	 * @return omotani ulazni tok okteta
+	 * @throws GeneralSecurityException
+	 *             ukoliko ključ ili inicijalizacijski vektor nisu valjani
+	 */
+	public static CryptoInputStream decryptingInput(InputStream in, byte[] key, byte[] initVector)
+			throws GeneralSecurityException {
+		return new CryptoInputStream(in, Crypto.initCipher(false, key, initVector));
+	}
+
+	/**
+	 * Metoda koja omata kanal <b>channel</b> tako da se svi upisani okteti
+	 * enkriptiraju
+	 *
+	 * @param channel
+	 *            kanal u koji se zapisuju enkriptirani okteti
+	 * @param key
+	 *            ključ kriptiranja
+	 * @param initVector
+	 *            inicijalizacijski vektor
+	 * @return omotani kanal
+	 * @throws GeneralSecurityException
+	 *             ukoliko ključ ili inicijalizacijski vektor nisu valjani
+	 */
+	public static CryptoWritableChannel encryptingWritable(WritableByteChannel channel, byte[] key,
+			byte[] initVector) throws GeneralSecurityException {
+		return new CryptoWritableChannel(channel, Crypto.initCipher(true, key, initVector));
+	}
+
+	/**
+	 * Metoda koja omata kanal <b>channel</b> tako da se svi upisani okteti
+	 * dekriptiraju
+	 *
+	 * @param channel
+	 *            kanal u koji se zapisuju dekriptirani okteti
+	 * @param key
+	 *            ključ kriptiranja
+	 * @param initVector
+	 *            inicijalizacijski vektor
+	 * @return omotani kanal
+	 * @throws GeneralSecurityException
+	 *             ukoliko ključ ili inicijalizacijski vektor nisu valjani
+	 */
+	public static CryptoWritableChannel decryptingWritable(WritableByteChannel channel, byte[] key,
+			byte[] initVector) throws GeneralSecurityException {
+		return new CryptoWritableChannel(channel, Crypto.initCipher(false, key, initVector));
+	}
+
+	/**
+	 * Metoda koja omata kanal <b>channel</b> tako da se svi pročitani okteti
+	 * enkriptiraju
+	 *
+	 * @param channel
+	 *            kanal iz kojeg se čitaju podaci
+	 * @param key
+	 *            ključ kriptiranja
+	 * @param initVector
+	 *            inicijalizacijski vektor
+	 * @return omotani kanal
+	 * @throws GeneralSecurityException
+	 *             ukoliko ključ ili inicijalizacijski vektor nisu valjani
+	 */
+	public static CryptoReadableChannel encryptingReadable(ReadableByteChannel channel, byte[] key,
+			byte[] initVector) throws GeneralSecurityException {
+		return new CryptoReadableChannel(channel, Crypto.initCipher(true, key, initVector));
+	}
+
+	/**
+	 * Metoda koja omata kanal <b>channel</b> tako da se svi pročitani okteti
+	 * dekriptiraju
+	 *
+	 * @param channel
+	 *            kanal iz kojeg se čitaju kriptirani podaci
+	 * @param key
+	 *            ključ kriptiranja
+	 * @param initVector
+	 *            inicijalizacijski vektor
+	 * @return omotani kanal
+	 * @throws GeneralSecurityException
+	 *             ukoliko ključ ili inicijalizacijski vektor nisu valjani
+	 */
+	public static CryptoReadableChannel decryptingReadable(ReadableByteChannel channel, byte[] key,
+			byte[] initVector) throws GeneralSecurityException {
+		return new CryptoReadableChannel(channel, Crypto.initCipher(false, key, initVector));
+	}
+
+	/**
+	 * Metoda koja omata ulazni tok okteta <b>in</b> tako da se usput računa
+	 * zaštitna suma algoritmom {@value Crypto#DIGEST_ALGORITHM}. Suma se
+	 * dohvaća pozivom {@link DigestInputStream#getMessageDigest()} nakon
+	 * čitanja.
+	 *
+	 * @param in
+	 *            ulazni tok okteta iz kojeg se čitaju podaci
+	 * @return omotani ulazni tok okteta
+	 * @throws NoSuchAlgorithmException
+	 *             ukoliko ne postoji algoritam zaštitne sume
+	 */
+	public static DigestInputStream digestingInput(InputStream in) throws NoSuchAlgorithmException {
+		return new DigestInputStream(in, MessageDigest.getInstance(Crypto.DIGEST_ALGORITHM));
+	}
+
+	/**
+	 * Metoda koja omata izlazni tok okteta <b>out</b> tako da se usput računa
+	 * zaštitna suma algoritmom {@value Crypto#DIGEST_ALGORITHM}. Suma se
+	 * dohvaća pozivom {@link DigestOutputStream#getMessageDigest()} nakon
+	 * pisanja.
+	 *
+	 * @param out
+	 *            izlazni tok okteta u koji se zapisuju podaci
+	 * @return omotani izlazni tok okteta
+	 * @throws NoSuchAlgorithmException
+	 *             ukoliko ne postoji algoritam zaštitne sume
+	 */
+	public static DigestOutputStream digestingOutput(OutputStream out) throws NoSuchAlgorithmException {
+		return new DigestOutputStream(out, MessageDigest.getInstance(Crypto.DIGEST_ALGORITHM));
+	}
+
+	/**
+	 * Metoda koja omata izlazni tok okteta <b>out</b> tako da se svaki upisani
+	 * oktet zapisuje kao dvije heksadekadske znamenke
+	 *
+	 * @param out
+	 *            izlazni tok okteta u koji se zapisuju znamenke
+	 * @return omotani izlazni tok okteta
+	 */
+	public static OutputStream hexEncodingOutput(OutputStream out) {
+		return new HexEncodingOutputStream(out);
+	}
+
+	/**
+	 * Metoda koja omata ulazni tok okteta <b>in</b> s heksadekadskim
+	 * znamenkama tako da se čitaju okteti koje znamenke predstavljaju
+	 *
+	 * @param in
+	 *            ulazni tok okteta iz kojeg se čitaju znamenke
+	 * @return omotani ulazni tok okteta
+	 */
+	public static InputStream hexDecodingInput(InputStream in) {
+		return new HexDecodingInputStream(in);
+	}
+}
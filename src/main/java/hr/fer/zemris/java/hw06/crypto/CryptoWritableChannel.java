@@ -0,0 +1,121 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Cipher;
+
+/**
+ * Razred koji implementira sučelje {@link WritableByteChannel}. Svi okteti
+ * upisani u primjerak ovog razreda kriptiraju se inicijaliziranim primjerkom
+ * razreda {@link Cipher} i zapisuju u omotani kanal. Zadnji blok kriptiranih
+ * podataka zapisuje se tek prilikom zatvaranja kanala, pa se kanal uvijek
+ * mora zatvoriti.
+ *
+ * @see CryptoStreams
+ * @see CryptoReadableChannel
+ *
+ * @author Davor Češljaš
+ */
+public class CryptoWritableChannel implements WritableByteChannel {
+
+	/**
+	 * Konstanta koja predstavlja najveći broj okteta koji se odjednom predaje
+	 * algoritmu
+	 */
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	/** Članska varijabla koja predstavlja omotani kanal */
+	private final WritableByteChannel channel;
+
+	/** Članska varijabla koja predstavlja inicijalizirani {@link Cipher} */
+	private final Cipher cipher;
+
+	/** Članska varijabla koja predstavlja spremnik kriptiranih okteta */
+	private final ByteBuffer output;
+
+	/** Članska varijabla koja označava je li kanal otvoren */
+	private boolean open = true;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param channel
+	 *            kanal u koji se zapisuju kriptirani okteti
+	 * @param cipher
+	 *            inicijalizirani primjerak razreda {@link Cipher}
+	 */
+	public CryptoWritableChannel(WritableByteChannel channel, Cipher cipher) {
+		this.channel = channel;
+		this.cipher = cipher;
+		this.output = ByteBuffer.allocateDirect(Crypto.outputSize(cipher, CHUNK_SIZE));
+	}
+
+	@Override
+	public int write(ByteBuffer src) throws IOException {
+		if (!open) {
+			throw new ClosedChannelException();
+		}
+
+		int written = src.remaining();
+		int limit = src.limit();
+		try {
+			while (src.hasRemaining()) {
+				src.limit(src.position() + Math.min(CHUNK_SIZE, src.remaining()));
+				output.clear();
+				cipher.update(src, output);
+				src.limit(limit);
+				drain();
+			}
+		} catch (GeneralSecurityException e) {
+			throw new IOException("Nisam uspio kriptirati podatke!", e);
+		} finally {
+			src.limit(limit);
+		}
+		return written;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return open;
+	}
+
+	/**
+	 * Metoda koja zapisuje zadnji blok kriptiranih podataka te zatvara
+	 * omotani kanal
+	 */
+	@Override
+	public void close() throws IOException {
+		if (!open) {
+			return;
+		}
+		open = false;
+
+		try {
+			output.clear();
+			cipher.doFinal(ByteBuffer.allocate(0), output);
+			drain();
+		} catch (GeneralSecurityException e) {
+			throw new IOException("Nisam uspio kriptirati podatke!", e);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja sadržaj spremnika {@link #output} u cijelosti
+	 * zapisuje u omotani kanal
+	 *
+	 * @throws IOException
+	 *             ukoliko nije moguće pisati u kanal
+	 */
+	private void drain() throws IOException {
+		output.flip();
+		while (output.hasRemaining()) {
+			channel.write(output);
+		}
+	}
+}
@@ -0,0 +1,367 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.GeneralSecurityException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Razred koji predstavlja trajnu priručnu memoriju zaštitnih suma datoteka.
+ * Zaštitna suma datoteke pamti se zajedno s njenim identitetom: apsolutnom
+ * putanjom, veličinom, vremenom zadnje izmjene i ključem datoteke (vidjeti
+ * {@link BasicFileAttributes#fileKey()}, npr. broj <i>inode</i> zapisa).
+ * Ukoliko se nijedno od tih svojstava nije promijenilo, suma se vraća iz
+ * priručne memorije bez čitanja datoteke.
+ * <p>
+ * Priručna memorija čuva najviše zadani broj zapisa, a kada je puna izbacuje
+ * se zapis koji najdulje nije korišten. Zapisi se spremaju u tekstualnu
+ * datoteku (vidjeti {@link #save()}) koja se zamjenjuje atomarno. Metode ovog
+ * razreda mogu se pozivati iz više dretvi istovremeno.
+ *
+ * @see Crypto
+ * @see BatchCrypto
+ *
+ * @author Davor Češljaš
+ */
+public class DigestCache {
+
+	/** Konstanta koja predstavlja predefinirani najveći broj zapisa */
+	public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+	/** Konstanta koja predstavlja naziv predefinirane datoteke */
+	private static final String DEFAULT_FILE_NAME = ".crypto-digest-cache";
+
+	/** Konstanta koja predstavlja zaglavlje datoteke */
+	private static final String HEADER = "# crypto digest cache v1";
+
+	/** Konstanta koja predstavlja razdjelnik polja unutar zapisa */
+	private static final String SEPARATOR = "\t";
+
+	/** Konstanta koja predstavlja broj polja unutar zapisa */
+	private static final int FIELD_COUNT = 6;
+
+	/** Konstanta koja predstavlja oznaku nepostojećeg ključa datoteke */
+	private static final String NO_FILE_KEY = "-";
+
+	/** Članska varijabla koja predstavlja putanju do datoteke */
+	private final Path file;
+
+	/** Članska varijabla koja predstavlja najveći broj zapisa */
+	private final int maxEntries;
+
+	/**
+	 * Članska varijabla koja predstavlja zapise po apsolutnim putanjama,
+	 * poredane od najdulje nekorištenog
+	 */
+	private final Map<String, CacheEntry> entries;
+
+	/** Članska varijabla koja označava postoje li nespremljene promjene */
+	private boolean dirty;
+
+	/** Članska varijabla koja predstavlja broj pogodaka */
+	private final AtomicLong hits = new AtomicLong();
+
+	/** Članska varijabla koja predstavlja broj promašaja */
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda i učitava zapise
+	 * iz datoteke <b>file</b> ukoliko ona postoji. Neispravni zapisi se
+	 * zanemaruju.
+	 *
+	 * @param file
+	 *            putanja do datoteke priručne memorije
+	 * @param maxEntries
+	 *            najveći broj zapisa
+	 * @throws IOException
+	 *             ukoliko datoteka postoji, ali se ne može čitati
+	 * @throws IllegalArgumentException
+	 *             ukoliko najveći broj zapisa nije pozitivan
+	 */
+	public DigestCache(Path file, int maxEntries) throws IOException {
+		if (maxEntries <= 0) {
+			throw new IllegalArgumentException("Najveći broj zapisa mora biti pozitivan!");
+		}
+
+		this.file = file;
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+				return size() > DigestCache.this.maxEntries;
+			}
+		};
+		load();
+	}
+
+	/**
+	 * Metoda koja vraća predefiniranu putanju do datoteke priručne memorije
+	 * (u korisnikovom početnom direktoriju)
+	 *
+	 * @return predefinirana putanja do datoteke
+	 */
+	public static Path defaultFile() {
+		return Paths.get(System.getProperty("user.home"), DEFAULT_FILE_NAME);
+	}
+
+	/**
+	 * Metoda koja vraća zaštitnu sumu algoritma <b>algorithm</b> datoteke
+	 * <b>path</b>. Ukoliko se datoteka nije promijenila od zadnjeg izračuna,
+	 * suma se vraća iz priručne memorije, a inače se računa funkcijom
+	 * <b>function</b>. Izračunata suma pamti se samo ukoliko se datoteka nije
+	 * promijenila tijekom izračuna.
+	 *
+	 * @param path
+	 *            putanja do datoteke
+	 * @param algorithm
+	 *            naziv algoritma zaštitne sume
+	 * @param function
+	 *            funkcija koja računa zaštitnu sumu datoteke
+	 * @return zaštitna suma u heksadekadskom obliku
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati datoteku
+	 * @throws GeneralSecurityException
+	 *             ukoliko izračun zaštitne sume nije uspio
+	 */
+	public String digest(Path path, String algorithm, DigestFunction function)
+			throws IOException, GeneralSecurityException {
+		String key = path.toAbsolutePath().normalize().toString();
+		CacheEntry before = CacheEntry.of(Files.readAttributes(path, BasicFileAttributes.class), algorithm, null);
+
+		synchronized (this) {
+			CacheEntry cached = entries.get(key);
+			if (before.sameFile(cached)) {
+				hits.incrementAndGet();
+				return cached.digest;
+			}
+		}
+
+		misses.incrementAndGet();
+		String digest = function.digest(path);
+
+		CacheEntry after = CacheEntry.of(Files.readAttributes(path, BasicFileAttributes.class), algorithm, digest);
+		if (after.sameFile(before) && key.indexOf('\n') == -1 && key.indexOf('\r') == -1) {
+			synchronized (this) {
+				entries.put(key, after);
+				dirty = true;
+			}
+		}
+		return digest;
+	}
+
+	/**
+	 * Metoda koja zapise sprema u datoteku ukoliko postoje nespremljene
+	 * promjene. Zapisi se najprije zapisuju u privremenu datoteku koja se
+	 * potom atomarno preimenuje.
+	 *
+	 * @throws IOException
+	 *             ukoliko nije moguće pisati datoteku
+	 */
+	public synchronized void save() throws IOException {
+		if (!dirty) {
+			return;
+		}
+
+		Path parent = file.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+			writer.write(HEADER);
+			writer.newLine();
+			for (Map.Entry<String, CacheEntry> entry : entries.entrySet()) {
+				writer.write(entry.getValue().format(entry.getKey()));
+				writer.newLine();
+			}
+		}
+		Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+		dirty = false;
+	}
+
+	/**
+	 * Metoda koja vraća broj datoteka čija je suma vraćena iz priručne
+	 * memorije
+	 *
+	 * @return broj pogodaka
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Metoda koja vraća broj datoteka čija je suma izračunata
+	 *
+	 * @return broj promašaja
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Metoda koja vraća trenutni broj zapisa
+	 *
+	 * @return broj zapisa
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Pomoćna metoda koja učitava zapise iz datoteke {@link #file}
+	 *
+	 * @throws IOException
+	 *             ukoliko datoteka postoji, ali se ne može čitati
+	 */
+	private void load() throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+
+				String[] fields = line.split(SEPARATOR, FIELD_COUNT);
+				if (fields.length != FIELD_COUNT) {
+					continue;
+				}
+				try {
+					entries.put(fields[5], new CacheEntry(Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+							fields[2], fields[3], fields[4]));
+				} catch (NumberFormatException ignorable) {
+				}
+			}
+		} catch (NoSuchFileException e) {
+			// priručna memorija još ne postoji
+		}
+	}
+
+	/**
+	 * Funkcijsko sučelje koje predstavlja izračun zaštitne sume datoteke
+	 *
+	 * @author Davor Češljaš
+	 */
+	@FunctionalInterface
+	public interface DigestFunction {
+
+		/**
+		 * Metoda koja računa zaštitnu sumu datoteke <b>path</b>
+		 *
+		 * @param path
+		 *            putanja do datoteke
+		 * @return zaštitna suma u heksadekadskom obliku
+		 * @throws IOException
+		 *             ukoliko nije moguće čitati datoteku
+		 * @throws GeneralSecurityException
+		 *             ukoliko izračun zaštitne sume nije uspio
+		 */
+		String digest(Path path) throws IOException, GeneralSecurityException;
+	}
+
+	/**
+	 * Razred koji predstavlja jedan zapis priručne memorije: identitet
+	 * datoteke i njenu zaštitnu sumu.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class CacheEntry {
+
+		/** Članska varijabla koja predstavlja veličinu datoteke */
+		private final long size;
+
+		/**
+		 * Članska varijabla koja predstavlja vrijeme zadnje izmjene u
+		 * nanosekundama
+		 */
+		private final long modified;
+
+		/** Članska varijabla koja predstavlja ključ datoteke */
+		private final String fileKey;
+
+		/** Članska varijabla koja predstavlja naziv algoritma */
+		private final String algorithm;
+
+		/** Članska varijabla koja predstavlja zaštitnu sumu */
+		private final String digest;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param size
+		 *            veličina datoteke
+		 * @param modified
+		 *            vrijeme zadnje izmjene u nanosekundama
+		 * @param fileKey
+		 *            ključ datoteke
+		 * @param algorithm
+		 *            naziv algoritma
+		 * @param digest
+		 *            zaštitna suma
+		 */
+		private CacheEntry(long size, long modified, String fileKey, String algorithm, String digest) {
+			this.size = size;
+			this.modified = modified;
+			this.fileKey = fileKey;
+			this.algorithm = algorithm;
+			this.digest = digest;
+		}
+
+		/**
+		 * Metoda tvornica koja stvara zapis iz svojstava datoteke
+		 * <b>attributes</b>
+		 *
+		 * @param attributes
+		 *            svojstva datoteke
+		 * @param algorithm
+		 *            naziv algoritma
+		 * @param digest
+		 *            zaštitna suma
+		 * @return novi zapis
+		 */
+		private static CacheEntry of(BasicFileAttributes attributes, String algorithm, String digest) {
+			Object fileKey = attributes.fileKey();
+			return new CacheEntry(attributes.size(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+					fileKey == null ? NO_FILE_KEY : fileKey.toString().replace(SEPARATOR, " "), algorithm, digest);
+		}
+
+		/**
+		 * Metoda koja provjerava opisuju li ovaj zapis i zapis <b>other</b>
+		 * istu, nepromijenjenu datoteku i isti algoritam
+		 *
+		 * @param other
+		 *            drugi zapis ili <code>null</code>
+		 * @return <b>true</b> ukoliko je datoteka ista, <b>false</b> inače
+		 */
+		private boolean sameFile(CacheEntry other) {
+			return other != null && size == other.size && modified == other.modified
+					&& fileKey.equals(other.fileKey) && algorithm.equals(other.algorithm);
+		}
+
+		/**
+		 * Metoda koja zapis pretvara u redak datoteke priručne memorije
+		 *
+		 * @param path
+		 *            apsolutna putanja do datoteke
+		 * @return redak datoteke
+		 */
+		private String format(String path) {
+			return String.join(SEPARATOR, Long.toString(size), Long.toString(modified), fileKey, algorithm,
+					Objects.toString(digest), path);
+		}
+	}
+}
@@ -0,0 +1,230 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.List;
+
+import javax.crypto.Cipher;
+
+/**
+ * Razred koji kriptira datoteku i istovremeno računa zaštitnu sumu
+ * algoritmom {@value Crypto#DIGEST_ALGORITHM} nad izvornim (nekriptiranim)
+ * podacima. Datoteka se čita samo jednom: isti spremnik predaje se i
+ * primjerku razreda {@link MessageDigest} i primjerku razreda {@link Cipher}.
+ * <p>
+ * Prilikom enkripcije zaštitna suma izvorne datoteke zapisuje se u manifest u
+ * formatu programa <code>sha256sum</code> (predefinirano uz kriptiranu
+ * datoteku, vidjeti {@link #manifestFor(Path)}). Prilikom dekripcije suma se
+ * računa nad dekriptiranim podacima te uspoređuje sa sumom iz manifesta.
+ * Ukoliko se sume ne poklapaju, dekriptirana datoteka se briše.
+ *
+ * @see Crypto
+ * @see ChannelCrypto
+ *
+ * @author Davor Češljaš
+ */
+public class DigestingCrypto {
+
+	/** Konstanta koja predstavlja nastavak manifesta zaštitne sume */
+	public static final String MANIFEST_EXTENSION = ".sha256";
+
+	/**
+	 * Konstanta koja predstavlja razmak između zaštitne sume i naziva datoteke
+	 * u manifestu (kao kod programa <code>sha256sum</code>)
+	 */
+	private static final String MANIFEST_SEPARATOR = "  ";
+
+	/**
+	 * Članska varijabla koja predstavlja veličinu dijela podataka koji se
+	 * odjednom čita iz datoteke
+	 */
+	private final int bufferSize;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param bufferSize
+	 *            veličina dijela podataka koji se odjednom čita iz datoteke
+	 * @throws IllegalArgumentException
+	 *             ukoliko veličina spremnika nije pozitivna
+	 */
+	public DigestingCrypto(int bufferSize) {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("Veličina spremnika mora biti pozitivna!");
+		}
+
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Metoda koja vraća predefiniranu putanju manifesta za kriptiranu datoteku
+	 * <b>encrypted</b>
+	 *
+	 * @param encrypted
+	 *            putanja do kriptirane datoteke
+	 * @return putanja do manifesta zaštitne sume
+	 */
+	public static Path manifestFor(Path encrypted) {
+		return encrypted.resolveSibling(encrypted.getFileName() + MANIFEST_EXTENSION);
+	}
+
+	/**
+	 * Metoda koja enkriptira datoteku <b>from</b> u datoteku <b>to</b> i pri
+	 * tome, u istom prolazu, računa zaštitnu sumu datoteke <b>from</b> koju
+	 * zapisuje u <b>manifest</b>.
+	 *
+	 * @param cipher
+	 *            primjerak razreda {@link Cipher} inicijaliziran za enkripciju
+	 * @param from
+	 *            putanja do datoteke koja se enkriptira
+	 * @param to
+	 *            putanja do enkriptirane datoteke
+	 * @param manifest
+	 *            putanja do manifesta u koji se zapisuje zaštitna suma
+	 * @return zaštitna suma izvorne datoteke u heksadekadskom zapisu
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati datoteke
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nije uspjelo
+	 */
+	public String encrypt(Cipher cipher, Path from, Path to, Path manifest)
+			throws IOException, GeneralSecurityException {
+		MessageDigest md = CryptoContext.digest(Crypto.DIGEST_ALGORITHM);
+		crypt(cipher, md, true, from, to);
+
+		String digest = Util.bytetohex(md.digest());
+		try (BufferedWriter writer = Files.newBufferedWriter(manifest, StandardCharsets.UTF_8)) {
+			writer.write(digest + MANIFEST_SEPARATOR + from.getFileName());
+			writer.newLine();
+		}
+		return digest;
+	}
+
+	/**
+	 * Metoda koja dekriptira datoteku <b>from</b> u datoteku <b>to</b> i pri
+	 * tome, u istom prolazu, računa zaštitnu sumu dekriptiranih podataka te je
+	 * uspoređuje sa sumom zapisanom u <b>manifest</b>. Ukoliko se sume ne
+	 * poklapaju datoteka <b>to</b> se briše.
+	 *
+	 * @param cipher
+	 *            primjerak razreda {@link Cipher} inicijaliziran za dekripciju
+	 * @param from
+	 *            putanja do kriptirane datoteke
+	 * @param to
+	 *            putanja do dekriptirane datoteke
+	 * @param manifest
+	 *            putanja do manifesta iz kojeg se čita očekivana zaštitna suma
+	 * @return <b>true</b> ukoliko se izračunata suma poklapa s očekivanom,
+	 *         <b>false</b> inače
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati datoteke
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nije uspjelo
+	 * @throws IllegalArgumentException
+	 *             ukoliko manifest ne sadrži valjanu zaštitnu sumu
+	 */
+	public boolean decrypt(Cipher cipher, Path from, Path to, Path manifest)
+			throws IOException, GeneralSecurityException {
+		byte[] expected = readManifest(manifest);
+
+		MessageDigest md = CryptoContext.digest(Crypto.DIGEST_ALGORITHM);
+		crypt(cipher, md, false, from, to);
+
+		if (!MessageDigest.isEqual(expected, md.digest())) {
+			Files.deleteIfExists(to);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Pomoćna metoda koja čita datoteku <b>from</b>, kriptira je u datoteku
+	 * <b>to</b> te istim spremnikom osvježava zaštitnu sumu <b>md</b>. Ukoliko
+	 * je <b>digestInput</b> <b>true</b> suma se računa nad pročitanim
+	 * podacima, a inače nad kriptiranim podacima.
+	 *
+	 * @param cipher
+	 *            inicijalizirani primjerak razreda {@link Cipher}
+	 * @param md
+	 *            zaštitna suma koja se osvježava
+	 * @param digestInput
+	 *            <b>true</b> ukoliko se suma računa nad ulaznim podacima
+	 * @param from
+	 *            putanja do ulazne datoteke
+	 * @param to
+	 *            putanja do izlazne datoteke
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati datoteke
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nije uspjelo
+	 */
+	private void crypt(Cipher cipher, MessageDigest md, boolean digestInput, Path from, Path to)
+			throws IOException, GeneralSecurityException {
+		ByteBuffer input = ByteBuffer.allocateDirect(bufferSize);
+		ByteBuffer output = ByteBuffer.allocateDirect(Crypto.outputSize(cipher, bufferSize));
+
+		try (FileChannel in = FileChannel.open(from, StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(to, StandardOpenOption.CREATE,
+						StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			boolean finished = false;
+			while (!finished) {
+				input.clear();
+				finished = in.read(input) == -1;
+				input.flip();
+
+				if (digestInput) {
+					input.mark();
+					md.update(input);
+					input.reset();
+				}
+
+				output.clear();
+				if (finished) {
+					cipher.doFinal(input, output);
+				} else {
+					cipher.update(input, output);
+				}
+				output.flip();
+
+				if (!digestInput) {
+					output.mark();
+					md.update(output);
+					output.reset();
+				}
+				while (output.hasRemaining()) {
+					out.write(output);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja iz manifesta <b>manifest</b> čita zaštitnu sumu.
+	 * Suma je prva riječ prvog nepraznog redka.
+	 *
+	 * @param manifest
+	 *            putanja do manifesta
+	 * @return zaštitna suma zapisana u manifestu
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati manifest
+	 * @throws IllegalArgumentException
+	 *             ukoliko manifest ne sadrži valjanu zaštitnu sumu
+	 */
+	private static byte[] readManifest(Path manifest) throws IOException {
+		List<String> lines = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+		for (String line : lines) {
+			if (!line.trim().isEmpty()) {
+				return Util.hextobyte(line.trim().split("\\s+")[0]);
+			}
+		}
+		throw new IllegalArgumentException("Manifest '" + manifest + "' ne sadrži zaštitnu sumu!");
+	}
+}
@@ -0,0 +1,171 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Razred koji nasljeđuje {@link FilterInputStream}. Okteti omotanog ulaznog
+ * toka tumače se kao heksadekadske znamenke u ASCII kodiranju, a čitatelju se
+ * vraćaju okteti koje one predstavljaju (vidjeti
+ * {@link Util#hextobyte(byte[], int, int, byte[], int)}). Praznine (razmaci,
+ * tabulatori i prelasci u novi redak) između znamenki se zanemaruju, pa se
+ * mogu čitati i datoteke s podacima u više redaka. Pretvorba se obavlja u
+ * dijelovima kroz spremnik stalne veličine, pa zauzeće memorije ne ovisi o
+ * količini podataka.
+ *
+ * @see HexEncodingOutputStream
+ * @see CryptoStreams
+ *
+ * @author Davor Češljaš
+ */
+public class HexDecodingInputStream extends FilterInputStream {
+
+	/** Konstanta koja predstavlja veličinu pomoćnog spremnika */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * Članska varijabla koja predstavlja spremnik pročitanih znamenki. Znamenke
+	 * se pretvaraju na mjestu, pa spremnik nakon pretvorbe sadrži oktete.
+	 */
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+
+	/** Članska varijabla koja predstavlja poziciju prvog nepročitanog okteta */
+	private int position;
+
+	/** Članska varijabla koja predstavlja broj pretvorenih okteta u spremniku */
+	private int limit;
+
+	/**
+	 * Članska varijabla koja predstavlja znamenku bez para iz prethodnog
+	 * čitanja ili -1 ukoliko takve znamenke nema
+	 */
+	private int pending = -1;
+
+	/** Članska varijabla koja označava je li omotani tok pročitan do kraja */
+	private boolean finished;
+
+	/** Članska varijabla koja predstavlja spremnik za čitanje jednog okteta */
+	private final byte[] single = new byte[1];
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param in
+	 *            ulazni tok okteta iz kojeg se čitaju heksadekadske znamenke
+	 */
+	public HexDecodingInputStream(InputStream in) {
+		super(in);
+	}
+
+	@Override
+	public int read() throws IOException {
+		return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+
+		while (position == limit) {
+			if (finished) {
+				return -1;
+			}
+			fill();
+		}
+
+		int count = Math.min(len, limit - position);
+		System.arraycopy(buffer, position, b, off, count);
+		position += count;
+		return count;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = 0;
+		byte[] discard = new byte[(int) Math.min(n, BUFFER_SIZE)];
+		while (skipped < n) {
+			int count = read(discard, 0, (int) Math.min(n - skipped, discard.length));
+			if (count == -1) {
+				break;
+			}
+			skipped += count;
+		}
+		return skipped;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return limit - position;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public synchronized void mark(int readlimit) {
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		throw new IOException("Tok ne podržava metodu reset!");
+	}
+
+	/**
+	 * Pomoćna metoda koja čita sljedeći dio omotanog toka, izbacuje praznine
+	 * te znamenke pretvara u oktete unutar spremnika {@link #buffer}.
+	 * Neparna zadnja znamenka čuva se za sljedeće čitanje.
+	 *
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati iz toka ili pročitani podaci
+	 *             nisu heksadekadske znamenke
+	 */
+	private void fill() throws IOException {
+		int count = 0;
+		if (pending != -1) {
+			buffer[count++] = (byte) pending;
+			pending = -1;
+		}
+
+		int read = in.read(buffer, count, buffer.length - count);
+		if (read == -1) {
+			finished = true;
+			if (count != 0) {
+				throw new IOException("Predani niz znakova ima neparan broj znakova!");
+			}
+			position = limit = 0;
+			return;
+		}
+
+		for (int i = count, end = count + read; i < end; i++) {
+			if (!isWhitespace(buffer[i])) {
+				buffer[count++] = buffer[i];
+			}
+		}
+		if (count % 2 == 1) {
+			pending = buffer[--count] & 0xFF;
+		}
+
+		try {
+			limit = Util.hextobyte(buffer, 0, count, buffer, 0);
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+		position = 0;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava je li oktet <b>b</b> praznina
+	 *
+	 * @param b
+	 *            oktet koji se provjerava
+	 * @return <b>true</b> ukoliko je oktet praznina, <b>false</b> inače
+	 */
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+	}
+}
@@ -0,0 +1,83 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Razred koji nasljeđuje {@link FilterOutputStream}. Svaki oktet upisan u
+ * primjerak ovog razreda zapisuje se u omotani izlazni tok kao dvije
+ * heksadekadske znamenke (malim slovima) u ASCII kodiranju (vidjeti
+ * {@link Util#bytetohex(byte[], int, int, byte[], int)}). Pretvorba se
+ * obavlja u dijelovima kroz spremnik stalne veličine, pa zauzeće memorije ne
+ * ovisi o količini podataka.
+ *
+ * @see HexDecodingInputStream
+ * @see CryptoStreams
+ *
+ * @author Davor Češljaš
+ */
+public class HexEncodingOutputStream extends FilterOutputStream {
+
+	/**
+	 * Konstanta koja predstavlja najveći broj okteta koji se odjednom
+	 * pretvara
+	 */
+	private static final int CHUNK_SIZE = 4096;
+
+	/** Članska varijabla koja predstavlja spremnik heksadekadskih znamenki */
+	private final byte[] buffer = new byte[2 * CHUNK_SIZE];
+
+	/** Članska varijabla koja predstavlja spremnik za pisanje jednog okteta */
+	private final byte[] single = new byte[1];
+
+	/** Članska varijabla koja označava je li tok zatvoren */
+	private boolean closed;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param out
+	 *            izlazni tok okteta u koji se zapisuju heksadekadske znamenke
+	 */
+	public HexEncodingOutputStream(OutputStream out) {
+		super(out);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		single[0] = (byte) b;
+		write(single, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("Tok je zatvoren!");
+		}
+
+		for (int written = 0; written < len; written += CHUNK_SIZE) {
+			int chunk = Math.min(CHUNK_SIZE, len - written);
+			out.write(buffer, 0, Util.bytetohex(b, off + written, chunk, buffer, 0));
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		try {
+			out.flush();
+		} finally {
+			out.close();
+		}
+	}
+}
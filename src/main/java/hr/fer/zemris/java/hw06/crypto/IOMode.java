@@ -0,0 +1,55 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+/**
+ * Enumeracija koja oblikuje načine čitanja i pisanja datoteka prilikom
+ * kriptiranja i izračuna zaštitne sume. Mogući načini su:
+ * <ul>
+ * <li>{@link #STREAM}</li>
+ * <li>{@link #MAPPED}</li>
+ * <li>{@link #DIRECT}</li>
+ * </ul>
+ *
+ * @see Crypto
+ * @see ChannelCrypto
+ *
+ * @author Davor Češljaš
+ */
+public enum IOMode {
+
+	/**
+	 * Predstavlja čitanje i pisanje preko tokova okteta omotanih u
+	 * {@link java.io.BufferedInputStream} i {@link java.io.BufferedOutputStream}
+	 */
+	STREAM,
+
+	/**
+	 * Predstavlja čitanje ulazne datoteke preko prozora mapiranih u memoriju
+	 * (vidjeti {@link java.nio.MappedByteBuffer})
+	 */
+	MAPPED,
+
+	/**
+	 * Predstavlja čitanje i pisanje preko kanala i jednog para izravnih
+	 * spremnika (vidjeti {@link java.nio.ByteBuffer#allocateDirect(int)})
+	 */
+	DIRECT;
+
+	/**
+	 * Metoda koja pronalazi način rada čiji je naziv <b>name</b>. Velika i mala
+	 * slova se ne razlikuju.
+	 *
+	 * @param name
+	 *            naziv načina rada
+	 * @return način rada čiji je naziv <b>name</b>
+	 * @throws IllegalArgumentException
+	 *             ukoliko takav način rada ne postoji
+	 */
+	public static IOMode forName(String name) {
+		for (IOMode mode : values()) {
+			if (mode.name().equalsIgnoreCase(name)) {
+				return mode;
+			}
+		}
+		throw new IllegalArgumentException(String.format("Ne postoji način čitanja '%s'", name));
+	}
+}
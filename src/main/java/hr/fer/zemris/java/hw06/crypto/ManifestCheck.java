@@ -0,0 +1,475 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Razred koji provjerava zaštitne sume svih datoteka navedenih u manifestu
+ * formata programa <code>sha256sum</code>. Svaki redak manifesta sastoji se
+ * od heksadekadske zaštitne sume, dva razmaka (ili razmaka i zvjezdice) i
+ * putanje do datoteke, npr. <code>9f86d08...  dir/datoteka.txt</code>.
+ * Prihvaća se i oblik <code>SHA256 (datoteka) = 9f86d08...</code> (opcija
+ * <code>--tag</code> programa <code>sha256sum</code>, a ujedno i ispis
+ * operacije {@value Crypto#CHECK_SHA} s opcijom <code>--algorithms</code>).
+ * Algoritam zaštitne sume određuje se iz duljine sume, odnosno naziva
+ * algoritma. Relativne putanje tumače se relativno na direktorij manifesta.
+ * <p>
+ * Datoteke se provjeravaju unutar bazena od zadanog broja dretvi, a rezultat
+ * provjere svake datoteke ispisuje se čim je poznat. Na kraju se u zaseban tok
+ * ispisuje sažetak, a metoda {@link Result#exitCode()} vraća izlazni kod
+ * programa.
+ *
+ * @see Crypto
+ * @see BatchCrypto
+ *
+ * @author Davor Češljaš
+ */
+class ManifestCheck {
+
+	/** Konstanta koja predstavlja broj nanosekundi u jednoj sekundi */
+	private static final double NANOS_IN_SECOND = 1_000_000_000.0;
+
+	/** Konstanta koja predstavlja uzorak retka u formatu s nazivom algoritma */
+	private static final Pattern TAGGED_LINE = Pattern.compile("([A-Za-z0-9-]+) \\((.*)\\) = ([0-9a-fA-F]+)");
+
+	/** Konstanta koja predstavlja oznaku retka s posebnim znakovima u putanji */
+	private static final char ESCAPE = '\\';
+
+	/**
+	 * Enumeracija koja oblikuje moguće rezultate provjere jedne datoteke
+	 *
+	 * @author Davor Češljaš
+	 */
+	enum Status {
+		/** Predstavlja datoteku čija se zaštitna suma poklapa */
+		OK("U REDU"),
+		/** Predstavlja datoteku čija se zaštitna suma ne poklapa */
+		FAILED("NEISPRAVNO"),
+		/** Predstavlja datoteku koja se ne može pročitati */
+		UNREADABLE("NEISPRAVNO, datoteka se ne može pročitati");
+
+		/** Članska varijabla koja predstavlja opis rezultata */
+		private final String description;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ove enumeracije.
+		 *
+		 * @param description
+		 *            opis rezultata
+		 */
+		private Status(String description) {
+			this.description = description;
+		}
+	}
+
+	/** Članska varijabla koja predstavlja način čitanja datoteka */
+	private final IOMode ioMode;
+
+	/** Članska varijabla koja predstavlja veličinu spremnika */
+	private final int bufferSize;
+
+	/** Članska varijabla koja predstavlja broj dretvi */
+	private final int threads;
+
+	/** Članska varijabla koja predstavlja tok u koji se ispisuju rezultati */
+	private final PrintStream out;
+
+	/**
+	 * Članska varijabla koja predstavlja tok u koji se ispisuju upozorenja i
+	 * sažetak
+	 */
+	private final PrintStream log;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param ioMode
+	 *            način čitanja datoteka
+	 * @param bufferSize
+	 *            veličina spremnika
+	 * @param threads
+	 *            broj dretvi
+	 * @param out
+	 *            tok u koji se ispisuju rezultati
+	 * @param log
+	 *            tok u koji se ispisuju upozorenja i sažetak
+	 * @throws IllegalArgumentException
+	 *             ukoliko broj dretvi ili veličina spremnika nisu pozitivni
+	 */
+	ManifestCheck(IOMode ioMode, int bufferSize, int threads, PrintStream out, PrintStream log) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Broj dretvi mora biti pozitivan!");
+		}
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("Veličina spremnika mora biti pozitivna!");
+		}
+
+		this.ioMode = ioMode;
+		this.bufferSize = bufferSize;
+		this.threads = threads;
+		this.out = out;
+		this.log = log;
+	}
+
+	/**
+	 * Metoda koja provjerava sve datoteke navedene u manifestu
+	 * <b>manifest</b>. Neispravni retci manifesta se preskaču, a njihov broj
+	 * ispisuje se u sažetku.
+	 *
+	 * @param manifest
+	 *            putanja do manifesta
+	 * @return rezultat provjere
+	 * @throws IOException
+	 *             ukoliko nije moguće pročitati manifest
+	 * @throws InterruptedException
+	 *             ukoliko je dretva prekinuta dok čeka završetak provjere
+	 */
+	Result verify(Path manifest) throws IOException, InterruptedException {
+		Path root = manifest.toAbsolutePath().getParent();
+		List<Entry> entries = new ArrayList<>();
+		int malformed = 0;
+		for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+			if (line.trim().isEmpty()) {
+				continue;
+			}
+			Entry entry = parse(line);
+			if (entry == null) {
+				malformed++;
+			} else {
+				entries.add(entry);
+			}
+		}
+
+		long start = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Status>> futures = new ArrayList<>();
+			for (Entry entry : entries) {
+				futures.add(executor.submit(() -> check(entry, root)));
+			}
+
+			int[] counts = new int[Status.values().length];
+			for (Future<Status> future : futures) {
+				try {
+					counts[future.get().ordinal()]++;
+				} catch (ExecutionException e) {
+					counts[Status.UNREADABLE.ordinal()]++;
+				}
+			}
+
+			Result result = new Result(counts[Status.OK.ordinal()], counts[Status.FAILED.ordinal()],
+					counts[Status.UNREADABLE.ordinal()], malformed);
+			log.println(String.format(
+					"Provjereno %d datoteka u %.3f s: %d ispravno, %d neispravno, %d nečitljivo, %d neispravnih redaka manifesta.",
+					entries.size(), (System.nanoTime() - start) / NANOS_IN_SECOND, result.getPassed(),
+					result.getFailed(), result.getUnreadable(), result.getMalformed()));
+			return result;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava jednu datoteku i ispisuje rezultat
+	 * provjere
+	 *
+	 * @param entry
+	 *            redak manifesta
+	 * @param root
+	 *            direktorij na koji su relativne putanje
+	 * @return rezultat provjere
+	 */
+	private Status check(Entry entry, Path root) {
+		Status status;
+		try {
+			byte[] actual = digest(root.resolve(entry.name), entry.algorithm);
+			status = MessageDigest.isEqual(actual, entry.digest) ? Status.OK : Status.FAILED;
+		} catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+			status = Status.UNREADABLE;
+		}
+		out.println(entry.name + ": " + status.description);
+		return status;
+	}
+
+	/**
+	 * Pomoćna metoda koja računa zaštitnu sumu datoteke <b>file</b>
+	 *
+	 * @param file
+	 *            putanja do datoteke
+	 * @param algorithm
+	 *            naziv algoritma zaštitne sume
+	 * @return zaštitna suma
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati datoteku
+	 * @throws NoSuchAlgorithmException
+	 *             ukoliko ne postoji algoritam zaštitne sume
+	 */
+	private byte[] digest(Path file, String algorithm) throws IOException, NoSuchAlgorithmException {
+		MessageDigest md = CryptoContext.digest(algorithm);
+		if (ioMode != IOMode.STREAM) {
+			try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+				return new ChannelCrypto(ioMode, bufferSize).digest(md, in);
+			}
+		}
+
+		try (InputStream is = Files.newInputStream(file)) {
+			byte[] buffer = new byte[bufferSize];
+			int len;
+			while ((len = is.read(buffer)) != -1) {
+				md.update(buffer, 0, len);
+			}
+		}
+		return md.digest();
+	}
+
+	/**
+	 * Pomoćna metoda koja parsira jedan redak manifesta
+	 *
+	 * @param line
+	 *            redak manifesta
+	 * @return parsirani redak ili <code>null</code> ukoliko redak nije
+	 *         ispravan
+	 */
+	static Entry parse(String line) {
+		boolean escaped = !line.isEmpty() && line.charAt(0) == ESCAPE;
+		if (escaped) {
+			line = line.substring(1);
+		}
+
+		String algorithm;
+		String hex;
+		String name;
+		Matcher matcher = TAGGED_LINE.matcher(line);
+		if (matcher.matches()) {
+			algorithm = algorithmName(matcher.group(1));
+			name = matcher.group(2);
+			hex = matcher.group(3);
+		} else {
+			int space = line.indexOf(' ');
+			if (space <= 0 || space + 2 > line.length()
+					|| (line.charAt(space + 1) != ' ' && line.charAt(space + 1) != '*')) {
+				return null;
+			}
+			hex = line.substring(0, space);
+			name = line.substring(space + 2);
+			algorithm = algorithmForLength(hex.length());
+		}
+
+		if (algorithm == null || name.isEmpty() || (escaped && (name = unescape(name)) == null)) {
+			return null;
+		}
+		try {
+			return new Entry(algorithm, Util.hextobyte(hex), name);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja vraća algoritam zaštitne sume zadane duljine
+	 *
+	 * @param hexLength
+	 *            broj heksadekadskih znamenki zaštitne sume
+	 * @return naziv algoritma ili <code>null</code> ukoliko duljina ne
+	 *         odgovara nijednom algoritmu
+	 */
+	private static String algorithmForLength(int hexLength) {
+		switch (hexLength) {
+		case 32:
+			return "MD5";
+		case 40:
+			return "SHA-1";
+		case 56:
+			return "SHA-224";
+		case 64:
+			return "SHA-256";
+		case 96:
+			return "SHA-384";
+		case 128:
+			return "SHA-512";
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja naziv algoritma u formatu programa
+	 * <code>sha256sum</code> (npr. <code>SHA256</code>) pretvara u naziv koji
+	 * koristi {@link MessageDigest} (npr. <code>SHA-256</code>)
+	 *
+	 * @param tag
+	 *            naziv algoritma iz manifesta
+	 * @return naziv algoritma
+	 */
+	private static String algorithmName(String tag) {
+		if (tag.matches("SHA\\d+")) {
+			return tag.equals("SHA1") ? "SHA-1" : "SHA-" + tag.substring(3);
+		}
+		return tag;
+	}
+
+	/**
+	 * Pomoćna metoda koja u putanji zamjenjuje nizove <code>\\</code> i
+	 * <code>\n</code> znakovima koje predstavljaju
+	 *
+	 * @param name
+	 *            putanja s posebnim nizovima
+	 * @return putanja ili <code>null</code> ukoliko sadrži nepoznat niz
+	 */
+	private static String unescape(String name) {
+		StringBuilder sb = new StringBuilder(name.length());
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (c != ESCAPE) {
+				sb.append(c);
+				continue;
+			}
+			if (++i == name.length()) {
+				return null;
+			}
+			char next = name.charAt(i);
+			if (next == 'n') {
+				sb.append('\n');
+			} else if (next == ESCAPE) {
+				sb.append(ESCAPE);
+			} else {
+				return null;
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Razred koji predstavlja jedan redak manifesta
+	 *
+	 * @author Davor Češljaš
+	 */
+	static class Entry {
+
+		/** Članska varijabla koja predstavlja naziv algoritma */
+		final String algorithm;
+
+		/** Članska varijabla koja predstavlja očekivanu zaštitnu sumu */
+		final byte[] digest;
+
+		/** Članska varijabla koja predstavlja putanju iz manifesta */
+		final String name;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param algorithm
+		 *            naziv algoritma
+		 * @param digest
+		 *            očekivana zaštitna suma
+		 * @param name
+		 *            putanja iz manifesta
+		 */
+		private Entry(String algorithm, byte[] digest, String name) {
+			this.algorithm = algorithm;
+			this.digest = digest;
+			this.name = name;
+		}
+	}
+
+	/**
+	 * Razred koji predstavlja sažetak provjere manifesta
+	 *
+	 * @author Davor Češljaš
+	 */
+	static class Result {
+
+		/** Članska varijabla koja predstavlja broj ispravnih datoteka */
+		private final int passed;
+
+		/** Članska varijabla koja predstavlja broj neispravnih datoteka */
+		private final int failed;
+
+		/** Članska varijabla koja predstavlja broj nečitljivih datoteka */
+		private final int unreadable;
+
+		/** Članska varijabla koja predstavlja broj neispravnih redaka */
+		private final int malformed;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param passed
+		 *            broj ispravnih datoteka
+		 * @param failed
+		 *            broj neispravnih datoteka
+		 * @param unreadable
+		 *            broj nečitljivih datoteka
+		 * @param malformed
+		 *            broj neispravnih redaka manifesta
+		 */
+		private Result(int passed, int failed, int unreadable, int malformed) {
+			this.passed = passed;
+			this.failed = failed;
+			this.unreadable = unreadable;
+			this.malformed = malformed;
+		}
+
+		/**
+		 * Metoda koja vraća broj ispravnih datoteka
+		 *
+		 * @return broj ispravnih datoteka
+		 */
+		int getPassed() {
+			return passed;
+		}
+
+		/**
+		 * Metoda koja vraća broj datoteka čija se zaštitna suma ne poklapa
+		 *
+		 * @return broj neispravnih datoteka
+		 */
+		int getFailed() {
+			return failed;
+		}
+
+		/**
+		 * Metoda koja vraća broj datoteka koje se ne mogu pročitati
+		 *
+		 * @return broj nečitljivih datoteka
+		 */
+		int getUnreadable() {
+			return unreadable;
+		}
+
+		/**
+		 * Metoda koja vraća broj neispravnih redaka manifesta
+		 *
+		 * @return broj neispravnih redaka
+		 */
+		int getMalformed() {
+			return malformed;
+		}
+
+		/**
+		 * Metoda koja vraća izlazni kod programa: 0 ukoliko su sve datoteke
+		 * ispravne, a 1 inače (uključujući manifest bez ispravnih redaka)
+		 *
+		 * @return izlazni kod programa
+		 */
+		int exitCode() {
+			return failed == 0 && unreadable == 0 && malformed == 0 && passed > 0 ? 0 : 1;
+		}
+	}
+}
@@ -0,0 +1,265 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Razred koji u jednom čitanju toka okteta računa zaštitne sume više
+ * algoritama (npr. <code>SHA-256</code>, <code>SHA-512</code> i
+ * <code>MD5</code>). Podaci se čitaju u prsten spremnika stalne veličine, a
+ * svaki pročitani spremnik predaje se svim algoritmima. Ukoliko je zadano
+ * više algoritama, svaki algoritam računa se na zasebnoj dretvi, a spremnik se
+ * ponovno koristi tek kada ga obrade svi algoritmi. Time je zauzeće memorije
+ * ograničeno na {@code ringSize * bufferSize} okteta bez obzira na veličinu
+ * datoteke.
+ *
+ * @see Crypto
+ *
+ * @author Davor Češljaš
+ */
+public class MultiDigest {
+
+	/** Konstanta koja predstavlja predefinirani broj spremnika u prstenu */
+	public static final int DEFAULT_RING_SIZE = 4;
+
+	/** Članska varijabla koja predstavlja nazive algoritama zaštitne sume */
+	private final List<String> algorithms;
+
+	/** Članska varijabla koja predstavlja veličinu jednog spremnika */
+	private final int bufferSize;
+
+	/** Članska varijabla koja predstavlja broj spremnika u prstenu */
+	private final int ringSize;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param algorithms
+	 *            nazivi algoritama zaštitne sume
+	 * @param bufferSize
+	 *            veličina jednog spremnika
+	 * @param ringSize
+	 *            broj spremnika u prstenu
+	 * @throws IllegalArgumentException
+	 *             ukoliko nije zadan nijedan algoritam ili veličina spremnika
+	 *             odnosno prstena nije pozitivna
+	 */
+	public MultiDigest(List<String> algorithms, int bufferSize, int ringSize) {
+		if (algorithms.isEmpty()) {
+			throw new IllegalArgumentException("Potrebno je zadati barem jedan algoritam zaštitne sume!");
+		}
+		if (bufferSize <= 0 || ringSize <= 0) {
+			throw new IllegalArgumentException("Veličina spremnika i prstena mora biti pozitivna!");
+		}
+
+		this.algorithms = new ArrayList<>(algorithms);
+		this.bufferSize = bufferSize;
+		this.ringSize = ringSize;
+	}
+
+	/**
+	 * Metoda koja čita tok okteta <b>is</b> do kraja i vraća zaštitne sume
+	 * svih zadanih algoritama
+	 *
+	 * @param is
+	 *            ulazni tok okteta
+	 * @return zaštitne sume po nazivima algoritama, redom kojim su algoritmi
+	 *         zadani
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati iz toka ili je čitanje prekinuto
+	 * @throws NoSuchAlgorithmException
+	 *             ukoliko neki od algoritama ne postoji
+	 */
+	public Map<String, byte[]> digest(InputStream is) throws IOException, NoSuchAlgorithmException {
+		List<MessageDigest> digests = new ArrayList<>();
+		for (String algorithm : algorithms) {
+			digests.add(MessageDigest.getInstance(algorithm));
+		}
+
+		if (digests.size() == 1) {
+			digestInline(is, digests.get(0));
+		} else {
+			digestConcurrently(is, digests);
+		}
+
+		Map<String, byte[]> result = new LinkedHashMap<>();
+		for (int i = 0; i < digests.size(); i++) {
+			result.put(algorithms.get(i), digests.get(i).digest());
+		}
+		return result;
+	}
+
+	/**
+	 * Pomoćna metoda koja zaštitnu sumu jednog algoritma računa na dretvi
+	 * pozivatelja
+	 *
+	 * @param is
+	 *            ulazni tok okteta
+	 * @param md
+	 *            zaštitna suma koja se osvježava
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati iz toka
+	 */
+	private void digestInline(InputStream is, MessageDigest md) throws IOException {
+		byte[] buffer = new byte[bufferSize];
+		int len;
+		while ((len = is.read(buffer)) != -1) {
+			md.update(buffer, 0, len);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja tok čita na dretvi pozivatelja, a svaki algoritam
+	 * računa na zasebnoj dretvi. Dretve preuzimaju spremnike redom kojim su
+	 * pročitani, a zadnji algoritam koji obradi spremnik vraća ga u prsten.
+	 *
+	 * @param is
+	 *            ulazni tok okteta
+	 * @param digests
+	 *            zaštitne sume koje se osvježavaju
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati iz toka ili je čitanje prekinuto
+	 */
+	private void digestConcurrently(InputStream is, List<MessageDigest> digests) throws IOException {
+		Slot[] ring = new Slot[ringSize];
+		for (int i = 0; i < ringSize; i++) {
+			ring[i] = new Slot(new byte[bufferSize]);
+		}
+		Semaphore free = new Semaphore(ringSize);
+
+		List<BlockingQueue<Slot>> queues = new ArrayList<>();
+		List<Thread> workers = new ArrayList<>();
+		for (MessageDigest md : digests) {
+			BlockingQueue<Slot> queue = new ArrayBlockingQueue<>(ringSize + 1);
+			Thread worker = new Thread(() -> consume(queue, md, free), "digest-" + md.getAlgorithm());
+			worker.setDaemon(true);
+			worker.start();
+			queues.add(queue);
+			workers.add(worker);
+		}
+
+		try {
+			for (int index = 0;; index = (index + 1) % ringSize) {
+				free.acquire();
+				Slot slot = ring[index];
+				slot.length = is.read(slot.data);
+				if (slot.length == -1) {
+					break;
+				}
+				slot.pending.set(digests.size());
+				for (BlockingQueue<Slot> queue : queues) {
+					queue.put(slot);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Izračun zaštitnih suma je prekinut!");
+		} finally {
+			finish(queues, workers);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koju izvodi dretva jednog algoritma. Dretva preuzima
+	 * spremnike iz reda <b>queue</b> sve dok ne naiđe na oznaku kraja.
+	 *
+	 * @param queue
+	 *            red pročitanih spremnika
+	 * @param md
+	 *            zaštitna suma koja se osvježava
+	 * @param free
+	 *            semafor slobodnih spremnika u prstenu
+	 */
+	private static void consume(BlockingQueue<Slot> queue, MessageDigest md, Semaphore free) {
+		try {
+			Slot slot;
+			while ((slot = queue.take()) != Slot.END) {
+				md.update(slot.data, 0, slot.length);
+				if (slot.pending.decrementAndGet() == 0) {
+					free.release();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja svim dretvama šalje oznaku kraja i čeka da
+	 * završe. Ukoliko je dretva pozivatelja prekinuta, prekidaju se i dretve
+	 * algoritama.
+	 *
+	 * @param queues
+	 *            redovi spremnika dretvi algoritama
+	 * @param workers
+	 *            dretve algoritama
+	 * @throws InterruptedIOException
+	 *             ukoliko je čekanje prekinuto
+	 */
+	private static void finish(List<BlockingQueue<Slot>> queues, List<Thread> workers)
+			throws InterruptedIOException {
+		if (Thread.currentThread().isInterrupted()) {
+			workers.forEach(Thread::interrupt);
+			return;
+		}
+
+		try {
+			// red svake dretve ima mjesta za sve spremnike i oznaku kraja
+			for (BlockingQueue<Slot> queue : queues) {
+				queue.put(Slot.END);
+			}
+			for (Thread worker : workers) {
+				worker.join();
+			}
+		} catch (InterruptedException e) {
+			workers.forEach(Thread::interrupt);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Izračun zaštitnih suma je prekinut!");
+		}
+	}
+
+	/**
+	 * Razred koji predstavlja jedan spremnik u prstenu zajedno s brojem
+	 * pročitanih okteta i brojem algoritama koji ga još nisu obradili.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class Slot {
+
+		/** Konstanta koja predstavlja oznaku kraja toka */
+		private static final Slot END = new Slot(new byte[0]);
+
+		/** Članska varijabla koja predstavlja podatke spremnika */
+		private final byte[] data;
+
+		/** Članska varijabla koja predstavlja broj pročitanih okteta */
+		private int length;
+
+		/**
+		 * Članska varijabla koja predstavlja broj algoritama koji spremnik još
+		 * nisu obradili
+		 */
+		private final AtomicInteger pending = new AtomicInteger();
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param data
+		 *            podaci spremnika
+		 */
+		private Slot(byte[] data) {
+			this.data = data;
+		}
+	}
+}
@@ -0,0 +1,338 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.crypto.Cipher;
+
+/**
+ * Razred koji kriptira podatke u cjevovodu od tri faze: dretva čitanja puni
+ * spremnike iz ulaznog kanala, dretva pozivatelja ih redom kriptira, a dretva
+ * pisanja kriptirane spremnike zapisuje u izlazni kanal. Faze su povezane
+ * ograničenim redovima unaprijed alociranih spremnika (vidjeti
+ * {@link BufferPipe}), pa se čitanje, kriptiranje i pisanje odvijaju
+ * istovremeno, a propusnost se približava propusnosti najsporije faze umjesto
+ * zbroju trajanja svih faza. Zauzeće memorije ograničeno je na
+ * {@code 2 * queueSize} spremnika neovisno o veličini datoteke.
+ * <p>
+ * Kriptirani podaci jednaki su podacima koje stvara
+ * {@link ChannelCrypto#crypt(Cipher, java.nio.channels.FileChannel, WritableByteChannel)},
+ * pa se način obrade može birati neovisno pri enkripciji i dekripciji.
+ *
+ * @see Crypto
+ * @see ChannelCrypto
+ *
+ * @author Davor Češljaš
+ */
+public class PipelinedCrypto {
+
+	/** Konstanta koja predstavlja predefinirani broj spremnika u redu */
+	public static final int DEFAULT_QUEUE_SIZE = 4;
+
+	/**
+	 * Članska varijabla koja predstavlja veličinu dijela podataka koji se
+	 * odjednom čita i kriptira
+	 */
+	private final int bufferSize;
+
+	/** Članska varijabla koja predstavlja broj spremnika u svakom redu */
+	private final int queueSize;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param bufferSize
+	 *            veličina dijela podataka koji se odjednom čita i kriptira
+	 * @param queueSize
+	 *            broj spremnika u svakom redu između faza
+	 * @throws IllegalArgumentException
+	 *             ukoliko veličina spremnika ili reda nije pozitivna
+	 */
+	public PipelinedCrypto(int bufferSize, int queueSize) {
+		if (bufferSize <= 0 || queueSize <= 0) {
+			throw new IllegalArgumentException("Veličina spremnika i reda mora biti pozitivna!");
+		}
+
+		this.bufferSize = bufferSize;
+		this.queueSize = queueSize;
+	}
+
+	/**
+	 * Metoda koja sve podatke iz kanala <b>in</b> kriptira inicijaliziranim
+	 * primjerkom razreda {@link Cipher} <b>cipher</b> i zapisuje ih u kanal
+	 * <b>out</b>.
+	 *
+	 * @param cipher
+	 *            inicijalizirani primjerak razreda {@link Cipher}
+	 * @param in
+	 *            kanal iz kojeg se čitaju podaci
+	 * @param out
+	 *            kanal u koji se zapisuju kriptirani podaci
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati u kanale
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nije uspjelo
+	 */
+	public void crypt(Cipher cipher, ReadableByteChannel in, WritableByteChannel out)
+			throws IOException, GeneralSecurityException {
+		crypt(cipher, in, out, null);
+	}
+
+	/**
+	 * Metoda koja sve podatke iz kanala <b>in</b> kriptira inicijaliziranim
+	 * primjerkom razreda {@link Cipher} <b>cipher</b> i zapisuje ih u kanal
+	 * <b>out</b>, bilježeći trajanje svake faze u <b>metrics</b>. Budući da se
+	 * faze odvijaju istovremeno, zbroj njihovih trajanja može biti veći od
+	 * ukupnog trajanja obrade.
+	 *
+	 * @param cipher
+	 *            inicijalizirani primjerak razreda {@link Cipher}
+	 * @param in
+	 *            kanal iz kojeg se čitaju podaci
+	 * @param out
+	 *            kanal u koji se zapisuju kriptirani podaci
+	 * @param metrics
+	 *            mjerenja koja se osvježavaju ili <code>null</code>
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati u kanale
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nije uspjelo
+	 */
+	public void crypt(Cipher cipher, ReadableByteChannel in, WritableByteChannel out, CryptoMetrics metrics)
+			throws IOException, GeneralSecurityException {
+		BufferPipe input = new BufferPipe(queueSize, bufferSize);
+		BufferPipe output = new BufferPipe(queueSize, Crypto.outputSize(cipher, bufferSize));
+		AtomicReference<Exception> failure = new AtomicReference<>();
+
+		Thread reader = start("reader", failure, input, output, () -> read(in, input, metrics));
+		Thread writer = start("writer", failure, input, output, () -> write(output, out, metrics));
+
+		try {
+			update(cipher, input, output, metrics);
+		} catch (Exception e) {
+			abort(failure, e, input, output);
+		}
+
+		join(reader);
+		join(writer);
+
+		Exception cause = failure.get();
+		if (cause instanceof IOException) {
+			throw (IOException) cause;
+		} else if (cause instanceof GeneralSecurityException) {
+			throw (GeneralSecurityException) cause;
+		} else if (cause instanceof RuntimeException) {
+			throw (RuntimeException) cause;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja predstavlja fazu čitanja. Spremnici se pune do kraja
+	 * (osim zadnjeg), pa kriptiranje uvijek dobiva dijelove jednake veličine.
+	 *
+	 * @param in
+	 *            kanal iz kojeg se čitaju podaci
+	 * @param input
+	 *            red prema fazi kriptiranja
+	 * @param metrics
+	 *            mjerenja ili <code>null</code>
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati
+	 */
+	private static void read(ReadableByteChannel in, BufferPipe input, CryptoMetrics metrics) throws IOException {
+		boolean finished = false;
+		while (!finished) {
+			BufferPipe.Buffer buffer = input.acquire();
+			ByteBuffer wrapper = ByteBuffer.wrap(buffer.data);
+			long time = System.nanoTime();
+			while (wrapper.hasRemaining()) {
+				if (in.read(wrapper) == -1) {
+					finished = true;
+					break;
+				}
+			}
+			buffer.length = wrapper.position();
+			ChannelCrypto.record(metrics, time, ChannelCrypto.Stage.READ, buffer.length);
+			if (buffer.length > 0) {
+				input.send(buffer);
+			} else {
+				input.release(buffer);
+			}
+		}
+		input.close();
+	}
+
+	/**
+	 * Pomoćna metoda koja predstavlja fazu kriptiranja. Izlaz kriptiranja
+	 * zapisuje se izravno u spremnik reda prema fazi pisanja.
+	 *
+	 * @param cipher
+	 *            inicijalizirani primjerak razreda {@link Cipher}
+	 * @param input
+	 *            red od faze čitanja
+	 * @param output
+	 *            red prema fazi pisanja
+	 * @param metrics
+	 *            mjerenja ili <code>null</code>
+	 * @throws IOException
+	 *             ukoliko je obrada prekinuta
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nije uspjelo
+	 */
+	private static void update(Cipher cipher, BufferPipe input, BufferPipe output, CryptoMetrics metrics)
+			throws IOException, GeneralSecurityException {
+		BufferPipe.Buffer buffer;
+		while ((buffer = input.receive()) != null) {
+			BufferPipe.Buffer result = output.acquire();
+			long time = System.nanoTime();
+			result.length = cipher.update(buffer.data, 0, buffer.length, result.data);
+			ChannelCrypto.record(metrics, time, ChannelCrypto.Stage.CIPHER, 0);
+			input.release(buffer);
+			send(output, result);
+		}
+
+		BufferPipe.Buffer result = output.acquire();
+		long time = System.nanoTime();
+		result.length = cipher.doFinal(result.data, 0);
+		ChannelCrypto.record(metrics, time, ChannelCrypto.Stage.CIPHER, 0);
+		send(output, result);
+		output.close();
+	}
+
+	/**
+	 * Pomoćna metoda koja predstavlja fazu pisanja
+	 *
+	 * @param output
+	 *            red od faze kriptiranja
+	 * @param out
+	 *            kanal u koji se zapisuju kriptirani podaci
+	 * @param metrics
+	 *            mjerenja ili <code>null</code>
+	 * @throws IOException
+	 *             ukoliko nije moguće pisati
+	 */
+	private static void write(BufferPipe output, WritableByteChannel out, CryptoMetrics metrics)
+			throws IOException {
+		BufferPipe.Buffer buffer;
+		while ((buffer = output.receive()) != null) {
+			ByteBuffer wrapper = ByteBuffer.wrap(buffer.data, 0, buffer.length);
+			long time = System.nanoTime();
+			while (wrapper.hasRemaining()) {
+				out.write(wrapper);
+			}
+			ChannelCrypto.record(metrics, time, ChannelCrypto.Stage.WRITE, 0);
+			output.release(buffer);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja šalje spremnik <b>buffer</b> ukoliko sadrži podatke,
+	 * a inače ga vraća u skup slobodnih spremnika
+	 *
+	 * @param pipe
+	 *            red prema sljedećoj fazi
+	 * @param buffer
+	 *            spremnik
+	 * @throws IOException
+	 *             ukoliko je obrada prekinuta
+	 */
+	private static void send(BufferPipe pipe, BufferPipe.Buffer buffer) throws IOException {
+		if (buffer.length > 0) {
+			pipe.send(buffer);
+		} else {
+			pipe.release(buffer);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja pokreće fazu <b>stage</b> na zasebnoj dretvi.
+	 * Ukoliko faza ne uspije, oba reda se prekidaju kako ostale faze ne bi
+	 * trajno čekale.
+	 *
+	 * @param name
+	 *            naziv dretve
+	 * @param failure
+	 *            prva iznimka koja je prekinula obradu
+	 * @param input
+	 *            red između čitanja i kriptiranja
+	 * @param output
+	 *            red između kriptiranja i pisanja
+	 * @param stage
+	 *            faza koja se izvodi
+	 * @return pokrenuta dretva
+	 */
+	private static Thread start(String name, AtomicReference<Exception> failure, BufferPipe input,
+			BufferPipe output, Stage stage) {
+		Thread thread = new Thread(() -> {
+			try {
+				stage.run();
+			} catch (Exception e) {
+				abort(failure, e, input, output);
+			}
+		}, name);
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * Pomoćna metoda koja pamti iznimku <b>e</b> ukoliko je ona prva koja je
+	 * prekinula obradu te prekida oba reda. Iznimke koje je prekid izazvao u
+	 * drugim fazama se zanemaruju.
+	 *
+	 * @param failure
+	 *            prva iznimka koja je prekinula obradu
+	 * @param e
+	 *            iznimka faze
+	 * @param input
+	 *            red između čitanja i kriptiranja
+	 * @param output
+	 *            red između kriptiranja i pisanja
+	 */
+	private static void abort(AtomicReference<Exception> failure, Exception e, BufferPipe input,
+			BufferPipe output) {
+		failure.compareAndSet(null, e);
+		input.abort(e);
+		output.abort(e);
+	}
+
+	/**
+	 * Pomoćna metoda koja čeka završetak dretve <b>thread</b>
+	 *
+	 * @param thread
+	 *            dretva faze
+	 * @throws InterruptedIOException
+	 *             ukoliko je čekanje prekinuto
+	 */
+	private static void join(Thread thread) throws InterruptedIOException {
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			thread.interrupt();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Čekanje na dretvu " + thread.getName() + " je prekinuto!");
+		}
+	}
+
+	/**
+	 * Funkcijsko sučelje koje predstavlja jednu fazu cjevovoda
+	 *
+	 * @author Davor Češljaš
+	 */
+	@FunctionalInterface
+	private interface Stage {
+
+		/**
+		 * Metoda koja izvodi fazu
+		 *
+		 * @throws Exception
+		 *             ukoliko faza nije uspjela
+		 */
+		void run() throws Exception;
+	}
+}
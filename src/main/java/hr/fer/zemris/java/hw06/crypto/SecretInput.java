@@ -0,0 +1,191 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+/**
+ * Razred koji programu {@link Crypto} dohvaća tajne podatke (ključ,
+ * inicijalizacijski vektor i očekivanu zaštitnu sumu) bez razgovora s
+ * korisnikom. Vrijednost se redom traži:
+ * <ol>
+ * <li>u opciji <code>--naziv=vrijednost</code></li>
+ * <li>u datoteci zadanoj opcijom <code>--naziv-file=putanja</code></li>
+ * <li>u opisniku datoteke zadanom opcijom <code>--naziv-fd=broj</code>
+ * (opisnik 0 je standardni ulaz, a ostali se čitaju preko
+ * <code>/dev/fd</code>)</li>
+ * <li>u varijabli okruženja</li>
+ * </ol>
+ * Vrijednosti zadane opcijama vidljive su ostalim procesima na računalu, pa se
+ * za ključeve preporučuju datoteke, opisnici ili varijable okruženja.
+ * <p>
+ * Ukoliko vrijednost nije nigdje zadana, program je traži od korisnika preko
+ * konzole (vidjeti {@link #prompt(String)}). Za čitanje s konzole koristi se
+ * jedan primjerak razreda {@link Scanner} koji se nikada ne zatvara, pa se
+ * standardni ulaz ne zatvara i program se može više puta pozivati unutar
+ * istog procesa.
+ *
+ * @see Crypto
+ *
+ * @author Davor Češljaš
+ */
+final class SecretInput {
+
+	/** Konstanta koja predstavlja nastavak opcije s putanjom do datoteke */
+	static final String FILE_SUFFIX = "-file";
+
+	/** Konstanta koja predstavlja nastavak opcije s opisnikom datoteke */
+	static final String FD_SUFFIX = "-fd";
+
+	/** Konstanta koja predstavlja opisnik standardnog ulaza */
+	private static final int STDIN_FD = 0;
+
+	/** Konstanta koja predstavlja direktorij s opisnicima datoteka procesa */
+	private static final String FD_DIRECTORY = "/dev/fd";
+
+	/**
+	 * Predstavlja znak koji će se pojaviti korisniku kada se od njega zahtjeva
+	 * unos
+	 */
+	private static final String PROMPT_SYMBOL = "> ";
+
+	/** Članska varijabla koja predstavlja čitač konzole */
+	private static Scanner console;
+
+	/** Članska varijabla koja predstavlja tok nad kojim je stvoren čitač */
+	private static InputStream consoleSource;
+
+	/**
+	 * Privatni konstruktor koji služi kako se primjerci ovog razreda ne bi
+	 * mogli stvarati
+	 */
+	private SecretInput() {
+	}
+
+	/**
+	 * Metoda koja dohvaća <b>count</b> vrijednosti odvojenih prazninom iz
+	 * datoteke zadane opcijom <b>name</b>{@value #FILE_SUFFIX} ili opisnika
+	 * zadanog opcijom <b>name</b>{@value #FD_SUFFIX} (vidjeti opis razreda).
+	 * Ukoliko nijedna od tih opcija nije zadana, vraća se <code>null</code>.
+	 *
+	 * @param arguments
+	 *            argumenti naredbenog redka
+	 * @param name
+	 *            naziv opcije
+	 * @param count
+	 *            broj vrijednosti koji se očekuje
+	 * @return pročitane vrijednosti ili <code>null</code>
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati datoteku ili opisnik
+	 * @throws IllegalArgumentException
+	 *             ukoliko broj pročitanih vrijednosti nije <b>count</b> ili
+	 *             opisnik nije cijeli broj
+	 */
+	static String[] fromFile(CryptoArguments arguments, String name, int count) throws IOException {
+		String[] tokens;
+		if (arguments.hasOption(name + FILE_SUFFIX)) {
+			tokens = split(read(Paths.get(arguments.getOption(name + FILE_SUFFIX, ""))));
+		} else if (arguments.hasOption(name + FD_SUFFIX)) {
+			int fd = arguments.getIntOption(name + FD_SUFFIX, STDIN_FD);
+			tokens = fd == STDIN_FD ? nextTokens(count) : split(read(Paths.get(FD_DIRECTORY, Integer.toString(fd))));
+		} else {
+			return null;
+		}
+
+		if (tokens.length < count) {
+			throw new IllegalArgumentException(
+					"Datoteka opcije '" + name + "' mora sadržavati " + count + " vrijednosti odvojene prazninom!");
+		}
+		// datoteka u formatu programa sha256sum uz sumu sadrži i putanju
+		return Arrays.copyOf(tokens, count);
+	}
+
+	/**
+	 * Metoda koja dohvaća vrijednost iz varijable okruženja <b>variable</b>
+	 *
+	 * @param variable
+	 *            naziv varijable okruženja
+	 * @return vrijednost bez praznina na početku i kraju ili <code>null</code>
+	 *         ukoliko varijabla nije postavljena
+	 */
+	static String fromEnvironment(String variable) {
+		String value = System.getenv(variable);
+		return value == null || value.trim().isEmpty() ? null : value.trim();
+	}
+
+	/**
+	 * Metoda koja korisniku ispisuje poruku <b>message</b> i s konzole čita
+	 * jednu vrijednost
+	 *
+	 * @param message
+	 *            poruka koja opisuje što je potrebno unijeti
+	 * @return pročitana vrijednost
+	 * @throws IllegalArgumentException
+	 *             ukoliko je standardni ulaz došao do kraja
+	 */
+	static String prompt(String message) {
+		System.out.println(message);
+		System.out.print(PROMPT_SYMBOL);
+		return nextTokens(1)[0];
+	}
+
+	/**
+	 * Pomoćna metoda koja s konzole čita <b>count</b> vrijednosti. Čitač se
+	 * stvara ponovno samo ukoliko je standardni ulaz zamijenjen (vidjeti
+	 * {@link System#setIn(InputStream)}).
+	 *
+	 * @param count
+	 *            broj vrijednosti
+	 * @return pročitane vrijednosti
+	 * @throws IllegalArgumentException
+	 *             ukoliko je standardni ulaz došao do kraja
+	 */
+	private static synchronized String[] nextTokens(int count) {
+		if (console == null || consoleSource != System.in) {
+			consoleSource = System.in;
+			console = new Scanner(consoleSource);
+		}
+
+		String[] tokens = new String[count];
+		try {
+			for (int i = 0; i < count; i++) {
+				tokens[i] = console.next();
+			}
+		} catch (NoSuchElementException e) {
+			throw new IllegalArgumentException("Standardni ulaz je završio prije unosa svih vrijednosti!");
+		}
+		return tokens;
+	}
+
+	/**
+	 * Pomoćna metoda koja čita cijeli sadržaj datoteke <b>file</b>
+	 *
+	 * @param file
+	 *            putanja do datoteke
+	 * @return sadržaj datoteke
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati datoteku
+	 */
+	private static String read(Path file) throws IOException {
+		return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Pomoćna metoda koja tekst <b>text</b> dijeli na vrijednosti odvojene
+	 * prazninom
+	 *
+	 * @param text
+	 *            tekst
+	 * @return vrijednosti
+	 */
+	private static String[] split(String text) {
+		String trimmed = text.trim();
+		return trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+	}
+}
@@ -0,0 +1,852 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+
+/**
+ * Razred koji implementira segmentirani format kriptirane datoteke. Datoteka
+ * se dijeli na segmente fiksne veličine koji se kriptiraju neovisno jedan o
+ * drugome, pa se i enkripcija i dekripcija mogu izvoditi paralelno unutar
+ * predanog primjerka razreda {@link ForkJoinPool}. Segmenti se kriptiraju u
+ * jednom od načina rada {@link CipherMode#CTR} ili {@link CipherMode#GCM}:
+ * <ul>
+ * <li>u načinu {@link CipherMode#CTR} brojač svakog segmenta izvodi se iz
+ * vektora datoteke (inicijalizacijski vektor na koji je operacijom XOR
+ * primijenjena slučajna sol iz zaglavlja) i pozicije segmenta unutar datoteke.
+ * Zbog toga je kriptirani sadržaj jednak onome koji bi se dobio kriptiranjem
+ * čitave datoteke u jednom prolazu s vektorom datoteke, a dvije datoteke
+ * kriptirane istim ključem i inicijalizacijskim vektorom ne dijele niz
+ * ključeva.</li>
+ * <li>u načinu {@link CipherMode#GCM} svaki segment ima vlastitu oznaku
+ * autentičnosti od {@value #GCM_TAG_LENGTH} bita koja se zapisuje odmah iza
+ * kriptiranog segmenta. Jedinstveni broj (engl. <i>nonce</i>) segmenta sastoji
+ * se od prvih {@value #NONCE_PREFIX_LENGTH} okteta vektora datoteke, rednog
+ * broja segmenta i oznake zadnjeg segmenta, a zaglavlje se predaje kao
+ * dodatni autentificirani podaci. Time se otkriva svaka promjena, zamjena
+ * redoslijeda ili odbacivanje segmenata, i to na razini pojedinog segmenta,
+ * pa se segmenti mogu provjeravati i dekriptirati paralelno. Datoteka u ovom
+ * načinu uvijek ima barem jedan (možda prazan) segment.</li>
+ * </ul>
+ *
+ * Kriptirana datoteka započinje zaglavljem od {@value #HEADER_SIZE} okteta:
+ *
+ * <pre>
+ * magični broj "HW6S" (4 okteta) | verzija (1 oktet) | način rada (1 oktet) |
+ * veličina segmenta (4 okteta) | veličina izvorne datoteke (8 okteta) |
+ * sol (16 okteta)
+ * </pre>
+ *
+ * Sol se pri svakoj enkripciji generira primjerkom razreda
+ * {@link SecureRandom}, pa se ključ i inicijalizacijski vektor smiju koristiti
+ * za više datoteka: niz ključeva u načinu {@link CipherMode#CTR} i jedinstveni
+ * brojevi segmenata u načinu {@link CipherMode#GCM} razlikuju se od datoteke
+ * do datoteke.
+ * <p>
+ * Rezultat enkripcije i dekripcije zapisuje se u privremenu datoteku (vidjeti
+ * {@link CheckpointedCrypto#tempFor(Path)}) koja se tek nakon uspješne obrade
+ * svih segmenata atomarno preimenuje u ciljnu datoteku. Zbog toga u načinu
+ * {@link CipherMode#GCM} ciljna datoteka nikada ne sadrži podatke čija
+ * autentičnost nije provjerena.
+ *
+ * Nakon zaglavlja slijede kriptirani segmenti redom kojim se nalaze u izvornoj
+ * datoteci. Kako je svaki kriptirani segment jednake veličine kao izvorni
+ * (uvećan za veličinu oznake autentičnosti), pozicija svakog segmenta u obje
+ * datoteke je unaprijed poznata, pa se segmenti mogu čitati i pisati bilo
+ * kojim redoslijedom. Zbog istog razloga moguće je dekriptirati samo dio
+ * datoteke (vidjeti {@link #decryptRange(Path, long, long, OutputStream)}),
+ * pri čemu trajanje ne ovisi o veličini datoteke.
+ *
+ * @see Crypto
+ * @see ForkJoinPool
+ *
+ * @author Davor Češljaš
+ */
+public class SegmentedCrypto {
+
+	/** Konstanta koja predstavlja predefiniranu veličinu segmenta (1 MiB) */
+	public static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+
+	/** Konstanta koja predstavlja veličinu zaglavlja u oktetima */
+	public static final int HEADER_SIZE = 34;
+
+	/** Konstanta koja predstavlja magični broj kojim započinje zaglavlje */
+	private static final byte[] MAGIC = { 'H', 'W', '6', 'S' };
+
+	/** Konstanta koja predstavlja verziju formata */
+	private static final byte VERSION = 2;
+
+	/** Konstanta koja predstavlja veličinu soli datoteke u oktetima */
+	private static final int SALT_LENGTH = 16;
+
+	/** Konstanta koja predstavlja izvor slučajnih soli */
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	/**
+	 * Konstanta koja predstavlja predefinirani naziv algoritma koji se koristi
+	 * za kriptiranje segmenata
+	 */
+	public static final String DEFAULT_ALGORITHM = "AES";
+
+	/** Konstanta koja predstavlja veličinu bloka algoritma u oktetima */
+	private static final int BLOCK_SIZE = 16;
+
+	/** Konstanta koja predstavlja veličinu oznake autentičnosti u bitovima */
+	private static final int GCM_TAG_LENGTH = 128;
+
+	/**
+	 * Konstanta koja predstavlja broj okteta vektora datoteke koji čine
+	 * početak jedinstvenog broja segmenta u načinu {@link CipherMode#GCM}
+	 */
+	private static final int NONCE_PREFIX_LENGTH = 8;
+
+	/**
+	 * Konstanta koja predstavlja veličinu jedinstvenog broja segmenta u načinu
+	 * {@link CipherMode#GCM}
+	 */
+	private static final int NONCE_LENGTH = 12;
+
+	/** Članska varijabla koja predstavlja naziv algoritma kriptiranja */
+	private final String algorithm;
+
+	/** Članska varijabla koja predstavlja način rada prilikom enkripcije */
+	private final CipherMode mode;
+
+	/** Članska varijabla koja predstavlja ključ kriptiranja */
+	private final byte[] key;
+
+	/**
+	 * Članska varijabla koja predstavlja inicijalizacijski vektor iz kojeg se
+	 * zajedno sa soli datoteke izvodi vektor datoteke
+	 */
+	private final byte[] initVector;
+
+	/** Članska varijabla koja predstavlja veličinu segmenta prilikom enkripcije */
+	private final int segmentSize;
+
+	/**
+	 * Članska varijabla koja predstavlja bazen dretvi unutar kojeg se segmenti
+	 * obrađuju
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda koji segmente
+	 * kriptira algoritmom {@value #DEFAULT_ALGORITHM} u načinu
+	 * {@link CipherMode#CTR}. Za više informacija vidjeti
+	 * {@link #SegmentedCrypto(String, CipherMode, byte[], byte[], int, ForkJoinPool)}.
+	 *
+	 * @param key
+	 *            ključ kriptiranja
+	 * @param initVector
+	 *            inicijalizacijski vektor od {@value #BLOCK_SIZE} okteta
+	 * @param segmentSize
+	 *            veličina segmenta u oktetima koja se koristi prilikom
+	 *            enkripcije
+	 * @param pool
+	 *            bazen dretvi unutar kojeg se segmenti obrađuju
+	 * @throws IllegalArgumentException
+	 *             ukoliko inicijalizacijski vektor ili veličina segmenta nisu
+	 *             valjani
+	 */
+	public SegmentedCrypto(byte[] key, byte[] initVector, int segmentSize, ForkJoinPool pool) {
+		this(DEFAULT_ALGORITHM, CipherMode.CTR, key, initVector, segmentSize, pool);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param algorithm
+	 *            naziv algoritma kriptiranja s blokom od {@value #BLOCK_SIZE}
+	 *            okteta
+	 * @param mode
+	 *            način rada koji se koristi prilikom enkripcije. Prilikom
+	 *            dekripcije koristi se način zapisan u zaglavlju
+	 * @param key
+	 *            ključ kriptiranja
+	 * @param initVector
+	 *            inicijalizacijski vektor od {@value #BLOCK_SIZE} okteta
+	 * @param segmentSize
+	 *            veličina segmenta u oktetima koja se koristi prilikom
+	 *            enkripcije. Mora biti pozitivan višekratnik broja
+	 *            {@value #BLOCK_SIZE}. Prilikom dekripcije koristi se veličina
+	 *            zapisana u zaglavlju
+	 * @param pool
+	 *            bazen dretvi unutar kojeg se segmenti obrađuju
+	 * @throws IllegalArgumentException
+	 *             ukoliko način rada, inicijalizacijski vektor ili veličina
+	 *             segmenta nisu valjani
+	 */
+	public SegmentedCrypto(String algorithm, CipherMode mode, byte[] key, byte[] initVector, int segmentSize,
+			ForkJoinPool pool) {
+		if (!mode.isSegmentable()) {
+			throw new IllegalArgumentException("Način " + mode + " nije podržan u segmentiranom formatu!");
+		}
+		if (initVector.length != BLOCK_SIZE) {
+			throw new IllegalArgumentException(
+					"Inicijalizacijski vektor mora imati točno " + BLOCK_SIZE + " okteta!");
+		}
+		checkSegmentSize(segmentSize);
+
+		this.algorithm = algorithm;
+		this.mode = mode;
+		this.key = key.clone();
+		this.initVector = initVector.clone();
+		this.segmentSize = segmentSize;
+		this.pool = pool;
+	}
+
+	/**
+	 * Metoda koja enkriptira datoteku <b>from</b> i rezultat u segmentiranom
+	 * formatu sprema u datoteku <b>to</b>. Ukoliko enkripcija ne uspije,
+	 * datoteka <b>to</b> ostaje nepromijenjena.
+	 *
+	 * @param from
+	 *            putanja do datoteke koja se enkriptira
+	 * @param to
+	 *            putanja do datoteke u koju se sprema rezultat
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati u datoteke
+	 * @throws GeneralSecurityException
+	 *             ukoliko enkripcija nije uspjela
+	 */
+	public void encrypt(Path from, Path to) throws IOException, GeneralSecurityException {
+		Path temp = CheckpointedCrypto.tempFor(to);
+		try (FileChannel in = FileChannel.open(from, StandardOpenOption.READ);
+				FileChannel out = openTemp(temp)) {
+			long length = in.size();
+			byte[] salt = new byte[SALT_LENGTH];
+			RANDOM.nextBytes(salt);
+			ByteBuffer header = createHeader(length, salt);
+			writeFully(out, header.duplicate(), 0);
+			process(new SegmentJob(Cipher.ENCRYPT_MODE, mode, header.array(), fileVector(salt), in, out, length,
+					segmentSize));
+		} catch (IOException | GeneralSecurityException | RuntimeException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+		Files.move(temp, to, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Metoda koja dekriptira datoteku <b>from</b> zapisanu u segmentiranom
+	 * formatu i rezultat sprema u datoteku <b>to</b>. Segmenti se dekriptiraju
+	 * i zapisuju na svoje pozicije bilo kojim redoslijedom, a datoteka
+	 * <b>to</b> nastaje tek kada su svi segmenti uspješno dekriptirani.
+	 *
+	 * @param from
+	 *            putanja do datoteke koja se dekriptira
+	 * @param to
+	 *            putanja do datoteke u koju se sprema rezultat
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati u datoteke
+	 * @throws GeneralSecurityException
+	 *             ukoliko dekripcija nije uspjela. U načinu
+	 *             {@link CipherMode#GCM} baca se {@link AEADBadTagException}
+	 *             čija poruka sadrži redni broj oštećenog segmenta
+	 * @throws IllegalArgumentException
+	 *             ukoliko datoteka <b>from</b> nije u segmentiranom formatu
+	 */
+	public void decrypt(Path from, Path to) throws IOException, GeneralSecurityException {
+		Path temp = CheckpointedCrypto.tempFor(to);
+		try (FileChannel in = FileChannel.open(from, StandardOpenOption.READ);
+				FileChannel out = openTemp(temp)) {
+			process(readHeader(in, out));
+		} catch (IOException | GeneralSecurityException | RuntimeException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+		Files.move(temp, to, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Pomoćna metoda koja otvara privremenu datoteku <b>temp</b> za pisanje.
+	 * Postojeći sadržaj se briše.
+	 *
+	 * @param temp
+	 *            putanja do privremene datoteke
+	 * @return kanal za pisanje u privremenu datoteku
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće otvoriti
+	 */
+	private static FileChannel openTemp(Path temp) throws IOException {
+		return FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+	}
+
+	/**
+	 * Metoda koja dekriptira samo dio datoteke <b>from</b> zapisane u
+	 * segmentiranom formatu, i to <b>length</b> okteta izvorne datoteke počevši
+	 * od pozicije <b>offset</b>. Dekriptirani okteti zapisuju se u izlazni tok
+	 * okteta <b>out</b>. Ukoliko raspon prelazi kraj datoteke, dekriptira se do
+	 * kraja datoteke.
+	 * <p>
+	 * U načinu {@link CipherMode#CTR} čitaju se i dekriptiraju samo blokovi
+	 * koji pokrivaju traženi raspon, a u načinu {@link CipherMode#GCM} čitavi
+	 * segmenti koji ga pokrivaju, jer se samo tako može provjeriti njihova
+	 * autentičnost. U oba slučaja količina pročitanih podataka ovisi samo o
+	 * veličini raspona i segmenta, a ne o veličini datoteke.
+	 *
+	 * @param from
+	 *            putanja do datoteke koja se dekriptira
+	 * @param offset
+	 *            pozicija prvog traženog okteta unutar izvorne datoteke
+	 * @param length
+	 *            broj traženih okteta
+	 * @param out
+	 *            izlazni tok okteta u koji se zapisuju dekriptirani okteti
+	 * @return broj zapisanih okteta
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati datoteku ili pisati u tok
+	 * @throws GeneralSecurityException
+	 *             ukoliko dekripcija nije uspjela
+	 * @throws IllegalArgumentException
+	 *             ukoliko datoteka <b>from</b> nije u segmentiranom formatu ili
+	 *             raspon nije valjan
+	 */
+	public long decryptRange(Path from, long offset, long length, OutputStream out)
+			throws IOException, GeneralSecurityException {
+		if (offset < 0 || length < 0) {
+			throw new IllegalArgumentException("Pomak i duljina raspona ne smiju biti negativni!");
+		}
+
+		try (FileChannel in = FileChannel.open(from, StandardOpenOption.READ)) {
+			SegmentJob job = readHeader(in, null);
+			if (offset > job.length) {
+				throw new IllegalArgumentException(
+						String.format("Pomak %d je izvan datoteke veličine %d okteta!", offset, job.length));
+			}
+
+			long end = offset + Math.min(length, job.length - offset);
+			long position = offset;
+			while (position < end) {
+				int index = (int) (position / job.segmentSize);
+				long segmentStart = (long) index * job.segmentSize;
+				long chunkEnd = Math.min(end, segmentStart + job.segmentSize);
+
+				// početak prvog dekriptiranog okteta unutar izvorne datoteke
+				long start;
+				byte[] plain;
+				if (job.cipherMode == CipherMode.GCM) {
+					start = segmentStart;
+					plain = readSegment(job, index);
+				} else {
+					start = position - position % BLOCK_SIZE;
+					plain = new byte[(int) (chunkEnd - start)];
+					readFully(in, ByteBuffer.wrap(plain), job.encryptedOffset(0) + start);
+					ctrCipher(Cipher.DECRYPT_MODE, job.fileVector, start / BLOCK_SIZE).doFinal(plain, 0, plain.length,
+							plain, 0);
+				}
+
+				out.write(plain, (int) (position - start), (int) (chunkEnd - position));
+				position = chunkEnd;
+			}
+			return end - offset;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja iz kanala <b>in</b> čita i provjerava zaglavlje
+	 * segmentirane datoteke te stvara posao dekripcije.
+	 *
+	 * @param in
+	 *            kanal iz kojeg se čita kriptirana datoteka
+	 * @param out
+	 *            kanal u koji se zapisuje dekriptirana datoteka ili
+	 *            <code>null</code>
+	 * @return posao dekripcije opisan zaglavljem
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati iz kanala
+	 * @throws IllegalArgumentException
+	 *             ukoliko zaglavlje nije valjano ili veličina datoteke ne
+	 *             odgovara zaglavlju
+	 */
+	private SegmentJob readHeader(FileChannel in, FileChannel out) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		readFully(in, header, 0);
+		header.flip();
+
+		CipherMode headerMode = checkHeader(header);
+		int headerSegmentSize = header.getInt();
+		checkSegmentSize(headerSegmentSize);
+		long length = header.getLong();
+		byte[] salt = new byte[SALT_LENGTH];
+		header.get(salt);
+
+		SegmentJob job = new SegmentJob(Cipher.DECRYPT_MODE, headerMode, header.array(), fileVector(salt), in, out,
+				length, headerSegmentSize);
+		if (length < 0 || in.size() != job.encryptedSize()) {
+			throw new IllegalArgumentException("Veličina datoteke ne odgovara veličini zapisanoj u zaglavlju!");
+		}
+		return job;
+	}
+
+	/**
+	 * Pomoćna metoda koja predaje obradu svih segmenata posla <b>job</b>
+	 * bazenu dretvi {@link #pool} i čeka njezin završetak. Ukoliko obrada
+	 * nekog segmenta nije uspjela, metoda baca izvornu iznimku.
+	 *
+	 * @param job
+	 *            posao koji se obrađuje
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati u datoteke
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje nekog segmenta nije uspjelo
+	 */
+	private void process(SegmentJob job) throws IOException, GeneralSecurityException {
+		long segments = job.segments();
+		if (segments > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Datoteka ima previše segmenata!");
+		}
+		if (segments == 0) {
+			return;
+		}
+
+		try {
+			pool.invoke(new SegmentTask(job, 0, (int) segments));
+		} catch (RuntimeException e) {
+			rethrowCause(e);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja kriptira segment s rednim brojem <b>index</b> posla
+	 * <b>job</b>. Segment se čita s pozicije na kojoj se nalazi u ulaznoj
+	 * datoteci, kriptira i zapisuje na pripadnu poziciju izlazne datoteke.
+	 *
+	 * @param job
+	 *            posao kojem segment pripada
+	 * @param index
+	 *            redni broj segmenta
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati ili pisati u datoteke
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje segmenta nije uspjelo
+	 */
+	private void processSegment(SegmentJob job, int index) throws IOException, GeneralSecurityException {
+		long position = (long) index * job.segmentSize;
+		boolean encrypt = job.mode == Cipher.ENCRYPT_MODE;
+
+		byte[] result = readSegment(job, index);
+		writeFully(job.out, ByteBuffer.wrap(result), encrypt ? job.encryptedOffset(index) : position);
+	}
+
+	/**
+	 * Pomoćna metoda koja čita segment s rednim brojem <b>index</b> posla
+	 * <b>job</b> s pozicije na kojoj se nalazi u ulaznoj datoteci i kriptira
+	 * ga.
+	 *
+	 * @param job
+	 *            posao kojem segment pripada
+	 * @param index
+	 *            redni broj segmenta
+	 * @return kriptirani segment
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati iz datoteke
+	 * @throws GeneralSecurityException
+	 *             ukoliko kriptiranje segmenta nije uspjelo
+	 */
+	private byte[] readSegment(SegmentJob job, int index) throws IOException, GeneralSecurityException {
+		long position = (long) index * job.segmentSize;
+		int length = (int) Math.min(job.segmentSize, job.length - position);
+		int tagLength = job.cipherMode.getTagLength();
+		boolean encrypt = job.mode == Cipher.ENCRYPT_MODE;
+
+		byte[] data = new byte[encrypt ? length : length + tagLength];
+		readFully(job.in, ByteBuffer.wrap(data), encrypt ? position : job.encryptedOffset(index));
+
+		if (job.cipherMode == CipherMode.GCM) {
+			// GCM ne dopušta ponovnu enkripciju istim ključem i jedinstvenim
+			// brojem, pa se primjerak ne dohvaća iz konteksta
+			Cipher cipher = Cipher.getInstance(job.cipherMode.transformation(algorithm));
+			byte[] nonce = nonceFor(job.fileVector, index, index == job.segments() - 1);
+			cipher.init(job.mode, CryptoContext.key(key, algorithm), new GCMParameterSpec(GCM_TAG_LENGTH, nonce));
+			cipher.updateAAD(job.header);
+			try {
+				return cipher.doFinal(data);
+			} catch (AEADBadTagException e) {
+				throw new AEADBadTagException(String.format("Segment %d kriptirane datoteke je oštećen!", index));
+			}
+		}
+
+		ctrCipher(job.mode, job.fileVector, position / BLOCK_SIZE).doFinal(data, 0, length, data, 0);
+		return data;
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća primjerak razreda {@link Cipher} trenutne
+	 * dretve (vidjeti {@link CryptoContext}) u načinu {@link CipherMode#CTR} i
+	 * inicijalizira ga tako da brojač započinje od bloka s rednim brojem
+	 * <b>blockIndex</b>
+	 *
+	 * @param mode
+	 *            {@link Cipher#ENCRYPT_MODE} ili {@link Cipher#DECRYPT_MODE}
+	 * @param fileVector
+	 *            vektor datoteke (vidjeti {@link #fileVector(byte[])})
+	 * @param blockIndex
+	 *            redni broj prvog bloka unutar datoteke
+	 * @return inicijalizirani primjerak razreda {@link Cipher}
+	 * @throws GeneralSecurityException
+	 *             ukoliko inicijalizacija nije uspjela
+	 */
+	private Cipher ctrCipher(int mode, byte[] fileVector, long blockIndex) throws GeneralSecurityException {
+		Cipher cipher = CryptoContext.cipher(CipherMode.CTR.transformation(algorithm));
+		cipher.init(mode, CryptoContext.key(key, algorithm),
+				new IvParameterSpec(counterFor(fileVector, blockIndex)));
+		return cipher;
+	}
+
+	/**
+	 * Pomoćna metoda koja računa vektor datoteke primjenom operacije XOR na
+	 * inicijalizacijski vektor i sol <b>salt</b> zapisanu u zaglavlju
+	 *
+	 * @param salt
+	 *            sol datoteke
+	 * @return vektor datoteke
+	 */
+	private byte[] fileVector(byte[] salt) {
+		byte[] vector = initVector.clone();
+		for (int i = 0; i < vector.length; i++) {
+			vector[i] ^= salt[i];
+		}
+		return vector;
+	}
+
+	/**
+	 * Pomoćna metoda koja računa jedinstveni broj segmenta s rednim brojem
+	 * <b>index</b> u načinu {@link CipherMode#GCM}. Jedinstveni broj sastoji
+	 * se od prvih {@value #NONCE_PREFIX_LENGTH} okteta vektora datoteke te 4
+	 * okteta u kojima najviši bit označava zadnji segment, a ostali bitovi
+	 * redni broj segmenta (koji je uvijek manji od 2<sup>31</sup>).
+	 *
+	 * @param fileVector
+	 *            vektor datoteke (vidjeti {@link #fileVector(byte[])})
+	 * @param index
+	 *            redni broj segmenta
+	 * @param last
+	 *            <b>true</b> ukoliko je segment zadnji u datoteci
+	 * @return jedinstveni broj segmenta
+	 */
+	private static byte[] nonceFor(byte[] fileVector, int index, boolean last) {
+		ByteBuffer nonce = ByteBuffer.allocate(NONCE_LENGTH);
+		nonce.put(fileVector, 0, NONCE_PREFIX_LENGTH).putInt(last ? index | Integer.MIN_VALUE : index);
+		return nonce.array();
+	}
+
+	/**
+	 * Pomoćna metoda koja računa početnu vrijednost brojača za blok s rednim
+	 * brojem <b>blockIndex</b>. Vrijednost se dobiva zbrajanjem
+	 * inicijalizacijskog vektora <b>initVector</b> (tumačenog kao 128-bitni
+	 * broj u Big-endian formatu) i rednog broja bloka.
+	 *
+	 * @param initVector
+	 *            inicijalizacijski vektor
+	 * @param blockIndex
+	 *            redni broj bloka unutar datoteke
+	 * @return početna vrijednost brojača
+	 */
+	static byte[] counterFor(byte[] initVector, long blockIndex) {
+		byte[] counter = initVector.clone();
+		long carry = blockIndex;
+		for (int i = counter.length - 1; i >= 0 && carry != 0; i--) {
+			long sum = (counter[i] & 0xFF) + (carry & 0xFF);
+			counter[i] = (byte) sum;
+			carry = (carry >>> 8) + (sum >>> 8);
+		}
+		return counter;
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara zaglavlje segmentirane datoteke
+	 *
+	 * @param length
+	 *            veličina izvorne datoteke u oktetima
+	 * @param salt
+	 *            slučajna sol datoteke
+	 * @return zaglavlje spremno za pisanje
+	 */
+	private ByteBuffer createHeader(long length, byte[] salt) {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.put(MAGIC).put(VERSION).put(mode.getId()).putInt(segmentSize).putLong(length).put(salt);
+		header.flip();
+		return header;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava magični broj i verziju zapisane u
+	 * zaglavlju <b>header</b> te iz njega čita način rada.
+	 *
+	 * @param header
+	 *            zaglavlje pozicionirano na početak
+	 * @return način rada zapisan u zaglavlju
+	 * @throws IllegalArgumentException
+	 *             ukoliko zaglavlje nije valjano ili je zapisano u
+	 *             nepodržanoj verziji formata
+	 */
+	private static CipherMode checkHeader(ByteBuffer header) {
+		byte[] magic = new byte[MAGIC.length];
+		header.get(magic);
+		if (!Arrays.equals(magic, MAGIC)) {
+			throw new IllegalArgumentException("Predana datoteka nije u segmentiranom formatu!");
+		}
+		byte version = header.get();
+		if (version != VERSION) {
+			throw new IllegalArgumentException(
+					String.format("Verzija %d segmentiranog formata nije podržana (podržana je verzija %d)!", version,
+							VERSION));
+		}
+
+		return CipherMode.forId(header.get());
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava je li <b>segmentSize</b> pozitivan
+	 * višekratnik broja {@value #BLOCK_SIZE}
+	 *
+	 * @param segmentSize
+	 *            veličina segmenta koja se provjerava
+	 * @throws IllegalArgumentException
+	 *             ukoliko veličina segmenta nije valjana
+	 */
+	private static void checkSegmentSize(int segmentSize) {
+		if (segmentSize <= 0 || segmentSize % BLOCK_SIZE != 0) {
+			throw new IllegalArgumentException(
+					"Veličina segmenta mora biti pozitivan višekratnik broja " + BLOCK_SIZE + "!");
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja čita iz kanala <b>channel</b> počevši od pozicije
+	 * <b>position</b> sve dok spremnik <b>buffer</b> nije popunjen.
+	 *
+	 * @param channel
+	 *            kanal iz kojeg se čita
+	 * @param buffer
+	 *            spremnik koji se popunjava
+	 * @param position
+	 *            pozicija unutar kanala od koje se čita
+	 * @throws IOException
+	 *             ukoliko čitanje nije uspjelo ili je kanal prekratak
+	 */
+	static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		int start = buffer.position();
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position() - start) == -1) {
+				throw new EOFException("Datoteka je kraća od očekivane!");
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja u kanal <b>channel</b> počevši od pozicije
+	 * <b>position</b> zapisuje čitav sadržaj spremnika <b>buffer</b>.
+	 *
+	 * @param channel
+	 *            kanal u koji se piše
+	 * @param buffer
+	 *            spremnik čiji se sadržaj zapisuje
+	 * @param position
+	 *            pozicija unutar kanala od koje se piše
+	 * @throws IOException
+	 *             ukoliko pisanje nije uspjelo
+	 */
+	static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		int start = buffer.position();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer, position + buffer.position() - start);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja iz lanca uzroka iznimke <b>e</b> izvlači i baca
+	 * izvornu provjeravanu iznimku. Ukoliko takva ne postoji baca se sama
+	 * iznimka <b>e</b>.
+	 *
+	 * @param e
+	 *            iznimka koja je nastala unutar bazena dretvi
+	 * @throws IOException
+	 *             ukoliko je izvorna iznimka {@link IOException}
+	 * @throws GeneralSecurityException
+	 *             ukoliko je izvorna iznimka {@link GeneralSecurityException}
+	 */
+	static void rethrowCause(RuntimeException e) throws IOException, GeneralSecurityException {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof GeneralSecurityException) {
+				throw (GeneralSecurityException) cause;
+			}
+		}
+		throw e;
+	}
+
+	/**
+	 * Privatna struktura podataka koja opisuje jedan posao kriptiranja: smjer
+	 * i način kriptiranja, zaglavlje, vektor datoteke, kanale, veličinu izvornih podataka i
+	 * veličinu segmenta.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class SegmentJob {
+
+		/** Članska varijabla koja predstavlja {@link Cipher} smjer kriptiranja */
+		private final int mode;
+
+		/** Članska varijabla koja predstavlja način rada algoritma */
+		private final CipherMode cipherMode;
+
+		/** Članska varijabla koja predstavlja zaglavlje kriptirane datoteke */
+		private final byte[] header;
+
+		/** Članska varijabla koja predstavlja vektor datoteke */
+		private final byte[] fileVector;
+
+		/** Članska varijabla koja predstavlja ulazni kanal */
+		private final FileChannel in;
+
+		/** Članska varijabla koja predstavlja izlazni kanal */
+		private final FileChannel out;
+
+		/** Članska varijabla koja predstavlja veličinu izvornih podataka */
+		private final long length;
+
+		/** Članska varijabla koja predstavlja veličinu segmenta */
+		private final int segmentSize;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda bez dodatne
+		 * provjere predanih vrijednosti.
+		 *
+		 * @param mode
+		 *            {@link Cipher#ENCRYPT_MODE} ili {@link Cipher#DECRYPT_MODE}
+		 * @param cipherMode
+		 *            način rada algoritma
+		 * @param header
+		 *            zaglavlje kriptirane datoteke
+		 * @param fileVector
+		 *            vektor datoteke
+		 * @param in
+		 *            ulazni kanal
+		 * @param out
+		 *            izlazni kanal
+		 * @param length
+		 *            veličina izvornih podataka
+		 * @param segmentSize
+		 *            veličina segmenta
+		 */
+		public SegmentJob(int mode, CipherMode cipherMode, byte[] header, byte[] fileVector, FileChannel in,
+				FileChannel out, long length, int segmentSize) {
+			this.mode = mode;
+			this.cipherMode = cipherMode;
+			this.header = header;
+			this.fileVector = fileVector;
+			this.in = in;
+			this.out = out;
+			this.length = length;
+			this.segmentSize = segmentSize;
+		}
+
+		/**
+		 * Metoda koja vraća broj segmenata. U načinu {@link CipherMode#GCM}
+		 * datoteka uvijek ima barem jedan segment kako bi zaglavlje bilo
+		 * autentificirano.
+		 *
+		 * @return broj segmenata
+		 */
+		public long segments() {
+			long segments = (length + segmentSize - 1) / segmentSize;
+			return cipherMode.getTagLength() > 0 ? Math.max(1, segments) : segments;
+		}
+
+		/**
+		 * Metoda koja vraća poziciju segmenta s rednim brojem <b>index</b>
+		 * unutar kriptirane datoteke
+		 *
+		 * @param index
+		 *            redni broj segmenta
+		 * @return pozicija segmenta unutar kriptirane datoteke
+		 */
+		public long encryptedOffset(long index) {
+			return HEADER_SIZE + index * (segmentSize + cipherMode.getTagLength());
+		}
+
+		/**
+		 * Metoda koja vraća očekivanu veličinu kriptirane datoteke
+		 *
+		 * @return veličina kriptirane datoteke
+		 */
+		public long encryptedSize() {
+			return HEADER_SIZE + length + segments() * cipherMode.getTagLength();
+		}
+	}
+
+	/**
+	 * Razred koji nasljeđuje {@link RecursiveAction}. Primjerak ovog razreda
+	 * obrađuje segmente u rasponu [{@link #from}, {@link #to}) tako da raspon
+	 * dijeli na pola sve dok ne dođe do pojedinačnog segmenta.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class SegmentTask extends RecursiveAction {
+
+		/** Konstanta serialVersionUID. */
+		private static final long serialVersionUID = 1L;
+
+		/** Članska varijabla koja predstavlja posao kojem segmenti pripadaju */
+		private final SegmentJob job;
+
+		/** Članska varijabla koja predstavlja prvi segment raspona */
+		private final int from;
+
+		/** Članska varijabla koja predstavlja prvi segment iza raspona */
+		private final int to;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param job
+		 *            posao kojem segmenti pripadaju
+		 * @param from
+		 *            prvi segment raspona
+		 * @param to
+		 *            prvi segment iza raspona
+		 */
+		public SegmentTask(SegmentJob job, int from, int to) {
+			this.job = job;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new SegmentTask(job, from, middle), new SegmentTask(job, middle, to));
+				return;
+			}
+
+			try {
+				processSegment(job, from);
+			} catch (IOException | GeneralSecurityException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,494 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Razred koji računa zaštitnu sumu datoteke kao korijen Merkleovog stabla.
+ * Datoteka se dijeli na dijelove (listove) fiksne veličine čije se zaštitne
+ * sume računaju paralelno unutar predanog primjerka razreda
+ * {@link ForkJoinPool}. Unutarnji čvorovi stabla dobivaju se spajanjem suma
+ * svoje djece, a čvor bez para prenosi se na višu razinu. Kako bi se listovi
+ * i unutarnji čvorovi razlikovali, suma lista računa se nad
+ * <code>0x00 || dio</code>, a suma unutarnjeg čvora nad
+ * <code>0x01 || lijevo || desno</code>. Koristi se algoritam
+ * {@value #DIGEST_ALGORITHM}.
+ *
+ * Sume listova zapisuju se u popratnu datoteku (manifest) čim je izračunata
+ * pojedina grupa listova. Ukoliko se izračun prekine, sljedeći izračun nad
+ * nepromijenjenom datotekom (ista veličina i vrijeme zadnje izmjene) računa
+ * samo listove koji u manifestu nedostaju. Ukoliko se datoteka u međuvremenu
+ * promijenila, svi listovi računaju se ponovno, a usporedbom sa starim
+ * manifestom pronalaze se promijenjeni dijelovi datoteke.
+ *
+ * Format manifesta je tekstualan:
+ *
+ * <pre>
+ * tree-hash SHA-256 &lt;veličina dijela&gt;
+ * file &lt;veličina datoteke&gt; &lt;vrijeme zadnje izmjene u ms&gt;
+ * leaf &lt;redni broj&gt; &lt;suma&gt;
+ * ...
+ * root &lt;suma&gt;
+ * </pre>
+ *
+ * @see Crypto
+ * @see ForkJoinPool
+ *
+ * @author Davor Češljaš
+ */
+public class TreeHash {
+
+	/** Konstanta koja predstavlja predefiniranu veličinu dijela (1 MiB) */
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+	/** Konstanta koja predstavlja nastavak naziva manifesta */
+	public static final String MANIFEST_EXTENSION = ".treehash";
+
+	/** Konstanta koja predstavlja naziv algoritma zaštitne sume */
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+
+	/** Konstanta koja predstavlja prefiks sume lista */
+	private static final byte LEAF_PREFIX = 0x00;
+
+	/** Konstanta koja predstavlja prefiks sume unutarnjeg čvora */
+	private static final byte NODE_PREFIX = 0x01;
+
+	/** Konstanta koja predstavlja oznaku zaglavlja manifesta */
+	private static final String TREE_HASH = "tree-hash";
+
+	/** Konstanta koja predstavlja oznaku retka s podacima o datoteci */
+	private static final String FILE = "file";
+
+	/** Konstanta koja predstavlja oznaku retka sa sumom lista */
+	private static final String LEAF = "leaf";
+
+	/** Konstanta koja predstavlja oznaku retka sa sumom korijena */
+	private static final String ROOT = "root";
+
+	/**
+	 * Konstanta koja predstavlja koliko se grupa listova po dretvi računa prije
+	 * zapisivanja u manifest
+	 */
+	private static final int LEAVES_PER_THREAD = 4;
+
+	/** Članska varijabla koja predstavlja veličinu dijela u oktetima */
+	private final int chunkSize;
+
+	/**
+	 * Članska varijabla koja predstavlja bazen dretvi unutar kojeg se računaju
+	 * sume listova
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param chunkSize
+	 *            veličina dijela (lista) u oktetima
+	 * @param pool
+	 *            bazen dretvi unutar kojeg se računaju sume listova
+	 * @throws IllegalArgumentException
+	 *             ukoliko veličina dijela nije pozitivna
+	 */
+	public TreeHash(int chunkSize, ForkJoinPool pool) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Veličina dijela mora biti pozitivna!");
+		}
+
+		this.chunkSize = chunkSize;
+		this.pool = pool;
+	}
+
+	/**
+	 * Metoda koja vraća predefiniranu putanju manifesta za datoteku
+	 * <b>file</b>. Manifest se nalazi u istom direktoriju i ima nastavak
+	 * {@value #MANIFEST_EXTENSION}
+	 *
+	 * @param file
+	 *            putanja do datoteke
+	 * @return putanja do manifesta
+	 */
+	public static Path manifestFor(Path file) {
+		return file.resolveSibling(file.getFileName() + MANIFEST_EXTENSION);
+	}
+
+	/**
+	 * Metoda koja računa korijen Merkleovog stabla datoteke <b>file</b>,
+	 * koristeći i dopunjujući manifest <b>manifest</b>.
+	 *
+	 * @param file
+	 *            putanja do datoteke čija se suma računa
+	 * @param manifest
+	 *            putanja do manifesta
+	 * @return rezultat izračuna
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati datoteku ili pisati u manifest
+	 * @throws GeneralSecurityException
+	 *             ukoliko ne postoji algoritam {@value #DIGEST_ALGORITHM}
+	 */
+	public Result hash(Path file, Path manifest) throws IOException, GeneralSecurityException {
+		long size = Files.size(file);
+		long modified = Files.getLastModifiedTime(file).toMillis();
+		long leafCount = Math.max(1, (size + chunkSize - 1) / chunkSize);
+		if (leafCount > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Datoteka ima previše dijelova!");
+		}
+
+		byte[][] leaves = new byte[(int) leafCount][];
+		Manifest old = Manifest.read(manifest, chunkSize);
+		boolean resume = old != null && old.size == size && old.modified == modified;
+
+		int reused = 0;
+		if (resume) {
+			for (int i = 0; i < leaves.length && i < old.leaves.size(); i++) {
+				leaves[i] = old.leaves.get(i);
+				reused += leaves[i] == null ? 0 : 1;
+			}
+		}
+
+		try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+				Writer writer = openManifest(manifest, resume, size, modified)) {
+			List<Integer> missing = new ArrayList<>();
+			int batch = pool.getParallelism() * LEAVES_PER_THREAD;
+			for (int i = 0; i < leaves.length; i++) {
+				if (leaves[i] == null) {
+					missing.add(i);
+				}
+				if (missing.size() == batch || (i == leaves.length - 1 && !missing.isEmpty())) {
+					hashLeaves(in, size, leaves, missing);
+					for (int index : missing) {
+						writer.write(String.format("%s %d %s%n", LEAF, index, Util.bytetohex(leaves[index])));
+					}
+					writer.flush();
+					missing.clear();
+				}
+			}
+
+			byte[] root = root(leaves);
+			if (!resume || old.root == null) {
+				writer.write(String.format("%s %s%n", ROOT, Util.bytetohex(root)));
+			}
+
+			List<Integer> changed = new ArrayList<>();
+			if (old != null && !resume) {
+				for (int i = 0; i < leaves.length; i++) {
+					byte[] oldLeaf = i < old.leaves.size() ? old.leaves.get(i) : null;
+					if (!Arrays.equals(oldLeaf, leaves[i])) {
+						changed.add(i);
+					}
+				}
+			}
+
+			return new Result(root, leaves.length, reused, changed);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja paralelno računa sume listova čiji su redni brojevi
+	 * predani u listi <b>indexes</b>.
+	 *
+	 * @param in
+	 *            kanal iz kojeg se čita datoteka
+	 * @param size
+	 *            veličina datoteke
+	 * @param leaves
+	 *            polje u koje se upisuju sume listova
+	 * @param indexes
+	 *            redni brojevi listova koji se računaju
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati datoteku
+	 * @throws GeneralSecurityException
+	 *             ukoliko ne postoji algoritam {@value #DIGEST_ALGORITHM}
+	 */
+	private void hashLeaves(FileChannel in, long size, byte[][] leaves, List<Integer> indexes)
+			throws IOException, GeneralSecurityException {
+		List<RecursiveAction> tasks = new ArrayList<>();
+		for (int index : indexes) {
+			tasks.add(new RecursiveAction() {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					try {
+						leaves[index] = hashLeaf(in, size, index);
+					} catch (IOException | GeneralSecurityException e) {
+						throw new RuntimeException(e);
+					}
+				}
+			});
+		}
+
+		try {
+			pool.invoke(new RecursiveAction() {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			});
+		} catch (RuntimeException e) {
+			SegmentedCrypto.rethrowCause(e);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja računa sumu lista s rednim brojem <b>index</b>
+	 *
+	 * @param in
+	 *            kanal iz kojeg se čita datoteka
+	 * @param size
+	 *            veličina datoteke
+	 * @param index
+	 *            redni broj lista
+	 * @return suma lista
+	 * @throws IOException
+	 *             ukoliko nije moguće čitati datoteku
+	 * @throws GeneralSecurityException
+	 *             ukoliko ne postoji algoritam {@value #DIGEST_ALGORITHM}
+	 */
+	private byte[] hashLeaf(FileChannel in, long size, int index) throws IOException, GeneralSecurityException {
+		long position = (long) index * chunkSize;
+		byte[] data = new byte[(int) Math.min(chunkSize, size - position)];
+		SegmentedCrypto.readFully(in, ByteBuffer.wrap(data), position);
+
+		MessageDigest md = CryptoContext.digest(DIGEST_ALGORITHM);
+		md.update(LEAF_PREFIX);
+		md.update(data);
+		return md.digest();
+	}
+
+	/**
+	 * Pomoćna metoda koja iz suma listova <b>leaves</b> računa korijen stabla.
+	 * Čvorovi se spajaju u parove razinu po razinu, a čvor bez para prenosi se
+	 * na višu razinu.
+	 *
+	 * @param leaves
+	 *            sume listova
+	 * @return korijen stabla
+	 * @throws GeneralSecurityException
+	 *             ukoliko ne postoji algoritam {@value #DIGEST_ALGORITHM}
+	 */
+	static byte[] root(byte[][] leaves) throws GeneralSecurityException {
+		MessageDigest md = CryptoContext.digest(DIGEST_ALGORITHM);
+		byte[][] level = leaves;
+		while (level.length > 1) {
+			byte[][] parents = new byte[(level.length + 1) / 2][];
+			for (int i = 0; i < level.length; i += 2) {
+				if (i + 1 == level.length) {
+					parents[i / 2] = level[i];
+					continue;
+				}
+				md.update(NODE_PREFIX);
+				md.update(level[i]);
+				md.update(level[i + 1]);
+				parents[i / 2] = md.digest();
+			}
+			level = parents;
+		}
+		return level[0];
+	}
+
+	/**
+	 * Pomoćna metoda koja otvara manifest za pisanje. Ukoliko se izračun
+	 * nastavlja, manifest se otvara za dopisivanje, a inače se stvara novi
+	 * manifest sa zaglavljem.
+	 *
+	 * @param manifest
+	 *            putanja do manifesta
+	 * @param resume
+	 *            <b>true</b> ukoliko se izračun nastavlja
+	 * @param size
+	 *            veličina datoteke
+	 * @param modified
+	 *            vrijeme zadnje izmjene datoteke
+	 * @return otvoreni tok znakova
+	 * @throws IOException
+	 *             ukoliko nije moguće otvoriti manifest
+	 */
+	private Writer openManifest(Path manifest, boolean resume, long size, long modified) throws IOException {
+		if (resume) {
+			return Files.newBufferedWriter(manifest, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+		}
+
+		BufferedWriter writer = Files.newBufferedWriter(manifest, StandardCharsets.UTF_8);
+		writer.write(String.format("%s %s %d%n", TREE_HASH, DIGEST_ALGORITHM, chunkSize));
+		writer.write(String.format("%s %d %d%n", FILE, size, modified));
+		return writer;
+	}
+
+	/**
+	 * Razred koji predstavlja rezultat izračuna: korijen stabla, broj listova,
+	 * broj listova preuzetih iz manifesta i redne brojeve promijenjenih
+	 * listova.
+	 *
+	 * @author Davor Češljaš
+	 */
+	public static class Result {
+
+		/** Članska varijabla koja predstavlja korijen stabla */
+		private final byte[] root;
+
+		/** Članska varijabla koja predstavlja broj listova */
+		private final int leafCount;
+
+		/**
+		 * Članska varijabla koja predstavlja broj listova preuzetih iz
+		 * manifesta
+		 */
+		private final int reusedLeaves;
+
+		/**
+		 * Članska varijabla koja predstavlja redne brojeve listova koji se
+		 * razlikuju od onih u starom manifestu
+		 */
+		private final List<Integer> changedLeaves;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param root
+		 *            korijen stabla
+		 * @param leafCount
+		 *            broj listova
+		 * @param reusedLeaves
+		 *            broj listova preuzetih iz manifesta
+		 * @param changedLeaves
+		 *            redni brojevi promijenjenih listova
+		 */
+		private Result(byte[] root, int leafCount, int reusedLeaves, List<Integer> changedLeaves) {
+			this.root = root;
+			this.leafCount = leafCount;
+			this.reusedLeaves = reusedLeaves;
+			this.changedLeaves = changedLeaves;
+		}
+
+		/**
+		 * Metoda koja dohvaća korijen stabla
+		 *
+		 * @return korijen stabla
+		 */
+		public byte[] getRoot() {
+			return root.clone();
+		}
+
+		/**
+		 * Metoda koja dohvaća broj listova
+		 *
+		 * @return broj listova
+		 */
+		public int getLeafCount() {
+			return leafCount;
+		}
+
+		/**
+		 * Metoda koja dohvaća broj listova preuzetih iz manifesta
+		 *
+		 * @return broj listova preuzetih iz manifesta
+		 */
+		public int getReusedLeaves() {
+			return reusedLeaves;
+		}
+
+		/**
+		 * Metoda koja dohvaća redne brojeve listova koji se razlikuju od onih u
+		 * starom manifestu. Lista je prazna ukoliko stari manifest ne postoji
+		 * ili se datoteka nije mijenjala.
+		 *
+		 * @return redni brojevi promijenjenih listova
+		 */
+		public List<Integer> getChangedLeaves() {
+			return changedLeaves;
+		}
+	}
+
+	/**
+	 * Privatna struktura podataka koja predstavlja pročitani manifest.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class Manifest {
+
+		/** Članska varijabla koja predstavlja veličinu datoteke */
+		private long size;
+
+		/** Članska varijabla koja predstavlja vrijeme zadnje izmjene */
+		private long modified;
+
+		/**
+		 * Članska varijabla koja predstavlja sume listova. Nedostajući listovi
+		 * su <code>null</code>
+		 */
+		private final List<byte[]> leaves = new ArrayList<>();
+
+		/**
+		 * Članska varijabla koja predstavlja korijen ili <code>null</code>
+		 * ukoliko izračun nije dovršen
+		 */
+		private byte[] root;
+
+		/**
+		 * Metoda koja čita manifest <b>manifest</b>. Ukoliko manifest ne
+		 * postoji, nije valjan ili je nastao s drugačijom veličinom dijela
+		 * vraća se <code>null</code>
+		 *
+		 * @param manifest
+		 *            putanja do manifesta
+		 * @param chunkSize
+		 *            očekivana veličina dijela
+		 * @return pročitani manifest ili <code>null</code>
+		 */
+		public static Manifest read(Path manifest, int chunkSize) {
+			if (!Files.isRegularFile(manifest)) {
+				return null;
+			}
+
+			Manifest result = new Manifest();
+			try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+				String[] header = reader.readLine().split(" ");
+				String[] file = reader.readLine().split(" ");
+				if (!header[0].equals(TREE_HASH) || !header[1].equals(DIGEST_ALGORITHM)
+						|| Integer.parseInt(header[2]) != chunkSize || !file[0].equals(FILE)) {
+					return null;
+				}
+				result.size = Long.parseLong(file[1]);
+				result.modified = Long.parseLong(file[2]);
+
+				String line;
+				while ((line = reader.readLine()) != null) {
+					String[] parts = line.split(" ");
+					if (parts[0].equals(LEAF)) {
+						int index = Integer.parseInt(parts[1]);
+						while (result.leaves.size() <= index) {
+							result.leaves.add(null);
+						}
+						result.leaves.set(index, Util.hextobyte(parts[2]));
+					} else if (parts[0].equals(ROOT)) {
+						result.root = Util.hextobyte(parts[1]);
+					}
+				}
+			} catch (IOException | RuntimeException e) {
+				// oštećen ili nedovršen zapis, manifest se zanemaruje
+				return null;
+			}
+			return result;
+		}
+	}
+}
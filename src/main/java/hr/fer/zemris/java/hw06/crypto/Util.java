@@ -1,14 +1,20 @@
 package hr.fer.zemris.java.hw06.crypto;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 /**
- * Razred(biblioteka) koja nudi samo dvije statičke metode:
+ * Razred(biblioteka) koja nudi statičke metode za pretvorbu heksadekadskog
+ * broja u polje okteta i obrnuto:
  * <ul>
  * <li>{@link #bytetohex(byte[])}</li>
  * <li>{@link #hextobyte(String)}</li>
  * </ul>
  * 
- * Metode služe za pretvorbu heksadekadskog broja u polje okteta i obrnuto. Za
- * više informacija odite na link od navedene metode
+ * Pretvorba se obavlja pomoću tablica, a uz navedene metode postoje i inačice
+ * koje rezultat zapisuju u polje ili spremnik koji predaje pozivatelj, pa
+ * pretvorba ne zauzima novu memoriju. Za više informacija odite na link od
+ * navedene metode
  * 
  * @author Davor Češljaš
  */
@@ -23,6 +29,26 @@ public class Util {
 	 */
 	private static final int MOVE = 4;
 
+	/** Konstanta koja predstavlja masku donja 4 bita okteta */
+	private static final int LOW_MASK = 0x0F;
+
+	/** Konstanta koja predstavlja heksadekadske znamenke po vrijednosti */
+	private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+	/**
+	 * Konstanta koja predstavlja vrijednosti heksadekadskih znamenki po
+	 * znakovima ili -1 ukoliko znak nije heksadekadska znamenka
+	 */
+	private static final byte[] VALUES = new byte[128];
+
+	static {
+		Arrays.fill(VALUES, (byte) -1);
+		for (int i = 0; i < BASE; i++) {
+			VALUES[DIGITS[i]] = (byte) i;
+			VALUES[Character.toUpperCase(DIGITS[i])] = (byte) i;
+		}
+	}
+
 	/**
 	 * Metoda koja iz predanog parametra <b>keyText</b> pokušava parsirati polje
 	 * okteta. Ukoliko je predan prazan niz znakova metoda će vratiti polje
@@ -43,68 +69,184 @@ public class Util {
 	 *             {@link String} <b>keyText</b> u heksadekadski broj
 	 */
 	public static byte[] hextobyte(String keyText) {
-		if (!checkInput(keyText)) {
-			return new byte[0];
-		}
+		checkLength(keyText.length());
 
 		byte[] data = new byte[keyText.length() / 2];
-		for (int i = 0; i < keyText.length(); i += 2) {
-			data[i / 2] = (byte) ((Character.digit(keyText.charAt(i), BASE) << MOVE)
-					+ Character.digit(keyText.charAt(i + 1), BASE));
+		hextobyte(keyText, 0, keyText.length(), data, 0);
+		return data;
+	}
+
+	/**
+	 * Metoda koja znakove niza <b>hex</b> od indeksa <b>start</b> (uključivo)
+	 * do indeksa <b>end</b> (isključivo) parsira kao heksadekadski broj te
+	 * oktete zapisuje u polje <b>dest</b> počevši od indeksa
+	 * <b>destOffset</b>. Ispravnost znakova provjerava se u istom prolazu, pa
+	 * u slučaju pogreške polje <b>dest</b> može biti djelomično popunjeno.
+	 *
+	 * @param hex
+	 *            niz heksadekadskih znamenki
+	 * @param start
+	 *            indeks prve znamenke
+	 * @param end
+	 *            indeks iza zadnje znamenke
+	 * @param dest
+	 *            polje u koje se zapisuju okteti
+	 * @param destOffset
+	 *            indeks prvog okteta u polju <b>dest</b>
+	 * @return broj zapisanih okteta
+	 * @throws IllegalArgumentException
+	 *             ukoliko je broj znamenki neparan ili neki znak nije
+	 *             heksadekadska znamenka
+	 * @throws IndexOutOfBoundsException
+	 *             ukoliko rezultat ne stane u polje <b>dest</b>
+	 */
+	public static int hextobyte(CharSequence hex, int start, int end, byte[] dest, int destOffset) {
+		checkLength(end - start);
+
+		int j = destOffset;
+		for (int i = start; i < end; i += 2) {
+			dest[j++] = (byte) ((value(hex.charAt(i)) << MOVE) | value(hex.charAt(i + 1)));
 		}
+		return j - destOffset;
+	}
 
-		return data;
+	/**
+	 * Metoda koja <b>length</b> znakova polja <b>hex</b> počevši od indeksa
+	 * <b>offset</b> parsira kao heksadekadski broj te oktete zapisuje u polje
+	 * <b>dest</b> počevši od indeksa <b>destOffset</b>. Vidjeti
+	 * {@link #hextobyte(CharSequence, int, int, byte[], int)}.
+	 *
+	 * @param hex
+	 *            polje heksadekadskih znamenki
+	 * @param offset
+	 *            indeks prve znamenke
+	 * @param length
+	 *            broj znamenki
+	 * @param dest
+	 *            polje u koje se zapisuju okteti
+	 * @param destOffset
+	 *            indeks prvog okteta u polju <b>dest</b>
+	 * @return broj zapisanih okteta
+	 * @throws IllegalArgumentException
+	 *             ukoliko je broj znamenki neparan ili neki znak nije
+	 *             heksadekadska znamenka
+	 * @throws IndexOutOfBoundsException
+	 *             ukoliko rezultat ne stane u polje <b>dest</b>
+	 */
+	public static int hextobyte(char[] hex, int offset, int length, byte[] dest, int destOffset) {
+		checkLength(length);
+
+		int j = destOffset;
+		for (int i = offset, end = offset + length; i < end; i += 2) {
+			dest[j++] = (byte) ((value(hex[i]) << MOVE) | value(hex[i + 1]));
+		}
+		return j - destOffset;
 	}
 
 	/**
-	 * Pomoćna metoda koja provjerava je li predani {@link String}
-	 * <b>keyText</b> dijeljiv s dva, je li duljine veće od 0 i može li se
-	 * tumačiti kao heksadekadska znamenka.
+	 * Metoda koja <b>length</b> okteta polja <b>hex</b> počevši od indeksa
+	 * <b>offset</b> tumači kao heksadekadske znamenke zapisane u ASCII
+	 * kodiranju te ih parsira u oktete koje zapisuje u polje <b>dest</b>
+	 * počevši od indeksa <b>destOffset</b>. Polja <b>hex</b> i <b>dest</b>
+	 * smiju biti isto polje ukoliko <b>destOffset</b> nije veći od
+	 * <b>offset</b>. Vidjeti
+	 * {@link #hextobyte(CharSequence, int, int, byte[], int)}.
 	 *
-	 * @param keyText
-	 *            primjerak razreda {@link String} čija se kompatibilnost
-	 *            provjerava
-	 * @return <b>true</b> ako je predani parametar kompatibilan, <b>false</b>
-	 *         inače
+	 * @param hex
+	 *            polje heksadekadskih znamenki u ASCII kodiranju
+	 * @param offset
+	 *            indeks prve znamenke
+	 * @param length
+	 *            broj znamenki
+	 * @param dest
+	 *            polje u koje se zapisuju okteti
+	 * @param destOffset
+	 *            indeks prvog okteta u polju <b>dest</b>
+	 * @return broj zapisanih okteta
 	 * @throws IllegalArgumentException
-	 *             ukoliko argument nije paran ili ga se ne može parsirati u
-	 *             heksadekadski broj
+	 *             ukoliko je broj znamenki neparan ili neki znak nije
+	 *             heksadekadska znamenka
+	 * @throws IndexOutOfBoundsException
+	 *             ukoliko rezultat ne stane u polje <b>dest</b>
 	 */
-	private static boolean checkInput(String keyText) {
-		if (keyText.length() == 0) {
-			return false;
+	public static int hextobyte(byte[] hex, int offset, int length, byte[] dest, int destOffset) {
+		checkLength(length);
+
+		int j = destOffset;
+		for (int i = offset, end = offset + length; i < end; i += 2) {
+			dest[j++] = (byte) ((value((char) (hex[i] & 0xFF)) << MOVE) | value((char) (hex[i + 1] & 0xFF)));
 		}
+		return j - destOffset;
+	}
 
-		checkIfInputHex(keyText);
-		return true;
+	/**
+	 * Metoda koja znakove niza <b>hex</b> od indeksa <b>start</b> (uključivo)
+	 * do indeksa <b>end</b> (isključivo) parsira kao heksadekadski broj te
+	 * oktete zapisuje u spremnik <b>dest</b> od njegove trenutne pozicije.
+	 * Vidjeti {@link #hextobyte(CharSequence, int, int, byte[], int)}.
+	 *
+	 * @param hex
+	 *            niz heksadekadskih znamenki
+	 * @param start
+	 *            indeks prve znamenke
+	 * @param end
+	 *            indeks iza zadnje znamenke
+	 * @param dest
+	 *            spremnik u koji se zapisuju okteti
+	 * @return broj zapisanih okteta
+	 * @throws IllegalArgumentException
+	 *             ukoliko je broj znamenki neparan ili neki znak nije
+	 *             heksadekadska znamenka
+	 * @throws java.nio.BufferOverflowException
+	 *             ukoliko rezultat ne stane u spremnik <b>dest</b>
+	 */
+	public static int hextobyte(CharSequence hex, int start, int end, ByteBuffer dest) {
+		checkLength(end - start);
+
+		for (int i = start; i < end; i += 2) {
+			dest.put((byte) ((value(hex.charAt(i)) << MOVE) | value(hex.charAt(i + 1))));
+		}
+		return (end - start) / 2;
 	}
 
 	/**
-	 * Pomoćna metoda koja provjerava je li predani argument <b>keyText</b>
-	 * paran i može li se parsirati u heksadekadski broj. Ukoliko ovo nije
-	 * zadovoljeno baca se {@link IllegalArgumentException}
+	 * Pomoćna metoda koja provjerava je li broj znamenki <b>length</b> paran.
+	 * Ukoliko ovo nije zadovoljeno baca se {@link IllegalArgumentException}
 	 *
-	 * @param keyText
-	 *            the key text
+	 * @param length
+	 *            broj znamenki
 	 * @throws IllegalArgumentException
-	 *             ukoliko argument nije paran ili ga se ne može parsirati u
-	 *             heksadekadski broj
+	 *             ukoliko je broj znamenki neparan
 	 */
-	private static void checkIfInputHex(String keyText) {
-		if (keyText.length() % 2 == 1) {
+	private static void checkLength(int length) {
+		if (length % 2 == 1) {
 			throw new IllegalArgumentException("Predani niz znakova ima neparan broj znakova!");
 		}
+	}
 
-		if (!keyText.matches("[\\p{XDigit}]+")) {
+	/**
+	 * Pomoćna metoda koja vraća vrijednost heksadekadske znamenke <b>c</b>.
+	 * Ukoliko znak nije heksadekadska znamenka baca se
+	 * {@link IllegalArgumentException}
+	 *
+	 * @param c
+	 *            znak koji se pretvara
+	 * @return vrijednost znamenke
+	 * @throws IllegalArgumentException
+	 *             ukoliko znak nije heksadekadska znamenka
+	 */
+	private static int value(char c) {
+		int value = c < VALUES.length ? VALUES[c] : -1;
+		if (value < 0) {
 			throw new IllegalArgumentException("Predani niz znakova nije hexadecimalan broj!");
 		}
+		return value;
 	}
 
 	/**
 	 * Pomoćna metoda koja predano polje okteta pretvara u primjerak razreda
 	 * {@link String} koji predstavlja heksadekadsku reprezentaciju predanog
-	 * polja okteta. Metoda se oslanja na
-	 * {@link String#format(String, Object...)} metodu
+	 * polja okteta. Znamenke se pišu malim slovima.
 	 *
 	 * @param bytearray
 	 *            polje okteta koje se pretvara u heksadekadsku reprezentaciju
@@ -112,12 +254,92 @@ public class Util {
 	 *         <b>bytearray</b>
 	 */
 	public static String bytetohex(byte[] bytearray) {
-		StringBuilder sb = new StringBuilder();
+		char[] chars = new char[bytearray.length * 2];
+		bytetohex(bytearray, 0, bytearray.length, chars, 0);
+		return new String(chars);
+	}
 
-		for (byte b : bytearray) {
-			sb.append(String.format("%02X", b));
+	/**
+	 * Metoda koja <b>length</b> okteta polja <b>src</b> počevši od indeksa
+	 * <b>offset</b> zapisuje kao heksadekadske znamenke (malim slovima) u
+	 * polje <b>dest</b> počevši od indeksa <b>destOffset</b>. Svaki oktet
+	 * zauzima dva znaka.
+	 *
+	 * @param src
+	 *            polje okteta koje se pretvara
+	 * @param offset
+	 *            indeks prvog okteta
+	 * @param length
+	 *            broj okteta
+	 * @param dest
+	 *            polje u koje se zapisuju znamenke
+	 * @param destOffset
+	 *            indeks prve znamenke u polju <b>dest</b>
+	 * @return broj zapisanih znakova
+	 * @throws IndexOutOfBoundsException
+	 *             ukoliko rezultat ne stane u polje <b>dest</b>
+	 */
+	public static int bytetohex(byte[] src, int offset, int length, char[] dest, int destOffset) {
+		int j = destOffset;
+		for (int i = offset, end = offset + length; i < end; i++) {
+			dest[j++] = DIGITS[(src[i] >> MOVE) & LOW_MASK];
+			dest[j++] = DIGITS[src[i] & LOW_MASK];
+		}
+		return j - destOffset;
+	}
+
+	/**
+	 * Metoda koja <b>length</b> okteta polja <b>src</b> počevši od indeksa
+	 * <b>offset</b> zapisuje kao heksadekadske znamenke (malim slovima) u ASCII
+	 * kodiranju u polje <b>dest</b> počevši od indeksa <b>destOffset</b>.
+	 * Svaki oktet zauzima dva okteta polja <b>dest</b>.
+	 *
+	 * @param src
+	 *            polje okteta koje se pretvara
+	 * @param offset
+	 *            indeks prvog okteta
+	 * @param length
+	 *            broj okteta
+	 * @param dest
+	 *            polje u koje se zapisuju znamenke
+	 * @param destOffset
+	 *            indeks prve znamenke u polju <b>dest</b>
+	 * @return broj zapisanih okteta
+	 * @throws IndexOutOfBoundsException
+	 *             ukoliko rezultat ne stane u polje <b>dest</b>
+	 */
+	public static int bytetohex(byte[] src, int offset, int length, byte[] dest, int destOffset) {
+		int j = destOffset;
+		for (int i = offset, end = offset + length; i < end; i++) {
+			dest[j++] = (byte) DIGITS[(src[i] >> MOVE) & LOW_MASK];
+			dest[j++] = (byte) DIGITS[src[i] & LOW_MASK];
 		}
+		return j - destOffset;
+	}
 
-		return sb.toString().toLowerCase();
+	/**
+	 * Metoda koja preostale oktete spremnika <b>src</b> zapisuje kao
+	 * heksadekadske znamenke (malim slovima) u polje <b>dest</b> počevši od
+	 * indeksa <b>destOffset</b>. Nakon poziva pozicija spremnika <b>src</b>
+	 * jednaka je njegovoj granici.
+	 *
+	 * @param src
+	 *            spremnik okteta koji se pretvaraju
+	 * @param dest
+	 *            polje u koje se zapisuju znamenke
+	 * @param destOffset
+	 *            indeks prve znamenke u polju <b>dest</b>
+	 * @return broj zapisanih znakova
+	 * @throws IndexOutOfBoundsException
+	 *             ukoliko rezultat ne stane u polje <b>dest</b>
+	 */
+	public static int bytetohex(ByteBuffer src, char[] dest, int destOffset) {
+		int j = destOffset;
+		while (src.hasRemaining()) {
+			byte b = src.get();
+			dest[j++] = DIGITS[(b >> MOVE) & LOW_MASK];
+			dest[j++] = DIGITS[b & LOW_MASK];
+		}
+		return j - destOffset;
 	}
 }
@@ -2,6 +2,9 @@ package hr.fer.zemris.java.hw06.shell;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.Collections;
 import java.util.SortedMap;
 
@@ -10,9 +13,15 @@ import java.util.SortedMap;
  * implementiraju ovo sučelje moraju ponoditi sljedeće metode:
  * <ul>
  * <li>{@link #readLine()}</li>
+ * <li>{@link #inputReader()}</li>
  * <li>{@link #write(String)}</li>
  * <li>{@link #writeln(String)}</li>
+ * <li>{@link #write(CharSequence)}</li>
+ * <li>{@link #write(char[], int, int)}</li>
+ * <li>{@link #outputStream()}</li>
+ * <li>{@link #flush()}</li>
  * <li>{@link #commands()}</li>
+ * <li>{@link #jobs()}</li>
  * <li>{@link #getMultilineSymbol()}</li>
  * <li>{@link #setMultilineSymbol(Character)}</li>
  * <li>{@link #getMorelinesSymbol()}</li>
@@ -24,6 +33,9 @@ import java.util.SortedMap;
  * NAPOMENA: Simboli MULTILINE, PROMPT i MORELINES ne bi trebali imati nikakvu
  * semantičku vrijednost
  * 
+ * Budući da se naredbe mogu izvoditi u pozadini i u cjevovodu, implementacije
+ * moraju biti sigurne za istovremeni rad više dretvi.
+ * 
  * @author Davor Češljaš
  */
 @SuppressWarnings("unused")
@@ -39,6 +51,16 @@ public interface Environment {
 	 */
 	String readLine() throws ShellIOException;
 
+	/**
+	 * Metoda koja vraća ulazni tok znakova okruženja. Za razliku od metode
+	 * {@link #readLine()} čitanjem iz ovog toka ne prazni se izlazni tok, a
+	 * redci se ne skraćuju niti prazan redak označava kraj unosa. Koriste ga
+	 * naredbe koje obrađuju ulaz (npr. iz cjevovoda) do kraja toka.
+	 *
+	 * @return ulazni tok znakova okruženja
+	 */
+	BufferedReader inputReader();
+
 	/**
 	 * Metoda koja se koristi za pisanje proizvoljnog niz znakova <b>text</b> u
 	 * izlazni tok znakova. Savjetuje se da se za pisanje koristi
@@ -66,6 +88,64 @@ public interface Environment {
 	 */
 	void writeln(String text) throws ShellIOException;
 
+	/**
+	 * Metoda koja se koristi za pisanje niza znakova <b>text</b> u izlazni tok
+	 * znakova bez stvaranja primjerka razreda {@link String}. Naredbe koje
+	 * ispisuju mnogo redaka mogu jedan primjerak razreda {@link StringBuilder}
+	 * puniti i ispisivati ovom metodom za svaki redak.
+	 *
+	 * @param text
+	 *            niz znakova koji se želi upisati u izlazni tok
+	 * @throws ShellIOException
+	 *             ukoliko se ne može pisati u izlazni tok znakova
+	 */
+	void write(CharSequence text) throws ShellIOException;
+
+	/**
+	 * Metoda koja se koristi za pisanje <b>length</b> znakova polja
+	 * <b>buffer</b> počevši od indeksa <b>offset</b> u izlazni tok znakova.
+	 *
+	 * @param buffer
+	 *            polje znakova
+	 * @param offset
+	 *            indeks prvog znaka koji se piše
+	 * @param length
+	 *            broj znakova koji se piše
+	 * @throws ShellIOException
+	 *             ukoliko se ne može pisati u izlazni tok znakova
+	 */
+	void write(char[] buffer, int offset, int length) throws ShellIOException;
+
+	/**
+	 * Metoda koja vraća izlazni tok okteta kojim se zaobilazi kodiranje
+	 * znakova. Okteti i znakovi zapisani u okruženje ispisuju se redoslijedom
+	 * kojim su zapisani. Zatvaranjem vraćenog toka ne zatvara se izlaz
+	 * okruženja.
+	 *
+	 * @return izlazni tok okteta okruženja
+	 */
+	OutputStream outputStream();
+
+	/**
+	 * Metoda koja vraća izlazni tok okteta {@link #outputStream()} kao kanal
+	 *
+	 * @return izlazni kanal okruženja
+	 */
+	default WritableByteChannel channel() {
+		return Channels.newChannel(outputStream());
+	}
+
+	/**
+	 * Metoda koja prazni izlazni tok znakova, tj. osigurava da je sve što je
+	 * zapisano metodama {@link #write(String)} i {@link #writeln(String)}
+	 * predano odredištu. Ljuska ovu metodu poziva na kraju svake naredbe, pa
+	 * implementacije ne moraju prazniti tok nakon svakog pisanja.
+	 *
+	 * @throws ShellIOException
+	 *             ukoliko se ne može pisati u izlazni tok znakova
+	 */
+	void flush() throws ShellIOException;
+
 	/**
 	 * Metoda koja dohvaća sve naredbe podržane unutar ljuske koja koristi ovo
 	 * okruženje. Sve naredbe vraćaju se mapirane po nazivu naredbe unutar
@@ -79,6 +159,14 @@ public interface Environment {
 	 */
 	SortedMap<String, ShellCommand> commands();
 
+	/**
+	 * Metoda koja vraća tablicu poslova koji se izvode u pozadini (vidjeti
+	 * {@link ShellJobs})
+	 *
+	 * @return tablica poslova okruženja
+	 */
+	ShellJobs jobs();
+
 	/**
 	 * Metoda koja dohvaća primjerak razreda {@link Character} koji unutar ovog
 	 * okruženja predstavlja znak koji se ispisuje prije svakog redka
@@ -0,0 +1,28 @@
+package hr.fer.zemris.java.hw06.shell;
+
+/**
+ * Enumeracija koja oblikuje načine pražnjenja izlaznog toka okruženja
+ * {@link MyShellEnvironment}. Mogući načini su:
+ * <ul>
+ * <li>{@link #IMMEDIATE}</li>
+ * <li>{@link #ADAPTIVE}</li>
+ * </ul>
+ *
+ * @see MyShellEnvironment
+ * @see Environment#flush()
+ *
+ * @author Davor Češljaš
+ */
+public enum FlushPolicy {
+
+	/** Predstavlja pražnjenje izlaznog toka nakon svakog pisanja */
+	IMMEDIATE,
+
+	/**
+	 * Predstavlja pražnjenje izlaznog toka kada se spremnik napuni, kada od
+	 * zadnjeg pražnjenja prođe zadano vrijeme, prije svakog čitanja te na kraju
+	 * svake naredbe. Budući da se tok prazni prije čitanja, simbol PROMPT i
+	 * pitanja naredbi korisniku su uvijek vidljivi.
+	 */
+	ADAPTIVE
+}
@@ -1,15 +1,28 @@
 package hr.fer.zemris.java.hw06.shell;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
 import hr.fer.zemris.java.hw06.shell.commands.CatShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.CharsetsShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.CopyShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.ExitShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.FgShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.GrepShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.HelpShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.HexdumpShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.JobsShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.KillShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.LsShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.MkdirShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.SymbolShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.TreeShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.WaitShellCommand;
 
 /**
  * Razred koji predstavlja program koji predstavlja implementaciju ljuske.
@@ -21,18 +34,41 @@ import hr.fer.zemris.java.hw06.shell.commands.TreeShellCommand;
  * <li>{@link CharsetsShellCommand}</li>
  * <li>{@link CopyShellCommand}</li>
  * <li>{@link ExitShellCommand}</li>
+ * <li>{@link FgShellCommand}</li>
+ * <li>{@link GrepShellCommand}</li>
  * <li>{@link HelpShellCommand}</li>
  * <li>{@link HexdumpShellCommand}</li>
+ * <li>{@link JobsShellCommand}</li>
+ * <li>{@link KillShellCommand}</li>
  * <li>{@link LsShellCommand}</li>
  * <li>{@link MkdirShellCommand}</li>
  * <li>{@link SymbolShellCommand}</li>
  * <li>{@link TreeShellCommand}</li>
+ * <li>{@link WaitShellCommand}</li>
  * </ul>
  * 
  * Savjetuje se korisniku ove ljuske upis 'help' kako bi detaljnije proučio što
  * pojedina naredba radi ili odlazak na službene dokumentacije priložene u
  * gornjim linkovima
  * 
+ * Naredbe se mogu povezati u cjevovod simbolom '|' (npr.
+ * <code>tree . | grep txt</code>), a ispis zadnje naredbe preusmjeriti u
+ * datoteku simbolom '&gt;' ili dodati na kraj datoteke simbolom '&gt;&gt;'
+ * (vidjeti {@link ShellPipeline}). Naredba koja završava simbolom '&amp;'
+ * izvodi se u pozadini, a njome se upravlja naredbama 'jobs', 'fg', 'wait' i
+ * 'kill' (vidjeti {@link ShellJobs}).
+ * 
+ * Ukoliko se programu preda argument <code>{@value #SCRIPT_OPTION}
+ * putanja</code> ili standardni ulaz nije konzola (npr.
+ * <code>MyShell &lt; skripta.txt</code>), naredbe se neinteraktivno izvode iz
+ * skripte (vidjeti {@link ShellScript}). Argumentom {@value #FAIL_FAST_OPTION}
+ * izvođenje se prekida nakon prve neuspjele naredbe, a argumentom
+ * {@value #CONTINUE_OPTION} (predefinirano) nastavlja. Na kraju se na
+ * standardni izlaz za pogreške ispisuje trajanje svake naredbe, a program
+ * završava izlaznim kodom 1 ukoliko neka naredba nije uspjela. Naredbe skripte
+ * zadane argumentom {@value #SCRIPT_OPTION} ulaz čitaju sa standardnog ulaza,
+ * a naredbe skripte sa standardnog ulaza nemaju ulaza.
+ * 
  * @see ShellCommand
  * @see MyShellEnvironment
  * 
@@ -40,37 +76,200 @@ import hr.fer.zemris.java.hw06.shell.commands.TreeShellCommand;
  */
 public class MyShell {
 
+	/** Konstanta koja predstavlja argument kojim se zadaje skripta */
+	private static final String SCRIPT_OPTION = "-f";
+
+	/**
+	 * Konstanta koja predstavlja argument kojim se izvođenje skripte prekida
+	 * nakon prve neuspjele naredbe
+	 */
+	private static final String FAIL_FAST_OPTION = "--fail-fast";
+
+	/**
+	 * Konstanta koja predstavlja argument kojim se izvođenje skripte nastavlja
+	 * nakon neuspjele naredbe
+	 */
+	private static final String CONTINUE_OPTION = "--continue";
+
+	/**
+	 * Konstanta koja predstavlja izlazni kod programa kojem su predani
+	 * neispravni argumenti ili čija se skripta ne može pročitati
+	 */
+	private static final int ERROR_EXIT_CODE = 2;
+
+	/** Konstanta koja predstavlja poruku o nepostojećoj naredbi */
+	static final String UNKNOWN_COMMAND_MESSAGE = "Ne postoji naredba '%s'. Podržane naredbe možete dobiti upisom 'help'";
+
 	/**
 	 * Metoda od koje započinje izvođenje ovog programa
 	 *
 	 * @param args
-	 *            argumenti naredbenog redka. Unutar ovog programa se ne koriste
+	 *            argumenti naredbenog redka: opcionalno
+	 *            <code>{@value #SCRIPT_OPTION} putanja</code> te
+	 *            {@value #FAIL_FAST_OPTION} ili {@value #CONTINUE_OPTION}
 	 */
 	public static void main(String[] args) {
-		Environment env = new MyShellEnvironment();
+		String script = null;
+		boolean failFast = false;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case SCRIPT_OPTION:
+				if (++i == args.length) {
+					System.out.println("Nakon argumenta '" + SCRIPT_OPTION + "' potrebno je predati putanju do skripte");
+					System.exit(ERROR_EXIT_CODE);
+				}
+				script = args[i];
+				break;
+			case FAIL_FAST_OPTION:
+				failFast = true;
+				break;
+			case CONTINUE_OPTION:
+				failFast = false;
+				break;
+			default:
+				System.out.println("Nepoznat argument '" + args[i] + "'");
+				System.exit(ERROR_EXIT_CODE);
+			}
+		}
+
+		if (script == null && System.console() != null) {
+			interactive(new MyShellEnvironment());
+			return;
+		}
+
+		int exitCode;
+		try (BufferedReader reader = script == null
+				? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), ShellScript.BUFFER_SIZE)
+				: Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)) {
+			// odgovori naredbi ne smiju se čitati iz skripte
+			BufferedReader input = script == null ? new BufferedReader(new StringReader(""))
+					: new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+			Environment env = new MyShellEnvironment(input, System.out, ShellScript.BUFFER_SIZE,
+					FlushPolicy.ADAPTIVE);
+			ShellScript shellScript = new ShellScript(env, reader, failFast);
+			exitCode = shellScript.run();
+			shellScript.printTimings(System.err);
+		} catch (IOException | ShellIOException e) {
+			System.out.println("Ne mogu pročitati skriptu '" + (script == null ? "stdin" : script) + "'");
+			exitCode = ERROR_EXIT_CODE;
+		}
 
+		if (exitCode != ShellScript.SUCCESS_EXIT_CODE) {
+			System.exit(exitCode);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja izvodi interaktivnu ljusku u okruženju <b>env</b>
+	 * sve dok neka naredba ne vrati {@link ShellStatus#TERMINATE}
+	 *
+	 * @param env
+	 *            primjerak sučelja {@link Environment} koji se koristi za
+	 *            čitanje i ispis
+	 */
+	private static void interactive(Environment env) {
 		env.writeln("Dobrodošli u ljusku MyShell v 1.0");
 		ShellStatus status = ShellStatus.CONTINUE;
 		do {
+			env.jobs().printFinished(env);
 			String line = readAndAppendAllLines(env);
 			if (line.isEmpty()) {
 				continue;
 			}
 
-			String[] splitted = extractCommandNameAndArguments(line);
+			status = execute(env, line);
+		} while (status != ShellStatus.TERMINATE);
 
-			String commandName = splitted[0];
-			ShellCommand command = env.commands().get(commandName);
-			if (command == null) {
-				env.writeln(String.format("Ne postoji naredba '%s'. Podržane naredbe možete dobiti upisom 'help'", commandName));
-				continue;
+		env.writeln("Zatvaram MyShell ljusku.\nDoviđenja!");
+		env.flush();
+	}
+
+	/**
+	 * Metoda koja izvodi jednu naredbu <b>line</b> u okruženju <b>env</b>.
+	 * Ukoliko naredba ne postoji ili tijekom izvođenja baci iznimku, korisniku
+	 * se ispisuje prigodna poruka i vraća {@link ShellStatus#FAILURE}. Na kraju
+	 * naredbe prazni se izlazni tok okruženja (vidjeti {@link Environment#flush()}).
+	 * Redak koji sadrži cjevovod ili preusmjeravanje ispisa izvodi se kao
+	 * {@link ShellPipeline}, a redak koji završava zasebnom riječi
+	 * {@value ShellJobs#BACKGROUND} pokreće se kao posao u pozadini (vidjeti
+	 * {@link ShellPipeline#background(String)}).
+	 *
+	 * @param env
+	 *            primjerak sučelja {@link Environment} u kojem se naredba
+	 *            izvodi
+	 * @param line
+	 *            naredba zajedno s argumentima, bez viška razmaka
+	 * @return status izvođenja naredbe
+	 */
+	static ShellStatus execute(Environment env, String line) {
+		String backgroundLine = ShellPipeline.background(line);
+		if (backgroundLine != null) {
+			return background(env, backgroundLine);
+		}
+
+		ShellPipeline pipeline;
+		try {
+			pipeline = ShellPipeline.parse(line);
+		} catch (IllegalArgumentException e) {
+			env.writeln(e.getMessage());
+			env.flush();
+			return ShellStatus.FAILURE;
+		}
+		if (pipeline != null) {
+			try {
+				return pipeline.execute(env);
+			} finally {
+				env.flush();
 			}
+		}
 
-			String arguments = splitted[1] == null || splitted[1].isEmpty() ? null : splitted[1];
-			status = command.executeCommand(env, arguments);
-		} while (status != ShellStatus.TERMINATE);
+		String[] splitted = extractCommandNameAndArguments(line);
 
-		env.writeln("Zatvaram MyShell ljusku.\nDoviđenja!");
+		String commandName = splitted[0];
+		ShellCommand command = env.commands().get(commandName);
+		if (command == null) {
+			env.writeln(String.format(UNKNOWN_COMMAND_MESSAGE, commandName));
+			return ShellStatus.FAILURE;
+		}
+
+		String arguments = splitted[1] == null || splitted[1].isEmpty() ? null : splitted[1];
+		try {
+			return command.executeCommand(env, arguments);
+		} catch (ShellIOException e) {
+			throw e;
+		} catch (RuntimeException e) {
+			env.writeln(String.format("Naredba '%s' nije uspjela: %s", commandName,
+					e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage()));
+			return ShellStatus.FAILURE;
+		} finally {
+			env.flush();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja naredbu <b>line</b> pokreće kao posao u pozadini
+	 * (vidjeti {@link ShellJobs}) i ispisuje broj posla
+	 *
+	 * @param env
+	 *            primjerak sučelja {@link Environment} u kojem se pokreće posao
+	 * @param line
+	 *            naredba zajedno s argumentima, bez simbola
+	 *            {@value ShellJobs#BACKGROUND}
+	 * @return {@link ShellStatus#CONTINUE} ili {@link ShellStatus#FAILURE}
+	 *         ukoliko je naredba prazna
+	 */
+	private static ShellStatus background(Environment env, String line) {
+		try {
+			if (line.isEmpty()) {
+				env.writeln("Prije simbola '" + ShellJobs.BACKGROUND + "' potrebno je predati naredbu!");
+				return ShellStatus.FAILURE;
+			}
+			ShellJobs.Job job = env.jobs().start(env, line);
+			env.writeln(String.format("[%d] %s", job.getId(), line));
+			return ShellStatus.CONTINUE;
+		} finally {
+			env.flush();
+		}
 	}
 
 	/**
@@ -123,7 +322,7 @@ public class MyShell {
 	 *         primjerak razreda {@link String} ili <code>null</code> ukoliko
 	 *         nakon imena naredbe ne postoji više znakova.
 	 */
-	private static String[] extractCommandNameAndArguments(String line) {
+	static String[] extractCommandNameAndArguments(String line) {
 		int firstBlank = line.indexOf(" ");
 		if (firstBlank == -1) {
 			return new String[] { line, null };
@@ -1,12 +1,19 @@
 package hr.fer.zemris.java.hw06.shell;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.Objects;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -14,12 +21,17 @@ import hr.fer.zemris.java.hw06.shell.commands.CatShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.CharsetsShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.CopyShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.ExitShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.FgShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.GrepShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.HelpShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.HexdumpShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.JobsShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.KillShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.LsShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.MkdirShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.SymbolShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.TreeShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.WaitShellCommand;
 
 /**
  * Razred koji implementira sučelje {@link Environment} i sve njegove metode.
@@ -28,6 +40,20 @@ import hr.fer.zemris.java.hw06.shell.commands.TreeShellCommand;
  * 
  * Čemu služe simboli propisano je unutar sučelja {@link Environment}
  * 
+ * Izlazni tok se prazni ovisno o zadanom načinu {@link FlushPolicy}.
+ * Predefinirani način je {@link FlushPolicy#ADAPTIVE}, pa naredbe koje
+ * ispisuju mnogo redaka (npr. 'tree' ili 'hexdump') ne prazne tok nakon
+ * svakog redka.
+ * 
+ * Uz pisanje znakova okruženje nudi i izravno pisanje okteta (vidjeti
+ * {@link #outputStream()}). Ukoliko je okruženje stvoreno nad tokom okteta,
+ * okteti se zapisuju izravno u taj tok, a inače se dekodiraju kao
+ * {@link StandardCharsets#UTF_8} i zapisuju u tok znakova.
+ * 
+ * Okruženje je sigurno za istovremeni rad više dretvi: metode pisanja i
+ * pražnjenja međusobno su isključive, čitanje redka zaključava samo ulazni
+ * tok, a simboli su vidljivi svim dretvama odmah nakon promjene.
+ * 
  * @see Environment
  * @see MyShell
  * 
@@ -56,6 +82,24 @@ public class MyShellEnvironment implements Environment {
 	 */
 	public static final Character DEFAULT_MORELINES_SYMBOL = '\\';
 
+	/**
+	 * Konstanta koja predstavlja najdulje vrijeme između dva pražnjenja
+	 * izlaznog toka u načinu {@link FlushPolicy#ADAPTIVE} (100 ms)
+	 */
+	public static final long FLUSH_INTERVAL_NANOS = 100_000_000L;
+
+	/** Konstanta koja predstavlja predefiniranu veličinu spremnika (8 KiB) */
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 13;
+
+	/** Konstanta koja predstavlja znak novog redka */
+	private static final char NEWLINE = '\n';
+
+	/**
+	 * Konstanta koja predstavlja veličinu pomoćnog polja za kopiranje
+	 * primjeraka sučelja {@link CharSequence}
+	 */
+	private static final int COPY_BUFFER_SIZE = 1 << 10;
+
 	/** Konstanta koja predstavlja niz znakova "PROMPT" */
 	public static final String PROMPT = "PROMPT";
 
@@ -84,6 +128,11 @@ public class MyShellEnvironment implements Environment {
 		initCommands.put(MkdirShellCommand.NAME, new MkdirShellCommand());
 		initCommands.put(CopyShellCommand.NAME, new CopyShellCommand());
 		initCommands.put(HexdumpShellCommand.NAME, new HexdumpShellCommand());
+		initCommands.put(GrepShellCommand.NAME, new GrepShellCommand());
+		initCommands.put(JobsShellCommand.NAME, new JobsShellCommand());
+		initCommands.put(FgShellCommand.NAME, new FgShellCommand());
+		initCommands.put(WaitShellCommand.NAME, new WaitShellCommand());
+		initCommands.put(KillShellCommand.NAME, new KillShellCommand());
 
 		commands = Collections.unmodifiableSortedMap(initCommands);
 	}
@@ -94,13 +143,53 @@ public class MyShellEnvironment implements Environment {
 	/** Članska varijabla koja predstavlja referencu na izlazni tok znakova */
 	private BufferedWriter writer;
 
+	/**
+	 * Članska varijabla koja predstavlja izlazni tok okteta ispod toka
+	 * {@link #writer} ili <code>null</code> ukoliko okruženje piše samo u tok
+	 * znakova
+	 */
+	private final OutputStream out;
+
+	/**
+	 * Članska varijabla koja predstavlja tok okteta koji vraća metoda
+	 * {@link #outputStream()}
+	 */
+	private final OutputStream rawStream = new EnvironmentOutputStream();
+
+	/**
+	 * Članska varijabla koja određuje sadrži li {@link #writer} znakove koji
+	 * još nisu predani toku {@link #out}
+	 */
+	private boolean charsPending;
+
+	/**
+	 * Članska varijabla koja predstavlja pomoćno polje za kopiranje primjeraka
+	 * sučelja {@link CharSequence}
+	 */
+	private final char[] copyBuffer = new char[COPY_BUFFER_SIZE];
+
+	/**
+	 * Članska varijabla koja predstavlja tablicu poslova okruženja (vidjeti
+	 * {@link #jobs()})
+	 */
+	private volatile ShellJobs jobs = new ShellJobs();
+
+	/** Članska varijabla koja predstavlja način pražnjenja izlaznog toka */
+	private final FlushPolicy flushPolicy;
+
+	/**
+	 * Članska varijabla koja predstavlja trenutak zadnjeg pražnjenja izlaznog
+	 * toka u nanosekundama
+	 */
+	private long lastFlush = System.nanoTime();
+
 	/**
 	 * Članska varijabla koja predstavlja trenutnu vrijednost koja se
 	 * poistovjećuje sa {@value #MULTILINE}
 	 * 
 	 * @see Environment
 	 */
-	private Character multilineSymbol;
+	private volatile Character multilineSymbol;
 
 	/**
 	 * Članska varijabla koja predstavlja trenutnu vrijednost koja se
@@ -108,7 +197,7 @@ public class MyShellEnvironment implements Environment {
 	 * 
 	 * @see Environment
 	 */
-	private Character promptSymbol;
+	private volatile Character promptSymbol;
 
 	/**
 	 * Članska varijabla koja predstavlja trenutnu vrijednost koja se
@@ -116,7 +205,7 @@ public class MyShellEnvironment implements Environment {
 	 * 
 	 * @see Environment
 	 */
-	private Character morelinesSymbol;
+	private volatile Character morelinesSymbol;
 
 	/**
 	 * Konstruktor koji inicijalizira primjerak ovog razreda. Konstruktor
@@ -128,45 +217,227 @@ public class MyShellEnvironment implements Environment {
 	 * Konstruktor također stvara primjerke razreda {@link BufferedReader} sa
 	 * {@link System#in} i {@link BufferedWriter} sa {@link System#out} te ih
 	 * pridjeljuje članskim varijablama. Charset koji se koristi je
-	 * {@link StandardCharsets#UTF_8}
+	 * {@link StandardCharsets#UTF_8}. Izlazni tok se prazni na način
+	 * {@link FlushPolicy#ADAPTIVE}.
 	 */
 	public MyShellEnvironment() {
-		reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
-		writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+		this(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)), System.out,
+				DEFAULT_BUFFER_SIZE, FlushPolicy.ADAPTIVE);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda koji čita iz
+	 * <b>reader</b> i piše u tok okteta <b>out</b> preko spremnika veličine
+	 * <b>bufferSize</b>. Znakovi se kodiraju kao
+	 * {@link StandardCharsets#UTF_8}, a okteti zapisani preko
+	 * {@link #outputStream()} zapisuju se izravno u <b>out</b>.
+	 *
+	 * @param reader
+	 *            ulazni tok znakova
+	 * @param out
+	 *            izlazni tok okteta
+	 * @param bufferSize
+	 *            veličina spremnika izlaznog toka
+	 * @param flushPolicy
+	 *            način pražnjenja izlaznog toka
+	 * @throws NullPointerException
+	 *             ukoliko je neki od argumenata <code>null</code>
+	 */
+	public MyShellEnvironment(BufferedReader reader, OutputStream out, int bufferSize, FlushPolicy flushPolicy) {
+		this(reader, new BufferedOutputStream(Objects.requireNonNull(out), bufferSize), bufferSize, flushPolicy);
+	}
+
+	/**
+	 * Pomoćni konstruktor koji tok znakova gradi nad već međuspremljenim tokom
+	 * okteta <b>out</b>
+	 *
+	 * @param reader
+	 *            ulazni tok znakova
+	 * @param out
+	 *            međuspremljeni izlazni tok okteta
+	 * @param bufferSize
+	 *            veličina spremnika toka znakova
+	 * @param flushPolicy
+	 *            način pražnjenja izlaznog toka
+	 */
+	private MyShellEnvironment(BufferedReader reader, BufferedOutputStream out, int bufferSize,
+			FlushPolicy flushPolicy) {
+		this(reader, new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), bufferSize), out,
+				flushPolicy);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda koji čita iz
+	 * <b>reader</b> i piše u <b>writer</b>. Simboli se postavljaju na
+	 * defaultne vrijednosti kao i u {@link #MyShellEnvironment()}. Koriste ga
+	 * okruženja naredbi cjevovoda i poslova.
+	 *
+	 * @param reader
+	 *            ulazni tok znakova
+	 * @param writer
+	 *            izlazni tok znakova
+	 * @throws NullPointerException
+	 *             ukoliko je neki od tokova <code>null</code>
+	 */
+	public MyShellEnvironment(BufferedReader reader, BufferedWriter writer) {
+		this(reader, writer, FlushPolicy.ADAPTIVE);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda koji čita iz
+	 * <b>reader</b>, piše u <b>writer</b> i izlazni tok prazni na način
+	 * <b>flushPolicy</b>. Za više informacija vidjeti
+	 * {@link #MyShellEnvironment(BufferedReader, BufferedWriter)}.
+	 *
+	 * @param reader
+	 *            ulazni tok znakova
+	 * @param writer
+	 *            izlazni tok znakova
+	 * @param flushPolicy
+	 *            način pražnjenja izlaznog toka
+	 * @throws NullPointerException
+	 *             ukoliko je neki od argumenata <code>null</code>
+	 */
+	public MyShellEnvironment(BufferedReader reader, BufferedWriter writer, FlushPolicy flushPolicy) {
+		this(reader, writer, null, flushPolicy);
+	}
+
+	/**
+	 * Pomoćni konstruktor koji postavlja sve članske varijable
+	 *
+	 * @param reader
+	 *            ulazni tok znakova
+	 * @param writer
+	 *            izlazni tok znakova
+	 * @param out
+	 *            izlazni tok okteta ispod <b>writer</b> ili <code>null</code>
+	 * @param flushPolicy
+	 *            način pražnjenja izlaznog toka
+	 */
+	private MyShellEnvironment(BufferedReader reader, BufferedWriter writer, OutputStream out,
+			FlushPolicy flushPolicy) {
+		this.reader = Objects.requireNonNull(reader);
+		this.writer = Objects.requireNonNull(writer);
+		this.out = out;
+		this.flushPolicy = Objects.requireNonNull(flushPolicy);
 
 		multilineSymbol = DEFAULT_MULTILINE_SYMBOL;
 		promptSymbol = DEFAULT_PROMPT_SYMBOL;
 		morelinesSymbol = DEFAULT_MORELINES_SYMBOL;
 	}
 
+	@Override
+	public BufferedReader inputReader() {
+		return reader;
+	}
+
 	@Override
 	public String readLine() throws ShellIOException {
+		// korisnik mora vidjeti sve ispisano prije nego što unese odgovor
+		flush();
+		String line;
 		try {
-			String line = reader.readLine();
-			if (line == null || line.trim().isEmpty()) {
-				return null;
+			synchronized (reader) {
+				line = reader.readLine();
 			}
-			return line.trim();
 		} catch (IOException e) {
 			throw new ShellIOException("Ne mogu čitati iz ulaznog toka!");
 		}
+		if (line == null || line.trim().isEmpty()) {
+			return null;
+		}
+		return line.trim();
+	}
+
+	@Override
+	public synchronized void write(String text) throws ShellIOException {
+		if (text == null) {
+			return;
+		}
+		try {
+			writer.write(text);
+		} catch (IOException e) {
+			throw new ShellIOException("Ne mogu pisati u izlazni tok!");
+		}
+		written();
 	}
 
 	@Override
-	public void write(String text) throws ShellIOException {
+	public synchronized void write(CharSequence text) throws ShellIOException {
+		if (text instanceof String || text == null) {
+			write((String) text);
+			return;
+		}
+
 		try {
-			if (text != null) {
-				writer.write(text);
-				writer.flush();
+			for (int start = 0, length = text.length(); start < length; start += copyBuffer.length) {
+				int count = Math.min(copyBuffer.length, length - start);
+				for (int i = 0; i < count; i++) {
+					copyBuffer[i] = text.charAt(start + i);
+				}
+				writer.write(copyBuffer, 0, count);
 			}
 		} catch (IOException e) {
 			throw new ShellIOException("Ne mogu pisati u izlazni tok!");
 		}
+		written();
 	}
 
 	@Override
-	public void writeln(String text) throws ShellIOException {
-		write(text + "\n");
+	public synchronized void write(char[] buffer, int offset, int length) throws ShellIOException {
+		try {
+			writer.write(buffer, offset, length);
+		} catch (IOException e) {
+			throw new ShellIOException("Ne mogu pisati u izlazni tok!");
+		}
+		written();
+	}
+
+	@Override
+	public OutputStream outputStream() {
+		return rawStream;
+	}
+
+	@Override
+	public synchronized void flush() throws ShellIOException {
+		try {
+			writer.flush();
+			charsPending = false;
+			lastFlush = System.nanoTime();
+		} catch (IOException e) {
+			throw new ShellIOException("Ne mogu pisati u izlazni tok!");
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja se poziva nakon svakog pisanja znakova i prazni
+	 * izlazni tok ovisno o načinu {@link #flushPolicy}
+	 */
+	private void written() {
+		charsPending = true;
+		flushIfDue();
+	}
+
+	/**
+	 * Pomoćna metoda koja prazni izlazni tok ukoliko je način
+	 * {@link FlushPolicy#IMMEDIATE} ili je od zadnjeg pražnjenja prošlo
+	 * {@link #FLUSH_INTERVAL_NANOS} nanosekundi
+	 */
+	private void flushIfDue() {
+		if (flushPolicy == FlushPolicy.IMMEDIATE || System.nanoTime() - lastFlush >= FLUSH_INTERVAL_NANOS) {
+			flush();
+		}
+	}
+
+	@Override
+	public synchronized void writeln(String text) throws ShellIOException {
+		try {
+			writer.write(String.valueOf(text));
+			writer.write(NEWLINE);
+		} catch (IOException e) {
+			throw new ShellIOException("Ne mogu pisati u izlazni tok!");
+		}
+		written();
 	}
 
 	@Override
@@ -174,6 +445,37 @@ public class MyShellEnvironment implements Environment {
 		return commands;
 	}
 
+	@Override
+	public ShellJobs jobs() {
+		return jobs;
+	}
+
+	/**
+	 * Metoda koja postavlja tablicu poslova okruženja. Koristi se kako bi
+	 * okruženja naredbi cjevovoda dijelila tablicu poslova s ljuskom.
+	 *
+	 * @param jobs
+	 *            tablica poslova
+	 * @throws NullPointerException
+	 *             ukoliko je <b>jobs</b> <code>null</code>
+	 */
+	void setJobs(ShellJobs jobs) {
+		this.jobs = Objects.requireNonNull(jobs);
+	}
+
+	/**
+	 * Metoda koja postavlja simbole ovog okruženja na simbole okruženja
+	 * <b>env</b>. Koristi se za okruženja naredbi cjevovoda i poslova.
+	 *
+	 * @param env
+	 *            okruženje čiji se simboli preuzimaju
+	 */
+	void copySymbols(Environment env) {
+		setPromptSymbol(env.getPromptSymbol());
+		setMultilineSymbol(env.getMultilineSymbol());
+		setMorelinesSymbol(env.getMorelinesSymbol());
+	}
+
 	@Override
 	public Character getMultilineSymbol() {
 		return multilineSymbol;
@@ -209,4 +511,97 @@ public class MyShellEnvironment implements Environment {
 			morelinesSymbol = symbol;
 		}
 	}
+
+	/**
+	 * Razred koji predstavlja tok okteta koji vraća metoda
+	 * {@link MyShellEnvironment#outputStream()}. Ukoliko okruženje ima izlazni
+	 * tok okteta, prije pisanja okteta u njega se predaju svi znakovi koji su
+	 * zapisani ranije, kako bi se očuvao redoslijed ispisa. Inače se okteti
+	 * dekodiraju i zapisuju u tok znakova.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class EnvironmentOutputStream extends OutputStream {
+
+		/**
+		 * Članska varijabla koja predstavlja dekoder okteta ukoliko okruženje
+		 * nema izlazni tok okteta
+		 */
+		private CharsetDecoder decoder;
+
+		/** Članska varijabla koja predstavlja okteta koji čekaju dekodiranje */
+		private ByteBuffer bytes;
+
+		/** Članska varijabla koja predstavlja dekodirane znakove */
+		private CharBuffer chars;
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			synchronized (MyShellEnvironment.this) {
+				if (out != null) {
+					if (charsPending) {
+						writer.flush();
+						charsPending = false;
+					}
+					out.write(b, off, len);
+				} else {
+					decode(b, off, len);
+					charsPending = true;
+				}
+				flushIfDue();
+			}
+		}
+
+		@Override
+		public void flush() {
+			MyShellEnvironment.this.flush();
+		}
+
+		@Override
+		public void close() {
+			// tok okruženja zatvara se zajedno s okruženjem
+			flush();
+		}
+
+		/**
+		 * Pomoćna metoda koja dekodira oktete i zapisuje ih u tok znakova.
+		 * Nepotpuni znakovi na kraju polja čekaju sljedeće pisanje.
+		 *
+		 * @param b
+		 *            polje okteta
+		 * @param off
+		 *            početni indeks u polju
+		 * @param len
+		 *            broj okteta
+		 * @throws IOException
+		 *             ukoliko se ne može pisati u tok znakova
+		 */
+		private void decode(byte[] b, int off, int len) throws IOException {
+			if (decoder == null) {
+				decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+						.onUnmappableCharacter(CodingErrorAction.REPLACE);
+				bytes = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+				// UTF-8 nikada ne daje više znakova nego okteta
+				chars = CharBuffer.allocate(DEFAULT_BUFFER_SIZE);
+			}
+
+			while (len > 0) {
+				int count = Math.min(len, bytes.remaining());
+				bytes.put(b, off, count);
+				off += count;
+				len -= count;
+
+				bytes.flip();
+				decoder.decode(bytes, chars, false);
+				bytes.compact();
+				writer.write(chars.array(), 0, chars.position());
+				chars.clear();
+			}
+		}
+	}
 }
@@ -0,0 +1,468 @@
+package hr.fer.zemris.java.hw06.shell;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Razred koji predstavlja tablicu poslova ljuske {@link MyShell}. Redak koji
+ * završava zasebnom riječi {@value #BACKGROUND} izvan navodnika izvodi se kao
+ * posao u pozadini, pa ljuska odmah nastavlja s radom i više naredbi koje
+ * čekaju ulaz/izlaz može se izvoditi istovremeno.
+ * <p>
+ * Poslovi se izvode na zajedničkom izvršitelju koji koristi virtualne dretve
+ * ukoliko ih Javina platforma podržava, a inače pozadinske dretve iz skupa
+ * dretvi. Svaki posao ima vlastito okruženje {@link MyShellEnvironment} bez
+ * ulaza, a ispis posla čuva se u memoriji, pa se ispisi poslova međusobno ne
+ * isprepliću niti miješaju s ispisom ljuske. Ispis posla ispisuje se kada se
+ * na posao pričeka (vidjeti {@link #foreground(Environment, Job)}). U memoriji
+ * se čuva najviše {@value #MAX_OUTPUT} znakova ispisa posla, a ostatak se
+ * odbacuje i umjesto njega ispisuje se broj izostavljenih znakova.
+ * <p>
+ * Okruženje posla dijeli tablicu poslova s ljuskom, pa posao može pokretati
+ * nove poslove i upravljati njima. Kako se poslovi ne bi međusobno čekali
+ * unedogled, posao smije čekati samo poslove pokrenute nakon njega, dok se
+ * čekanje na sebe ili na ranije pokrenute poslove odbija.
+ * <p>
+ * Posao se prekida metodom {@link #kill(Job)} koja prekida dretvu posla.
+ * Naredbe koje čitaju ili pišu datoteke tada dobivaju iznimku, a ispis posla
+ * nakon prekida baca iznimku, pa posao završava i kada naredba ne provjerava
+ * prekid. Svi javni postupci ovog razreda sigurni su za istovremeni rad više
+ * dretvi.
+ *
+ * @see MyShell
+ * @see Environment#jobs()
+ *
+ * @author Davor Češljaš
+ */
+public class ShellJobs {
+
+	/** Konstanta koja predstavlja simbol izvođenja naredbe u pozadini */
+	public static final String BACKGROUND = "&";
+
+	/** Konstanta koja predstavlja ime dretvi poslova */
+	private static final String THREAD_NAME = "MyShell-posao";
+
+	/** Konstanta koja predstavlja najveći broj znakova ispisa posla u memoriji */
+	public static final int MAX_OUTPUT = 1 << 20;
+
+	/** Konstanta koja predstavlja izvršitelj svih poslova */
+	private static final ExecutorService EXECUTOR = newExecutor();
+
+	/**
+	 * Konstanta koja predstavlja posao koji izvodi trenutna dretva ili
+	 * <code>null</code> ukoliko dretva ne izvodi posao. Dretve naredbi
+	 * cjevovoda nasljeđuju posao dretve koja ih je pokrenula.
+	 */
+	private static final ThreadLocal<Job> CURRENT = new InheritableThreadLocal<>();
+
+	/** Članska varijabla koja predstavlja poslove mapirane po broju posla */
+	private final SortedMap<Integer, Job> jobs = new TreeMap<>();
+
+	/** Članska varijabla koja predstavlja broj sljedećeg posla */
+	private int nextId = 1;
+
+	/**
+	 * Metoda koja pokreće naredbu <b>line</b> kao posao u pozadini. Okruženje
+	 * posla preuzima simbole okruženja <b>env</b> i dijeli ovu tablicu
+	 * poslova.
+	 *
+	 * @param env
+	 *            okruženje ljuske
+	 * @param line
+	 *            naredba zajedno s argumentima (može biti i cjevovod)
+	 * @return pokrenuti posao
+	 */
+	public Job start(Environment env, String line) {
+		Job job;
+		synchronized (jobs) {
+			if (jobs.isEmpty()) {
+				nextId = 1;
+			}
+			job = new Job(nextId++, line);
+			jobs.put(job.id, job);
+		}
+
+		MyShellEnvironment jobEnv = new MyShellEnvironment(new BufferedReader(new StringReader("")),
+				new BufferedWriter(job.output), FlushPolicy.ADAPTIVE);
+		jobEnv.copySymbols(env);
+		jobEnv.setJobs(this);
+		EXECUTOR.execute(() -> job.run(jobEnv));
+		return job;
+	}
+
+	/**
+	 * Metoda koja vraća sve poslove poredane po broju posla
+	 *
+	 * @return poslovi
+	 */
+	public List<Job> list() {
+		synchronized (jobs) {
+			return new ArrayList<>(jobs.values());
+		}
+	}
+
+	/**
+	 * Metoda koja vraća posao s brojem <b>id</b>
+	 *
+	 * @param id
+	 *            broj posla
+	 * @return posao ili <code>null</code> ukoliko takav posao ne postoji
+	 */
+	public Job get(int id) {
+		synchronized (jobs) {
+			return jobs.get(id);
+		}
+	}
+
+	/**
+	 * Metoda koja vraća zadnje pokrenuti posao
+	 *
+	 * @return posao ili <code>null</code> ukoliko nema poslova
+	 */
+	public Job last() {
+		synchronized (jobs) {
+			return jobs.isEmpty() ? null : jobs.get(jobs.lastKey());
+		}
+	}
+
+	/**
+	 * Metoda koja prekida posao <b>job</b>. Metoda ne čeka završetak posla.
+	 *
+	 * @param job
+	 *            posao koji se prekida
+	 */
+	public void kill(Job job) {
+		job.kill();
+	}
+
+	/**
+	 * Metoda koja čeka završetak posla <b>job</b>, uklanja ga iz tablice te u
+	 * okruženje <b>env</b> ispisuje stanje i cjelokupni ispis posla
+	 *
+	 * @param env
+	 *            okruženje u koje se ispisuje posao
+	 * @param job
+	 *            posao na koji se čeka
+	 * @return status posla, pri čemu se {@link ShellStatus#TERMINATE} ne
+	 *         prenosi ljusci već postaje {@link ShellStatus#CONTINUE}, odnosno
+	 *         {@link ShellStatus#FAILURE} ukoliko posao ne smije čekati posao
+	 *         <b>job</b> (vidjeti {@link #canWait(Job)})
+	 * @throws ShellIOException
+	 *             ukoliko je čekanje prekinuto
+	 */
+	public ShellStatus foreground(Environment env, Job job) {
+		if (!canWait(job)) {
+			env.writeln(String.format("Posao [%d] ne može čekati posao [%d]!", CURRENT.get().id, job.id));
+			return ShellStatus.FAILURE;
+		}
+
+		// ispis ljuske mora biti vidljiv dok se čeka
+		env.flush();
+		job.await();
+		boolean removed;
+		synchronized (jobs) {
+			removed = jobs.remove(job.id, job);
+		}
+
+		// posao koji je istovremeno ispisala druga dretva ne ispisuje se ponovno
+		if (removed) {
+			env.writeln(String.format("[%d] %s: %s", job.id, job.getState(), job.line));
+			env.write(job.output.contents());
+		}
+		return job.status == ShellStatus.TERMINATE ? ShellStatus.CONTINUE : job.status;
+	}
+
+	/**
+	 * Metoda koja čeka sve poslove redom po broju posla i ispisuje ih metodom
+	 * {@link #foreground(Environment, Job)}. Unutar posla čekaju se samo
+	 * poslovi pokrenuti nakon njega.
+	 *
+	 * @param env
+	 *            okruženje u koje se ispisuju poslovi
+	 * @return <b>true</b> ukoliko su svi poslovi uspjeli, <b>false</b> inače
+	 */
+	public boolean waitAll(Environment env) {
+		boolean success = true;
+		for (Job job : list()) {
+			if (canWait(job)) {
+				success &= foreground(env, job) != ShellStatus.FAILURE;
+			}
+		}
+		return success;
+	}
+
+	/**
+	 * Metoda koja ispisuje sve završene poslove metodom
+	 * {@link #foreground(Environment, Job)}. Ljuska je poziva prije svakog
+	 * simbola PROMPT.
+	 *
+	 * @param env
+	 *            okruženje u koje se ispisuju poslovi
+	 */
+	public void printFinished(Environment env) {
+		for (Job job : list()) {
+			if (job.isDone()) {
+				foreground(env, job);
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja određuje smije li trenutna dretva čekati posao
+	 * <b>job</b>. Posao smije čekati samo poslove s većim brojem posla, pa
+	 * poslovi ne mogu čekati sami sebe niti jedan drugoga.
+	 *
+	 * @param job
+	 *            posao na koji se čeka
+	 * @return <b>true</b> ukoliko trenutna dretva smije čekati posao,
+	 *         <b>false</b> inače
+	 */
+	private static boolean canWait(Job job) {
+		Job current = CURRENT.get();
+		return current == null || job.id > current.id;
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara izvršitelj poslova. Virtualne dretve
+	 * dohvaćaju se refleksijom kako bi se program mogao prevesti i izvoditi i
+	 * na platformama koje ih ne podržavaju.
+	 *
+	 * @return izvršitelj poslova
+	 */
+	private static ExecutorService newExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool(task -> {
+				Thread thread = new Thread(task, THREAD_NAME);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * Razred koji predstavlja jedan posao ljuske.
+	 *
+	 * @author Davor Češljaš
+	 */
+	public static class Job {
+
+		/** Članska varijabla koja predstavlja broj posla */
+		private final int id;
+
+		/** Članska varijabla koja predstavlja naredbu posla */
+		private final String line;
+
+		/** Članska varijabla koja predstavlja ispis posla */
+		private final JobOutput output = new JobOutput(MAX_OUTPUT);
+
+		/** Članska varijabla koja označava završetak posla */
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		/** Članska varijabla koja predstavlja status naredbe posla */
+		private volatile ShellStatus status;
+
+		/** Članska varijabla koja određuje je li posao prekinut */
+		private boolean killed;
+
+		/**
+		 * Članska varijabla koja predstavlja dretvu koja izvodi posao ili
+		 * <code>null</code> ukoliko se posao ne izvodi
+		 */
+		private Thread thread;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param id
+		 *            broj posla
+		 * @param line
+		 *            naredba posla
+		 */
+		private Job(int id, String line) {
+			this.id = id;
+			this.line = line;
+		}
+
+		/**
+		 * Metoda koja vraća broj posla
+		 *
+		 * @return broj posla
+		 */
+		public int getId() {
+			return id;
+		}
+
+		/**
+		 * Metoda koja vraća naredbu posla
+		 *
+		 * @return naredba posla
+		 */
+		public String getCommand() {
+			return line;
+		}
+
+		/**
+		 * Metoda koja određuje je li posao završio
+		 *
+		 * @return <b>true</b> ukoliko je posao završio, <b>false</b> inače
+		 */
+		public boolean isDone() {
+			return done.getCount() == 0;
+		}
+
+		/**
+		 * Metoda koja vraća opis stanja posla
+		 *
+		 * @return opis stanja posla
+		 */
+		public synchronized String getState() {
+			if (!isDone()) {
+				return killed ? "Prekida se" : "Izvodi se";
+			}
+			if (killed) {
+				return "Prekinuto";
+			}
+			return status == ShellStatus.FAILURE ? "Neuspjelo" : "Završeno";
+		}
+
+		/**
+		 * Pomoćna metoda koju izvodi dretva posla
+		 *
+		 * @param env
+		 *            okruženje posla
+		 */
+		private void run(Environment env) {
+			try {
+				synchronized (this) {
+					if (killed) {
+						status = ShellStatus.FAILURE;
+						return;
+					}
+					thread = Thread.currentThread();
+				}
+				CURRENT.set(this);
+
+				try {
+					status = MyShell.execute(env, line);
+				} catch (ShellIOException e) {
+					status = ShellStatus.FAILURE;
+				}
+			} finally {
+				CURRENT.remove();
+				synchronized (this) {
+					thread = null;
+					// dretva iz skupa ne smije zadržati prekid ovog posla
+					Thread.interrupted();
+				}
+				done.countDown();
+			}
+		}
+
+		/**
+		 * Pomoćna metoda koja prekida posao
+		 */
+		private synchronized void kill() {
+			if (isDone()) {
+				return;
+			}
+			killed = true;
+			if (thread != null) {
+				thread.interrupt();
+			}
+		}
+
+		/**
+		 * Pomoćna metoda koja čeka završetak posla
+		 *
+		 * @throws ShellIOException
+		 *             ukoliko je čekanje prekinuto
+		 */
+		private void await() {
+			try {
+				done.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ShellIOException("Čekanje na posao je prekinuto!", e);
+			}
+		}
+	}
+
+	/**
+	 * Razred koji predstavlja tok znakova koji čuva ispis posla u memoriji.
+	 * Čuva se najviše {@link #limit} znakova, a za ostatak se samo broje
+	 * izostavljeni znakovi. Pisanje nakon prekida dretve posla baca iznimku.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class JobOutput extends Writer {
+
+		/** Članska varijabla koja predstavlja ispis posla */
+		private final StringBuilder contents = new StringBuilder();
+
+		/** Članska varijabla koja predstavlja najveći broj sačuvanih znakova */
+		private final int limit;
+
+		/** Članska varijabla koja predstavlja broj izostavljenih znakova */
+		private long dropped;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param limit
+		 *            najveći broj sačuvanih znakova ispisa
+		 */
+		private JobOutput(int limit) {
+			this.limit = limit;
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws InterruptedIOException {
+			if (Thread.currentThread().isInterrupted()) {
+				throw new InterruptedIOException("Posao je prekinut!");
+			}
+			synchronized (contents) {
+				int kept = Math.min(len, limit - contents.length());
+				contents.append(cbuf, off, kept);
+				dropped += len - kept;
+			}
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+
+		/**
+		 * Metoda koja vraća dosadašnji ispis posla
+		 *
+		 * @return ispis posla
+		 */
+		private String contents() {
+			synchronized (contents) {
+				if (dropped == 0) {
+					return contents.toString();
+				}
+				String separator = contents.length() == 0 || contents.charAt(contents.length() - 1) == '\n' ? ""
+						: "\n";
+				return contents + separator + String.format("... (izostavljeno je %d znakova ispisa)\n", dropped);
+			}
+		}
+	}
+}
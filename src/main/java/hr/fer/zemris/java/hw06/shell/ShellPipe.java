@@ -0,0 +1,209 @@
+package hr.fer.zemris.java.hw06.shell;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * Razred koji povezuje dvije naredbe cjevovoda ograničenim kružnim
+ * spremnikom znakova. Naredba koja piše koristi tok {@link #writer()}, a
+ * naredba koja čita tok {@link #reader()}. Kada je spremnik pun, pisanje čeka
+ * da čitatelj pročita znakove, pa je zauzeće memorije ograničeno na
+ * kapacitet spremnika neovisno o količini ispisa.
+ * <p>
+ * Zatvaranjem toka za pisanje čitatelj nakon preostalih znakova dobiva kraj
+ * toka. Zatvaranjem toka za čitanje (npr. kada naredba završi bez čitanja
+ * cijelog ulaza) svako daljnje pisanje baca iznimku, pa nijedna naredba ne
+ * ostaje trajno blokirana.
+ *
+ * @see ShellPipeline
+ *
+ * @author Davor Češljaš
+ */
+final class ShellPipe {
+
+	/** Konstanta koja predstavlja predefinirani kapacitet spremnika (64 Ki znakova) */
+	static final int DEFAULT_CAPACITY = 1 << 16;
+
+	/** Članska varijabla koja predstavlja kružni spremnik znakova */
+	private final char[] buffer;
+
+	/** Članska varijabla koja predstavlja indeks prvog nepročitanog znaka */
+	private int head;
+
+	/** Članska varijabla koja predstavlja broj nepročitanih znakova */
+	private int count;
+
+	/** Članska varijabla koja određuje je li tok za pisanje zatvoren */
+	private boolean writerClosed;
+
+	/** Članska varijabla koja određuje je li tok za čitanje zatvoren */
+	private boolean readerClosed;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param capacity
+	 *            kapacitet spremnika u znakovima
+	 * @throws IllegalArgumentException
+	 *             ukoliko kapacitet nije pozitivan
+	 */
+	ShellPipe(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Kapacitet cjevovoda mora biti pozitivan!");
+		}
+		buffer = new char[capacity];
+	}
+
+	/**
+	 * Metoda koja vraća tok znakova kojim se piše u cjevovod. Zatvaranjem toka
+	 * čitatelju se označava kraj podataka.
+	 *
+	 * @return tok za pisanje
+	 */
+	Writer writer() {
+		return new Writer() {
+
+			@Override
+			public void write(char[] cbuf, int off, int len) throws IOException {
+				ShellPipe.this.write(cbuf, off, len);
+			}
+
+			@Override
+			public void flush() {
+				// znakovi su čitatelju vidljivi odmah nakon pisanja
+			}
+
+			@Override
+			public void close() {
+				closeWriter();
+			}
+		};
+	}
+
+	/**
+	 * Metoda koja vraća tok znakova kojim se čita iz cjevovoda. Zatvaranjem
+	 * toka piscu se označava da se znakovi više neće čitati.
+	 *
+	 * @return tok za čitanje
+	 */
+	Reader reader() {
+		return new Reader() {
+
+			@Override
+			public int read(char[] cbuf, int off, int len) throws IOException {
+				return ShellPipe.this.read(cbuf, off, len);
+			}
+
+			@Override
+			public void close() {
+				closeReader();
+			}
+		};
+	}
+
+	/**
+	 * Metoda koja označava kraj podataka i budi čitatelja
+	 */
+	synchronized void closeWriter() {
+		writerClosed = true;
+		notifyAll();
+	}
+
+	/**
+	 * Metoda koja označava da se znakovi više neće čitati, odbacuje
+	 * nepročitane znakove i budi pisca
+	 */
+	synchronized void closeReader() {
+		readerClosed = true;
+		count = 0;
+		notifyAll();
+	}
+
+	/**
+	 * Pomoćna metoda koja upisuje <b>len</b> znakova polja <b>cbuf</b> od
+	 * indeksa <b>off</b>, čekajući kada je spremnik pun
+	 *
+	 * @param cbuf
+	 *            polje znakova
+	 * @param off
+	 *            indeks prvog znaka
+	 * @param len
+	 *            broj znakova
+	 * @throws IOException
+	 *             ukoliko je neki od tokova zatvoren ili je čekanje prekinuto
+	 */
+	private synchronized void write(char[] cbuf, int off, int len) throws IOException {
+		while (len > 0) {
+			while (count == buffer.length && !readerClosed) {
+				await();
+			}
+			if (readerClosed) {
+				throw new IOException("Cjevovod je zatvoren s druge strane!");
+			}
+			if (writerClosed) {
+				throw new IOException("Cjevovod je zatvoren!");
+			}
+
+			int tail = (head + count) % buffer.length;
+			int chunk = Math.min(len, Math.min(buffer.length - count, buffer.length - tail));
+			System.arraycopy(cbuf, off, buffer, tail, chunk);
+			count += chunk;
+			off += chunk;
+			len -= chunk;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja čita najviše <b>len</b> znakova u polje <b>cbuf</b>
+	 * od indeksa <b>off</b>, čekajući dok spremnik ne sadrži barem jedan znak
+	 *
+	 * @param cbuf
+	 *            polje znakova
+	 * @param off
+	 *            indeks prvog znaka
+	 * @param len
+	 *            najveći broj znakova
+	 * @return broj pročitanih znakova ili -1 ukoliko je tok završio
+	 * @throws IOException
+	 *             ukoliko je tok za čitanje zatvoren ili je čekanje prekinuto
+	 */
+	private synchronized int read(char[] cbuf, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		while (count == 0 && !writerClosed && !readerClosed) {
+			await();
+		}
+		if (readerClosed) {
+			throw new IOException("Cjevovod je zatvoren!");
+		}
+		if (count == 0) {
+			return -1;
+		}
+
+		int chunk = Math.min(len, Math.min(count, buffer.length - head));
+		System.arraycopy(buffer, head, cbuf, off, chunk);
+		head = (head + chunk) % buffer.length;
+		count -= chunk;
+		notifyAll();
+		return chunk;
+	}
+
+	/**
+	 * Pomoćna metoda koja čeka promjenu stanja cjevovoda
+	 *
+	 * @throws InterruptedIOException
+	 *             ukoliko je čekanje prekinuto
+	 */
+	private void await() throws InterruptedIOException {
+		try {
+			wait();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Čekanje na cjevovod je prekinuto!");
+		}
+	}
+}
@@ -0,0 +1,603 @@
+package hr.fer.zemris.java.hw06.shell;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import hr.fer.zemris.java.hw06.shell.commands.SymbolShellCommand;
+import hr.fer.zemris.java.hw06.shell.util.ArgumentLexer;
+import hr.fer.zemris.java.hw06.shell.util.ArgumentLexerException;
+import hr.fer.zemris.java.hw06.shell.util.ArgumentParser;
+
+/**
+ * Razred koji predstavlja redak ljuske {@link MyShell} koji sadrži cjevovod
+ * naredbi odvojenih simbolom {@value #PIPE} i/ili preusmjeravanje ispisa
+ * zadnje naredbe u datoteku simbolima {@value #REDIRECT} (prebrisivanje) i
+ * {@value #APPEND} (dodavanje na kraj). Redak se dijeli na riječi po istim
+ * pravilima kao i argumenti naredbi (vidjeti {@link ArgumentParser}), a simboli
+ * su operatori samo kada čine zasebnu riječ izvan navodnika. Vrijednost
+ * simbola na kraju redka u naredbi {@value SymbolShellCommand#NAME} (npr.
+ * <code>symbol MULTILINE |</code>) nije operator.
+ * <p>
+ * Svaka naredba cjevovoda izvodi se u vlastitom okruženju
+ * {@link MyShellEnvironment} čiji je izlazni tok povezan s ulaznim tokom
+ * sljedeće naredbe ograničenim spremnikom {@link ShellPipe}. Sve naredbe osim
+ * zadnje izvode se istovremeno u zasebnim dretvama, a zadnja u dretvi
+ * pozivatelja, pa se ispis prenosi kroz cjevovod tijekom izvođenja umjesto da
+ * se čuva u memoriji. Prva naredba čita iz ulaza okruženja ljuske, a zadnja
+ * piše u izlaz okruženja ljuske ili, ukoliko je zadano preusmjeravanje,
+ * izravno u tok okteta datoteke kodiran kao UTF-8, bez prolaska kroz izlaz
+ * ljuske.
+ * <p>
+ * Kao i u ostalim ljuskama, promjene simbola unutar cjevovoda ne utječu na
+ * ljusku, naredba {@link ShellStatus#TERMINATE} unutar cjevovoda od više
+ * naredbi ne zatvara ljusku, a status cjevovoda je status zadnje naredbe.
+ *
+ * @see ShellPipe
+ * @see MyShell
+ *
+ * @author Davor Češljaš
+ */
+final class ShellPipeline {
+
+	/** Konstanta koja predstavlja simbol cjevovoda */
+	static final char PIPE = '|';
+
+	/** Konstanta koja predstavlja simbol preusmjeravanja ispisa u datoteku */
+	static final String REDIRECT = ">";
+
+	/**
+	 * Konstanta koja predstavlja simbol preusmjeravanja ispisa na kraj
+	 * datoteke
+	 */
+	static final String APPEND = ">>";
+
+	/** Konstanta koja predstavlja navodnike */
+	private static final char QUOTE = '"';
+
+	/** Konstanta koja predstavlja znak za izbjegavanje unutar navodnika */
+	private static final char ESCAPE = '\\';
+
+	/**
+	 * Konstanta koja predstavlja poziciju vrijednosti simbola unutar naredbe
+	 * {@value SymbolShellCommand#NAME}
+	 */
+	private static final int SYMBOL_VALUE_POSITION = 2;
+
+	/**
+	 * Konstanta koja predstavlja veličinu spremnika tokova znakova svake
+	 * naredbe
+	 */
+	private static final int BUFFER_SIZE = 1 << 13;
+
+	/** Konstanta koja predstavlja prefiks imena dretvi naredbi */
+	private static final String THREAD_NAME = "MyShell-cjevovod-";
+
+	/** Članska varijabla koja predstavlja naredbe cjevovoda redom izvođenja */
+	private final List<String> commands;
+
+	/**
+	 * Članska varijabla koja predstavlja datoteku u koju se preusmjerava ispis
+	 * ili <code>null</code> ukoliko se ispis ne preusmjerava
+	 */
+	private final String target;
+
+	/**
+	 * Članska varijabla koja određuje dodaje li se preusmjereni ispis na kraj
+	 * datoteke
+	 */
+	private final boolean append;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param commands
+	 *            naredbe cjevovoda
+	 * @param target
+	 *            datoteka u koju se preusmjerava ispis ili <code>null</code>
+	 * @param append
+	 *            <b>true</b> ukoliko se ispis dodaje na kraj datoteke
+	 */
+	private ShellPipeline(List<String> commands, String target, boolean append) {
+		this.commands = Collections.unmodifiableList(commands);
+		this.target = target;
+		this.append = append;
+	}
+
+	/**
+	 * Metoda koja rastavlja redak <b>line</b> na naredbe cjevovoda i
+	 * odredište preusmjeravanja.
+	 *
+	 * @param line
+	 *            redak ljuske
+	 * @return cjevovod ili <code>null</code> ukoliko redak ne sadrži ni
+	 *         cjevovod ni preusmjeravanje
+	 * @throws IllegalArgumentException
+	 *             ukoliko je neka naredba cjevovoda prazna ili odredište
+	 *             preusmjeravanja nije točno jedna datoteka na kraju redka
+	 */
+	static ShellPipeline parse(String line) {
+		List<Token> tokens = tokenize(line);
+		List<String> commands = new ArrayList<>();
+		int start = 0;
+		boolean operator = false;
+		for (Token token : tokens) {
+			if (!token.operator) {
+				continue;
+			}
+			addCommand(commands, line.substring(start, token.start));
+			if (token.is(String.valueOf(PIPE))) {
+				operator = true;
+				start = token.end;
+				continue;
+			}
+			String target = extractTarget(line.substring(token.end));
+			return new ShellPipeline(commands, target, token.is(APPEND));
+		}
+
+		if (!operator) {
+			return null;
+		}
+		addCommand(commands, line.substring(start));
+		return new ShellPipeline(commands, null, false);
+	}
+
+	/**
+	 * Metoda koja određuje izvodi li se redak <b>line</b> u pozadini, odnosno
+	 * završava li zasebnom riječi {@value ShellJobs#BACKGROUND} izvan
+	 * navodnika koja nije vrijednost simbola u naredbi
+	 * {@value SymbolShellCommand#NAME}.
+	 *
+	 * @param line
+	 *            redak ljuske
+	 * @return redak bez simbola {@value ShellJobs#BACKGROUND} ili
+	 *         <code>null</code> ukoliko se redak ne izvodi u pozadini
+	 */
+	static String background(String line) {
+		List<Token> tokens = tokenize(line);
+		if (tokens.isEmpty()) {
+			return null;
+		}
+		Token last = tokens.get(tokens.size() - 1);
+		if (!last.is(ShellJobs.BACKGROUND) || last.symbolValue) {
+			return null;
+		}
+		return line.substring(0, last.start).trim();
+	}
+
+	/**
+	 * Pomoćna metoda koja dijeli redak <b>line</b> na riječi po pravilima
+	 * razreda {@link ArgumentParser} i označava riječi koje su operatori.
+	 * Zadnja riječ redka koja je vrijednost simbola u naredbi
+	 * {@value SymbolShellCommand#NAME} nije operator.
+	 * Nezatvoreni navodnici ne smatraju se pogreškom, već se ostatak redka
+	 * tumači kao jedna riječ, pa pogrešku prijavljuje sama naredba.
+	 *
+	 * @param line
+	 *            redak ljuske
+	 * @return riječi redka redom kojim se pojavljuju
+	 */
+	private static List<Token> tokenize(String line) {
+		List<Token> tokens = new ArrayList<>();
+		int position = 0;
+		boolean symbol = false;
+		int length = line.length();
+		for (int i = skipWhitespaces(line, 0); i < length; i = skipWhitespaces(line, i)) {
+			int start = i;
+			boolean quoted = line.charAt(i) == QUOTE;
+			if (quoted) {
+				for (i++; i < length && line.charAt(i) != QUOTE; i++) {
+					if (line.charAt(i) == ESCAPE) {
+						i++;
+					}
+				}
+				i = Math.min(i + 1, length);
+			} else {
+				while (i < length && !isWhitespace(line.charAt(i))) {
+					i++;
+				}
+			}
+
+			Token token = new Token(line.substring(start, i), start, i, quoted);
+			token.operator = token.is(String.valueOf(PIPE)) || token.is(REDIRECT) || token.is(APPEND);
+			token.symbolValue = symbol && position == SYMBOL_VALUE_POSITION;
+			if (token.operator && token.is(String.valueOf(PIPE))) {
+				position = 0;
+			} else {
+				symbol = position == 0 ? token.is(SymbolShellCommand.NAME) : symbol;
+				position++;
+			}
+			tokens.add(token);
+		}
+
+		// npr. "symbol MULTILINE |" postavlja simbol, a ne pokreće cjevovod
+		if (!tokens.isEmpty() && tokens.get(tokens.size() - 1).symbolValue) {
+			tokens.get(tokens.size() - 1).operator = false;
+		}
+		return tokens;
+	}
+
+	/**
+	 * Pomoćna metoda koja vraća indeks prvog znaka redka <b>line</b> od
+	 * indeksa <b>index</b> koji nije praznina
+	 *
+	 * @param line
+	 *            redak ljuske
+	 * @param index
+	 *            indeks od kojeg se preskaču praznine
+	 * @return indeks prvog znaka koji nije praznina ili duljina redka
+	 */
+	private static int skipWhitespaces(String line, int index) {
+		while (index < line.length() && isWhitespace(line.charAt(index))) {
+			index++;
+		}
+		return index;
+	}
+
+	/**
+	 * Pomoćna metoda koja ispituje je li <b>c</b> praznina na isti način kao i
+	 * {@link ArgumentLexer}
+	 *
+	 * @param c
+	 *            znak koji se provjerava
+	 * @return <b>true</b> ukoliko je <b>c</b> praznina, <b>false</b> inače
+	 */
+	private static boolean isWhitespace(char c) {
+		return c == '\t' || c == '\r' || c == ' ';
+	}
+
+	/**
+	 * Metoda koja izvodi cjevovod u okruženju ljuske <b>env</b>. Ukoliko neka
+	 * naredba ne postoji ili se u odredište ne može pisati, nijedna naredba se
+	 * ne izvodi.
+	 *
+	 * @param env
+	 *            okruženje ljuske
+	 * @return status zadnje naredbe cjevovoda
+	 * @throws ShellIOException
+	 *             ukoliko se ne može pisati u izlaz okruženja ljuske
+	 */
+	ShellStatus execute(Environment env) {
+		for (String command : commands) {
+			String commandName = MyShell.extractCommandNameAndArguments(command)[0];
+			if (!env.commands().containsKey(commandName)) {
+				env.writeln(String.format(MyShell.UNKNOWN_COMMAND_MESSAGE, commandName));
+				return ShellStatus.FAILURE;
+			}
+		}
+
+		OutputStream file = null;
+		if (target != null) {
+			try {
+				file = append
+						? Files.newOutputStream(Paths.get(target), StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+						: Files.newOutputStream(Paths.get(target));
+			} catch (IOException | InvalidPathException e) {
+				env.writeln(String.format("U datoteku '%s' se ne može pisati!", target));
+				return ShellStatus.FAILURE;
+			}
+		}
+
+		try (OutputStream out = file) {
+			return run(env, out);
+		} catch (ShellIOException e) {
+			if (file == null) {
+				throw e;
+			}
+			env.writeln(String.format("U datoteku '%s' se ne može pisati!", target));
+			return ShellStatus.FAILURE;
+		} catch (IOException e) {
+			env.writeln(String.format("U datoteku '%s' se ne može pisati!", target));
+			return ShellStatus.FAILURE;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara okruženja i cjevovode, pokreće naredbe te
+	 * čeka da sve završe
+	 *
+	 * @param env
+	 *            okruženje ljuske
+	 * @param file
+	 *            tok okteta datoteke u koju se preusmjerava ispis ili
+	 *            <code>null</code>
+	 * @return status zadnje naredbe
+	 * @throws ShellIOException
+	 *             ukoliko zadnja naredba ne može pisati u svoj izlaz
+	 */
+	private ShellStatus run(Environment env, OutputStream file) {
+		int size = commands.size();
+		List<Stage> stages = new ArrayList<>(size);
+		ShellPipe input = null;
+		for (int i = 0; i < size; i++) {
+			BufferedReader reader = input == null ? env.inputReader()
+					: new BufferedReader(input.reader(), BUFFER_SIZE);
+
+			ShellPipe output = null;
+			MyShellEnvironment stageEnv;
+			if (i < size - 1) {
+				output = new ShellPipe(ShellPipe.DEFAULT_CAPACITY);
+				stageEnv = new MyShellEnvironment(reader, new BufferedWriter(output.writer(), BUFFER_SIZE),
+						FlushPolicy.ADAPTIVE);
+			} else if (file != null) {
+				stageEnv = new MyShellEnvironment(reader, file, BUFFER_SIZE, FlushPolicy.ADAPTIVE);
+			} else {
+				stageEnv = new MyShellEnvironment(reader, new BufferedWriter(new EnvironmentWriter(env), BUFFER_SIZE),
+						FlushPolicy.ADAPTIVE);
+			}
+			stageEnv.copySymbols(env);
+			stageEnv.setJobs(env.jobs());
+
+			stages.add(new Stage(stageEnv, commands.get(i), input, output));
+			input = output;
+		}
+
+		List<Thread> threads = new ArrayList<>(size - 1);
+		Stage last = stages.get(size - 1);
+		try {
+			for (Stage stage : stages.subList(0, size - 1)) {
+				Thread thread = new Thread(stage, THREAD_NAME + threads.size());
+				thread.setDaemon(true);
+				threads.add(thread);
+				thread.start();
+			}
+			last.run();
+		} finally {
+			joinAll(threads);
+		}
+
+		if (last.failure != null) {
+			throw last.failure;
+		}
+		ShellStatus status = last.status == null ? ShellStatus.FAILURE : last.status;
+		return status == ShellStatus.TERMINATE && size > 1 ? ShellStatus.CONTINUE : status;
+	}
+
+	/**
+	 * Pomoćna metoda koja dodaje naredbu <b>command</b> u <b>commands</b>
+	 *
+	 * @param commands
+	 *            naredbe cjevovoda
+	 * @param command
+	 *            naredba zajedno s argumentima
+	 * @throws IllegalArgumentException
+	 *             ukoliko je naredba prazna
+	 */
+	private static void addCommand(List<String> commands, String command) {
+		command = command.trim();
+		if (command.isEmpty()) {
+			throw new IllegalArgumentException("Cjevovod ne smije sadržavati praznu naredbu!");
+		}
+		commands.add(command);
+	}
+
+	/**
+	 * Pomoćna metoda koja iz ostatka redka iza simbola preusmjeravanja
+	 * izdvaja putanju do datoteke. Putanja može biti unutar navodnika.
+	 *
+	 * @param rest
+	 *            ostatak redka iza simbola preusmjeravanja
+	 * @return putanja do datoteke
+	 * @throws IllegalArgumentException
+	 *             ukoliko ostatak redka nije točno jedna putanja
+	 */
+	private static String extractTarget(String rest) {
+		List<String> arguments;
+		try {
+			arguments = rest.trim().isEmpty() ? Collections.emptyList()
+					: new ArgumentParser(rest).getSeparatedArguments();
+		} catch (ArgumentLexerException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+		if (arguments.size() != 1) {
+			throw new IllegalArgumentException(
+					"Nakon simbola preusmjeravanja potrebno je predati točno jednu datoteku na kraju naredbe!");
+		}
+		return arguments.get(0);
+	}
+
+	/**
+	 * Pomoćna metoda koja čeka završetak svih dretvi <b>threads</b>. Prekid
+	 * čekanja se pamti, ali ne prekida čekanje jer dretve završavaju čim
+	 * završe susjedne naredbe.
+	 *
+	 * @param threads
+	 *            dretve naredbi
+	 */
+	private static void joinAll(List<Thread> threads) {
+		boolean interrupted = false;
+		for (Thread thread : threads) {
+			while (thread.isAlive()) {
+				try {
+					thread.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Razred koji predstavlja jednu naredbu cjevovoda zajedno s njenim
+	 * okruženjem. Nakon izvođenja naredbe zatvara se njen izlazni cjevovod,
+	 * čime sljedeća naredba dobiva kraj ulaza, te ulazni cjevovod, čime
+	 * prethodna naredba prestaje pisati.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class Stage implements Runnable {
+
+		/** Članska varijabla koja predstavlja okruženje naredbe */
+		private final Environment env;
+
+		/** Članska varijabla koja predstavlja naredbu zajedno s argumentima */
+		private final String line;
+
+		/**
+		 * Članska varijabla koja predstavlja ulazni cjevovod ili
+		 * <code>null</code> za prvu naredbu
+		 */
+		private final ShellPipe input;
+
+		/**
+		 * Članska varijabla koja predstavlja izlazni cjevovod ili
+		 * <code>null</code> za zadnju naredbu
+		 */
+		private final ShellPipe output;
+
+		/** Članska varijabla koja predstavlja status izvođenja naredbe */
+		private volatile ShellStatus status;
+
+		/**
+		 * Članska varijabla koja predstavlja iznimku pisanja u izlaz naredbe
+		 * ili <code>null</code>
+		 */
+		private volatile ShellIOException failure;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param env
+		 *            okruženje naredbe
+		 * @param line
+		 *            naredba zajedno s argumentima
+		 * @param input
+		 *            ulazni cjevovod ili <code>null</code>
+		 * @param output
+		 *            izlazni cjevovod ili <code>null</code>
+		 */
+		private Stage(Environment env, String line, ShellPipe input, ShellPipe output) {
+			this.env = env;
+			this.line = line;
+			this.input = input;
+			this.output = output;
+		}
+
+		@Override
+		public void run() {
+			try {
+				status = MyShell.execute(env, line);
+			} catch (ShellIOException e) {
+				// za naredbe prije zadnje znači da sljedeća naredba više ne čita
+				failure = e;
+				status = ShellStatus.FAILURE;
+			} finally {
+				if (output != null) {
+					output.closeWriter();
+				}
+				if (input != null) {
+					input.closeReader();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Razred koji predstavlja tok znakova koji piše u okruženje ljuske. Koristi
+	 * ga zadnja naredba cjevovoda čiji se ispis ne preusmjerava.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class EnvironmentWriter extends Writer {
+
+		/** Članska varijabla koja predstavlja okruženje ljuske */
+		private final Environment env;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param env
+		 *            okruženje ljuske
+		 */
+		private EnvironmentWriter(Environment env) {
+			this.env = env;
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+			env.write(cbuf, off, len);
+		}
+
+		@Override
+		public void flush() {
+			env.flush();
+		}
+
+		@Override
+		public void close() {
+			flush();
+		}
+	}
+
+	/**
+	 * Razred koji predstavlja jednu riječ redka ljuske.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class Token {
+
+		/** Članska varijabla koja predstavlja znakove riječi iz redka */
+		private final String text;
+
+		/** Članska varijabla koja predstavlja indeks početka riječi u redku */
+		private final int start;
+
+		/** Članska varijabla koja predstavlja indeks iza kraja riječi u redku */
+		private final int end;
+
+		/** Članska varijabla koja određuje je li riječ unutar navodnika */
+		private final boolean quoted;
+
+		/** Članska varijabla koja određuje je li riječ operator */
+		private boolean operator;
+
+		/**
+		 * Članska varijabla koja određuje je li riječ vrijednost simbola u
+		 * naredbi {@value SymbolShellCommand#NAME}
+		 */
+		private boolean symbolValue;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param text
+		 *            znakovi riječi iz redka
+		 * @param start
+		 *            indeks početka riječi u redku
+		 * @param end
+		 *            indeks iza kraja riječi u redku
+		 * @param quoted
+		 *            <b>true</b> ukoliko je riječ unutar navodnika
+		 */
+		private Token(String text, int start, int end, boolean quoted) {
+			this.text = text;
+			this.start = start;
+			this.end = end;
+			this.quoted = quoted;
+		}
+
+		/**
+		 * Metoda koja ispituje je li ova riječ jednaka riječi <b>word</b> izvan
+		 * navodnika
+		 *
+		 * @param word
+		 *            riječ s kojom se uspoređuje
+		 * @return <b>true</b> ukoliko je riječ jednaka, <b>false</b> inače
+		 */
+		private boolean is(String word) {
+			return !quoted && text.equals(word);
+		}
+	}
+}
@@ -0,0 +1,259 @@
+package hr.fer.zemris.java.hw06.shell;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Razred koji neinteraktivno izvodi naredbe ljuske {@link MyShell} redak po
+ * redak iz toka znakova (skripte). Za razliku od interaktivnog rada ne
+ * ispisuju se simboli PROMPT i MULTILINE, prazni redci se preskaču umjesto da
+ * označavaju kraj unosa, a redak koji završava simbolom MORELINES nastavlja se
+ * u sljedećem redku.
+ * <p>
+ * Naredba koja vrati {@link ShellStatus#FAILURE}, nepostojeća naredba ili
+ * naredba koja baci iznimku smatraju se neuspjelima. Ovisno o postavci
+ * <b>failFast</b> izvođenje se tada prekida ili nastavlja sa sljedećom
+ * naredbom. Za svaku naredbu bilježi se broj izvođenja, broj neuspjeha i
+ * trajanje, a sažetak se ispisuje metodom {@link #printTimings(PrintStream)}.
+ * <p>
+ * Naredbe koje od korisnika traže odgovor (npr. potvrdu prebrisivanja) ili
+ * čitaju ulaz (npr. 'grep') čitaju ga iz okruženja, pa okruženje mora imati
+ * vlastiti ulazni tok znakova različit od toka skripte. U suprotnom bi
+ * naredba pročitala sljedeće redke skripte kao svoj ulaz.
+ *
+ * @see MyShell
+ *
+ * @author Davor Češljaš
+ */
+public class ShellScript {
+
+	/**
+	 * Konstanta koja predstavlja veličinu spremnika za čitanje skripte (1 MiB)
+	 */
+	public static final int BUFFER_SIZE = 1 << 20;
+
+	/** Konstanta koja predstavlja izlazni kod uspješnog izvođenja skripte */
+	public static final int SUCCESS_EXIT_CODE = 0;
+
+	/**
+	 * Konstanta koja predstavlja izlazni kod skripte u kojoj barem jedna
+	 * naredba nije uspjela
+	 */
+	public static final int FAILURE_EXIT_CODE = 1;
+
+	/** Konstanta koja predstavlja broj nanosekundi u jednoj milisekundi */
+	private static final double NANOS_IN_MILLISECOND = 1_000_000.0;
+
+	/** Članska varijabla koja predstavlja okruženje u kojem se izvode naredbe */
+	private final Environment env;
+
+	/** Članska varijabla koja predstavlja tok znakova skripte */
+	private final BufferedReader reader;
+
+	/**
+	 * Članska varijabla koja određuje prekida li se izvođenje nakon prve
+	 * neuspjele naredbe
+	 */
+	private final boolean failFast;
+
+	/** Članska varijabla koja predstavlja mjerenja mapirana po nazivu naredbe */
+	private final Map<String, Timing> timings = new HashMap<>();
+
+	/** Članska varijabla koja predstavlja broj pročitanih redaka */
+	private long lineNumber;
+
+	/** Članska varijabla koja predstavlja broj izvedenih naredbi */
+	private long executed;
+
+	/** Članska varijabla koja predstavlja broj neuspjelih naredbi */
+	private long failed;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param env
+	 *            okruženje u kojem se izvode naredbe
+	 * @param reader
+	 *            tok znakova iz kojeg se čitaju naredbe
+	 * @param failFast
+	 *            <b>true</b> ukoliko se izvođenje prekida nakon prve neuspjele
+	 *            naredbe, <b>false</b> ukoliko se nastavlja
+	 */
+	public ShellScript(Environment env, BufferedReader reader, boolean failFast) {
+		this.env = env;
+		this.reader = reader;
+		this.failFast = failFast;
+	}
+
+	/**
+	 * Metoda koja izvodi sve naredbe skripte do kraja toka, naredbe
+	 * {@link ShellStatus#TERMINATE} ili, ukoliko je zadano, prve neuspjele
+	 * naredbe
+	 *
+	 * @return {@value #SUCCESS_EXIT_CODE} ukoliko su sve naredbe uspjele,
+	 *         {@value #FAILURE_EXIT_CODE} inače
+	 * @throws ShellIOException
+	 *             ukoliko nije moguće čitati skriptu
+	 */
+	public int run() {
+		String command;
+		while ((command = readCommand()) != null) {
+			long commandLine = lineNumber;
+			String commandName = MyShell.extractCommandNameAndArguments(command)[0];
+
+			long start = System.nanoTime();
+			ShellStatus status = MyShell.execute(env, command);
+			long nanos = System.nanoTime() - start;
+
+			executed++;
+			Timing timing = timings.computeIfAbsent(commandName, Timing::new);
+			timing.add(nanos, status == ShellStatus.FAILURE);
+
+			if (status == ShellStatus.TERMINATE) {
+				break;
+			}
+			if (status == ShellStatus.FAILURE) {
+				failed++;
+				if (failFast) {
+					env.writeln(String.format("Naredba u retku %d nije uspjela. Prekidam izvođenje skripte.",
+							commandLine));
+					break;
+				}
+			}
+		}
+		// skripta završava tek kada završe svi poslovi u pozadini
+		env.jobs().waitAll(env);
+		env.flush();
+		return failed == 0 ? SUCCESS_EXIT_CODE : FAILURE_EXIT_CODE;
+	}
+
+	/**
+	 * Metoda koja vraća broj izvedenih naredbi
+	 *
+	 * @return broj izvedenih naredbi
+	 */
+	public long getExecuted() {
+		return executed;
+	}
+
+	/**
+	 * Metoda koja vraća broj neuspjelih naredbi
+	 *
+	 * @return broj neuspjelih naredbi
+	 */
+	public long getFailed() {
+		return failed;
+	}
+
+	/**
+	 * Metoda koja u tok <b>out</b> ispisuje sažetak trajanja izvedenih
+	 * naredbi, poredan po ukupnom trajanju od najduljeg
+	 *
+	 * @param out
+	 *            tok u koji se ispisuje sažetak
+	 */
+	public void printTimings(PrintStream out) {
+		List<Timing> sorted = new ArrayList<>(timings.values());
+		sorted.sort((first, second) -> Long.compare(second.totalNanos, first.totalNanos));
+
+		out.printf("Izvedeno naredbi: %d, neuspjelih: %d%n", executed, failed);
+		out.printf("%-12s %8s %11s %14s %14s %14s%n", "naredba", "broj", "neuspjelih", "ukupno [ms]", "prosjek [ms]",
+				"najdulje [ms]");
+		for (Timing timing : sorted) {
+			out.println(String.format(Locale.ROOT, "%-12s %8d %11d %14.3f %14.3f %14.3f", timing.name, timing.count,
+					timing.failures, timing.totalNanos / NANOS_IN_MILLISECOND,
+					timing.totalNanos / NANOS_IN_MILLISECOND / timing.count, timing.maxNanos / NANOS_IN_MILLISECOND));
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja čita sljedeću naredbu skripte. Prazni redci se
+	 * preskaču, a redci koji završavaju simbolom
+	 * {@link Environment#getMorelinesSymbol()} spajaju se sa sljedećim redkom.
+	 *
+	 * @return sljedeća naredba ili <code>null</code> ukoliko je skripta
+	 *         pročitana do kraja
+	 * @throws ShellIOException
+	 *             ukoliko nije moguće čitati skriptu
+	 */
+	private String readCommand() {
+		StringBuilder sb = new StringBuilder();
+		String line;
+		try {
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				line = line.trim();
+				if (line.isEmpty() && sb.length() == 0) {
+					continue;
+				}
+
+				String morelines = env.getMorelinesSymbol().toString();
+				if (!line.endsWith(morelines)) {
+					return sb.append(line).toString().trim();
+				}
+				sb.append(line, 0, line.length() - morelines.length());
+			}
+		} catch (IOException e) {
+			throw new ShellIOException("Ne mogu čitati skriptu!", e);
+		}
+
+		String command = sb.toString().trim();
+		return command.isEmpty() ? null : command;
+	}
+
+	/**
+	 * Razred koji predstavlja mjerenja jedne naredbe.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class Timing {
+
+		/** Članska varijabla koja predstavlja naziv naredbe */
+		private final String name;
+
+		/** Članska varijabla koja predstavlja broj izvođenja */
+		private long count;
+
+		/** Članska varijabla koja predstavlja broj neuspjelih izvođenja */
+		private long failures;
+
+		/** Članska varijabla koja predstavlja ukupno trajanje u nanosekundama */
+		private long totalNanos;
+
+		/** Članska varijabla koja predstavlja najdulje trajanje u nanosekundama */
+		private long maxNanos;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param name
+		 *            naziv naredbe
+		 */
+		private Timing(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Metoda koja bilježi jedno izvođenje naredbe
+		 *
+		 * @param nanos
+		 *            trajanje izvođenja u nanosekundama
+		 * @param failure
+		 *            <b>true</b> ukoliko naredba nije uspjela
+		 */
+		private void add(long nanos, boolean failure) {
+			count++;
+			totalNanos += nanos;
+			maxNanos = Math.max(maxNanos, nanos);
+			if (failure) {
+				failures++;
+			}
+		}
+	}
+}
@@ -6,6 +6,7 @@ package hr.fer.zemris.java.hw06.shell;
  * <ul>
  * <li>{@link #CONTINUE}</li>
  * <li>{@link #TERMINATE}</li>
+ * <li>{@link #FAILURE}</li>
  * </ul>
  * 
  * @see ShellCommand
@@ -18,5 +19,12 @@ public enum ShellStatus {
 	CONTINUE,
 
 	/** Predstavlja status koji ljusci sugerira da prekine s radom */
-	TERMINATE
+	TERMINATE,
+
+	/**
+	 * Predstavlja status naredbe koja nije uspjela. Interaktivna ljuska
+	 * nastavlja s radom, a skripta se ovisno o postavkama prekida (vidjeti
+	 * {@link ShellScript})
+	 */
+	FAILURE
 }
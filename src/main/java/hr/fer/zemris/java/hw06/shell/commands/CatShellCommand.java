@@ -1,7 +1,7 @@
 package hr.fer.zemris.java.hw06.shell.commands;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -37,6 +37,12 @@ public class CatShellCommand implements ShellCommand {
 	/** Konstanta koja predstavlja naziv naredbe. */
 	public static final String NAME = "cat";
 
+	/** Konstanta koja predstavlja veličinu spremnika za čitanje (8 KiB) */
+	private static final int BUFFER_SIZE = 1 << 13;
+
+	/** Konstanta koja predstavlja znak novog redka */
+	private static final char NEWLINE = '\n';
+
 	/** Konstanta koja predstavlja izvođenje uz defaultni skup znakova */
 	private static final int CAT_WITH_DEFAULT_CHARSET = 1;
 
@@ -72,35 +78,45 @@ public class CatShellCommand implements ShellCommand {
 	}
 
 	/**
-	 * @return {@link ShellStatus#CONTINUE}
+	 * @return {@link ShellStatus#CONTINUE} ili {@link ShellStatus#FAILURE}
+	 *         ukoliko naredba nije uspjela
 	 */
 	@Override
 	public ShellStatus executeCommand(Environment env, String arguments) {
 		if (arguments == null) {
 			env.writeln(
 					"Potrebno je predati minimalno jedan argument (putanju do datoteke). Za više informacija upišite 'help cat'");
-		} else {
-			List<String> separatedArguments = ShellCommandUtil.parseArguments(env, arguments);
-			switch (separatedArguments.size()) {
-			case CAT_WITH_DEFAULT_CHARSET:
-				catFile(env, separatedArguments.get(FILE_INDEX), Charset.defaultCharset().name());
-				break;
-			case CAT_WITH_CUSTOM_CHARSET:
-				catFile(env, separatedArguments.get(FILE_INDEX), separatedArguments.get(CHARSET_INDEX));
-				break;
-			default:
-				env.writeln("Predali se netočan broj argumenata.Vaš broj argumenata: " + separatedArguments.size()
-						+ " .Za više informacija upišite 'help cat'");
-				break;
-			}
+			return ShellStatus.FAILURE;
 		}
-		return ShellStatus.CONTINUE;
+
+		List<String> separatedArguments = ShellCommandUtil.parseArguments(env, arguments);
+		if (separatedArguments == null) {
+			return ShellStatus.FAILURE;
+		}
+		boolean success;
+		switch (separatedArguments.size()) {
+		case CAT_WITH_DEFAULT_CHARSET:
+			success = catFile(env, separatedArguments.get(FILE_INDEX), Charset.defaultCharset().name());
+			break;
+		case CAT_WITH_CUSTOM_CHARSET:
+			success = catFile(env, separatedArguments.get(FILE_INDEX), separatedArguments.get(CHARSET_INDEX));
+			break;
+		default:
+			env.writeln("Predali se netočan broj argumenata.Vaš broj argumenata: " + separatedArguments.size()
+					+ " .Za više informacija upišite 'help cat'");
+			success = false;
+			break;
+		}
+		return success ? ShellStatus.CONTINUE : ShellStatus.FAILURE;
 	}
 
 	/**
 	 * Pomoćna metoda koja služi za ispis datoteke. Metoda će za ispis koristiti
 	 * primjerak sučelja {@link Environment} <b>env</b> koji joj je predan i
-	 * njegovu metodu {@link Environment#writeln(String)}. Metoda također prima
+	 * njegovu metodu {@link Environment#write(char[], int, int)} kojoj predaje
+	 * pročitane znakove u blokovima, bez stvaranja redaka kao primjeraka
+	 * razreda {@link String}. Ukoliko datoteka ne završava znakom novog redka,
+	 * on se ispisuje na kraju. Metoda također prima
 	 * i primjerak razreda {@link String} <b>filePath</b> koji predstavlja
 	 * apsolutnu ili relativnu putanju do datoteke koja se ispisuje. Kao dodatan
 	 * argument metoda prima i naziv skup znakova <b>charsetName</b> koji se
@@ -113,18 +129,29 @@ public class CatShellCommand implements ShellCommand {
 	 *            ili relativnu putanju do datoteke koja se ispisuje
 	 * @param charsetName
 	 *            naziv skup znakova koji se treba koristiti za ispis.
+	 * @return <b>true</b> ukoliko je datoteka ispisana, <b>false</b> inače
 	 * 
-	 * @see Environment#writeln(String)
+	 * @see Environment#write(char[], int, int)
 	 */
-	private void catFile(Environment env, String fileName, String charsetName) {
+	private boolean catFile(Environment env, String fileName, String charsetName) {
 		Path filePath = ShellCommandUtil.extractSingleFile(env, fileName);
 		if (filePath == null) {
-			return;
+			return false;
 		}
-		try (BufferedReader reader = Files.newBufferedReader(filePath, Charset.forName(charsetName))) {
-			while (reader.ready()) {
-				env.writeln(reader.readLine());
+		try (Reader reader = Files.newBufferedReader(filePath, Charset.forName(charsetName))) {
+			char[] buffer = new char[BUFFER_SIZE];
+			char last = NEWLINE;
+			int length;
+			while ((length = reader.read(buffer)) != -1) {
+				if (length > 0) {
+					env.write(buffer, 0, length);
+					last = buffer[length - 1];
+				}
+			}
+			if (last != NEWLINE) {
+				env.writeln("");
 			}
+			return true;
 		} catch (RuntimeException e) {
 			env.writeln(String.format(
 					"Vaša Javina platforma ne podržava skup znakova '%s'. Koji skupovi su podržani možete dobiti ako upišete 'charsets'",
@@ -132,6 +159,7 @@ public class CatShellCommand implements ShellCommand {
 		} catch (IOException e) {
 			env.writeln(String.format("Iz datoteke '%s' se ne može čitati!", fileName));
 		}
+		return false;
 	}
 
 	@Override
@@ -49,7 +49,8 @@ public class CharsetsShellCommand implements ShellCommand{
 	}
 
 	/**
-	 * @return {@link ShellStatus#CONTINUE}
+	 * @return {@link ShellStatus#CONTINUE} ili {@link ShellStatus#FAILURE}
+	 *         ukoliko naredba nije uspjela
 	 */
 	@Override
 	public ShellStatus executeCommand(Environment env, String arguments) {
@@ -57,6 +58,7 @@ public class CharsetsShellCommand implements ShellCommand{
 			Charset.availableCharsets().keySet().forEach(charsetName -> env.writeln("\t" + charsetName));
 		} else {
 			env.writeln("Naredba 'charsets' ne prima dodatne argumente.Za više informacija upišite 'help charsets'");
+			return ShellStatus.FAILURE;
 		}
 		return ShellStatus.CONTINUE;
 	}
@@ -13,6 +13,7 @@ import java.util.List;
 
 import hr.fer.zemris.java.hw06.shell.Environment;
 import hr.fer.zemris.java.hw06.shell.ShellCommand;
+import hr.fer.zemris.java.hw06.shell.ShellIOException;
 import hr.fer.zemris.java.hw06.shell.ShellStatus;
 import hr.fer.zemris.java.hw06.shell.util.ShellCommandUtil;
 
@@ -30,6 +31,7 @@ import hr.fer.zemris.java.hw06.shell.util.ShellCommandUtil;
  * <i>Ukoliko u direktoriju već postoji datoteka sa tim imenom ljuska će pitati želite li prebrisati postojeću datoteku</i>
  * <i>Ukoliko je Vaš odgovor 'ne' kopija se neće stvoriti, a ljuska će nastaviti s radom.</i>
  * <i>Ukoliko je Vaš odgovor 'da' naredba će prebrisati sadržaj postojeće datoteke i zamijeniti ga novim.</i>
+ * <i>Ukoliko ulaz završi prije odgovora naredba neće uspjeti, a datoteka neće biti prebrisana.</i>
  * </pre>
  *
  * @see ShellStatus
@@ -80,30 +82,35 @@ public class CopyShellCommand implements ShellCommand {
 				"Ukoliko ne postoji datoteka ili direktorij u prvom slučaju program će izbaciti odgovarajuću poruku.",
 				"Ukoliko u direktoriju već postoji datoteka sa tim imenom ljuska će pitati želite li prebrisati postojeću datoteku",
 				"Ukoliko je Vaš odgovor 'ne' kopija se neće stvoriti, a ljuska će nastaviti s radom.",
-				"Ukoliko je Vaš odgovor 'da' naredba će prebrisati sadržaj postojeće datoteke i zamijeniti ga novim."
+				"Ukoliko je Vaš odgovor 'da' naredba će prebrisati sadržaj postojeće datoteke i zamijeniti ga novim.",
+				"Ukoliko ulaz završi prije odgovora naredba neće uspjeti, a datoteka neće biti prebrisana."
 		};
 
 		DESCRIPTION = Collections.unmodifiableList(Arrays.asList(descriptionLines));
 	}
 
 	/**
-	 * @return {@link ShellStatus#CONTINUE}
+	 * @return {@link ShellStatus#CONTINUE} ili {@link ShellStatus#FAILURE}
+	 *         ukoliko naredba nije uspjela
 	 */
 	@Override
 	public ShellStatus executeCommand(Environment env, String arguments) {
 		if (arguments == null) {
 			env.writeln("Potrebno je predati točno dva argumenta. Za više informacija upišite 'help copy'");
-		} else {
-			List<String> separatedArguments = ShellCommandUtil.parseArguments(env, arguments);
-			if (separatedArguments.size() == ARGUMENTS_SIZE) {
-				attemptToCopy(env, separatedArguments.get(FIRST_ARGUMENT_INDEX),
-						separatedArguments.get(SECOND_ARGUMENT_INDEX));
-			} else {
-				env.writeln("Predali se netočan broj argumenata.Vaš broj argumenata: " + separatedArguments.size()
-						+ " .Za više informacija upišite 'help cat'");
-			}
+			return ShellStatus.FAILURE;
+		}
+
+		List<String> separatedArguments = ShellCommandUtil.parseArguments(env, arguments);
+		if (separatedArguments == null) {
+			return ShellStatus.FAILURE;
+		}
+		if (separatedArguments.size() != ARGUMENTS_SIZE) {
+			env.writeln("Predali se netočan broj argumenata.Vaš broj argumenata: " + separatedArguments.size()
+					+ " .Za više informacija upišite 'help cat'");
+			return ShellStatus.FAILURE;
 		}
-		return ShellStatus.CONTINUE;
+		return attemptToCopy(env, separatedArguments.get(FIRST_ARGUMENT_INDEX),
+				separatedArguments.get(SECOND_ARGUMENT_INDEX)) ? ShellStatus.CONTINUE : ShellStatus.FAILURE;
 	}
 
 	/**
@@ -124,16 +131,18 @@ public class CopyShellCommand implements ShellCommand {
 	 *            primjerak razreda {@link String} koji predstavlja apsolutnu
 	 *            ili relativnu putanju do datoteke ili direktorija u koji se
 	 *            kopira sadržaj datoteke predstavljene s <b>filePathName</b>
+	 * @return <b>true</b> ukoliko kopiranje nije pogrešno završilo,
+	 *         <b>false</b> inače
 	 */
-	private void attemptToCopy(Environment env, String filePathName, String pathName) {
+	private boolean attemptToCopy(Environment env, String filePathName, String pathName) {
 		Path filePath = ShellCommandUtil.extractSingleFile(env, filePathName);
 		if (filePath == null) {
-			return;
+			return false;
 		}
 
 		Path dirOrFile = ShellCommandUtil.extractSinglePath(env, pathName);
 		if (dirOrFile == null) {
-			return;
+			return false;
 		}
 
 		if (Files.isDirectory(dirOrFile, LinkOption.NOFOLLOW_LINKS)) {
@@ -141,32 +150,49 @@ public class CopyShellCommand implements ShellCommand {
 		}
 
 		if (Files.isRegularFile(dirOrFile, LinkOption.NOFOLLOW_LINKS)) {
-			if (!acceptOverwriteUI(env)) {
-				return;
+			Boolean accepted = acceptOverwriteUI(env);
+			if (accepted == null) {
+				env.writeln("Odgovor nije predan. Datoteka neće biti prebrisana!");
+				return false;
+			}
+			if (!accepted) {
+				// odbijanje prebrisivanja nije pogreška
+				return true;
 			}
 		}
-		copy(env, filePath, dirOrFile);
+		return copy(env, filePath, dirOrFile);
 	}
 
 	/**
 	 * Pomoćna metoda koja ispituje korisnika želi li prebrisati sadržaj
 	 * postojeće datoteke unutar direktorija. Ukoliko je odgovor potvrdan metoda
 	 * vraća <b>true</b> ukoliko odgovor nije potvrdan metoda vraća
-	 * <b>false</b>. Metoda se izvodi dok god se ne preda pravovaljani odgovor.
+	 * <b>false</b>. Metoda se izvodi dok god se ne preda pravovaljani odgovor
+	 * ili dok se ne dođe do kraja ulaza.
 	 *
 	 * @param env
 	 *            primjerak sučelja {@link Environment} koji se koristi za ispis
 	 *            i unos odgovora
 	 * @return Ukoliko je odgovor potvrdan <b>true</b> ukoliko odgovor nije
-	 *         potvrdan <b>false</b>
+	 *         potvrdan <b>false</b>, a <code>null</code> ukoliko se došlo do
+	 *         kraja ulaza
+	 * @throws ShellIOException
+	 *             ukoliko se ne može čitati iz ulaznog toka znakova
 	 */
-	private boolean acceptOverwriteUI(Environment env) {
+	private Boolean acceptOverwriteUI(Environment env) {
 		while (true) {
 			env.write("Želite li prebrisati datoteku na odredištu?[da/ne]: ");
-			String answer = env.readLine();
+			env.flush();
+			String answer;
+			try {
+				answer = env.inputReader().readLine();
+			} catch (IOException e) {
+				throw new ShellIOException("Ne mogu čitati iz ulaznog toka!");
+			}
 			if (answer == null) {
-				continue;
+				return null;
 			}
+			answer = answer.trim();
 			if (answer.equalsIgnoreCase(YES)) {
 				return true;
 			}
@@ -191,8 +217,9 @@ public class CopyShellCommand implements ShellCommand {
 	 * @param copyPath
 	 *            primjerak razreda {@link Path} koji predstavlja apstraktnu
 	 *            reprezentaciju putanje do datoteke u koju se kopira
+	 * @return <b>true</b> ukoliko je datoteka kopirana, <b>false</b> inače
 	 */
-	private void copy(Environment env, Path filePath, Path copyPath) {
+	private boolean copy(Environment env, Path filePath, Path copyPath) {
 		try (BufferedInputStream bis = new BufferedInputStream(Files.newInputStream(filePath));
 				BufferedOutputStream bos = new BufferedOutputStream(Files.newOutputStream(copyPath))) {
 			byte[] buffer = new byte[BUFFER_SIZE];
@@ -203,8 +230,10 @@ public class CopyShellCommand implements ShellCommand {
 			}
 			env.writeln("Datoteka je uspješno kopirana u '" + copyPath.getParent().toRealPath(LinkOption.NOFOLLOW_LINKS)
 					+ "'");
+			return true;
 		} catch (IOException e) {
 			env.writeln("Nemam dopuštenje operacijskog sustava za kopiranje predane datoteke!");
+			return false;
 		}
 	}
 
@@ -45,7 +45,7 @@ public class ExitShellCommand implements ShellCommand {
 
 	/**
 	 * @return {@link ShellStatus#TERMINATE} ako se ne preda argument,
-	 *         {@link ShellStatus#CONTINUE} inače
+	 *         {@link ShellStatus#FAILURE} inače
 	 */
 	@Override
 	public ShellStatus executeCommand(Environment env, String arguments) {
@@ -53,7 +53,7 @@ public class ExitShellCommand implements ShellCommand {
 			return ShellStatus.TERMINATE;
 		} else {
 			env.writeln("Naredba 'exit' ne prima dodatne argumente. Za više informacija upišite 'help exit'");
-			return ShellStatus.CONTINUE;
+			return ShellStatus.FAILURE;
 		}
 	}
 
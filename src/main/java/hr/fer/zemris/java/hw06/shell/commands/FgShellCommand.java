@@ -0,0 +1,77 @@
+package hr.fer.zemris.java.hw06.shell.commands;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import hr.fer.zemris.java.hw06.shell.Environment;
+import hr.fer.zemris.java.hw06.shell.ShellCommand;
+import hr.fer.zemris.java.hw06.shell.ShellJobs;
+import hr.fer.zemris.java.hw06.shell.ShellStatus;
+import hr.fer.zemris.java.hw06.shell.util.ShellCommandUtil;
+
+/**
+ * Razred koji predstavlja naredbu {@value #NAME}. Razred implementira sučelje
+ * {@link ShellCommand} i nudi implementaciju svih njegovih metoda.Opis naredbe
+ * dan je u nastavku:
+ *
+ * <pre>
+ * <i>Naredba prima jedan ili niti jedan argument.</i>
+ * <i>Predani argument predstavlja broj posla (vidjeti 'jobs').</i>
+ * <i>Ukoliko se ne preda argument naredba se odnosi na zadnje pokrenuti posao.</i>
+ * <i>Naredba čeka da posao završi te ispisuje cjelokupni ispis posla.</i>
+ * <i>Naredba ne uspijeva ukoliko posao nije uspio.</i>
+ * </pre>
+ *
+ * @see ShellStatus
+ * @see ShellCommand
+ * @see ShellJobs
+ *
+ * @author Davor Češljaš
+ */
+public class FgShellCommand implements ShellCommand {
+
+	/** Konstanta koja predstavlja naziv naredbe. */
+	public static final String NAME = "fg";
+
+	/**
+	 * Nepromijenjivi primjerak sučelja {@link List} koji predstavlja opis
+	 * naredbe.
+	 */
+	private static final List<String> DESCRIPTION;
+
+	static {
+		String[] descriptionLines = new String[] {
+				"Naredba prima jedan ili niti jedan argument.",
+				"Predani argument predstavlja broj posla (vidjeti 'jobs').",
+				"Ukoliko se ne preda argument naredba se odnosi na zadnje pokrenuti posao.",
+				"Naredba čeka da posao završi te ispisuje cjelokupni ispis posla.",
+				"Naredba ne uspijeva ukoliko posao nije uspio."
+		};
+
+		DESCRIPTION = Collections.unmodifiableList(Arrays.asList(descriptionLines));
+	}
+
+	/**
+	 * @return {@link ShellStatus#CONTINUE} ili {@link ShellStatus#FAILURE}
+	 *         ukoliko naredba nije uspjela
+	 */
+	@Override
+	public ShellStatus executeCommand(Environment env, String arguments) {
+		ShellJobs.Job job = ShellCommandUtil.extractJob(env, arguments);
+		if (job == null) {
+			return ShellStatus.FAILURE;
+		}
+		return env.jobs().foreground(env, job);
+	}
+
+	@Override
+	public String getCommandName() {
+		return NAME;
+	}
+
+	@Override
+	public List<String> getCommandDescription() {
+		return DESCRIPTION;
+	}
+}
@@ -0,0 +1,135 @@
+package hr.fer.zemris.java.hw06.shell.commands;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import hr.fer.zemris.java.hw06.shell.Environment;
+import hr.fer.zemris.java.hw06.shell.ShellCommand;
+import hr.fer.zemris.java.hw06.shell.ShellStatus;
+import hr.fer.zemris.java.hw06.shell.util.ShellCommandUtil;
+
+/**
+ * Razred koji predstavlja naredbu {@value #NAME}. Razred implementira sučelje
+ * {@link ShellCommand} i nudi implementaciju svih njegovih metoda.Opis naredbe
+ * dan je u nastavku:
+ *
+ * <pre>
+ * <i>Naredba prima točno jedan argument.</i>
+ * <i>Taj argument predstavlja regularni izraz.</i>
+ * <i>Naredba čita ulaz do kraja i ispisuje svaki redak u kojem se nalazi dio koji odgovara regularnom izrazu.</i>
+ * <i>Naredba se najčešće koristi u cjevovodu, npr. 'tree . | grep txt'</i>
+ * </pre>
+ *
+ * @see ShellStatus
+ * @see ShellCommand
+ *
+ * @author Davor Češljaš
+ */
+public class GrepShellCommand implements ShellCommand {
+
+	/** Konstanta koja predstavlja naziv naredbe. */
+	public static final String NAME = "grep";
+
+	/**
+	 * Konstanta koja predstavlja broj argumenata potrebnih za normalno izvođnje
+	 * ove naredbe.
+	 */
+	private static final int ARGUMENTS_SIZE = 1;
+
+	/** Konstanta koja predstavlja poziciju jedinog argumenta naredbe */
+	private static final int ARGUMENT_INDEX = 0;
+
+	/**
+	 * Nepromijenjivi primjerak sučelja {@link List} koji predstavlja opis
+	 * naredbe.
+	 */
+	private static final List<String> DESCRIPTION;
+
+	static {
+		String[] descriptionLines = new String[] {
+				"Naredba prima točno jedan argument.",
+				"Taj argument predstavlja regularni izraz.",
+				"Naredba čita ulaz do kraja i ispisuje svaki redak u kojem se nalazi dio koji odgovara regularnom izrazu.",
+				"Naredba se najčešće koristi u cjevovodu, npr. 'tree . | grep txt'"
+		};
+
+		DESCRIPTION = Collections.unmodifiableList(Arrays.asList(descriptionLines));
+	}
+
+	/**
+	 * @return {@link ShellStatus#CONTINUE} ili {@link ShellStatus#FAILURE}
+	 *         ukoliko naredba nije uspjela
+	 */
+	@Override
+	public ShellStatus executeCommand(Environment env, String arguments) {
+		if (arguments == null) {
+			env.writeln("Potrebno je predati točno jedan argument (regularni izraz). Za više informacija upišite 'help grep'");
+			return ShellStatus.FAILURE;
+		}
+
+		List<String> separatedArguments = ShellCommandUtil.parseArguments(env, arguments);
+		if (separatedArguments == null) {
+			return ShellStatus.FAILURE;
+		}
+		if (separatedArguments.size() != ARGUMENTS_SIZE) {
+			env.writeln("Predali ste pogrešan broj argumenata. Tražio sam 1 ,a Vi ste predali "
+					+ separatedArguments.size());
+			return ShellStatus.FAILURE;
+		}
+
+		Pattern pattern;
+		try {
+			pattern = Pattern.compile(separatedArguments.get(ARGUMENT_INDEX));
+		} catch (PatternSyntaxException e) {
+			env.writeln(String.format("Regularni izraz '%s' nije ispravan!", separatedArguments.get(ARGUMENT_INDEX)));
+			return ShellStatus.FAILURE;
+		}
+		return filter(env, pattern) ? ShellStatus.CONTINUE : ShellStatus.FAILURE;
+	}
+
+	/**
+	 * Pomoćna metoda koja čita ulaz okruženja {@link Environment#inputReader()}
+	 * do kraja te ispisuje svaki redak u kojem postoji dio koji odgovara
+	 * regularnom izrazu <b>pattern</b>.
+	 *
+	 * @param env
+	 *            primjerak sučelja {@link Environment} koji se koristi za
+	 *            čitanje i ispis
+	 * @param pattern
+	 *            regularni izraz
+	 * @return <b>true</b> ukoliko je ulaz pročitan do kraja, <b>false</b>
+	 *         inače
+	 */
+	private boolean filter(Environment env, Pattern pattern) {
+		BufferedReader reader = env.inputReader();
+		Matcher matcher = pattern.matcher("");
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (matcher.reset(line).find()) {
+					env.writeln(line);
+				}
+			}
+			return true;
+		} catch (IOException e) {
+			env.writeln("Ne mogu čitati ulaz!");
+			return false;
+		}
+	}
+
+	@Override
+	public String getCommandName() {
+		return NAME;
+	}
+
+	@Override
+	public List<String> getCommandDescription() {
+		return DESCRIPTION;
+	}
+}
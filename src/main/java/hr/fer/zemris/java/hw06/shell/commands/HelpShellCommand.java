@@ -48,15 +48,17 @@ public class HelpShellCommand implements ShellCommand {
 	}
 	
 	/**
-	 * @return {@link ShellStatus#CONTINUE}
+	 * @return {@link ShellStatus#CONTINUE} ili {@link ShellStatus#FAILURE}
+	 *         ukoliko naredba nije uspjela
 	 */
 	@Override
 	public ShellStatus executeCommand(Environment env, String arguments) {
 		if (arguments != null) {
-			writeSingleCommandDescription(env, arguments.trim().toLowerCase());
-		} else {
-			writeAllCommandsDescription(env);
+			return writeSingleCommandDescription(env, arguments.trim().toLowerCase()) ? ShellStatus.CONTINUE
+					: ShellStatus.FAILURE;
 		}
+
+		writeAllCommandsDescription(env);
 		return ShellStatus.CONTINUE;
 	}
 
@@ -86,15 +88,17 @@ public class HelpShellCommand implements ShellCommand {
 	 *            primjerak sučelja {@link Environment} koji se koristi za ispis
 	 * @param arguments
 	 *            naziv naredbe čiji se opis želi ispisati
+	 * @return <b>true</b> ukoliko naredba postoji, <b>false</b> inače
 	 */
-	private void writeSingleCommandDescription(Environment env, String arguments) {
+	private boolean writeSingleCommandDescription(Environment env, String arguments) {
 		ShellCommand command = env.commands().get(arguments);
 		if (command == null) {
 			env.writeln(String.format("Ne postoji naredba '%s'. Za više informacija upišite 'help'", arguments));
-			return;
+			return false;
 		}
 
 		writeCommandDescription(env, command);
+		return true;
 	}
 
 	/**
@@ -2,12 +2,12 @@ package hr.fer.zemris.java.hw06.shell.commands;
 
 import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.StringJoiner;
 
 import hr.fer.zemris.java.hw06.shell.Environment;
 import hr.fer.zemris.java.hw06.shell.ShellCommand;
@@ -55,23 +55,39 @@ public class HexdumpShellCommand implements ShellCommand {
 	/**
 	 * Konstanta koja predstavlja jedan razmak
 	 */
-	private static final String WHITESPACE = " ";
-
-	/**
-	 * Konstanta koja predstavlja točno dva razmaka
-	 */
-	private static final String TWO_WHITESPACES = "  ";
+	private static final byte WHITESPACE = ' ';
 
 	/**
 	 * Konstanta koja predstavlja razdjeljivač između pojedinih dijelova
 	 * formatiranog ispisa
 	 */
-	private static final String SPLITTER = "|";
+	private static final byte SPLITTER = '|';
 	
 	/**
 	 * Konstanta koja predstavlja točku
 	 */
-	private static final String DOT = ".";
+	private static final byte DOT = '.';
+
+	/** Konstanta koja predstavlja dvotočku iza pozicije redka */
+	private static final byte COLON = ':';
+
+	/** Konstanta koja predstavlja znak novog redka */
+	private static final byte NEWLINE = '\n';
+
+	/**
+	 * Konstanta koja predstavlja najmanji broj heksadekadskih znamenki pozicije
+	 * redka
+	 */
+	private static final int OFFSET_DIGITS = 8;
+
+	/** Konstanta koja predstavlja najveću duljinu jednog ispisanog redka */
+	private static final int LINE_SIZE = 96;
+
+	/** Konstanta koja predstavlja heksadekadske znamenke malim slovima */
+	private static final byte[] LOWER_DIGITS = "0123456789abcdef".getBytes();
+
+	/** Konstanta koja predstavlja heksadekadske znamenke velikim slovima */
+	private static final byte[] UPPER_DIGITS = "0123456789ABCDEF".getBytes();
 
 	/**
 	 * Nepromijenjivi primjerak sučelja {@link List} koji predstavlja opis
@@ -93,55 +109,65 @@ public class HexdumpShellCommand implements ShellCommand {
 	}
 
 	/**
-	 * @return {@link ShellStatus#CONTINUE}
+	 * @return {@link ShellStatus#CONTINUE} ili {@link ShellStatus#FAILURE}
+	 *         ukoliko naredba nije uspjela
 	 */
 	@Override
 	public ShellStatus executeCommand(Environment env, String arguments) {
 		if (arguments == null) {
 			env.writeln(
 					"Potrebno je predati točno jedan argument (putanju do datoteke). Za više informacija upišite 'help hexdump'");
-		} else {
-			List<String> separatedArguments = ShellCommandUtil.parseArguments(env, arguments);
-			if (separatedArguments.size() == ARGUMENTS_SIZE) {
-				readFile(env, separatedArguments.get(ARGUMENT_INDEX));
-			} else {
-				env.writeln("Predali ste pogrešan broj argumenata. Tražio sam 1 ,a Vi ste predali "
-						+ separatedArguments.size());
-			}
+			return ShellStatus.FAILURE;
+		}
+
+		List<String> separatedArguments = ShellCommandUtil.parseArguments(env, arguments);
+		if (separatedArguments == null) {
+			return ShellStatus.FAILURE;
 		}
-		return ShellStatus.CONTINUE;
+		if (separatedArguments.size() != ARGUMENTS_SIZE) {
+			env.writeln("Predali ste pogrešan broj argumenata. Tražio sam 1 ,a Vi ste predali "
+					+ separatedArguments.size());
+			return ShellStatus.FAILURE;
+		}
+		return readFile(env, separatedArguments.get(ARGUMENT_INDEX)) ? ShellStatus.CONTINUE : ShellStatus.FAILURE;
 	}
 
 	/**
 	 * Pomoćna metoda koja vrši čitanje iz datoteke te za svakih 16 okteta
-	 * poziva metodu {@link #formatedOutput(Environment, int, int, byte[])}.
-	 * Ukoliko se iz datoteke ne može čitati metoda će ispisati odgovarajuću
-	 * poruku. Za ispis se koristi primjerak sučelja {@link Environment}.
+	 * poziva metodu {@link #formatedOutput(byte[], long, int, byte[])}, a
+	 * formatirani redak piše u tok okteta {@link Environment#outputStream()}.
+	 * Spremnici se stvaraju jednom po pozivu naredbe, pa ispis ne stvara nove
+	 * objekte za svaki redak. Ukoliko se iz datoteke ne može čitati metoda će
+	 * ispisati odgovarajuću poruku.
 	 *
 	 * @param env
 	 *            primjerak sučelja {@link Environment} koji se koristi za ispis
 	 * @param fileName
 	 *            primjerak razreda {@link String} koji predstavlja apsolutnu
 	 *            ili relativnu putanju do datoteke iz koje čitamo oktete
+	 * @return <b>true</b> ukoliko je datoteka ispisana, <b>false</b> inače
 	 */
-	private void readFile(Environment env, String fileName) {
+	private boolean readFile(Environment env, String fileName) {
 		Path filePath = ShellCommandUtil.extractSingleFile(env, fileName);
 		if (filePath == null) {
-			return;
+			return false;
 		}
 
 		try (BufferedInputStream bis = new BufferedInputStream(Files.newInputStream(filePath))) {
+			OutputStream out = env.outputStream();
 			byte[] buffer = new byte[BUFFER_SIZE];
+			byte[] line = new byte[LINE_SIZE];
 			int length;
-			int row = 0;
+			long offset = 0;
 			while ((length = bis.read(buffer)) != -1) {
-				formatedOutput(env, row, length, buffer);
-				row++;
+				out.write(line, 0, formatedOutput(line, offset, length, buffer));
+				offset += buffer.length;
 			}
+			return true;
 		} catch (IOException e) {
 			env.writeln(String.format("Iz datoteke '%s' se ne može čitati!", fileName));
+			return false;
 		}
-
 	}
 
 	/**
@@ -152,39 +178,51 @@ public class HexdumpShellCommand implements ShellCommand {
 	 * tablice. Nakon ispisa okteta slijede konkretni znakovi. Znakovi koji
 	 * reprezentiraju sami sebe nalaze se unutar raspona [32,127] u ASCII
 	 * tablici. Svi ostali znakovi van tog raspona reprezentirani su sa '.'
+	 * Redak se zajedno sa znakom novog redka zapisuje u polje <b>line</b>.
 	 *
-	 * @param env
-	 *            primjerak sučelja {@link Environment} koji se koristi za ispis
-	 * @param row
-	 *            broj redka koji se ispisuje
+	 * @param line
+	 *            polje u koje se zapisuje formatirani redak
+	 * @param offset
+	 *            pozicija prvog okteta redka u datoteci
 	 * @param length
 	 *            broj pročitanih znakova iz datoteke <= 16
 	 * @param buffer
 	 *            pomoćni spremnik iz kojeg se čitaju pročitani okteti iz
 	 *            datoteke
+	 * @return broj okteta zapisanih u <b>line</b>
 	 */
-	private void formatedOutput(Environment env, int row, int length, byte[] buffer) {
-		StringJoiner rowJoiner = new StringJoiner(WHITESPACE);
-		rowJoiner.add(String.format("%08x:", row * buffer.length));
-		StringBuilder textBuilder = new StringBuilder();
+	private int formatedOutput(byte[] line, long offset, int length, byte[] buffer) {
+		int pos = 0;
+		int digits = Math.max(OFFSET_DIGITS, (Long.SIZE - Long.numberOfLeadingZeros(offset) + 3) / 4);
+		for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+			line[pos++] = LOWER_DIGITS[(int) (offset >>> shift) & 0xF];
+		}
+		line[pos++] = COLON;
+
 		for (int i = 0; i < buffer.length; i++) {
+			line[pos++] = WHITESPACE;
 			if (i < length) {
-				rowJoiner.add(String.format("%02X", buffer[i]));
-				byte b = buffer[i];
-				if (b >= 32 && b <= 127) {
-					textBuilder.append((char) b);
-				} else {
-					textBuilder.append(DOT);
-				}
+				line[pos++] = UPPER_DIGITS[(buffer[i] >> 4) & 0xF];
+				line[pos++] = UPPER_DIGITS[buffer[i] & 0xF];
 			} else {
-				rowJoiner.add(TWO_WHITESPACES);
+				line[pos++] = WHITESPACE;
+				line[pos++] = WHITESPACE;
 			}
 			if (i == (buffer.length / 2 - 1)) {
-				rowJoiner.add(SPLITTER);
+				line[pos++] = WHITESPACE;
+				line[pos++] = SPLITTER;
 			}
 		}
-		rowJoiner.add(SPLITTER).add(textBuilder.toString());
-		env.writeln(rowJoiner.toString());
+		line[pos++] = WHITESPACE;
+		line[pos++] = SPLITTER;
+		line[pos++] = WHITESPACE;
+
+		for (int i = 0; i < length; i++) {
+			byte b = buffer[i];
+			line[pos++] = b >= 32 && b <= 127 ? b : DOT;
+		}
+		line[pos++] = NEWLINE;
+		return pos;
 	}
 
 	@Override
@@ -0,0 +1,76 @@
+package hr.fer.zemris.java.hw06.shell.commands;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import hr.fer.zemris.java.hw06.shell.Environment;
+import hr.fer.zemris.java.hw06.shell.ShellCommand;
+import hr.fer.zemris.java.hw06.shell.ShellJobs;
+import hr.fer.zemris.java.hw06.shell.ShellStatus;
+
+/**
+ * Razred koji predstavlja naredbu {@value #NAME}. Razred implementira sučelje
+ * {@link ShellCommand} i nudi implementaciju svih njegovih metoda.Opis naredbe
+ * dan je u nastavku:
+ *
+ * <pre>
+ * <i>Naredba ne prima niti jedan argument.</i>
+ * <i>Naredba ispisuje sve poslove pokrenute u pozadini simbolom '&amp;' na kraju naredbe.</i>
+ * <i>Za svaki posao ispisuje se broj posla, stanje posla i naredba.</i>
+ * </pre>
+ *
+ * @see ShellStatus
+ * @see ShellCommand
+ * @see ShellJobs
+ *
+ * @author Davor Češljaš
+ */
+public class JobsShellCommand implements ShellCommand {
+
+	/** Konstanta koja predstavlja naziv naredbe. */
+	public static final String NAME = "jobs";
+
+	/**
+	 * Nepromijenjivi primjerak sučelja {@link List} koji predstavlja opis
+	 * naredbe.
+	 */
+	private static final List<String> DESCRIPTION;
+
+	static {
+		String[] descriptionLines = new String[] {
+				"Naredba ne prima niti jedan argument.",
+				"Naredba ispisuje sve poslove pokrenute u pozadini simbolom '&' na kraju naredbe.",
+				"Za svaki posao ispisuje se broj posla, stanje posla i naredba."
+		};
+
+		DESCRIPTION = Collections.unmodifiableList(Arrays.asList(descriptionLines));
+	}
+
+	/**
+	 * @return {@link ShellStatus#CONTINUE} ili {@link ShellStatus#FAILURE}
+	 *         ukoliko naredba nije uspjela
+	 */
+	@Override
+	public ShellStatus executeCommand(Environment env, String arguments) {
+		if (arguments != null) {
+			env.writeln("Naredba 'jobs' ne prima dodatne argumente.Za više informacija upišite 'help jobs'");
+			return ShellStatus.FAILURE;
+		}
+
+		for (ShellJobs.Job job : env.jobs().list()) {
+			env.writeln(String.format("[%d] %-10s %s", job.getId(), job.getState(), job.getCommand()));
+		}
+		return ShellStatus.CONTINUE;
+	}
+
+	@Override
+	public String getCommandName() {
+		return NAME;
+	}
+
+	@Override
+	public List<String> getCommandDescription() {
+		return DESCRIPTION;
+	}
+}
@@ -0,0 +1,80 @@
+package hr.fer.zemris.java.hw06.shell.commands;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import hr.fer.zemris.java.hw06.shell.Environment;
+import hr.fer.zemris.java.hw06.shell.ShellCommand;
+import hr.fer.zemris.java.hw06.shell.ShellJobs;
+import hr.fer.zemris.java.hw06.shell.ShellStatus;
+import hr.fer.zemris.java.hw06.shell.util.ShellCommandUtil;
+
+/**
+ * Razred koji predstavlja naredbu {@value #NAME}. Razred implementira sučelje
+ * {@link ShellCommand} i nudi implementaciju svih njegovih metoda.Opis naredbe
+ * dan je u nastavku:
+ *
+ * <pre>
+ * <i>Naredba prima točno jedan argument.</i>
+ * <i>Predani argument predstavlja broj posla (vidjeti 'jobs') koji se prekida.</i>
+ * <i>Naredba ne čeka da posao završi. Prekinuti posao ispisuje se kao i svaki drugi završeni posao.</i>
+ * </pre>
+ *
+ * @see ShellStatus
+ * @see ShellCommand
+ * @see ShellJobs
+ *
+ * @author Davor Češljaš
+ */
+public class KillShellCommand implements ShellCommand {
+
+	/** Konstanta koja predstavlja naziv naredbe. */
+	public static final String NAME = "kill";
+
+	/**
+	 * Nepromijenjivi primjerak sučelja {@link List} koji predstavlja opis
+	 * naredbe.
+	 */
+	private static final List<String> DESCRIPTION;
+
+	static {
+		String[] descriptionLines = new String[] {
+				"Naredba prima točno jedan argument.",
+				"Predani argument predstavlja broj posla (vidjeti 'jobs') koji se prekida.",
+				"Naredba ne čeka da posao završi. Prekinuti posao ispisuje se kao i svaki drugi završeni posao."
+		};
+
+		DESCRIPTION = Collections.unmodifiableList(Arrays.asList(descriptionLines));
+	}
+
+	/**
+	 * @return {@link ShellStatus#CONTINUE} ili {@link ShellStatus#FAILURE}
+	 *         ukoliko naredba nije uspjela
+	 */
+	@Override
+	public ShellStatus executeCommand(Environment env, String arguments) {
+		if (arguments == null) {
+			env.writeln("Potrebno je predati točno jedan argument (broj posla). Za više informacija upišite 'help kill'");
+			return ShellStatus.FAILURE;
+		}
+
+		ShellJobs.Job job = ShellCommandUtil.extractJob(env, arguments);
+		if (job == null) {
+			return ShellStatus.FAILURE;
+		}
+		env.jobs().kill(job);
+		env.writeln(String.format("[%d] Prekidam: %s", job.getId(), job.getCommand()));
+		return ShellStatus.CONTINUE;
+	}
+
+	@Override
+	public String getCommandName() {
+		return NAME;
+	}
+
+	@Override
+	public List<String> getCommandDescription() {
+		return DESCRIPTION;
+	}
+}
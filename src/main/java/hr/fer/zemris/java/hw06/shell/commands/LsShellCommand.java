@@ -73,13 +73,14 @@ public class LsShellCommand implements ShellCommand {
 	}
 
 	/**
-	 * @return {@link ShellStatus#CONTINUE}
+	 * @return {@link ShellStatus#CONTINUE} ili {@link ShellStatus#FAILURE}
+	 *         ukoliko naredba nije uspjela
 	 */
 	@Override
 	public ShellStatus executeCommand(Environment env, String arguments) {
 		Path filePath = ShellCommandUtil.extractExistingDirectory(env, arguments);
-		if (filePath != null) {
-			listDirectory(env, filePath);
+		if (filePath == null || !listDirectory(env, filePath)) {
+			return ShellStatus.FAILURE;
 		}
 		return ShellStatus.CONTINUE;
 	}
@@ -97,13 +98,16 @@ public class LsShellCommand implements ShellCommand {
 	 *            primjerak razreda {@link String} koji predstavlja apsolutnu
 	 *            ili relativnu putanju do direktrorija čiji se sadržaj
 	 *            izlistava
+	 * @return <b>true</b> ukoliko je direktorij izlistan, <b>false</b> inače
 	 */
-	private void listDirectory(Environment env, Path filePath) {
+	private boolean listDirectory(Environment env, Path filePath) {
 		try {
 			SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
 			Files.list(filePath).forEach(path -> formatOutput(path, sdf, env));
+			return true;
 		} catch (IOException e) {
 			env.writeln("Ne mogu izlistati direktorij " + filePath.toString());
+			return false;
 		}
 	}
 
@@ -53,16 +53,16 @@ public class MkdirShellCommand implements ShellCommand {
 	}
 
 	/**
-	 * @return {@link ShellStatus#CONTINUE}
+	 * @return {@link ShellStatus#CONTINUE} ili {@link ShellStatus#FAILURE}
+	 *         ukoliko naredba nije uspjela
 	 */
 	@Override
 	public ShellStatus executeCommand(Environment env, String arguments) {
-		if (arguments != null) {
-			makeDirectory(arguments, env);
-		} else {
+		if (arguments == null) {
 			env.writeln("Naredba 'mkdir' mora primiti točno jedan argument. Za više informacija upišite 'help mkdir'");
+			return ShellStatus.FAILURE;
 		}
-		return ShellStatus.CONTINUE;
+		return makeDirectory(arguments, env) ? ShellStatus.CONTINUE : ShellStatus.FAILURE;
 	}
 
 	/**
@@ -84,24 +84,28 @@ public class MkdirShellCommand implements ShellCommand {
 	 *            primjerak sučelja {@link Environment} koji se koristi za ispis
 	 *            eventualnih pogrešaka
 	 * 
+	 * @return <b>true</b> ukoliko direktorij postoji nakon izvođenja,
+	 *         <b>false</b> inače
 	 * @see Files#createDirectories(Path,
 	 *      java.nio.file.attribute.FileAttribute...)
 	 * @see ShellCommandUtil#extractSinglePath(Environment, String)
 	 */
-	private void makeDirectory(String arguments, Environment env) {
+	private boolean makeDirectory(String arguments, Environment env) {
 		Path path = ShellCommandUtil.extractSinglePath(env, arguments);
 		if (path == null) {
-			return;
+			return false;
 		} else if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
 			env.writeln(String.format("Direktorij '%s' već postoji", path));
-			return;
+			return true;
 		}
 
 		try {
 			Files.createDirectories(path);
 			env.writeln(String.format("Direktorij '%s' izrađen", path));
+			return true;
 		} catch (IOException e) {
 			env.writeln("Nemam dopuštenje operacijskog sustava za izradu direktorija " + path);
+			return false;
 		}
 	}
 
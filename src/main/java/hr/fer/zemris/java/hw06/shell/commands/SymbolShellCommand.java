@@ -79,28 +79,35 @@ public class SymbolShellCommand implements ShellCommand {
 	}
 
 	/**
-	 * @return {@link ShellStatus#CONTINUE}
+	 * @return {@link ShellStatus#CONTINUE} ili {@link ShellStatus#FAILURE}
+	 *         ukoliko naredba nije uspjela
 	 */
 	@Override
 	public ShellStatus executeCommand(Environment env, String arguments) {
 		if (arguments == null) {
 			env.writeln(
 					"Naredbi 'symbol' potreban je minimalno jedan argument. Za više informacija upišite 'help symbol'");
-		} else {
-			List<String> separatedArguments = ShellCommandUtil.parseArguments(env, arguments);
-			switch (separatedArguments.size()) {
-			case GET_SYMBOL:
-				writeSymbol(env, separatedArguments.get(SYMBOL_NAME_INDEX));
-				break;
-			case SET_SYMBOL:
-				changeSymbol(env, separatedArguments);
-				break;
-			default:
-				env.writeln("Predali ste pogrešan broj argumenata. Broj argumenata: " + separatedArguments.size());
-				break;
-			}
+			return ShellStatus.FAILURE;
 		}
-		return ShellStatus.CONTINUE;
+
+		List<String> separatedArguments = ShellCommandUtil.parseArguments(env, arguments);
+		if (separatedArguments == null) {
+			return ShellStatus.FAILURE;
+		}
+		boolean success;
+		switch (separatedArguments.size()) {
+		case GET_SYMBOL:
+			success = writeSymbol(env, separatedArguments.get(SYMBOL_NAME_INDEX));
+			break;
+		case SET_SYMBOL:
+			success = changeSymbol(env, separatedArguments);
+			break;
+		default:
+			env.writeln("Predali ste pogrešan broj argumenata. Broj argumenata: " + separatedArguments.size());
+			success = false;
+			break;
+		}
+		return success ? ShellStatus.CONTINUE : ShellStatus.FAILURE;
 	}
 
 	/**
@@ -120,11 +127,12 @@ public class SymbolShellCommand implements ShellCommand {
 	 * @param separatedArguments
 	 *            {@link List} separiranih ulaznih argumenata. U ovom slučaju
 	 *            trebala bi se sastojati od točno dva argumenta
+	 * @return <b>true</b> ukoliko je simbol promijenjen, <b>false</b> inače
 	 */
-	private void changeSymbol(Environment env, List<String> separatedArguments) {
+	private boolean changeSymbol(Environment env, List<String> separatedArguments) {
 		Character newSymbol = extractNewSymbol(env, separatedArguments.get(NEW_SYMBOL_INDEX));
 		if (newSymbol == null) {
-			return;
+			return false;
 		}
 
 		String firstArgument = separatedArguments.get(SYMBOL_NAME_INDEX);
@@ -144,10 +152,11 @@ public class SymbolShellCommand implements ShellCommand {
 			break;
 		default:
 			env.writeln("Simbol '" + firstArgument + "' ne postoji!");
-			return;
+			return false;
 		}
 
 		env.writeln(String.format("Simbol za %s promijenjen iz '%c' u '%c'", firstArgument, oldSymbol, newSymbol));
+		return true;
 	}
 
 	/**
@@ -192,8 +201,9 @@ public class SymbolShellCommand implements ShellCommand {
 	 *            jedan od: {@link MyShellEnvironment#PROMPT},
 	 *            {@link MyShellEnvironment#MORELINES} ili
 	 *            {@link MyShellEnvironment#MULTILINE}
+	 * @return <b>true</b> ukoliko simbol postoji, <b>false</b> inače
 	 */
-	private void writeSymbol(Environment env, String arguments) {
+	private boolean writeSymbol(Environment env, String arguments) {
 		Character symbol = null;
 		switch (arguments) {
 		case MyShellEnvironment.PROMPT:
@@ -207,9 +217,10 @@ public class SymbolShellCommand implements ShellCommand {
 			break;
 		default:
 			env.writeln("Simbol '" + arguments + "' ne postoji!");
-			return;
+			return false;
 		}
 		env.writeln(String.format("Simbol za %s je '%c'", arguments, symbol));
+		return true;
 	}
 
 	@Override
@@ -57,13 +57,14 @@ public class TreeShellCommand implements ShellCommand {
 	}
 
 	/**
-	 * @return {@link ShellStatus#CONTINUE}
+	 * @return {@link ShellStatus#CONTINUE} ili {@link ShellStatus#FAILURE}
+	 *         ukoliko naredba nije uspjela
 	 */
 	@Override
 	public ShellStatus executeCommand(Environment env, String arguments) {
 		Path filePath = ShellCommandUtil.extractExistingDirectory(env, arguments);
-		if (filePath != null) {
-			printFileTree(filePath, env);
+		if (filePath == null || !printFileTree(filePath, env)) {
+			return ShellStatus.FAILURE;
 		}
 		return ShellStatus.CONTINUE;
 	}
@@ -85,15 +86,18 @@ public class TreeShellCommand implements ShellCommand {
 	 * @param env
 	 *            primjerak sučelja {@link Environment} koji se koristi za ispis
 	 * 
+	 * @return <b>true</b> ukoliko je stablo ispisano, <b>false</b> inače
 	 * @see TreeCommandFileVisitor
 	 * @see Files#walkFileTree(Path, java.nio.file.FileVisitor)
 	 */
-	private void printFileTree(Path filePath, Environment env) {
+	private boolean printFileTree(Path filePath, Environment env) {
 		try {
 			Files.walkFileTree(filePath, new TreeCommandFileVisitor(env));
+			return true;
 		} catch (IOException e) {
 			env.writeln(String.format("Nisam u mogućnosti rekurzivno ispisati sadržaj direktorija '%s'",
 					filePath.getFileName().toString()));
+			return false;
 		}
 	}
 
@@ -126,7 +130,10 @@ public class TreeShellCommand implements ShellCommand {
 	private static class TreeCommandFileVisitor extends SimpleFileVisitor<Path> {
 
 		/** Konstanta koja predstavlja točno jedan razmak */
-		private static final String WHITESPACE = " ";
+		private static final char WHITESPACE = ' ';
+
+		/** Konstanta koja predstavlja znak novog redka */
+		private static final char NEWLINE = '\n';
 
 		/**
 		 * Konstanta koja predstavlj koliko se znakova {@link #WHITESPACE}
@@ -148,6 +155,12 @@ public class TreeShellCommand implements ShellCommand {
 		 */
 		private Environment env;
 
+		/**
+		 * Članska varijabla koja predstavlja spremnik u kojem se slaže svaki
+		 * ispisani redak. Isti spremnik koristi se za sve redke.
+		 */
+		private final StringBuilder line = new StringBuilder();
+
 		/**
 		 * Konstruktor koji inicijalizira primjerak ovog razreda. Prilikom
 		 * inicijalizacije interna referenca na primjerak sučelja
@@ -167,15 +180,21 @@ public class TreeShellCommand implements ShellCommand {
 		 * Pomoćna metoda koja se koristi za formatirani ispis stabla.
 		 * Apstraktna reprezentacija putanje {@link Path} do trenutne
 		 * datoteke/direktorija koji se ispisuje <b>dir</b> nalazi se uvučeno sa
-		 * dva razmaka naspram svog roditelja.
+		 * dva razmaka naspram svog roditelja. Redak se slaže u spremniku
+		 * {@link #line} i ispisuje metodom {@link Environment#write(CharSequence)}.
 		 *
 		 * @param dir
 		 *            Apstraktna reprezentacija putanje {@link Path} do trenutne
 		 *            datoteke/direktorija koji se ispisuje
 		 */
 		private void formatOutput(Path dir) {
-			String spaces = String.format("%" + (level * MULTIPLYING_FACTOR) + "s", WHITESPACE);
-			env.writeln(spaces + dir.getFileName().toString());
+			line.setLength(0);
+			for (int i = level * MULTIPLYING_FACTOR; i > 0; i--) {
+				line.append(WHITESPACE);
+			}
+			Path fileName = dir.getFileName();
+			line.append(fileName == null ? dir : fileName).append(NEWLINE);
+			env.write(line);
 		}
 
 		@Override
@@ -0,0 +1,81 @@
+package hr.fer.zemris.java.hw06.shell.commands;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import hr.fer.zemris.java.hw06.shell.Environment;
+import hr.fer.zemris.java.hw06.shell.ShellCommand;
+import hr.fer.zemris.java.hw06.shell.ShellJobs;
+import hr.fer.zemris.java.hw06.shell.ShellStatus;
+import hr.fer.zemris.java.hw06.shell.util.ShellCommandUtil;
+
+/**
+ * Razred koji predstavlja naredbu {@value #NAME}. Razred implementira sučelje
+ * {@link ShellCommand} i nudi implementaciju svih njegovih metoda.Opis naredbe
+ * dan je u nastavku:
+ *
+ * <pre>
+ * <i>Naredba prima jedan ili niti jedan argument.</i>
+ * <i>Predani argument predstavlja broj posla (vidjeti 'jobs') na koji se čeka.</i>
+ * <i>Ukoliko se ne preda argument naredba čeka sve poslove redom po broju posla.</i>
+ * <i>Nakon što posao završi ispisuje se cjelokupni ispis posla.</i>
+ * <i>Naredba ne uspijeva ukoliko neki od poslova nije uspio.</i>
+ * </pre>
+ *
+ * @see ShellStatus
+ * @see ShellCommand
+ * @see ShellJobs
+ *
+ * @author Davor Češljaš
+ */
+public class WaitShellCommand implements ShellCommand {
+
+	/** Konstanta koja predstavlja naziv naredbe. */
+	public static final String NAME = "wait";
+
+	/**
+	 * Nepromijenjivi primjerak sučelja {@link List} koji predstavlja opis
+	 * naredbe.
+	 */
+	private static final List<String> DESCRIPTION;
+
+	static {
+		String[] descriptionLines = new String[] {
+				"Naredba prima jedan ili niti jedan argument.",
+				"Predani argument predstavlja broj posla (vidjeti 'jobs') na koji se čeka.",
+				"Ukoliko se ne preda argument naredba čeka sve poslove redom po broju posla.",
+				"Nakon što posao završi ispisuje se cjelokupni ispis posla.",
+				"Naredba ne uspijeva ukoliko neki od poslova nije uspio."
+		};
+
+		DESCRIPTION = Collections.unmodifiableList(Arrays.asList(descriptionLines));
+	}
+
+	/**
+	 * @return {@link ShellStatus#CONTINUE} ili {@link ShellStatus#FAILURE}
+	 *         ukoliko naredba nije uspjela
+	 */
+	@Override
+	public ShellStatus executeCommand(Environment env, String arguments) {
+		if (arguments == null) {
+			return env.jobs().waitAll(env) ? ShellStatus.CONTINUE : ShellStatus.FAILURE;
+		}
+
+		ShellJobs.Job job = ShellCommandUtil.extractJob(env, arguments);
+		if (job == null) {
+			return ShellStatus.FAILURE;
+		}
+		return env.jobs().foreground(env, job);
+	}
+
+	@Override
+	public String getCommandName() {
+		return NAME;
+	}
+
+	@Override
+	public List<String> getCommandDescription() {
+		return DESCRIPTION;
+	}
+}
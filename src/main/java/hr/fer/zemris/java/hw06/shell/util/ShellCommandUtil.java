@@ -11,15 +11,17 @@ import java.util.List;
 
 import hr.fer.zemris.java.hw06.shell.Environment;
 import hr.fer.zemris.java.hw06.shell.ShellCommand;
+import hr.fer.zemris.java.hw06.shell.ShellJobs;
 
 /**
- * Razred(biblioteka) koja nudi pet statičke metode:
+ * Razred(biblioteka) koja nudi šest statičkih metoda:
  * <ul>
  * <li>{@link #extractExistingDirectory(Environment, String)}</li>
  * <li>{@link #extractSingleFile(Environment, String)}</li>
  * <li>{@link #extractSinglePath(Environment, String)}</li>
  * <li>{@link #parseArguments(Environment, String)}</li>
  * <li>{@link #getFileAttributes(Path, Environment)}</li>
+ * <li>{@link #extractJob(Environment, String)}</li>
  * </ul>
  * 
  * Metode služe kao pomoćne metode prilikom izvršavanja naredbi koje su
@@ -191,4 +193,50 @@ public class ShellCommandUtil {
 		}
 		return null;
 	}
+
+	/**
+	 * Metoda koja iz predanog argumenta <b>argument</b> dohvaća posao iz
+	 * tablice poslova okruženja {@link Environment#jobs()}. Argument je broj
+	 * posla ili <code>null</code>, čime se dohvaća zadnje pokrenuti posao.
+	 * Metoda za ispis eventualnih pogrešaka koristi isključivo primjerak
+	 * sučelja {@link Environment}.
+	 *
+	 * @param env
+	 *            primjerak sučelja {@link Environment} koji se koristi za ispis
+	 *            eventualnih pogrešaka
+	 * @param argument
+	 *            broj posla ili <code>null</code>
+	 * @return posao ili <code>null</code> ukoliko argument nije broj posla
+	 *         ili takav posao ne postoji
+	 */
+	public static ShellJobs.Job extractJob(Environment env, String argument) {
+		if (argument == null) {
+			ShellJobs.Job job = env.jobs().last();
+			if (job == null) {
+				env.writeln("Nema poslova koji se izvode u pozadini.");
+			}
+			return job;
+		}
+
+		List<String> arguments = parseArguments(env, argument);
+		if (arguments == null) {
+			return null;
+		}
+		if (arguments.size() != 1) {
+			env.writeln("Potrebno je predati točno jedan broj posla. Vi ste predali " + arguments.size());
+			return null;
+		}
+
+		ShellJobs.Job job;
+		try {
+			job = env.jobs().get(Integer.parseInt(arguments.get(0)));
+		} catch (NumberFormatException e) {
+			env.writeln(String.format("'%s' nije ispravan broj posla.", arguments.get(0)));
+			return null;
+		}
+		if (job == null) {
+			env.writeln(String.format("Posao '%s' ne postoji. Poslove možete dobiti upisom 'jobs'", arguments.get(0)));
+		}
+		return job;
+	}
 }
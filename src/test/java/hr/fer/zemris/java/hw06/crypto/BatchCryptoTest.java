@@ -0,0 +1,172 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.path;
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.randomBytes;
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.write;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BatchCryptoTest {
+
+	private static final String KEY = "a52217e3ee213ef1ffdee3a192e2ac7e";
+
+	private static final String IV = "000102030405060708090a0b0c0dfeff";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private PrintStream originalOut;
+
+	@Before
+	public void setUp() {
+		originalOut = System.out;
+		System.setOut(new PrintStream(new ByteArrayOutputStream()));
+	}
+
+	@After
+	public void tearDown() {
+		System.setOut(originalOut);
+	}
+
+	@Test
+	public void direktorijSeKriptiraPovratno() throws Exception {
+		byte[] first = randomBytes(1000);
+		byte[] second = randomBytes(33);
+		Path source = folder.newFolder("izvor").toPath();
+		Files.createDirectories(source.resolve("a/b"));
+		Files.write(source.resolve("prva.bin"), first);
+		Files.write(source.resolve("a/b/druga.bin"), second);
+		Path encrypted = path(folder, "kriptirano");
+		Path decrypted = path(folder, "dekriptirano");
+
+		assertEquals(0,
+				batch(BatchCrypto.Operation.ENCRYPT).run(BatchCrypto.collect(source, null), source, encrypted));
+		assertEquals(0,
+				batch(BatchCrypto.Operation.DECRYPT).run(BatchCrypto.collect(encrypted, null), encrypted, decrypted));
+
+		assertArrayEquals(first, Files.readAllBytes(decrypted.resolve("prva.bin")));
+		assertArrayEquals(second, Files.readAllBytes(decrypted.resolve("a/b/druga.bin")));
+	}
+
+	@Test
+	public void popisSRelativnimIApsolutnimPutanjama() throws Exception {
+		byte[] first = randomBytes(100);
+		byte[] second = randomBytes(200);
+		Path relative = write(folder, "relativna.bin", first);
+		Path absolute = folder.newFolder("drugdje").toPath().resolve("apsolutna.bin");
+		Files.write(absolute, second);
+		Path list = write(folder, "popis.txt", (relative.getFileName() + "\n\n" + absolute + "\n").getBytes());
+		Path encrypted = path(folder, "kriptirano");
+		Path decrypted = path(folder, "dekriptirano");
+
+		List<Path> files = BatchCrypto.collect(list, null);
+		assertEquals(2, files.size());
+		assertEquals(0, batch(BatchCrypto.Operation.ENCRYPT).run(files, folder.getRoot().toPath(), encrypted));
+		assertEquals(0,
+				batch(BatchCrypto.Operation.DECRYPT).run(BatchCrypto.collect(encrypted, null), encrypted, decrypted));
+
+		assertArrayEquals(first, Files.readAllBytes(decrypted.resolve("relativna.bin")));
+		assertArrayEquals(second, Files.readAllBytes(decrypted.resolve("apsolutna.bin")));
+	}
+
+	@Test
+	public void izlazakIzCiljnogDirektorijaSeOdbija() throws Exception {
+		Path source = folder.newFolder("izvor").toPath();
+		write(folder, "tajna.bin", randomBytes(10));
+		Path target = folder.newFolder("cilj").toPath();
+
+		for (String line : new String[] { "../tajna.bin", "a/../../tajna.bin", "." }) {
+			try {
+				batch(BatchCrypto.Operation.ENCRYPT).run(Arrays.asList(source.getFileSystem().getPath(line)), source,
+						target);
+				fail(line);
+			} catch (IllegalArgumentException e) {
+				assertTrue(line, e.getMessage().contains(line));
+			}
+		}
+		assertArrayEquals(randomBytes(10), Files.readAllBytes(path(folder, "tajna.bin")));
+		assertEquals(0, target.toFile().list().length);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void isteCiljnePutanjeSeOdbijaju() throws Exception {
+		Path first = folder.newFolder("prvi").toPath().resolve("ista.bin");
+		Path second = folder.newFolder("drugi").toPath().resolve("ista.bin");
+		Files.write(first, randomBytes(10));
+		Files.write(second, randomBytes(20));
+
+		batch(BatchCrypto.Operation.ENCRYPT).run(Arrays.asList(first, second), folder.getRoot().toPath(),
+				path(folder, "cilj"));
+	}
+
+	@Test
+	public void brojNeuspjelihDatoteka() throws Exception {
+		Path source = folder.newFolder("izvor").toPath();
+		Files.write(source.resolve("postoji.bin"), randomBytes(10));
+		Path list = Files.write(source.resolve("popis.txt"), "postoji.bin\nne-postoji.bin\nni-ova.bin\n".getBytes());
+		Path target = path(folder, "cilj");
+
+		assertEquals(2, batch(BatchCrypto.Operation.ENCRYPT).run(BatchCrypto.collect(list, null), source, target));
+		assertTrue(Files.exists(target.resolve("postoji.bin")));
+	}
+
+	@Test
+	public void izlazniKodNeuspjeleObrade() throws Exception {
+		Path source = folder.newFolder("izvor").toPath();
+		Files.write(source.resolve("postoji.bin"), randomBytes(10));
+		Path list = write(folder, "popis.txt", (source.resolve("postoji.bin") + "\nne-postoji.bin\n").getBytes());
+		Path escaping = write(folder, "bijeg.txt", "../../bijeg.bin\n".getBytes());
+		PrintStream originalErr = System.err;
+		System.setErr(new PrintStream(new ByteArrayOutputStream()));
+		try {
+			assertEquals(0, Crypto.run(new String[] { "batch", "encrypt", source.toString(), path(folder, "cilj1").toString(),
+					"--key=" + KEY, "--iv=" + IV }));
+			assertEquals(2, Crypto.run(new String[] { "batch", "encrypt", list.toString(), path(folder, "cilj2").toString(),
+					"--key=" + KEY, "--iv=" + IV }));
+			assertEquals(2, Crypto.run(new String[] { "batch", "encrypt", escaping.toString(),
+					path(folder, "cilj3").toString(), "--key=" + KEY, "--iv=" + IV }));
+		} finally {
+			System.setErr(originalErr);
+		}
+		assertTrue(Files.exists(path(folder, "cilj2").resolve("postoji.bin")));
+		assertFalse(Files.exists(path(folder, "cilj3")));
+	}
+
+	@Test
+	public void neuspjelaDekripcijaBriseIzlaz() throws Exception {
+		Path source = folder.newFolder("izvor").toPath();
+		Files.write(source.resolve("podaci.bin"), randomBytes(1000));
+		Path encrypted = path(folder, "kriptirano");
+		assertEquals(0,
+				batch(BatchCrypto.Operation.ENCRYPT).run(BatchCrypto.collect(source, null), source, encrypted));
+
+		PrintStream sink = new PrintStream(new ByteArrayOutputStream());
+		Crypto.CipherParams wrongKey = new Crypto.CipherParams("00112233445566778899aabbccddeeff", IV);
+		for (IOMode ioMode : new IOMode[] { IOMode.STREAM, IOMode.MAPPED }) {
+			Path decrypted = path(folder, "dekriptirano-" + ioMode);
+			BatchCrypto batch = new BatchCrypto(BatchCrypto.Operation.DECRYPT, wrongKey, ioMode, 4096, 1, sink,
+					sink, null);
+
+			assertEquals(1, batch.run(BatchCrypto.collect(encrypted, null), encrypted, decrypted));
+			assertFalse(ioMode.toString(), Files.exists(decrypted.resolve("podaci.bin")));
+		}
+	}
+
+	private BatchCrypto batch(BatchCrypto.Operation operation) {
+		PrintStream sink = new PrintStream(new ByteArrayOutputStream());
+		return new BatchCrypto(operation, new Crypto.CipherParams(KEY, IV), IOMode.STREAM, 4096, 4, sink, sink,
+				null);
+	}
+}
@@ -0,0 +1,148 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.path;
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.randomBytes;
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.write;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CheckpointedCryptoTest {
+
+	private static final byte[] KEY = Util.hextobyte("a52217e3ee213ef1ffdee3a192e2ac7e");
+
+	private static final byte[] IV = Util.hextobyte("000102030405060708090a0b0c0dfeff");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void enkripcijaJednakaObicnoj() throws Exception {
+		byte[] data = randomBytes(100_003);
+		Path plain = write(folder, "plain.bin", data);
+		Path encrypted = path(folder, "plain.bin.crypted");
+
+		assertEquals(0, crypto(CipherMode.CBC, KEY).crypt(true, plain, encrypted));
+
+		assertArrayEquals(classic(data), Files.readAllBytes(encrypted));
+		assertFalse(Files.exists(CheckpointedCrypto.tempFor(encrypted)));
+		assertFalse(Files.exists(CheckpointedCrypto.checkpointFor(encrypted)));
+	}
+
+	@Test
+	public void prekinutaEnkripcijaSeNastavlja() throws Exception {
+		byte[] data = randomBytes(50_000);
+		Path plain = write(folder, "plain.bin", data);
+		Path encrypted = path(folder, "plain.bin.crypted");
+
+		long resumed = interruptAndResume(crypto(CipherMode.CBC, KEY), true, plain, encrypted);
+
+		assertTrue(resumed > 0);
+		assertArrayEquals(classic(data), Files.readAllBytes(encrypted));
+	}
+
+	@Test
+	public void prekinutaDekripcijaSeNastavlja() throws Exception {
+		byte[] data = randomBytes(50_001);
+		Path encrypted = write(folder, "plain.bin.crypted", classic(data));
+		Path decrypted = path(folder, "plain.bin.decrypted");
+
+		long resumed = interruptAndResume(crypto(CipherMode.CBC, KEY), false, encrypted, decrypted);
+
+		assertTrue(resumed > 0);
+		assertArrayEquals(data, Files.readAllBytes(decrypted));
+	}
+
+	@Test
+	public void prekinutCtrSeNastavlja() throws Exception {
+		byte[] data = randomBytes(30_007);
+		Path plain = write(folder, "plain.bin", data);
+		Path encrypted = path(folder, "plain.bin.crypted");
+		Path decrypted = path(folder, "plain.bin.decrypted");
+
+		CheckpointedCrypto crypto = crypto(CipherMode.CTR, KEY);
+		assertTrue(interruptAndResume(crypto, true, plain, encrypted) > 0);
+		assertEquals(data.length, Files.size(encrypted));
+		assertTrue(interruptAndResume(crypto, false, encrypted, decrypted) > 0);
+		assertArrayEquals(data, Files.readAllBytes(decrypted));
+	}
+
+	@Test
+	public void drugiKljucKreceIspocetka() throws Exception {
+		Path plain = write(folder, "plain.bin", randomBytes(20_000));
+		Path encrypted = path(folder, "plain.bin.crypted");
+		interrupt(crypto(CipherMode.CBC, KEY), true, plain, encrypted);
+
+		byte[] otherKey = KEY.clone();
+		otherKey[0] ^= 1;
+		assertEquals(0, crypto(CipherMode.CBC, otherKey).crypt(true, plain, encrypted));
+	}
+
+	@Test
+	public void neuspjelaDekripcijaBrisePrivremeneDatoteke() throws Exception {
+		Path encrypted = write(folder, "plain.bin.crypted", classic(randomBytes(5000)));
+		Path decrypted = path(folder, "plain.bin.decrypted");
+
+		byte[] otherKey = KEY.clone();
+		otherKey[0] ^= 1;
+		try {
+			crypto(CipherMode.CBC, otherKey).crypt(false, encrypted, decrypted);
+			fail();
+		} catch (GeneralSecurityException e) {
+			// očekivano
+		}
+
+		assertFalse(Files.exists(decrypted));
+		assertFalse(Files.exists(CheckpointedCrypto.tempFor(decrypted)));
+		assertFalse(Files.exists(CheckpointedCrypto.checkpointFor(decrypted)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void gcmNijePodrzan() {
+		new CheckpointedCrypto("AES", CipherMode.GCM, KEY, IV, 4096, 4096);
+	}
+
+	/**
+	 * Prekida kriptiranje tako da se ciljna datoteka ne može zamijeniti, pa
+	 * privremena datoteka i spremljena točka ostaju kao nakon pada programa.
+	 */
+	private void interrupt(CheckpointedCrypto crypto, boolean encrypt, Path from, Path to) throws Exception {
+		Files.createDirectories(to.resolve("blokada"));
+		try {
+			crypto.crypt(encrypt, from, to);
+			fail();
+		} catch (IOException e) {
+			// očekivano
+		}
+		assertTrue(Files.exists(CheckpointedCrypto.checkpointFor(to)));
+		Files.delete(to.resolve("blokada"));
+		Files.delete(to);
+	}
+
+	private long interruptAndResume(CheckpointedCrypto crypto, boolean encrypt, Path from, Path to)
+			throws Exception {
+		interrupt(crypto, encrypt, from, to);
+		long resumed = crypto.crypt(encrypt, from, to);
+		assertFalse(Files.exists(CheckpointedCrypto.checkpointFor(to)));
+		return resumed;
+	}
+
+	private static CheckpointedCrypto crypto(CipherMode mode, byte[] key) {
+		return new CheckpointedCrypto("AES", mode, key, IV, 1000, 4096);
+	}
+
+	private static byte[] classic(byte[] data) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Crypto.cryptStream(Crypto.initCipher(true, KEY, IV), new ByteArrayInputStream(data), out);
+		return out.toByteArray();
+	}
+}
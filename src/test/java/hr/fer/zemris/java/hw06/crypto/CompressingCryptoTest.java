@@ -0,0 +1,148 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.path;
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.write;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import javax.crypto.Cipher;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CompressingCryptoTest {
+
+	private static final byte[] KEY = Util.hextobyte("a52217e3ee213ef1ffdee3a192e2ac7e");
+
+	private static final byte[] OTHER_KEY = Util.hextobyte("00112233445566778899aabbccddeeff");
+
+	private static final byte[] IV = Util.hextobyte("000102030405060708090a0b0c0dfeff");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test(timeout = 10_000)
+	public void sazimanjeIRaspakiravanje() throws Exception {
+		byte[] data = logLines(200_000);
+		Path plain = write(folder, "app.log", data);
+		Path encrypted = path(folder, "app.log.crypted");
+		Path decrypted = path(folder, "app.log.decrypted");
+		CompressingCrypto crypto = new CompressingCrypto(4096, Deflater.DEFAULT_COMPRESSION, 2);
+
+		long compressed = crypto.encrypt(cipher(true, KEY), plain, encrypted);
+		assertEquals(compressed, crypto.decrypt(cipher(false, KEY), encrypted, decrypted));
+
+		assertArrayEquals(data, Files.readAllBytes(decrypted));
+		assertTrue(compressed < data.length / 3);
+		assertTrue(Files.size(encrypted) < data.length / 3);
+	}
+
+	@Test(timeout = 10_000)
+	public void nesazetljiviIPrazniPodaci() throws Exception {
+		CompressingCrypto crypto = new CompressingCrypto(1000, 1, 1);
+		for (int size : new int[] { 0, 1, 100_003 }) {
+			byte[] data = new byte[size];
+			new Random(size).nextBytes(data);
+			Path plain = write(folder, "plain.bin", data);
+			Path encrypted = path(folder, "plain.bin.crypted");
+			Path decrypted = path(folder, "plain.bin.decrypted");
+
+			crypto.encrypt(cipher(true, KEY), plain, encrypted);
+			crypto.decrypt(cipher(false, KEY), encrypted, decrypted);
+
+			assertArrayEquals(data, Files.readAllBytes(decrypted));
+		}
+	}
+
+	@Test(timeout = 10_000)
+	public void pogresanKljucNeBlokira() throws Exception {
+		Path plain = write(folder, "app.log", logLines(100_000));
+		Path encrypted = path(folder, "app.log.crypted");
+		CompressingCrypto crypto = new CompressingCrypto(512, 6, 2);
+		crypto.encrypt(cipher(true, KEY), plain, encrypted);
+
+		try {
+			crypto.decrypt(cipher(false, OTHER_KEY), encrypted, path(folder, "app.log.decrypted"));
+			fail();
+		} catch (IOException | GeneralSecurityException expected) {
+		}
+	}
+
+	@Test(timeout = 10_000)
+	public void prekidBudiProizvodaca() throws Exception {
+		BufferPipe pipe = new BufferPipe(1, 4);
+		OutputStream out = pipe.outputStream();
+		out.write(new byte[4]);
+
+		Thread consumer = new Thread(() -> pipe.abort(new IOException("potrošač")));
+		consumer.start();
+		try {
+			out.write(new byte[4]);
+			fail();
+		} catch (IOException e) {
+			assertEquals("potrošač", e.getCause().getMessage());
+		}
+		consumer.join();
+	}
+
+	@Test(timeout = 10_000)
+	public void redPrenosiSvePodatke() throws Exception {
+		BufferPipe pipe = new BufferPipe(3, 7);
+		byte[] data = new byte[1000];
+		new Random(1).nextBytes(data);
+
+		Thread producer = new Thread(() -> {
+			try (OutputStream out = pipe.outputStream()) {
+				for (int i = 0; i < data.length; i += 13) {
+					out.write(data, i, Math.min(13, data.length - i));
+				}
+			} catch (IOException e) {
+				pipe.abort(e);
+			}
+		});
+		producer.start();
+
+		ByteArrayOutputStream received = new ByteArrayOutputStream();
+		InputStream in = pipe.inputStream();
+		byte[] buffer = new byte[5];
+		int len;
+		while ((len = in.read(buffer)) != -1) {
+			received.write(buffer, 0, len);
+		}
+		producer.join();
+
+		assertArrayEquals(data, received.toByteArray());
+		assertEquals(data.length, pipe.getTransferred());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void neispravnaRazina() {
+		new CompressingCrypto(1024, 10, 4);
+	}
+
+	private static Cipher cipher(boolean encrypt, byte[] key) throws GeneralSecurityException {
+		return Crypto.initCipher(encrypt, key, IV, "AES", CipherMode.CBC);
+	}
+
+	private static byte[] logLines(int size) {
+		StringBuilder sb = new StringBuilder(size + 100);
+		Random random = new Random(42);
+		while (sb.length() < size) {
+			sb.append("2026-10-17 12:00:").append(random.nextInt(60)).append(" INFO  [worker-")
+					.append(random.nextInt(8)).append("] obrađen zahtjev ").append(random.nextInt(10_000))
+					.append('\n');
+		}
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,93 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import static org.junit.Assert.*;
+
+import java.security.MessageDigest;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Test;
+
+public class CryptoContextTest {
+
+	private static final byte[] KEY = Util.hextobyte("a52217e3ee213ef1ffdee3a192e2ac7e");
+
+	private static final byte[] IV = Util.hextobyte("000102030405060708090a0b0c0dfeff");
+
+	@Test
+	public void istiPrimjerakUnutarDretve() throws Exception {
+		Cipher first = CryptoContext.initCipher(true, KEY, IV, "AES", CipherMode.CBC);
+		Cipher second = CryptoContext.initCipher(false, KEY, IV, "AES", CipherMode.CBC);
+		assertSame(first, second);
+		assertSame(CryptoContext.digest("SHA-256"), CryptoContext.digest("SHA-256"));
+		assertSame(CryptoContext.key(KEY, "AES"), CryptoContext.key(KEY.clone(), "AES"));
+	}
+
+	@Test
+	public void razlicitPrimjerakUDrugojDretvi() throws Exception {
+		MessageDigest md = CryptoContext.digest("SHA-256");
+		AtomicReference<MessageDigest> other = new AtomicReference<>();
+		Thread thread = new Thread(() -> {
+			try {
+				other.set(CryptoContext.digest("SHA-256"));
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		});
+		thread.start();
+		thread.join();
+
+		assertNotNull(other.get());
+		assertNotSame(md, other.get());
+	}
+
+	@Test
+	public void ponovnoKoristenjeDajeIstiRezultat() throws Exception {
+		byte[] data = new byte[10_000];
+		new Random(1).nextBytes(data);
+
+		byte[] expected = Crypto.initCipher(true, KEY, IV).doFinal(data);
+		assertArrayEquals(expected, CryptoContext.initCipher(true, KEY, IV, "AES", CipherMode.CBC).doFinal(data));
+		assertArrayEquals(expected, CryptoContext.initCipher(true, KEY, IV, "AES", CipherMode.CBC).doFinal(data));
+
+		byte[] decrypted = CryptoContext.initCipher(false, KEY, IV, "AES", CipherMode.CBC).doFinal(expected);
+		assertArrayEquals(data, decrypted);
+	}
+
+	@Test
+	public void sumaJeUPocetnomStanju() throws Exception {
+		byte[] expected = MessageDigest.getInstance("SHA-256").digest(new byte[] { 1, 2, 3 });
+
+		CryptoContext.digest("SHA-256").update(new byte[] { 9, 9, 9 });
+		MessageDigest md = CryptoContext.digest("SHA-256");
+		md.update(new byte[] { 1, 2, 3 });
+		assertArrayEquals(expected, md.digest());
+	}
+
+	@Test
+	public void noviKljucZamjenjujeStari() {
+		byte[] otherKey = KEY.clone();
+		otherKey[0] ^= 1;
+		assertArrayEquals(otherKey, CryptoContext.key(otherKey, "AES").getEncoded());
+		assertArrayEquals(KEY, CryptoContext.key(KEY, "AES").getEncoded());
+	}
+
+	@Test
+	public void promjenaPredanihOktetaNeMijenjaZapamceniKljuc() {
+		byte[] key = KEY.clone();
+		SecretKeySpec spec = CryptoContext.key(key, "AES");
+		key[0] ^= 1;
+
+		assertNotSame(spec, CryptoContext.key(key, "AES"));
+		assertArrayEquals(key, CryptoContext.key(key, "AES").getEncoded());
+		assertArrayEquals(KEY, CryptoContext.key(KEY, "AES").getEncoded());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void gcmNijePodrzan() throws Exception {
+		CryptoContext.initCipher(true, KEY, new byte[12], "AES", CipherMode.GCM);
+	}
+}
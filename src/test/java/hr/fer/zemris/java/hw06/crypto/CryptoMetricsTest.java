@@ -0,0 +1,101 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.Random;
+
+import javax.crypto.Cipher;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CryptoMetricsTest {
+
+	private static final byte[] KEY = Util.hextobyte("a52217e3ee213ef1ffdee3a192e2ac7e");
+
+	private static final byte[] IV = Util.hextobyte("000102030405060708090a0b0c0dfeff");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void sazetakUFormatuJson() {
+		CryptoMetrics metrics = new CryptoMetrics("encrypt", 2_000_000);
+		metrics.addRead(1_000_000, 3_000_000_000L);
+		metrics.addCipher(1_000_000_000L);
+		metrics.addWrite(500_000_000L);
+		metrics.finish();
+
+		String json = metrics.toJson();
+		assertTrue(json.startsWith("{\"operation\":\"encrypt\",\"bytes\":1000000,\"totalBytes\":2000000,"));
+		assertTrue(json.contains("\"readSeconds\":3.000000,\"cipherSeconds\":1.000000,\"writeSeconds\":0.500000"));
+		assertTrue(json.endsWith("\"bound\":\"io\"}"));
+		assertEquals(1_000_000, metrics.getBytes());
+	}
+
+	@Test
+	public void ogranicenjeProcesorom() {
+		CryptoMetrics metrics = new CryptoMetrics("decrypt", -1);
+		metrics.addRead(10, 100);
+		metrics.addCipher(1000);
+		metrics.addWrite(100);
+
+		assertEquals("cpu", metrics.getBound());
+		assertFalse(metrics.progressLine().contains("%"));
+	}
+
+	@Test
+	public void redakNapretka() {
+		CryptoMetrics metrics = new CryptoMetrics("encrypt", 4_000_000);
+		metrics.addRead(1_000_000, 1);
+
+		String line = metrics.progressLine();
+		assertTrue(line, line.startsWith("[encrypt] 1.0 MB od 4.0 MB (25.0 %)"));
+		assertTrue(line, line.contains("MB/s"));
+	}
+
+	@Test
+	public void mjerenjeKanalaITokova() throws Exception {
+		byte[] data = new byte[100_003];
+		new Random(1).nextBytes(data);
+		Path plain = Files.write(folder.getRoot().toPath().resolve("plain.bin"), data);
+
+		for (IOMode mode : new IOMode[] { IOMode.DIRECT, IOMode.MAPPED }) {
+			CryptoMetrics metrics = new CryptoMetrics("encrypt", data.length);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			try (FileChannel in = FileChannel.open(plain, StandardOpenOption.READ)) {
+				new ChannelCrypto(mode, 4096).crypt(cipher(), in, Channels.newChannel(out), metrics);
+			}
+			assertEquals(data.length, metrics.getBytes());
+			assertEquals(expected(data).length, out.size());
+		}
+
+		CryptoMetrics metrics = new CryptoMetrics("encrypt", data.length);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Crypto.cryptStream(cipher(), new ByteArrayInputStream(data), out, 4096, metrics);
+		assertEquals(data.length, metrics.getBytes());
+		assertArrayEquals(expected(data), out.toByteArray());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void neispravanRazmakIspisa() {
+		new CryptoMetrics("encrypt", 0).startReporting(System.err, 0);
+	}
+
+	private static byte[] expected(byte[] data) throws GeneralSecurityException {
+		return cipher().doFinal(data);
+	}
+
+	private static Cipher cipher() throws GeneralSecurityException {
+		return Crypto.initCipher(true, KEY, IV, "AES", CipherMode.CBC);
+	}
+}
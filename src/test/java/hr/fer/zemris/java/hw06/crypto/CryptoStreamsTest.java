@@ -0,0 +1,166 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.randomBytes;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+
+import org.junit.Test;
+
+public class CryptoStreamsTest {
+
+	private static final byte[] KEY = Util.hextobyte("a52217e3ee213ef1ffdee3a192e2ac7e");
+
+	private static final byte[] IV = Util.hextobyte("000102030405060708090a0b0c0dfeff");
+
+	@Test
+	public void izlazniTokJednakProgramu() throws Exception {
+		byte[] data = randomBytes(50_000);
+
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		Crypto.cryptStream(Crypto.initCipher(true, KEY, IV), new ByteArrayInputStream(data), expected);
+
+		ByteArrayOutputStream actual = new ByteArrayOutputStream();
+		try (OutputStream out = CryptoStreams.encryptingOutput(actual, KEY, IV)) {
+			out.write(data, 0, 100);
+			out.write(data[100]);
+			out.write(data, 101, data.length - 101);
+		}
+
+		assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+	}
+
+	@Test
+	public void ulazniTokPovratno() throws Exception {
+		byte[] data = randomBytes(20_001);
+
+		byte[] encrypted = readAll(CryptoStreams.encryptingInput(new ByteArrayInputStream(data), KEY, IV));
+		assertEquals(20_016, encrypted.length);
+
+		byte[] decrypted = readAll(CryptoStreams.decryptingInput(new ByteArrayInputStream(encrypted), KEY, IV));
+		assertArrayEquals(data, decrypted);
+	}
+
+	@Test
+	public void ulazniTokPraznogSadrzaja() throws Exception {
+		byte[] encrypted = readAll(CryptoStreams.encryptingInput(new ByteArrayInputStream(new byte[0]), KEY, IV));
+		assertEquals(16, encrypted.length);
+
+		byte[] decrypted = readAll(CryptoStreams.decryptingInput(new ByteArrayInputStream(encrypted), KEY, IV));
+		assertEquals(0, decrypted.length);
+	}
+
+	@Test
+	public void kanaliPovratno() throws Exception {
+		byte[] data = randomBytes(300_000);
+
+		ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+		try (WritableByteChannel out = CryptoStreams.encryptingWritable(Channels.newChannel(encrypted), KEY, IV)) {
+			out.write(ByteBuffer.wrap(data));
+		}
+
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		Crypto.cryptStream(Crypto.initCipher(true, KEY, IV), new ByteArrayInputStream(data), expected);
+		assertArrayEquals(expected.toByteArray(), encrypted.toByteArray());
+
+		ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+		try (ReadableByteChannel in = CryptoStreams.decryptingReadable(
+				Channels.newChannel(new ByteArrayInputStream(encrypted.toByteArray())), KEY, IV)) {
+			ByteBuffer buffer = ByteBuffer.allocate(1000);
+			while (in.read(buffer) != -1) {
+				buffer.flip();
+				decrypted.write(buffer.array(), 0, buffer.limit());
+				buffer.clear();
+			}
+		}
+
+		assertArrayEquals(data, decrypted.toByteArray());
+	}
+
+	@Test(expected = java.io.IOException.class)
+	public void pogresanKljucPrijavljujeIznimku() throws Exception {
+		byte[] encrypted = readAll(CryptoStreams.encryptingInput(new ByteArrayInputStream(randomBytes(100)), KEY, IV));
+		byte[] wrongKey = KEY.clone();
+		wrongKey[0] ^= 1;
+		readAll(CryptoStreams.decryptingInput(new ByteArrayInputStream(encrypted), wrongKey, IV));
+	}
+
+	@Test
+	public void zastitnaSumaUsput() throws Exception {
+		byte[] data = randomBytes(10_000);
+		byte[] expected = MessageDigest.getInstance("SHA-256").digest(data);
+
+		DigestInputStream in = CryptoStreams.digestingInput(new ByteArrayInputStream(data));
+		assertArrayEquals(data, readAll(in));
+		assertArrayEquals(expected, in.getMessageDigest().digest());
+
+		ByteArrayOutputStream copy = new ByteArrayOutputStream();
+		DigestOutputStream out = CryptoStreams.digestingOutput(copy);
+		out.write(data);
+		out.close();
+		assertArrayEquals(expected, out.getMessageDigest().digest());
+	}
+
+	@Test
+	public void heksadekadskiTokJednakUtil() throws Exception {
+		byte[] data = randomBytes(20_001);
+
+		ByteArrayOutputStream hex = new ByteArrayOutputStream();
+		try (OutputStream out = CryptoStreams.hexEncodingOutput(hex)) {
+			out.write(data, 0, 10);
+			out.write(data[10]);
+			out.write(data, 11, data.length - 11);
+		}
+
+		assertEquals(Util.bytetohex(data), new String(hex.toByteArray(), StandardCharsets.US_ASCII));
+		assertArrayEquals(data, readAll(CryptoStreams.hexDecodingInput(new ByteArrayInputStream(hex.toByteArray()))));
+	}
+
+	@Test
+	public void heksadekadskiTokZanemarujePraznine() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		byte[] data = randomBytes(9000);
+		String hex = Util.bytetohex(data).toUpperCase();
+		for (int i = 0; i < hex.length(); i += 61) {
+			sb.append(hex, i, Math.min(hex.length(), i + 61)).append(i % 2 == 0 ? "\r\n" : " \t");
+		}
+
+		byte[] decoded = readAll(
+				CryptoStreams.hexDecodingInput(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.US_ASCII))));
+		assertArrayEquals(data, decoded);
+	}
+
+	@Test(expected = IOException.class)
+	public void heksadekadskiTokNeparanBrojZnamenki() throws Exception {
+		readAll(CryptoStreams.hexDecodingInput(new ByteArrayInputStream("abc\n".getBytes(StandardCharsets.US_ASCII))));
+	}
+
+	@Test(expected = IOException.class)
+	public void heksadekadskiTokNeispravanZnak() throws Exception {
+		readAll(CryptoStreams.hexDecodingInput(new ByteArrayInputStream("a1zz".getBytes(StandardCharsets.US_ASCII))));
+	}
+
+	private static byte[] readAll(InputStream in) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[777];
+		try (InputStream is = in) {
+			int read;
+			while ((read = is.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+		}
+		return out.toByteArray();
+	}
+}
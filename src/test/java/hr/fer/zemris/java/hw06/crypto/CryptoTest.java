@@ -0,0 +1,271 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.path;
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.randomBytes;
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.write;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CryptoTest {
+
+	private static final String KEY = "a52217e3ee213ef1ffdee3a192e2ac7e";
+
+	private static final String IV = "000102030405060708090a0b0c0dfeff";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private PrintStream originalOut;
+
+	private InputStream originalIn;
+
+	private PrintStream originalErr;
+
+	@Before
+	public void setUp() {
+		originalOut = System.out;
+		originalIn = System.in;
+		originalErr = System.err;
+		System.setOut(new PrintStream(new ByteArrayOutputStream()));
+	}
+
+	@After
+	public void tearDown() {
+		System.setOut(originalOut);
+		System.setIn(originalIn);
+		System.setErr(originalErr);
+	}
+
+	@Test
+	public void kriptiranjeBezUnosaSKonzole() throws Exception {
+		byte[] data = randomBytes(10_000);
+		Path plain = write(folder, "plain.bin", data);
+		Path encrypted = path(folder, "plain.bin.crypted");
+		Path decrypted = path(folder, "plain.bin.decrypted");
+		Path keyFile = write(folder, "key.txt", (KEY + "\n" + IV + "\n").getBytes());
+		System.setIn(new ByteArrayInputStream(new byte[0]));
+
+		assertEquals(0, Crypto.run(new String[] { "encrypt", plain.toString(), encrypted.toString(), "--key=" + KEY,
+				"--iv=" + IV }));
+		assertEquals(0, Crypto.run(new String[] { "decrypt", encrypted.toString(), decrypted.toString(),
+				"--key-file=" + keyFile }));
+
+		assertArrayEquals(data, Files.readAllBytes(decrypted));
+	}
+
+	@Test
+	public void ocekivanaSumaIzOpcijeIDatoteke() throws Exception {
+		byte[] data = randomBytes(1000);
+		Path file = write(folder, "a.bin", data);
+		String digest = Util.bytetohex(MessageDigest.getInstance("SHA-256").digest(data));
+		Path sums = write(folder, "a.sha256", (digest + "  a.bin\n").getBytes());
+
+		assertEquals(0, Crypto.run(new String[] { "checksha", file.toString(), "--no-cache", "--expected=" + digest }));
+		assertEquals(0, Crypto.run(new String[] { "checksha", file.toString(), "--no-cache", "--expected-file=" + sums }));
+		assertEquals(1, Crypto.run(new String[] { "checksha", file.toString(), "--no-cache", "--expected=00" }));
+	}
+
+	@Test
+	public void standardniUlazSeNeZatvara() throws Exception {
+		byte[] data = randomBytes(1000);
+		Path file = write(folder, "a.bin", data);
+		String digest = Util.bytetohex(MessageDigest.getInstance("SHA-256").digest(data));
+		System.setIn(new ByteArrayInputStream((digest + "\n00\n" + digest + "\n").getBytes()));
+
+		assertEquals(0, Crypto.run(new String[] { "checksha", file.toString(), "--no-cache" }));
+		assertEquals(1, Crypto.run(new String[] { "checksha", file.toString(), "--no-cache" }));
+		assertEquals(0, Crypto.run(new String[] { "checksha", file.toString(), "--no-cache", "--expected-fd=0" }));
+	}
+
+	@Test
+	public void kljucBezVektoraNijeDopusten() throws Exception {
+		Path plain = write(folder, "plain.bin", randomBytes(100));
+		Path encrypted = path(folder, "plain.bin.crypted");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(out, true, "UTF-8"));
+
+		Crypto.run(new String[] { "encrypt", plain.toString(), encrypted.toString(), "--key=" + KEY });
+
+		assertTrue(new String(out.toByteArray(), "UTF-8").contains("--iv"));
+	}
+
+	@Test
+	public void kanaliDajuIsteOkteteKaoTokovi() throws Exception {
+		for (int size : new int[] { 0, 1, 15, 16, 17, 4097, 100_003 }) {
+			byte[] data = randomBytes(size);
+			Path plain = write(folder, "plain" + size + ".bin", data);
+			Path expected = path(folder, "plain" + size + ".stream");
+			assertEquals(0, Crypto.run(new String[] { "encrypt", plain.toString(), expected.toString(), "--key=" + KEY,
+					"--iv=" + IV, "--io=stream" }));
+			byte[] encrypted = Files.readAllBytes(expected);
+
+			for (String io : new String[] { "mapped", "direct" }) {
+				// spremnik koji nije poravnat s blokom
+				for (String bufferSize : new String[] { "1000", "65536" }) {
+					String name = "plain" + size + "." + io + bufferSize;
+					Path crypted = path(folder, name + ".crypted");
+					Path decrypted = path(folder, name + ".decrypted");
+
+					assertEquals(name, 0, Crypto.run(new String[] { "encrypt", plain.toString(), crypted.toString(),
+							"--key=" + KEY, "--iv=" + IV, "--io=" + io, "--buffer-size=" + bufferSize }));
+					assertEquals(name, 0, Crypto.run(new String[] { "decrypt", expected.toString(),
+							decrypted.toString(), "--key=" + KEY, "--iv=" + IV, "--io=" + io,
+							"--buffer-size=" + bufferSize }));
+
+					assertArrayEquals(name, encrypted, Files.readAllBytes(crypted));
+					assertArrayEquals(name, data, Files.readAllBytes(decrypted));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void neuspjeloDekodiranjeBriseIzlaz() throws Exception {
+		byte[] data = randomBytes(10_000);
+		Path plain = write(folder, "plain.bin", data);
+		Path hex = path(folder, "plain.hex");
+		Path decoded = path(folder, "plain.decoded");
+		assertEquals(0, Crypto.run(new String[] { "hexencode", plain.toString(), hex.toString() }));
+		assertEquals(0, Crypto.run(new String[] { "hexdecode", hex.toString(), decoded.toString() }));
+		assertArrayEquals(data, Files.readAllBytes(decoded));
+
+		byte[] encoded = Files.readAllBytes(hex);
+		Path odd = write(folder, "odd.hex", Arrays.copyOf(encoded, encoded.length - 1));
+		encoded[encoded.length - 10] = 'x';
+		Path invalid = write(folder, "invalid.hex", encoded);
+		for (Path source : new Path[] { odd, invalid }) {
+			Path target = path(folder, source.getFileName() + ".decoded");
+
+			assertEquals(2, Crypto.run(new String[] { "hexdecode", source.toString(), target.toString() }));
+			assertFalse(Files.exists(target));
+		}
+	}
+
+	@Test
+	public void neuspjeleOperacijeVracajuKodPogreske() throws Exception {
+		byte[] data = randomBytes(10_000);
+		Path plain = write(folder, "plain.bin", data);
+		Path missing = path(folder, "ne-postoji.bin");
+		String wrongKey = "--key=" + KEY.replace('a', 'b');
+		String[] key = { "--key=" + KEY, "--iv=" + IV };
+
+		assertEquals(2, Crypto.run(new String[] { "encrypt", missing.toString(), path(folder, "x.crypted").toString(), key[0],
+				key[1] }));
+		for (String option : new String[] { "--format=segmented", "--mode=gcm", "--checkpoint", "--compress",
+				"--digest" }) {
+			assertEquals(option, 2, Crypto.run(new String[] { "encrypt", missing.toString(),
+					path(folder, "x.crypted").toString(), key[0], key[1], option }));
+		}
+
+		Path encrypted = path(folder, "plain.gcm");
+		Path decrypted = path(folder, "plain.gcm.decrypted");
+		assertEquals(0, Crypto.run(new String[] { "encrypt", plain.toString(), encrypted.toString(), key[0], key[1],
+				"--mode=gcm" }));
+		assertEquals(2, Crypto.run(new String[] { "decrypt", encrypted.toString(), decrypted.toString(), wrongKey,
+				key[1], "--mode=gcm" }));
+		assertFalse(Files.exists(decrypted));
+		assertEquals(2, Crypto.run(new String[] { "decrypt-range", encrypted.toString(), "10", "100",
+				decrypted.toString(), wrongKey, key[1] }));
+		assertFalse(Files.exists(decrypted));
+
+		Path cbc = path(folder, "plain.cbc");
+		assertEquals(0, Crypto.run(new String[] { "encrypt", plain.toString(), cbc.toString(), key[0], key[1] }));
+		assertEquals(2, Crypto.run(new String[] { "decrypt", cbc.toString(), decrypted.toString(), wrongKey,
+				key[1] }));
+		assertFalse(Files.exists(decrypted));
+
+		assertEquals(2, Crypto.run(new String[] { "checksha", plain.toString(), "--algorithms=SHA-256,NEPOSTOJECI" }));
+		assertEquals(0, Crypto.run(new String[] { "checksha", plain.toString(), "--algorithms=SHA-256,MD5" }));
+	}
+
+	@Test
+	public void nepoklapanjeSumeNakonDekripcije() throws Exception {
+		Path plain = write(folder, "plain.bin", randomBytes(1000));
+		Path encrypted = path(folder, "plain.bin.crypted");
+		Path decrypted = path(folder, "plain.bin.decrypted");
+		Path manifest = path(folder, "plain.sha256");
+		assertEquals(0, Crypto.run(new String[] { "encrypt", plain.toString(), encrypted.toString(), "--key=" + KEY,
+				"--iv=" + IV, "--digest", "--manifest=" + manifest }));
+		Files.write(manifest, (Util.bytetohex(new byte[32]) + "  plain.bin\n").getBytes());
+
+		assertEquals(1, Crypto.run(new String[] { "decrypt", encrypted.toString(), decrypted.toString(),
+				"--key=" + KEY, "--iv=" + IV, "--digest", "--manifest=" + manifest }));
+		assertFalse(Files.exists(decrypted));
+	}
+
+	@Test
+	public void neuspjelaDekripcijaSaSumomBriseIzlaz() throws Exception {
+		Path plain = write(folder, "plain.bin", randomBytes(1000));
+		Path encrypted = path(folder, "plain.bin.crypted");
+		Path decrypted = path(folder, "plain.bin.decrypted");
+		assertEquals(0, Crypto.run(new String[] { "encrypt", plain.toString(), encrypted.toString(), "--key=" + KEY,
+				"--iv=" + IV, "--digest" }));
+
+		assertEquals(2, Crypto.run(new String[] { "decrypt", encrypted.toString(), decrypted.toString(),
+				"--key=00112233445566778899aabbccddeeff", "--iv=" + IV, "--digest" }));
+		assertFalse(Files.exists(decrypted));
+	}
+
+	@Test
+	public void pogreskaRasponaNavodiPutanju() throws Exception {
+		Path plain = write(folder, "plain.bin", randomBytes(1000));
+		Path encrypted = path(folder, "plain.bin.crypted");
+		assertEquals(0, Crypto.run(new String[] { "encrypt", plain.toString(), encrypted.toString(), "--key=" + KEY,
+				"--iv=" + IV, "--format=segmented" }));
+		Path missingSource = path(folder, "ne-postoji.bin");
+		Path unwritableTarget = path(folder, "ne-postoji/raspon.bin");
+
+		// izvor, odredište i putanja koja nije uspjela
+		Path[][] cases = { { missingSource, path(folder, "raspon.bin"), missingSource },
+				{ encrypted, unwritableTarget, unwritableTarget } };
+		for (Path[] paths : cases) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			System.setOut(new PrintStream(out, true, "UTF-8"));
+
+			assertEquals(2, Crypto.run(new String[] { "decrypt-range", paths[0].toString(), "10", "100",
+					paths[1].toString(), "--key=" + KEY, "--iv=" + IV }));
+			String message = new String(out.toByteArray(), "UTF-8");
+			assertTrue(message, message.contains(": " + paths[2]));
+		}
+	}
+
+	@Test
+	public void nepodrzaneKombinacijeOpcija() throws Exception {
+		Path plain = write(folder, "plain.bin", randomBytes(1000));
+		Path encrypted = path(folder, "plain.bin.crypted");
+		String[][] combinations = { { "--compress", "--digest" }, { "--checkpoint", "--compress" },
+				{ "--format=segmented", "--digest" }, { "--mode=gcm", "--checkpoint" }, { "--pipeline", "--io=mapped" },
+				{ "--compress", "--progress" }, { "--digest", "--metrics" }, { "--format=segmented", "--io=direct" } };
+		for (String[] combination : combinations) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			System.setOut(new PrintStream(out, true, "UTF-8"));
+
+			assertEquals(Arrays.toString(combination), 2, Crypto.run(new String[] { "encrypt", plain.toString(),
+					encrypted.toString(), "--key=" + KEY, "--iv=" + IV, combination[0], combination[1] }));
+			assertTrue(new String(out.toByteArray(), "UTF-8").contains(combination[1].split("=")[0]));
+			assertFalse(Files.exists(encrypted));
+		}
+
+		System.setErr(new PrintStream(new ByteArrayOutputStream()));
+		try {
+			assertEquals(0, Crypto.run(new String[] { "encrypt", plain.toString(), encrypted.toString(),
+					"--key=" + KEY, "--iv=" + IV, "--pipeline", "--metrics" }));
+		} finally {
+			System.setErr(originalErr);
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Razred koji sadrži pomoćne metode zajedničke testovima paketa
+ * <code>hr.fer.zemris.java.hw06.crypto</code>.
+ *
+ * @author Davor Češljaš
+ */
+final class CryptoTestUtil {
+
+	/**
+	 * Privatni konstruktor koji onemogućuje stvaranje primjeraka ovog razreda.
+	 */
+	private CryptoTestUtil() {
+	}
+
+	/**
+	 * Metoda koja vraća putanju datoteke <b>name</b> unutar privremenog
+	 * direktorija <b>folder</b>
+	 *
+	 * @param folder
+	 *            privremeni direktorij
+	 * @param name
+	 *            ime datoteke
+	 * @return putanja datoteke
+	 */
+	static Path path(TemporaryFolder folder, String name) {
+		return folder.getRoot().toPath().resolve(name);
+	}
+
+	/**
+	 * Metoda koja zapisuje <b>data</b> u datoteku <b>name</b> unutar
+	 * privremenog direktorija <b>folder</b>, stvarajući po potrebi roditeljske
+	 * direktorije
+	 *
+	 * @param folder
+	 *            privremeni direktorij
+	 * @param name
+	 *            ime datoteke
+	 * @param data
+	 *            sadržaj datoteke
+	 * @return putanja zapisane datoteke
+	 * @throws IOException
+	 *             ukoliko zapisivanje ne uspije
+	 */
+	static Path write(TemporaryFolder folder, String name, byte[] data) throws IOException {
+		Path file = path(folder, name);
+		Files.createDirectories(file.getParent());
+		return Files.write(file, data);
+	}
+
+	/**
+	 * Metoda koja zapisuje tekst <b>content</b> u kodnoj stranici UTF-8 u
+	 * datoteku <b>name</b> unutar privremenog direktorija <b>folder</b>
+	 *
+	 * @param folder
+	 *            privremeni direktorij
+	 * @param name
+	 *            ime datoteke
+	 * @param content
+	 *            sadržaj datoteke
+	 * @return putanja zapisane datoteke
+	 * @throws IOException
+	 *             ukoliko zapisivanje ne uspije
+	 */
+	static Path write(TemporaryFolder folder, String name, String content) throws IOException {
+		return write(folder, name, content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Metoda koja zapisuje <b>data</b> u novu datoteku s generiranim imenom
+	 * unutar privremenog direktorija <b>folder</b>
+	 *
+	 * @param folder
+	 *            privremeni direktorij
+	 * @param data
+	 *            sadržaj datoteke
+	 * @return putanja zapisane datoteke
+	 * @throws IOException
+	 *             ukoliko zapisivanje ne uspije
+	 */
+	static Path write(TemporaryFolder folder, byte[] data) throws IOException {
+		return Files.write(folder.newFile().toPath(), data);
+	}
+
+	/**
+	 * Metoda koja vraća <b>size</b> pseudoslučajnih okteta. Za istu veličinu
+	 * uvijek se vraćaju isti okteti.
+	 *
+	 * @param size
+	 *            broj okteta
+	 * @return pseudoslučajni okteti
+	 */
+	static byte[] randomBytes(int size) {
+		byte[] data = new byte[size];
+		new Random(size).nextBytes(data);
+		return data;
+	}
+}
@@ -0,0 +1,143 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.path;
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.write;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DigestCacheTest {
+
+	private static final String ALGORITHM = Crypto.DIGEST_ALGORITHM;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final AtomicInteger calls = new AtomicInteger();
+
+	@Test
+	public void pogodakNeRacunaPonovno() throws Exception {
+		Path file = write(folder, "a.bin", "podaci");
+		DigestCache cache = new DigestCache(path(folder, "cache"), 10);
+
+		String first = cache.digest(file, ALGORITHM, this::compute);
+		String second = cache.digest(file, ALGORITHM, this::compute);
+
+		assertEquals(first, second);
+		assertEquals(Crypto.calculateDigest(file, IOMode.STREAM, 4096), first);
+		assertEquals(1, calls.get());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void promjenaVremenaIzmjeneJePromasaj() throws Exception {
+		Path file = write(folder, "a.bin", "podaci");
+		DigestCache cache = new DigestCache(path(folder, "cache"), 10);
+		cache.digest(file, ALGORITHM, this::compute);
+
+		Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 5000));
+		cache.digest(file, ALGORITHM, this::compute);
+
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	public void promjenaVelicineJePromasaj() throws Exception {
+		Path file = write(folder, "a.bin", "podaci");
+		FileTime modified = Files.getLastModifiedTime(file);
+		DigestCache cache = new DigestCache(path(folder, "cache"), 10);
+		String first = cache.digest(file, ALGORITHM, this::compute);
+
+		write(folder, "a.bin", "drugi podaci");
+		Files.setLastModifiedTime(file, modified);
+
+		assertNotEquals(first, cache.digest(file, ALGORITHM, this::compute));
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	public void drugiAlgoritamJePromasaj() throws Exception {
+		Path file = write(folder, "a.bin", "podaci");
+		DigestCache cache = new DigestCache(path(folder, "cache"), 10);
+
+		cache.digest(file, ALGORITHM, this::compute);
+		cache.digest(file, "MD5", this::compute);
+
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	public void zapisiSeCuvajuIzmeduPokretanja() throws Exception {
+		Path file = write(folder, "a.bin", "podaci");
+		Path cacheFile = path(folder, "cache");
+		DigestCache cache = new DigestCache(cacheFile, 10);
+		String first = cache.digest(file, ALGORITHM, this::compute);
+		cache.save();
+
+		DigestCache reloaded = new DigestCache(cacheFile, 10);
+
+		assertEquals(first, reloaded.digest(file, ALGORITHM, this::compute));
+		assertEquals(1, calls.get());
+		assertEquals(1, reloaded.getHits());
+	}
+
+	@Test
+	public void neispravniZapisiSeZanemaruju() throws Exception {
+		Path cacheFile = write(folder, "cache", "nije zapis\n1\tx\t-\tSHA-256\tabcd\t/putanja\n");
+
+		assertEquals(0, new DigestCache(cacheFile, 10).size());
+	}
+
+	@Test
+	public void najduljeNekoristenZapisSeIzbacuje() throws Exception {
+		Path a = write(folder, "a.bin", "a");
+		Path b = write(folder, "b.bin", "b");
+		Path c = write(folder, "c.bin", "c");
+		DigestCache cache = new DigestCache(path(folder, "cache"), 2);
+
+		cache.digest(a, ALGORITHM, this::compute);
+		cache.digest(b, ALGORITHM, this::compute);
+		cache.digest(a, ALGORITHM, this::compute);
+		cache.digest(c, ALGORITHM, this::compute);
+
+		assertEquals(2, cache.size());
+		cache.digest(a, ALGORITHM, this::compute);
+		assertEquals(3, calls.get());
+		cache.digest(b, ALGORITHM, this::compute);
+		assertEquals(4, calls.get());
+	}
+
+	@Test
+	public void datotekaPromijenjenaTijekomIzracunaSeNePamti() throws Exception {
+		Path file = write(folder, "a.bin", "podaci");
+		DigestCache cache = new DigestCache(path(folder, "cache"), 10);
+
+		cache.digest(file, ALGORITHM, path -> {
+			String digest = compute(path);
+			Files.write(path, "promijenjeni podaci".getBytes());
+			return digest;
+		});
+
+		assertEquals(0, cache.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nepozitivanBrojZapisa() throws Exception {
+		new DigestCache(path(folder, "cache"), 0);
+	}
+
+	private String compute(Path file) throws IOException, GeneralSecurityException {
+		calls.incrementAndGet();
+		return Crypto.calculateDigest(file, IOMode.STREAM, 4096);
+	}
+}
@@ -0,0 +1,96 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.randomBytes;
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.write;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DigestingCryptoTest {
+
+	private static final byte[] KEY = Util.hextobyte("a52217e3ee213ef1ffdee3a192e2ac7e");
+
+	private static final byte[] IV = Util.hextobyte("000102030405060708090a0b0c0dfeff");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void enkripcijaJednakaObicnoj() throws Exception {
+		byte[] data = randomBytes(100_003);
+		Path plain = write(folder, "plain.bin", data);
+		Path encrypted = folder.getRoot().toPath().resolve("plain.bin.crypted");
+		Path manifest = DigestingCrypto.manifestFor(encrypted);
+
+		String digest = new DigestingCrypto(4096).encrypt(Crypto.initCipher(true, KEY, IV), plain, encrypted,
+				manifest);
+
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		Crypto.cryptStream(Crypto.initCipher(true, KEY, IV), new ByteArrayInputStream(data), expected);
+		assertArrayEquals(expected.toByteArray(), Files.readAllBytes(encrypted));
+
+		String expectedDigest = Util.bytetohex(MessageDigest.getInstance("SHA-256").digest(data));
+		assertEquals(expectedDigest, digest);
+		assertEquals(expectedDigest + "  plain.bin",
+				new String(Files.readAllBytes(manifest), StandardCharsets.UTF_8).trim());
+	}
+
+	@Test
+	public void dekripcijaProvjeravaSumu() throws Exception {
+		byte[] data = randomBytes(12_345);
+		Path plain = write(folder, "plain.bin", data);
+		Path encrypted = folder.getRoot().toPath().resolve("plain.bin.crypted");
+		Path decrypted = folder.getRoot().toPath().resolve("plain.bin.decrypted");
+		Path manifest = DigestingCrypto.manifestFor(encrypted);
+
+		DigestingCrypto crypto = new DigestingCrypto(1000);
+		crypto.encrypt(Crypto.initCipher(true, KEY, IV), plain, encrypted, manifest);
+
+		assertTrue(crypto.decrypt(Crypto.initCipher(false, KEY, IV), encrypted, decrypted, manifest));
+		assertArrayEquals(data, Files.readAllBytes(decrypted));
+	}
+
+	@Test
+	public void pogresnaSumaBriseDatoteku() throws Exception {
+		Path plain = write(folder, "plain.bin", randomBytes(5000));
+		Path encrypted = folder.getRoot().toPath().resolve("plain.bin.crypted");
+		Path decrypted = folder.getRoot().toPath().resolve("plain.bin.decrypted");
+		Path manifest = DigestingCrypto.manifestFor(encrypted);
+
+		DigestingCrypto crypto = new DigestingCrypto(4096);
+		crypto.encrypt(Crypto.initCipher(true, KEY, IV), plain, encrypted, manifest);
+		Files.write(manifest, (Util.bytetohex(new byte[32]) + "  plain.bin\n").getBytes(StandardCharsets.UTF_8));
+
+		assertFalse(crypto.decrypt(Crypto.initCipher(false, KEY, IV), encrypted, decrypted, manifest));
+		assertFalse(Files.exists(decrypted));
+	}
+
+	@Test
+	public void praznaDatoteka() throws Exception {
+		Path plain = write(folder, "empty.bin", new byte[0]);
+		Path encrypted = folder.getRoot().toPath().resolve("empty.bin.crypted");
+		Path decrypted = folder.getRoot().toPath().resolve("empty.bin.decrypted");
+		Path manifest = DigestingCrypto.manifestFor(encrypted);
+
+		DigestingCrypto crypto = new DigestingCrypto(4096);
+		crypto.encrypt(Crypto.initCipher(true, KEY, IV), plain, encrypted, manifest);
+		assertEquals(16, Files.size(encrypted));
+
+		assertTrue(crypto.decrypt(Crypto.initCipher(false, KEY, IV), encrypted, decrypted, manifest));
+		assertEquals(0, Files.size(decrypted));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nepozitivniSpremnik() {
+		new DigestingCrypto(0);
+	}
+}
@@ -0,0 +1,124 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.write;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ManifestCheckTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+	@Test
+	public void sveDatotekeIspravne() throws Exception {
+		Path manifest = manifest(line("a.txt", "prva"), line("dir/b.txt", "druga"), "");
+
+		ManifestCheck.Result result = check(IOMode.STREAM, manifest);
+
+		assertEquals(2, result.getPassed());
+		assertEquals(0, result.exitCode());
+		assertTrue(output().contains("a.txt: U REDU"));
+		assertTrue(output().contains("dir/b.txt: U REDU"));
+	}
+
+	@Test
+	public void neispravnaINecitljivaDatoteka() throws Exception {
+		String good = line("a.txt", "prva");
+		String bad = line("b.txt", "druga");
+		write(folder, "b.txt", "promijenjena");
+		String missing = sha256("nema") + "  nema.txt";
+
+		ManifestCheck.Result result = check(IOMode.MAPPED, manifest(good, bad, missing));
+
+		assertEquals(1, result.getPassed());
+		assertEquals(1, result.getFailed());
+		assertEquals(1, result.getUnreadable());
+		assertEquals(1, result.exitCode());
+		assertTrue(output().contains("b.txt: NEISPRAVNO"));
+	}
+
+	@Test
+	public void neispravanRedakSePreskace() throws Exception {
+		ManifestCheck.Result result = check(IOMode.STREAM, manifest(line("a.txt", "prva"), "ovo nije redak"));
+
+		assertEquals(1, result.getPassed());
+		assertEquals(1, result.getMalformed());
+		assertEquals(1, result.exitCode());
+	}
+
+	@Test
+	public void binarniOblikIVelikaSlova() throws Exception {
+		write(folder, "a.bin", "podaci");
+		Path manifest = manifest(sha256("podaci").toUpperCase() + " *a.bin");
+
+		assertEquals(0, check(IOMode.STREAM, manifest).exitCode());
+	}
+
+	@Test
+	public void oblikSNazivomAlgoritma() throws Exception {
+		write(folder, "a.txt", "podaci");
+		String md5 = Util.bytetohex(MessageDigest.getInstance("MD5").digest("podaci".getBytes()));
+		Path manifest = manifest("SHA256 (a.txt) = " + sha256("podaci"), "MD5 (a.txt) = " + md5);
+
+		ManifestCheck.Result result = check(IOMode.STREAM, manifest);
+
+		assertEquals(2, result.getPassed());
+		assertEquals(0, result.exitCode());
+	}
+
+	@Test
+	public void putanjaSPosebnimZnakovima() {
+		ManifestCheck.Entry entry = ManifestCheck.parse("\\" + sha256("x") + "  a\\\\b\\nc");
+
+		assertEquals("a\\b\nc", entry.name);
+		assertEquals("SHA-256", entry.algorithm);
+	}
+
+	@Test
+	public void pogresnaDuljinaSume() {
+		assertNull(ManifestCheck.parse("abcd  a.txt"));
+	}
+
+	@Test
+	public void prazanManifestNijeUspjeh() throws Exception {
+		assertEquals(1, check(IOMode.STREAM, manifest()).exitCode());
+	}
+
+	private ManifestCheck.Result check(IOMode ioMode, Path manifest) throws Exception {
+		PrintStream ps = new PrintStream(out, true, "UTF-8");
+		return new ManifestCheck(ioMode, 1024, 4, ps, new PrintStream(new ByteArrayOutputStream())).verify(manifest);
+	}
+
+	private String output() throws IOException {
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private String line(String name, String content) throws IOException {
+		write(folder, name, content);
+		return sha256(content) + "  " + name;
+	}
+
+	private Path manifest(String... lines) throws IOException {
+		return write(folder, "SHA256SUMS", String.join("\n", lines));
+	}
+
+	private static String sha256(String content) {
+		try {
+			return Util.bytetohex(MessageDigest.getInstance("SHA-256").digest(content.getBytes()));
+		} catch (Exception e) {
+			throw new AssertionError(e);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.randomBytes;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class MultiDigestTest {
+
+	@Test
+	public void viseAlgoritamaUJednomCitanju() throws Exception {
+		byte[] data = randomBytes(1_000_003);
+		CountingInputStream is = new CountingInputStream(new ByteArrayInputStream(data));
+
+		Map<String, byte[]> digests = new MultiDigest(Arrays.asList("SHA-256", "SHA-512", "MD5"), 4096, 3)
+				.digest(is);
+
+		assertEquals(Arrays.asList("SHA-256", "SHA-512", "MD5"), Arrays.asList(digests.keySet().toArray()));
+		for (Map.Entry<String, byte[]> entry : digests.entrySet()) {
+			assertArrayEquals(entry.getKey(), MessageDigest.getInstance(entry.getKey()).digest(data), entry.getValue());
+		}
+		assertEquals(data.length, is.count);
+	}
+
+	@Test
+	public void jedanAlgoritam() throws Exception {
+		byte[] data = randomBytes(10_000);
+		Map<String, byte[]> digests = new MultiDigest(Collections.singletonList("SHA-256"), 1000, 1)
+				.digest(new ByteArrayInputStream(data));
+		assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(data), digests.get("SHA-256"));
+	}
+
+	@Test
+	public void prazanTok() throws Exception {
+		Map<String, byte[]> digests = new MultiDigest(Arrays.asList("SHA-256", "MD5"), 1000, 2)
+				.digest(new ByteArrayInputStream(new byte[0]));
+		assertArrayEquals(MessageDigest.getInstance("MD5").digest(), digests.get("MD5"));
+	}
+
+	@Test(expected = IOException.class)
+	public void pogreskaCitanjaZaustavljaDretve() throws Exception {
+		InputStream failing = new InputStream() {
+			private int reads;
+
+			@Override
+			public int read() throws IOException {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				if (++reads > 5) {
+					throw new IOException("pogreška");
+				}
+				return len;
+			}
+		};
+		new MultiDigest(Arrays.asList("SHA-256", "MD5"), 100, 2).digest(failing);
+	}
+
+	@Test(expected = NoSuchAlgorithmException.class)
+	public void nepostojeciAlgoritam() throws Exception {
+		new MultiDigest(Arrays.asList("SHA-256", "NEPOSTOJECI"), 100, 2).digest(new ByteArrayInputStream(new byte[1]));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void bezAlgoritama() {
+		new MultiDigest(Collections.emptyList(), 100, 2);
+	}
+
+	private static class CountingInputStream extends java.io.FilterInputStream {
+
+		private long count;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = super.read(b, off, len);
+			if (read > 0) {
+				count += read;
+			}
+			return read;
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.security.GeneralSecurityException;
+import java.util.Random;
+
+import javax.crypto.Cipher;
+
+import org.junit.Test;
+
+public class PipelinedCryptoTest {
+
+	private static final byte[] KEY = Util.hextobyte("a52217e3ee213ef1ffdee3a192e2ac7e");
+
+	private static final byte[] OTHER_KEY = Util.hextobyte("00112233445566778899aabbccddeeff");
+
+	private static final byte[] IV = Util.hextobyte("000102030405060708090a0b0c0dfeff");
+
+	@Test(timeout = 10_000)
+	public void jednakoKaoBezCjevovoda() throws Exception {
+		PipelinedCrypto crypto = new PipelinedCrypto(1000, 2);
+		for (int size : new int[] { 0, 1, 999, 1000, 100_003 }) {
+			byte[] data = new byte[size];
+			new Random(size).nextBytes(data);
+
+			byte[] encrypted = crypt(crypto, cipher(true, KEY), data);
+			assertArrayEquals(cipher(true, KEY).doFinal(data), encrypted);
+			assertArrayEquals(data, crypt(crypto, cipher(false, KEY), encrypted));
+		}
+	}
+
+	@Test(timeout = 10_000)
+	public void mjerenjeFaza() throws Exception {
+		byte[] data = new byte[50_000];
+		CryptoMetrics metrics = new CryptoMetrics("encrypt", data.length);
+
+		new PipelinedCrypto(4096, 3).crypt(cipher(true, KEY), Channels.newChannel(new ByteArrayInputStream(data)),
+				Channels.newChannel(new ByteArrayOutputStream()), metrics);
+
+		assertEquals(data.length, metrics.getBytes());
+	}
+
+	@Test(timeout = 10_000, expected = GeneralSecurityException.class)
+	public void pogresanKljucNeBlokira() throws Exception {
+		byte[] data = new byte[100_000];
+		PipelinedCrypto crypto = new PipelinedCrypto(512, 2);
+		byte[] encrypted = crypt(crypto, cipher(true, KEY), data);
+
+		crypt(crypto, cipher(false, OTHER_KEY), encrypted);
+	}
+
+	@Test(timeout = 10_000)
+	public void greskaPisanjaNeBlokira() throws Exception {
+		WritableByteChannel broken = new WritableByteChannel() {
+
+			@Override
+			public int write(ByteBuffer src) throws IOException {
+				throw new IOException("disk je pun");
+			}
+
+			@Override
+			public boolean isOpen() {
+				return true;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+
+		try {
+			new PipelinedCrypto(256, 1).crypt(cipher(true, KEY),
+					Channels.newChannel(new ByteArrayInputStream(new byte[100_000])), broken);
+			fail();
+		} catch (IOException e) {
+			assertEquals("disk je pun", e.getMessage());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void neispravnaVelicinaReda() {
+		new PipelinedCrypto(1024, 0);
+	}
+
+	private static byte[] crypt(PipelinedCrypto crypto, Cipher cipher, byte[] data)
+			throws IOException, GeneralSecurityException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		crypto.crypt(cipher, Channels.newChannel(new ByteArrayInputStream(data)), Channels.newChannel(out));
+		return out.toByteArray();
+	}
+
+	private static Cipher cipher(boolean encrypt, byte[] key) throws GeneralSecurityException {
+		return Crypto.initCipher(encrypt, key, IV, "AES", CipherMode.CBC);
+	}
+}
@@ -0,0 +1,312 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.randomBytes;
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.write;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SegmentedCryptoTest {
+
+	private static final byte[] KEY = Util.hextobyte("a52217e3ee213ef1ffdee3a192e2ac7e");
+
+	private static final byte[] IV = Util.hextobyte("000102030405060708090a0b0c0dfeff");
+
+	private static final int SEGMENT_SIZE = 64;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ForkJoinPool pool;
+
+	@Before
+	public void setUp() {
+		pool = new ForkJoinPool(4);
+	}
+
+	@After
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Test
+	public void praznaDatoteka() throws Exception {
+		assertArrayEquals(roundTrip(new byte[0]), new byte[0]);
+	}
+
+	@Test
+	public void manjeOdJednogSegmenta() throws Exception {
+		byte[] data = randomBytes(17);
+		assertArrayEquals(roundTrip(data), data);
+	}
+
+	@Test
+	public void tocnoJedanSegment() throws Exception {
+		byte[] data = randomBytes(SEGMENT_SIZE);
+		assertArrayEquals(roundTrip(data), data);
+	}
+
+	@Test
+	public void viseSegmenataSNepotpunimZadnjim() throws Exception {
+		byte[] data = randomBytes(SEGMENT_SIZE * 37 + 5);
+		assertArrayEquals(roundTrip(data), data);
+	}
+
+	@Test
+	public void sadrzajJednakKriptiranjuUJednomProlazu() throws Exception {
+		byte[] data = randomBytes(SEGMENT_SIZE * 5 + 3);
+		Path plain = write(folder, data);
+		Path encrypted = folder.newFile().toPath();
+		new SegmentedCrypto(KEY, IV, SEGMENT_SIZE, pool).encrypt(plain, encrypted);
+
+		byte[] actual = Files.readAllBytes(encrypted);
+		// vektor datoteke je inicijalizacijski vektor XOR sol na kraju zaglavlja
+		byte[] vector = IV.clone();
+		for (int i = 0; i < vector.length; i++) {
+			vector[i] ^= actual[SegmentedCrypto.HEADER_SIZE - vector.length + i];
+		}
+		Cipher cipher = Cipher.getInstance("AES/CTR/NoPadding");
+		cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(KEY, "AES"), new IvParameterSpec(vector));
+		byte[] expected = cipher.doFinal(data);
+
+		assertEquals(actual.length, SegmentedCrypto.HEADER_SIZE + data.length);
+		assertArrayEquals(Arrays.copyOfRange(actual, SegmentedCrypto.HEADER_SIZE, actual.length), expected);
+	}
+
+	@Test
+	public void istiKljucIVektorDajuRazliciteNizoveKljuceva() throws Exception {
+		byte[] data = new byte[SEGMENT_SIZE * 3];
+		Path plain = write(folder, data);
+		Path first = folder.newFile().toPath();
+		Path second = folder.newFile().toPath();
+		SegmentedCrypto crypto = new SegmentedCrypto(KEY, IV, SEGMENT_SIZE, pool);
+
+		crypto.encrypt(plain, first);
+		crypto.encrypt(plain, second);
+
+		byte[] firstBytes = Files.readAllBytes(first);
+		byte[] secondBytes = Files.readAllBytes(second);
+		assertFalse(Arrays.equals(Arrays.copyOfRange(firstBytes, SegmentedCrypto.HEADER_SIZE, firstBytes.length),
+				Arrays.copyOfRange(secondBytes, SegmentedCrypto.HEADER_SIZE, secondBytes.length)));
+		for (Path encrypted : new Path[] { first, second }) {
+			Path decrypted = folder.newFile().toPath();
+			crypto.decrypt(encrypted, decrypted);
+			assertArrayEquals(data, Files.readAllBytes(decrypted));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void dekripcijaDatotekeBezZaglavlja() throws Exception {
+		Path plain = write(folder, randomBytes(100));
+		new SegmentedCrypto(KEY, IV, SEGMENT_SIZE, pool).decrypt(plain, folder.newFile().toPath());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void velicinaSegmentaNijeVisekratnikBloka() {
+		new SegmentedCrypto(KEY, IV, 100, pool);
+	}
+
+	@Test
+	public void gcmPovratno() throws Exception {
+		for (int size : new int[] { 0, 1, SEGMENT_SIZE, SEGMENT_SIZE * 9 + 7 }) {
+			byte[] data = randomBytes(size);
+			assertArrayEquals(gcmRoundTrip(data), data);
+		}
+	}
+
+	@Test
+	public void gcmVelicinaDatoteke() throws Exception {
+		Path plain = write(folder, randomBytes(SEGMENT_SIZE * 3 + 1));
+		Path encrypted = folder.newFile().toPath();
+		gcm(SEGMENT_SIZE).encrypt(plain, encrypted);
+
+		assertEquals(SegmentedCrypto.HEADER_SIZE + SEGMENT_SIZE * 3 + 1 + 4 * 16, Files.size(encrypted));
+	}
+
+	@Test
+	public void gcmOtkrivaOsteceniSegment() throws Exception {
+		Path plain = write(folder, randomBytes(SEGMENT_SIZE * 6));
+		Path encrypted = folder.newFile().toPath();
+		gcm(SEGMENT_SIZE).encrypt(plain, encrypted);
+
+		byte[] bytes = Files.readAllBytes(encrypted);
+		bytes[SegmentedCrypto.HEADER_SIZE + 4 * (SEGMENT_SIZE + 16) + 3] ^= 1;
+		Files.write(encrypted, bytes);
+
+		try {
+			gcm(SEGMENT_SIZE).decrypt(encrypted, folder.newFile().toPath());
+			fail();
+		} catch (AEADBadTagException e) {
+			assertTrue(e.getMessage().contains("4"));
+		}
+	}
+
+	@Test
+	public void gcmIstiKljucIVektorDajuRazliciteKriptiraneDatoteke() throws Exception {
+		Path plain = write(folder, randomBytes(SEGMENT_SIZE * 3 + 5));
+		Path first = folder.newFile().toPath();
+		Path second = folder.newFile().toPath();
+
+		gcm(SEGMENT_SIZE).encrypt(plain, first);
+		gcm(SEGMENT_SIZE).encrypt(plain, second);
+
+		byte[] firstBytes = Files.readAllBytes(first);
+		byte[] secondBytes = Files.readAllBytes(second);
+		int header = SegmentedCrypto.HEADER_SIZE;
+		assertFalse(Arrays.equals(Arrays.copyOfRange(firstBytes, header, header + SEGMENT_SIZE + 16),
+				Arrays.copyOfRange(secondBytes, header, header + SEGMENT_SIZE + 16)));
+	}
+
+	@Test
+	public void gcmNeuspjelaDekripcijaNeOstavljaIzlaz() throws Exception {
+		Path plain = write(folder, randomBytes(SEGMENT_SIZE * 6));
+		Path encrypted = folder.newFile().toPath();
+		gcm(SEGMENT_SIZE).encrypt(plain, encrypted);
+
+		byte[] bytes = Files.readAllBytes(encrypted);
+		bytes[bytes.length - 1] ^= 1;
+		Files.write(encrypted, bytes);
+
+		Path decrypted = folder.getRoot().toPath().resolve("decrypted.bin");
+		try {
+			gcm(SEGMENT_SIZE).decrypt(encrypted, decrypted);
+			fail();
+		} catch (AEADBadTagException e) {
+			assertFalse(Files.exists(decrypted));
+			assertFalse(Files.exists(CheckpointedCrypto.tempFor(decrypted)));
+		}
+	}
+
+	@Test(expected = AEADBadTagException.class)
+	public void gcmOtkrivaZamjenuSegmenata() throws Exception {
+		Path plain = write(folder, randomBytes(SEGMENT_SIZE * 2));
+		Path encrypted = folder.newFile().toPath();
+		gcm(SEGMENT_SIZE).encrypt(plain, encrypted);
+
+		byte[] bytes = Files.readAllBytes(encrypted);
+		int first = SegmentedCrypto.HEADER_SIZE;
+		int second = first + SEGMENT_SIZE + 16;
+		byte[] swapped = bytes.clone();
+		System.arraycopy(bytes, first, swapped, second, SEGMENT_SIZE + 16);
+		System.arraycopy(bytes, second, swapped, first, SEGMENT_SIZE + 16);
+		Files.write(encrypted, swapped);
+
+		gcm(SEGMENT_SIZE).decrypt(encrypted, folder.newFile().toPath());
+	}
+
+	@Test(expected = AEADBadTagException.class)
+	public void gcmOtkrivaPromjenuZaglavlja() throws Exception {
+		Path plain = write(folder, randomBytes(SEGMENT_SIZE * 2));
+		Path encrypted = folder.newFile().toPath();
+		gcm(SEGMENT_SIZE).encrypt(plain, encrypted);
+
+		// promjena veličine segmenta u zaglavlju uz očuvanu ukupnu veličinu
+		byte[] bytes = Files.readAllBytes(encrypted);
+		bytes[9] = (byte) (SEGMENT_SIZE * 2);
+		byte[] truncated = Arrays.copyOf(bytes, bytes.length - 16);
+		Files.write(encrypted, truncated);
+
+		gcm(SEGMENT_SIZE).decrypt(encrypted, folder.newFile().toPath());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void cbcNijePodrzan() {
+		new SegmentedCrypto("AES", CipherMode.CBC, KEY, IV, SEGMENT_SIZE, pool);
+	}
+
+	@Test
+	public void rasponCtr() throws Exception {
+		provjeriRaspone(new SegmentedCrypto(KEY, IV, SEGMENT_SIZE, pool));
+	}
+
+	@Test
+	public void rasponGcm() throws Exception {
+		provjeriRaspone(gcm(SEGMENT_SIZE));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rasponIzvanDatoteke() throws Exception {
+		Path plain = write(folder, randomBytes(100));
+		Path encrypted = folder.newFile().toPath();
+		SegmentedCrypto crypto = gcm(SEGMENT_SIZE);
+		crypto.encrypt(plain, encrypted);
+
+		crypto.decryptRange(encrypted, 101, 1, new ByteArrayOutputStream());
+	}
+
+	@Test(expected = AEADBadTagException.class)
+	public void rasponGcmOtkrivaOsteceniSegment() throws Exception {
+		Path plain = write(folder, randomBytes(SEGMENT_SIZE * 4));
+		Path encrypted = folder.newFile().toPath();
+		SegmentedCrypto crypto = gcm(SEGMENT_SIZE);
+		crypto.encrypt(plain, encrypted);
+
+		byte[] bytes = Files.readAllBytes(encrypted);
+		bytes[SegmentedCrypto.HEADER_SIZE + 2 * (SEGMENT_SIZE + 16)] ^= 1;
+		Files.write(encrypted, bytes);
+
+		crypto.decryptRange(encrypted, SEGMENT_SIZE * 2 + 10, 5, new ByteArrayOutputStream());
+	}
+
+	private void provjeriRaspone(SegmentedCrypto crypto) throws Exception {
+		byte[] data = randomBytes(SEGMENT_SIZE * 7 + 11);
+		Path plain = write(folder, data);
+		Path encrypted = folder.newFile().toPath();
+		crypto.encrypt(plain, encrypted);
+
+		long[][] ranges = { { 0, 1 }, { 3, 20 }, { 15, 2 }, { SEGMENT_SIZE - 1, 2 }, { 17, SEGMENT_SIZE * 3 },
+				{ SEGMENT_SIZE * 7, 11 }, { SEGMENT_SIZE * 7 + 5, 1000 }, { data.length, 10 }, { 0, data.length } };
+		for (long[] range : ranges) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			long written = crypto.decryptRange(encrypted, range[0], range[1], out);
+
+			int from = (int) range[0];
+			int to = (int) Math.min(data.length, range[0] + range[1]);
+			assertEquals(to - from, written);
+			assertArrayEquals(Arrays.copyOfRange(data, from, to), out.toByteArray());
+		}
+	}
+
+	private SegmentedCrypto gcm(int segmentSize) {
+		return new SegmentedCrypto("AES", CipherMode.GCM, KEY, IV, segmentSize, pool);
+	}
+
+	private byte[] gcmRoundTrip(byte[] data) throws Exception {
+		Path plain = write(folder, data);
+		Path encrypted = folder.newFile().toPath();
+		Path decrypted = folder.newFile().toPath();
+
+		gcm(SEGMENT_SIZE).encrypt(plain, encrypted);
+		// način rada čita se iz zaglavlja
+		new SegmentedCrypto(KEY, IV, 16, pool).decrypt(encrypted, decrypted);
+
+		return Files.readAllBytes(decrypted);
+	}
+
+	private byte[] roundTrip(byte[] data) throws Exception {
+		Path plain = write(folder, data);
+		Path encrypted = folder.newFile().toPath();
+		Path decrypted = folder.newFile().toPath();
+
+		new SegmentedCrypto(KEY, IV, SEGMENT_SIZE, pool).encrypt(plain, encrypted);
+		// dekripcija ne ovisi o veličini segmenta predanoj konstruktoru
+		new SegmentedCrypto(KEY, IV, 16, pool).decrypt(encrypted, decrypted);
+
+		return Files.readAllBytes(decrypted);
+	}
+}
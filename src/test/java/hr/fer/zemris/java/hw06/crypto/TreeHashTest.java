@@ -0,0 +1,102 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.randomBytes;
+import static hr.fer.zemris.java.hw06.crypto.CryptoTestUtil.write;
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TreeHashTest {
+
+	private static final int CHUNK_SIZE = 100;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ForkJoinPool pool;
+
+	@Before
+	public void setUp() {
+		pool = new ForkJoinPool(3);
+	}
+
+	@After
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Test
+	public void korijenNeOvisiOBrojuDretvi() throws Exception {
+		Path file = write(folder, randomBytes(CHUNK_SIZE * 11 + 7));
+
+		byte[] root = new TreeHash(CHUNK_SIZE, pool).hash(file, folder.newFile().toPath()).getRoot();
+		ForkJoinPool single = new ForkJoinPool(1);
+		try {
+			assertArrayEquals(new TreeHash(CHUNK_SIZE, single).hash(file, folder.newFile().toPath()).getRoot(),
+					root);
+		} finally {
+			single.shutdown();
+		}
+	}
+
+	@Test
+	public void praznaDatotekaImaJedanList() throws Exception {
+		TreeHash.Result result = new TreeHash(CHUNK_SIZE, pool).hash(write(folder, new byte[0]), folder.newFile().toPath());
+		assertEquals(result.getLeafCount(), 1);
+		assertEquals(result.getRoot().length, 32);
+	}
+
+	@Test
+	public void nepromijenjenaDatotekaKoristiManifest() throws Exception {
+		Path file = write(folder, randomBytes(CHUNK_SIZE * 5));
+		Path manifest = TreeHash.manifestFor(file);
+
+		TreeHash.Result first = new TreeHash(CHUNK_SIZE, pool).hash(file, manifest);
+		TreeHash.Result second = new TreeHash(CHUNK_SIZE, pool).hash(file, manifest);
+
+		assertEquals(first.getReusedLeaves(), 0);
+		assertEquals(second.getReusedLeaves(), 5);
+		assertArrayEquals(second.getRoot(), first.getRoot());
+	}
+
+	@Test
+	public void nastavakPrekinutogIzracuna() throws Exception {
+		Path file = write(folder, randomBytes(CHUNK_SIZE * 4));
+		Path manifest = TreeHash.manifestFor(file);
+		byte[] root = new TreeHash(CHUNK_SIZE, pool).hash(file, manifest).getRoot();
+
+		// zadrži zaglavlje i prva dva lista, kao da je izračun prekinut
+		Files.write(manifest, Files.readAllLines(manifest).subList(0, 4));
+
+		TreeHash.Result result = new TreeHash(CHUNK_SIZE, pool).hash(file, manifest);
+		assertEquals(result.getReusedLeaves(), 2);
+		assertArrayEquals(result.getRoot(), root);
+	}
+
+	@Test
+	public void pronalazakPromijenjenihDijelova() throws Exception {
+		byte[] data = randomBytes(CHUNK_SIZE * 6);
+		Path file = write(folder, data);
+		Path manifest = TreeHash.manifestFor(file);
+		byte[] root = new TreeHash(CHUNK_SIZE, pool).hash(file, manifest).getRoot();
+
+		data[CHUNK_SIZE * 2 + 5]++;
+		data[CHUNK_SIZE * 5]++;
+		Files.write(file, data);
+		Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 5000));
+
+		TreeHash.Result result = new TreeHash(CHUNK_SIZE, pool).hash(file, manifest);
+		assertEquals(result.getChangedLeaves(), Arrays.asList(2, 5));
+		assertFalse(Arrays.equals(result.getRoot(), root));
+	}
+}
@@ -3,6 +3,8 @@ package hr.fer.zemris.java.hw06.crypto;
 import static org.junit.Assert.*;
 import static hr.fer.zemris.java.hw06.crypto.Util.*;
 
+import java.nio.ByteBuffer;
+
 import org.junit.Test;
 
 public class UtilTest {
@@ -91,4 +93,73 @@ public class UtilTest {
 		assertArrayEquals(hextobyte(str), bytes);
 	}
 
+	@Test
+	public void pretvorbaUPoljeZnakovaSPomakom() {
+		char[] dest = new char[8];
+		assertEquals(4, bytetohex(new byte[] { 0, -1, 10, 0 }, 1, 2, dest, 2));
+		assertArrayEquals(new char[] { 0, 0, 'f', 'f', '0', 'a', 0, 0 }, dest);
+	}
+
+	@Test
+	public void pretvorbaSpremnikaUPoljeZnakova() {
+		ByteBuffer src = ByteBuffer.wrap(new byte[] { 1, -82, 34 });
+		char[] dest = new char[6];
+		assertEquals(6, bytetohex(src, dest, 0));
+		assertEquals("01ae22", new String(dest));
+		assertFalse(src.hasRemaining());
+	}
+
+	@Test
+	public void pretvorbaDijelaNizaUPoljeOkteta() {
+		byte[] dest = new byte[3];
+		assertEquals(2, hextobyte("xx5AfFxx", 2, 6, dest, 1));
+		assertArrayEquals(new byte[] { 0, 90, -1 }, dest);
+	}
+
+	@Test
+	public void pretvorbaPoljaZnakovaUPoljeOkteta() {
+		byte[] dest = new byte[3];
+		assertEquals(3, hextobyte("01aE22".toCharArray(), 0, 6, dest, 0));
+		assertArrayEquals(new byte[] { 1, -82, 34 }, dest);
+	}
+
+	@Test
+	public void pretvorbaUSpremnik() {
+		ByteBuffer dest = ByteBuffer.allocate(4);
+		dest.put((byte) 7);
+		assertEquals(2, hextobyte("5a73", 0, 4, dest));
+		assertEquals(3, dest.position());
+		assertArrayEquals(new byte[] { 7, 90, 115, 0 }, dest.array());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void pretvorbaUPoljeOktetaZnakIzvanAscii() {
+		hextobyte("a\u0663");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void pretvorbaPoljaZnakovaNeparnaDuljina() {
+		hextobyte("abc".toCharArray(), 0, 3, new byte[2], 0);
+	}
+
+	@Test
+	public void pretvorbaAsciiNaMjestu() {
+		byte[] buffer = "01aE22".getBytes();
+		assertEquals(6, bytetohex(new byte[] { 1, -82, 34 }, 0, 3, new byte[6], 0));
+		assertEquals(3, hextobyte(buffer, 0, buffer.length, buffer, 0));
+		assertArrayEquals(new byte[] { 1, -82, 34 }, java.util.Arrays.copyOf(buffer, 3));
+	}
+
+	@Test
+	public void sviOktetiPovratno() {
+		byte[] bytes = new byte[256];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) i;
+		}
+		String hex = bytetohex(bytes);
+		assertEquals(512, hex.length());
+		assertArrayEquals(bytes, hextobyte(hex));
+		assertArrayEquals(bytes, hextobyte(hex.toUpperCase()));
+	}
+
 }
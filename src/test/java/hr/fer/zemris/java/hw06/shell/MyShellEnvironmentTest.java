@@ -0,0 +1,129 @@
+package hr.fer.zemris.java.hw06.shell;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MyShellEnvironmentTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void odmahPrazniNakonSvakogPisanja() {
+		StringWriter output = new StringWriter();
+		Environment env = environment("", output, FlushPolicy.IMMEDIATE);
+
+		env.writeln("redak");
+
+		assertEquals("redak\n", output.toString());
+	}
+
+	@Test
+	public void prilagodljivoPrazniPrijeCitanja() {
+		StringWriter output = new StringWriter();
+		Environment env = environment("odgovor\n", output, FlushPolicy.ADAPTIVE);
+
+		env.write("> ");
+		assertEquals("", output.toString());
+
+		assertEquals("odgovor", env.readLine());
+		assertEquals("> ", output.toString());
+	}
+
+	@Test
+	public void naredbaPrazniNaKraju() {
+		StringWriter output = new StringWriter();
+		Environment env = environment("", output, FlushPolicy.ADAPTIVE);
+
+		assertEquals(ShellStatus.CONTINUE, MyShell.execute(env, "symbol PROMPT"));
+
+		assertEquals("Simbol za PROMPT je '>'\n", output.toString());
+	}
+
+	@Test
+	public void pisanjeDijelaPoljaINizaZnakova() {
+		StringWriter output = new StringWriter();
+		Environment env = environment("", output, FlushPolicy.IMMEDIATE);
+
+		env.write("abcdef".toCharArray(), 1, 3);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 3000; i++) {
+			sb.append((char) ('a' + i % 26));
+		}
+		env.write(sb);
+
+		assertEquals("bcd" + sb, output.toString());
+	}
+
+	@Test
+	public void oktetiIZnakoviZadrzavajuRedoslijed() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		Environment env = new MyShellEnvironment(new BufferedReader(new StringReader("")), bytes,
+				MyShellEnvironment.DEFAULT_BUFFER_SIZE, FlushPolicy.ADAPTIVE);
+
+		env.write("čćž ");
+		env.outputStream().write("okteti ".getBytes(StandardCharsets.UTF_8));
+		env.writeln("kraj");
+		env.flush();
+
+		assertEquals("čćž okteti kraj\n", new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void oktetiSeDekodirajuUTokZnakova() throws Exception {
+		StringWriter output = new StringWriter();
+		Environment env = environment("", output, FlushPolicy.ADAPTIVE);
+
+		byte[] bytes = "a€b".getBytes(StandardCharsets.UTF_8);
+		OutputStream out = env.outputStream();
+		// znak '€' zapisuje se u dva dijela
+		out.write(bytes, 0, 2);
+		out.write(bytes, 2, bytes.length - 2);
+		env.flush();
+
+		assertEquals("a€b", output.toString());
+	}
+
+	@Test
+	public void hexdumpIspis() throws Exception {
+		byte[] data = new byte[18];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i * 15 + 'A');
+		}
+		Path file = Files.write(folder.getRoot().toPath().resolve("podaci.bin"), data);
+		StringWriter output = new StringWriter();
+
+		MyShell.execute(environment("", output, FlushPolicy.ADAPTIVE), "hexdump " + file);
+
+		assertEquals("00000000: 41 50 5F 6E 7D 8C 9B AA | B9 C8 D7 E6 F5 04 13 22 | AP_n}..........\"\n"
+				+ "00000010: 31 40                   |                         | 1@\n", output.toString());
+	}
+
+	@Test
+	public void catDodajeZavrsniNoviRedak() throws Exception {
+		Path file = Files.write(folder.getRoot().toPath().resolve("tekst.txt"),
+				"prvi\ndrugi".getBytes(StandardCharsets.UTF_8));
+		StringWriter output = new StringWriter();
+
+		MyShell.execute(environment("", output, FlushPolicy.ADAPTIVE), "cat " + file + " UTF-8");
+
+		assertEquals("prvi\ndrugi\n", output.toString());
+	}
+
+	private static Environment environment(String input, StringWriter output, FlushPolicy policy) {
+		return new MyShellEnvironment(new BufferedReader(new StringReader(input)), new BufferedWriter(output), policy);
+	}
+}
@@ -0,0 +1,214 @@
+package hr.fer.zemris.java.hw06.shell;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ShellJobsTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test(timeout = 10_000)
+	public void posaoSeIspisujeNakonCekanja() throws Exception {
+		Path dir = tree("stablo", 500);
+		StringWriter expected = new StringWriter();
+		MyShell.execute(environment(expected), "tree " + dir);
+		StringWriter output = new StringWriter();
+		Environment env = environment(output);
+
+		assertEquals(ShellStatus.CONTINUE, MyShell.execute(env, "tree " + dir + " &"));
+		assertEquals(ShellStatus.CONTINUE, MyShell.execute(env, "fg"));
+
+		assertEquals("[1] tree " + dir + "\n[1] Završeno: tree " + dir + "\n" + expected, output.toString());
+		assertTrue(env.jobs().list().isEmpty());
+	}
+
+	@Test(timeout = 10_000)
+	public void ispisiPoslovaSeNeIspreplicu() throws Exception {
+		Path first = tree("prvo", 2000);
+		Path second = tree("drugo", 2000);
+		StringWriter firstOutput = new StringWriter();
+		MyShell.execute(environment(firstOutput), "tree " + first);
+		StringWriter secondOutput = new StringWriter();
+		MyShell.execute(environment(secondOutput), "tree " + second + " | grep 1");
+		StringWriter output = new StringWriter();
+		Environment env = environment(output);
+
+		MyShell.execute(env, "tree " + first + " &");
+		MyShell.execute(env, "tree " + second + " | grep 1 &");
+		MyShell.execute(env, "jobs");
+		assertEquals(ShellStatus.CONTINUE, MyShell.execute(env, "wait"));
+
+		String result = output.toString();
+		assertTrue(result.contains("[1] Završeno: tree " + first + "\n" + firstOutput + "["));
+		assertTrue(result.endsWith("[2] Završeno: tree " + second + " | grep 1\n" + secondOutput));
+	}
+
+	@Test(timeout = 10_000)
+	public void prekidPosla() throws Exception {
+		Path file = folder.getRoot().toPath().resolve("veliko.bin");
+		try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+			raf.setLength(1 << 24);
+		}
+		StringWriter output = new StringWriter();
+		Environment env = environment(output);
+
+		MyShell.execute(env, "hexdump " + file + " &");
+		assertEquals(ShellStatus.CONTINUE, MyShell.execute(env, "kill 1"));
+		assertEquals(ShellStatus.FAILURE, MyShell.execute(env, "wait 1"));
+
+		assertTrue(output.toString().contains("[1] Prekinuto: hexdump "));
+	}
+
+	@Test(timeout = 10_000)
+	public void ispisPoslaJeOgranicen() throws Exception {
+		byte[] data = new byte[1 << 19];
+		new Random(1).nextBytes(data);
+		Path file = Files.write(folder.getRoot().toPath().resolve("podaci.bin"), data);
+		StringWriter expected = new StringWriter();
+		MyShell.execute(environment(expected), "hexdump " + file);
+		StringWriter output = new StringWriter();
+		Environment env = environment(output);
+
+		MyShell.execute(env, "hexdump " + file + " &");
+		assertEquals(ShellStatus.CONTINUE, MyShell.execute(env, "fg"));
+
+		String header = "[1] hexdump " + file + "\n[1] Završeno: hexdump " + file + "\n";
+		String result = output.toString();
+		String kept = expected.toString().substring(0, ShellJobs.MAX_OUTPUT);
+		int dropped = expected.toString().length() - ShellJobs.MAX_OUTPUT;
+		assertEquals(header + kept + (kept.endsWith("\n") ? "" : "\n") + "... (izostavljeno je " + dropped
+				+ " znakova ispisa)\n", result);
+	}
+
+	@Test(timeout = 10_000)
+	public void posaoDijeliTablicuPoslova() throws Exception {
+		StringWriter output = new StringWriter();
+		Environment env = environment(output);
+
+		MyShell.execute(env, "jobs &");
+		assertEquals(ShellStatus.CONTINUE, MyShell.execute(env, "fg"));
+
+		assertEquals("[1] jobs\n[1] Završeno: jobs\n[1] Izvodi se  jobs\n", output.toString());
+	}
+
+	@Test(timeout = 10_000)
+	public void posaoNeCekaSamSebe() throws Exception {
+		StringWriter failed = new StringWriter();
+		Environment failedEnv = environment(failed);
+		MyShell.execute(failedEnv, "fg &");
+		assertEquals(ShellStatus.FAILURE, MyShell.execute(failedEnv, "wait"));
+		assertTrue(failed.toString().contains("[1] Neuspjelo: fg\n"));
+
+		for (String line : new String[] { "fg", "wait 1", "wait 1 | grep 1" }) {
+			StringWriter output = new StringWriter();
+			Environment env = environment(output);
+
+			MyShell.execute(env, line + " &");
+			MyShell.execute(env, "wait");
+
+			assertTrue(line, output.toString().contains("Posao [1] ne može čekati posao [1]!\n"));
+		}
+
+		StringWriter output = new StringWriter();
+		Environment env = environment(output);
+		MyShell.execute(env, "wait &");
+		assertEquals(ShellStatus.CONTINUE, MyShell.execute(env, "fg"));
+		assertEquals("[1] wait\n[1] Završeno: wait\n", output.toString());
+	}
+
+	@Test
+	public void simbolPozadineJeZasebnaRijec() {
+		StringWriter output = new StringWriter();
+		Environment env = environment(output);
+
+		assertEquals(ShellStatus.CONTINUE, MyShell.execute(env, "symbol MORELINES &"));
+		assertEquals(Character.valueOf('&'), env.getMorelinesSymbol());
+		assertTrue(env.jobs().list().isEmpty());
+
+		assertNull(ShellPipeline.background("cat a&"));
+		assertNull(ShellPipeline.background("cat \"&\""));
+		assertEquals("cat a", ShellPipeline.background("cat a &"));
+		assertNull(ShellPipeline.background("symbol MORELINES &"));
+		assertEquals("help symbol", ShellPipeline.background("help symbol &"));
+		assertEquals("charsets | grep UTF", ShellPipeline.background("charsets | grep UTF\t&"));
+	}
+
+	@Test
+	public void neispravniBrojPosla() {
+		Environment env = environment(new StringWriter());
+
+		assertEquals(ShellStatus.FAILURE, MyShell.execute(env, "fg"));
+		assertEquals(ShellStatus.FAILURE, MyShell.execute(env, "kill 7"));
+		assertEquals(ShellStatus.FAILURE, MyShell.execute(env, "wait jedan"));
+		assertEquals(ShellStatus.FAILURE, MyShell.execute(env, "&"));
+	}
+
+	@Test(timeout = 10_000)
+	public void skriptaCekaPoslove() throws Exception {
+		Path dir = tree("stablo", 10);
+		StringWriter output = new StringWriter();
+		BufferedReader reader = new BufferedReader(new StringReader("tree " + dir + " &\n"));
+
+		ShellScript script = new ShellScript(new MyShellEnvironment(reader, new BufferedWriter(output)), reader, true);
+
+		assertEquals(ShellScript.SUCCESS_EXIT_CODE, script.run());
+		assertTrue(output.toString().contains("[1] Završeno: tree " + dir + "\n  stablo\n"));
+	}
+
+	@Test(timeout = 10_000)
+	public void istovremenoPisanjeUOkruzenje() throws Exception {
+		StringWriter output = new StringWriter();
+		Environment env = environment(output);
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			String line = "dretva " + i + " ispisuje redak";
+			Thread thread = new Thread(() -> {
+				StringBuilder sb = new StringBuilder();
+				for (int j = 0; j < 1000; j++) {
+					env.writeln(line);
+					sb.setLength(0);
+					env.write(sb.append(line).append('\n'));
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		env.flush();
+
+		String[] lines = output.toString().split("\n");
+		assertEquals(16_000, lines.length);
+		for (String line : lines) {
+			assertTrue(line, line.matches("dretva \\d ispisuje redak"));
+		}
+	}
+
+	private Path tree(String name, int files) throws Exception {
+		Path dir = folder.newFolder(name).toPath();
+		for (int i = 0; i < files; i++) {
+			Files.createFile(dir.resolve("datoteka" + i));
+		}
+		return dir;
+	}
+
+	private static Environment environment(StringWriter output) {
+		return new MyShellEnvironment(new BufferedReader(new StringReader("")), new BufferedWriter(output));
+	}
+}
@@ -0,0 +1,125 @@
+package hr.fer.zemris.java.hw06.shell;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ShellPipelineTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test(timeout = 10_000)
+	public void cjevovodFiltriraIspis() throws Exception {
+		Path dir = folder.newFolder("stablo").toPath();
+		for (int i = 0; i < 3000; i++) {
+			Files.createFile(dir.resolve("datoteka" + i + (i % 1000 == 7 ? ".txt" : ".bin")));
+		}
+		StringWriter output = new StringWriter();
+
+		ShellStatus status = MyShell.execute(environment(output), "tree " + dir + " | grep txt$ | grep 10");
+
+		assertEquals(ShellStatus.CONTINUE, status);
+		assertEquals("    datoteka1007.txt\n", output.toString());
+	}
+
+	@Test(timeout = 10_000)
+	public void preusmjeravanjeUDatoteku() throws Exception {
+		Path file = Files.write(folder.getRoot().toPath().resolve("podaci.bin"), randomBytes(100_000));
+		Path dump = folder.getRoot().toPath().resolve("ispis.txt");
+		StringWriter expected = new StringWriter();
+		MyShell.execute(environment(expected), "hexdump " + file);
+		StringWriter output = new StringWriter();
+
+		assertEquals(ShellStatus.CONTINUE, MyShell.execute(environment(output), "hexdump " + file + " > " + dump));
+		assertEquals(ShellStatus.CONTINUE, MyShell.execute(environment(output), "hexdump " + file + " >> \"" + dump + "\""));
+
+		assertEquals("", output.toString());
+		assertEquals(expected.toString() + expected.toString(), new String(Files.readAllBytes(dump), StandardCharsets.UTF_8));
+	}
+
+	@Test(timeout = 10_000)
+	public void ranijiZavrsetakNeBlokira() throws Exception {
+		Path file = Files.write(folder.getRoot().toPath().resolve("podaci.bin"), randomBytes(1 << 20));
+		StringWriter output = new StringWriter();
+
+		ShellStatus status = MyShell.execute(environment(output), "hexdump " + file + " | symbol PROMPT");
+
+		assertEquals(ShellStatus.CONTINUE, status);
+		assertEquals("Simbol za PROMPT je '>'\n", output.toString());
+	}
+
+	@Test
+	public void izlazUCjevovoduNeZatvaraLjusku() {
+		assertEquals(ShellStatus.CONTINUE, MyShell.execute(environment(new StringWriter()), "charsets | exit"));
+	}
+
+	@Test
+	public void neispravanCjevovod() throws Exception {
+		Path target = folder.getRoot().toPath().resolve("ne-smije-postojati.txt");
+		for (String line : new String[] { "charsets |", "| charsets", "charsets || help", "charsets >",
+				"charsets > a b", "charsets > " + target + " | help", "charsets | nepostojeca > " + target }) {
+			StringWriter output = new StringWriter();
+
+			assertEquals(line, ShellStatus.FAILURE, MyShell.execute(environment(output), line));
+			assertFalse(line, output.toString().isEmpty());
+		}
+		assertFalse(Files.exists(target));
+	}
+
+	@Test
+	public void simboliUNavodnicimaNisuOperatori() {
+		assertNull(ShellPipeline.parse("symbol PROMPT \">\""));
+		assertNull(ShellPipeline.parse("symbol MULTILINE \"|\""));
+		assertNull(ShellPipeline.parse("cat \"a \\\" | b\""));
+		assertNotNull(ShellPipeline.parse("cat \"a | b\" | grep a"));
+	}
+
+	@Test
+	public void simboliKaoVrijednostNaredbeSymbol() {
+		Environment env = environment(new StringWriter());
+		env.setMultilineSymbol('#');
+		env.setPromptSymbol('#');
+
+		assertEquals(ShellStatus.CONTINUE, MyShell.execute(env, "symbol MULTILINE |"));
+		assertEquals(ShellStatus.CONTINUE, MyShell.execute(env, "symbol PROMPT >"));
+
+		assertEquals(Character.valueOf('|'), env.getMultilineSymbol());
+		assertEquals(Character.valueOf('>'), env.getPromptSymbol());
+	}
+
+	@Test
+	public void operatoriSuSamoZasebneRijeci() {
+		assertNull(ShellPipeline.parse("symbol MULTILINE |"));
+		assertNull(ShellPipeline.parse("symbol PROMPT >"));
+		assertNull(ShellPipeline.parse("cat a|b"));
+		assertNull(ShellPipeline.parse("cat a>b"));
+		assertNull(ShellPipeline.parse("cat \"nezatvoreno | grep a"));
+		assertNotNull(ShellPipeline.parse("charsets | symbol PROMPT"));
+		assertNotNull(ShellPipeline.parse("charsets\t|\tgrep UTF"));
+		assertNotNull(ShellPipeline.parse("cat \"a b\"| grep a"));
+		assertNotNull(ShellPipeline.parse("symbol PROMPT > ispis.txt"));
+		assertNotNull(ShellPipeline.parse("symbol PROMPT | grep PROMPT"));
+	}
+
+	private static Environment environment(StringWriter output) {
+		return new MyShellEnvironment(new BufferedReader(new StringReader("")), new BufferedWriter(output));
+	}
+
+	private static byte[] randomBytes(int size) {
+		byte[] data = new byte[size];
+		new Random(size).nextBytes(data);
+		return data;
+	}
+}
@@ -0,0 +1,131 @@
+package hr.fer.zemris.java.hw06.shell;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ShellScriptTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void nastavakNakonPogreske() throws Exception {
+		Path dir = folder.getRoot().toPath();
+		String script = "mkdir " + dir.resolve("a") + "\n\n" + "nepostojeca\n" + "mkdir \\\n" + dir.resolve("b") + "\n";
+
+		ShellScript shellScript = script(script, false, new StringWriter());
+
+		assertEquals(ShellScript.FAILURE_EXIT_CODE, shellScript.run());
+		assertEquals(3, shellScript.getExecuted());
+		assertEquals(1, shellScript.getFailed());
+		assertTrue(Files.isDirectory(dir.resolve("a")));
+		assertTrue(Files.isDirectory(dir.resolve("b")));
+	}
+
+	@Test
+	public void prekidNakonPrvePogreske() throws Exception {
+		Path dir = folder.getRoot().toPath();
+		StringWriter output = new StringWriter();
+		String script = "cat " + dir.resolve("ne-postoji.txt") + "\nmkdir " + dir.resolve("a") + "\n";
+
+		ShellScript shellScript = script(script, true, output);
+
+		assertEquals(ShellScript.FAILURE_EXIT_CODE, shellScript.run());
+		assertEquals(1, shellScript.getExecuted());
+		assertFalse(Files.exists(dir.resolve("a")));
+		assertTrue(output.toString().contains("retku 1"));
+	}
+
+	@Test
+	public void izlazPrekidaSkriptu() throws Exception {
+		ShellScript shellScript = script("symbol PROMPT #\nexit\nnepostojeca\n", true, new StringWriter());
+
+		assertEquals(ShellScript.SUCCESS_EXIT_CODE, shellScript.run());
+		assertEquals(2, shellScript.getExecuted());
+	}
+
+	@Test
+	public void neispravniArgumentiNisuIznimka() throws Exception {
+		ShellScript shellScript = script("cat \"nezatvoreno\nsymbol\n", false, new StringWriter());
+
+		assertEquals(ShellScript.FAILURE_EXIT_CODE, shellScript.run());
+		assertEquals(2, shellScript.getFailed());
+	}
+
+	@Test
+	public void ispisTrajanja() throws Exception {
+		ShellScript shellScript = script("charsets\ncharsets\nhelp exit\n", false, new StringWriter());
+		shellScript.run();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		shellScript.printTimings(new PrintStream(out, true, "UTF-8"));
+		String report = new String(out.toByteArray(), "UTF-8");
+
+		assertTrue(report.contains("Izvedeno naredbi: 3, neuspjelih: 0"));
+		assertTrue(report.matches("(?s).*\\ncharsets\\s+2\\s+0 .*"));
+		assertTrue(report.matches("(?s).*\\nhelp\\s+1\\s+0 .*"));
+	}
+
+	@Test(timeout = 10_000)
+	public void odgovorNaPrebrisivanjeNeCitaSkriptu() throws Exception {
+		Path dir = folder.getRoot().toPath();
+		Path source = Files.write(dir.resolve("a.txt"), "novo".getBytes());
+		Path target = Files.write(dir.resolve("b.txt"), "staro".getBytes());
+		String script = "copy " + source + " " + target + "\nmkdir " + dir.resolve("novi") + "\nls " + dir + "\n";
+		StringWriter output = new StringWriter();
+
+		ShellScript shellScript = script(script, false, output);
+
+		assertEquals(ShellScript.FAILURE_EXIT_CODE, shellScript.run());
+		assertEquals(3, shellScript.getExecuted());
+		assertEquals(1, shellScript.getFailed());
+		assertTrue(Files.isDirectory(dir.resolve("novi")));
+		assertArrayEquals("staro".getBytes(), Files.readAllBytes(target));
+		assertTrue(output.toString().contains("Odgovor nije predan"));
+	}
+
+	@Test(timeout = 10_000)
+	public void odgovorNaPrebrisivanjeIzUlazaOkruzenja() throws Exception {
+		Path dir = folder.getRoot().toPath();
+		Path source = Files.write(dir.resolve("a.txt"), "novo".getBytes());
+		Path target = Files.write(dir.resolve("b.txt"), "staro".getBytes());
+		BufferedReader reader = new BufferedReader(new StringReader("copy " + source + " " + target + "\n"));
+		Environment env = new MyShellEnvironment(new BufferedReader(new StringReader("možda\n\nda\n")),
+				new BufferedWriter(new StringWriter()));
+
+		assertEquals(ShellScript.SUCCESS_EXIT_CODE, new ShellScript(env, reader, true).run());
+		assertArrayEquals("novo".getBytes(), Files.readAllBytes(target));
+	}
+
+	@Test(timeout = 10_000)
+	public void grepBezCjevovodaNeCitaSkriptu() throws Exception {
+		Path dir = folder.getRoot().toPath();
+		StringWriter output = new StringWriter();
+
+		ShellScript shellScript = script("grep mkdir\nmkdir " + dir.resolve("a") + "\n", true, output);
+
+		assertEquals(ShellScript.SUCCESS_EXIT_CODE, shellScript.run());
+		assertEquals(2, shellScript.getExecuted());
+		assertTrue(Files.isDirectory(dir.resolve("a")));
+		assertFalse(output.toString().contains("mkdir "));
+	}
+
+	private static ShellScript script(String script, boolean failFast, StringWriter output) {
+		BufferedReader reader = new BufferedReader(new StringReader(script));
+		Environment env = new MyShellEnvironment(new BufferedReader(new StringReader("")),
+				new BufferedWriter(output));
+		return new ShellScript(env, reader, failFast);
+	}
+}